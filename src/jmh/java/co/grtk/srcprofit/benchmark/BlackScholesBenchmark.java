@@ -0,0 +1,69 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.mapper.BlackScholes;
+import co.grtk.srcprofit.mapper.ImpliedVolatility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greeks and implied volatilities of a 2000 contract snapshot refresh solved as one chain, the per
+ * contract cost has to stay far below the Alpaca round trip of the refresh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlackScholesBenchmark {
+
+    private static final int CONTRACTS = 2000;
+
+    private final BlackScholes.Chain chain = new BlackScholes.Chain(CONTRACTS);
+    private final ImpliedVolatility solver = new ImpliedVolatility(CONTRACTS);
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(20251201L);
+        for (int i = 0; i < CONTRACTS; i++) {
+            double spot = 20 + random.nextDouble() * 400;
+            chain.set(i, random.nextBoolean(), spot, spot * (0.7 + random.nextDouble() * 0.6),
+                    (1 + random.nextInt(120)) / 365.0, 0.15 + random.nextDouble() * 0.6);
+        }
+        BlackScholes.price(chain, 0.04);
+        solver.reset(CONTRACTS);
+        for (int i = 0; i < CONTRACTS; i++) {
+            BlackScholes.Chain contract = new BlackScholes.Chain(1);
+            double spot = 20 + random.nextDouble() * 400;
+            boolean call = random.nextBoolean();
+            double strike = spot * (0.8 + random.nextDouble() * 0.4);
+            double years = (1 + random.nextInt(120)) / 365.0;
+            contract.set(0, call, spot, strike, years, 0.15 + random.nextDouble() * 0.6);
+            BlackScholes.price(contract, 0.04);
+            solver.set(i, call, spot, strike, years, contract.price[0]);
+        }
+    }
+
+    @Benchmark
+    public BlackScholes.Chain priceChain() {
+        BlackScholes.price(chain, 0.04);
+        return chain;
+    }
+
+    @Benchmark
+    public ImpliedVolatility solveChain() {
+        solver.solve(0.04);
+        return solver;
+    }
+}
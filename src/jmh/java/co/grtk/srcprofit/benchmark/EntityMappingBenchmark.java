@@ -0,0 +1,97 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.config.ObjectMapperConfig;
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.AssetClass;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OptionEntity;
+import co.grtk.srcprofit.entity.OptionStatus;
+import co.grtk.srcprofit.entity.OptionType;
+import co.grtk.srcprofit.mapper.PositionMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page cost of OptionEntity to PositionDto conversion on the trade history pages:
+ * Jackson convertValue (token buffer per row) against the hand-written PositionMapper.
+ *
+ * mvn -Pbenchmarks test-compile exec:exec -Djmh.args="EntityMappingBenchmark -prof gc"
+ * gc.alloc.rate.norm is the allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMappingBenchmark {
+
+    @Param({"100", "5000"})
+    int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().getObjectMapper();
+    private List<OptionEntity> entities;
+
+    @Setup
+    public void setUp() {
+        InstrumentEntity instrument = new InstrumentEntity();
+        instrument.setTicker("AAPL");
+        LocalDate tradeDate = LocalDate.of(2025, 1, 2);
+        entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            OptionEntity entity = new OptionEntity();
+            entity.setId((long) i);
+            entity.setInstrument(instrument);
+            entity.setAccount("U1234567");
+            entity.setConid(100_000L + i);
+            entity.setCode("AAPL  250221P00180000");
+            entity.setTicker("AAPL");
+            entity.setTradeDate(tradeDate.plusDays(i % 250));
+            entity.setExpirationDate(tradeDate.plusDays(i % 250 + 45));
+            entity.setQuantity(1 + i % 5);
+            entity.setFee(1.05);
+            entity.setAnnualizedRoiPercent(20 + i % 30);
+            entity.setProbability(70 + i % 25);
+            entity.setDaysBetween(46);
+            entity.setDaysLeft(i % 46);
+            entity.setAssetClass(AssetClass.OPT);
+            entity.setType(i % 3 == 0 ? OptionType.CALL : OptionType.PUT);
+            entity.setStatus(i % 4 == 0 ? OptionStatus.OPEN : OptionStatus.CLOSED);
+            entity.setTradePrice(2.35);
+            entity.setRealizedProfitOrLoss(i % 7 == 0 ? -40.0 : 120.0);
+            entity.setPositionValue(180.0);
+            entity.setMarketValue(182.4);
+            entity.setMarketPrice(1.1);
+            entities.add(entity);
+        }
+    }
+
+    @Benchmark
+    public List<PositionDto> objectMapperConvertValue() {
+        return entities.stream()
+                .map(entity -> objectMapper.convertValue(entity, PositionDto.class))
+                .toList();
+    }
+
+    @Benchmark
+    public List<PositionDto> positionMapper() {
+        return entities.stream()
+                .map(PositionMapper::toPositionDto)
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.mapper.MonteCarloRisk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio risk simulation of 200 short options on 50 underlyings over 12 weekly expirations,
+ * the target is 100k paths in under a second on 8 cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloRiskBenchmark {
+
+    private static final int UNDERLYINGS = 50;
+    private static final int CONTRACTS = 200;
+
+    @Param({"100000"})
+    public int paths;
+
+    @Param({"1", "8"})
+    public int parallelism;
+
+    private final MonteCarloRisk.Portfolio portfolio = new MonteCarloRisk.Portfolio(UNDERLYINGS, CONTRACTS);
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(20251201L);
+        double[] spot = new double[UNDERLYINGS];
+        for (int u = 0; u < UNDERLYINGS; u++) {
+            spot[u] = 20 + random.nextDouble() * 400;
+            portfolio.setUnderlying(u, spot[u], 0.15 + random.nextDouble() * 0.5);
+        }
+        for (int i = 0; i < CONTRACTS; i++) {
+            int u = random.nextInt(UNDERLYINGS);
+            boolean call = random.nextInt(4) == 0;
+            double strike = spot[u] * (call ? 1.05 : 0.95);
+            portfolio.setContract(i, u, call, strike, -100.0 * (1 + random.nextInt(3)),
+                    spot[u] * 0.01, 7 * (1 + random.nextInt(12)) / 365.0);
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MonteCarloRisk.Result simulate() {
+        return MonteCarloRisk.simulate(portfolio, paths, 0.5, 0.0, 42L, pool);
+    }
+}
@@ -0,0 +1,69 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.mapper.NormalCdf;
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probability of 1000 positions: a commons-math NormalDistribution per position (the former
+ * PositionMapper.probabilityMarketExceedsTradeValue) against the NormalCdf fast path and its batch form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NormalCdfBenchmark {
+
+    private static final int POSITIONS = 1000;
+
+    private final double[] tradeValues = new double[POSITIONS];
+    private final double[] means = new double[POSITIONS];
+    private final double[] stdDevs = new double[POSITIONS];
+    private final double[] result = new double[POSITIONS];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(20251201L);
+        for (int i = 0; i < POSITIONS; i++) {
+            means[i] = 20 + random.nextDouble() * 400;
+            tradeValues[i] = means[i] * (0.8 + random.nextDouble() * 0.3);
+            stdDevs[i] = means[i] * 0.05 * Math.sqrt(1 + random.nextInt(60));
+        }
+    }
+
+    @Benchmark
+    public double commonsMath() {
+        double sum = 0;
+        for (int i = 0; i < POSITIONS; i++)
+            sum += new NormalDistribution(means[i], stdDevs[i]).cumulativeProbability(tradeValues[i]);
+        return sum;
+    }
+
+    @Benchmark
+    public double normalCdf() {
+        double sum = 0;
+        for (int i = 0; i < POSITIONS; i++)
+            sum += NormalCdf.cdf(tradeValues[i], means[i], stdDevs[i]);
+        return sum;
+    }
+
+    @Benchmark
+    public double[] normalCdfBatch() {
+        NormalCdf.cdf(tradeValues, means, stdDevs, result);
+        return result;
+    }
+}
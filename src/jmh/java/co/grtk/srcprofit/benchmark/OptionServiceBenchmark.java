@@ -0,0 +1,60 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.service.OptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio aggregation of OptionService used by the position form and the open positions page.
+ * Both methods are pure over the given DTOs, the service runs without its repositories.
+ *
+ * Throughput gives portfolios per second, SampleTime the latency percentiles (p0.99),
+ * the gc profiler of the benchmarks profile the allocation rate (gc.alloc.rate.norm per portfolio).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptionServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int positions;
+
+    private OptionService optionService;
+    private List<PositionDto> openPositions;
+    private List<PositionDto> closedPositions;
+
+    @Setup
+    public void setUp() {
+        optionService = new OptionService(null, null, null, null, null);
+        openPositions = SyntheticPortfolio.openPositions(positions);
+        closedPositions = SyntheticPortfolio.closedPositions(positions);
+    }
+
+    @Benchmark
+    public PositionDto calculatePosition() {
+        PositionDto positionDto = new PositionDto();
+        optionService.calculatePosition(positionDto, openPositions, closedPositions);
+        return positionDto;
+    }
+
+    @Benchmark
+    public List<PositionDto> getWeeklySummaryOpenOptionDtos() {
+        return optionService.getWeeklySummaryOpenOptionDtos(openPositions);
+    }
+}
@@ -0,0 +1,104 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
+import co.grtk.srcprofit.mapper.PositionCalculationHelper;
+import co.grtk.srcprofit.mapper.PositionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-position math of PositionCalculationHelper and PositionMapper over a whole portfolio.
+ *
+ * Throughput gives portfolios per second, SampleTime the latency percentiles (p0.99),
+ * the gc profiler of the benchmarks profile the allocation rate (gc.alloc.rate.norm per portfolio).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionCalculationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int positions;
+
+    private List<PositionDto> portfolio;
+    private BigDecimal[] tradeValues;
+    private int[] daysLeft;
+    private PortfolioFrame frame;
+
+    @Setup
+    public void setUp() {
+        portfolio = SyntheticPortfolio.openPositions(positions);
+        tradeValues = portfolio.stream()
+                .map(dto -> BigDecimal.valueOf(dto.getPositionValue()))
+                .toArray(BigDecimal[]::new);
+        daysLeft = portfolio.stream()
+                .mapToInt(dto -> PositionCalculationHelper.calculateDaysLeft(dto.getExpirationDate()))
+                .toArray();
+        portfolio.forEach(PositionMapper::calculateAndSetAnnualizedRoi);
+        frame = PortfolioFrame.of(portfolio);
+    }
+
+    @Benchmark
+    public void helperMetrics(Blackhole blackhole) {
+        for (PositionDto dto : portfolio) {
+            int daysBetween = PositionCalculationHelper.calculateDaysBetween(dto.getTradeDate(), dto.getExpirationDate());
+            blackhole.consume(PositionCalculationHelper.calculateDaysLeft(dto.getExpirationDate()));
+            blackhole.consume(PositionCalculationHelper.calculateBreakEven(dto.getPositionValue(), dto.getTradePrice(), dto.getType()));
+            blackhole.consume(PositionCalculationHelper.calculateAnnualizedRoiPercent(
+                    dto.getPositionValue(), dto.getTradePrice(), dto.getFee(), daysBetween));
+            blackhole.consume(PositionCalculationHelper.calculateProbability(
+                    dto.getPositionValue(), dto.getMarketValue(), daysBetween));
+            blackhole.consume(PositionCalculationHelper.calculateUnrealizedPnl(
+                    dto.getTradePrice(), dto.getMarketPrice(), dto.getQuantity()));
+        }
+    }
+
+    /**
+     * Recomputes the same fields on every call, the DTOs end up in the same state each time.
+     */
+    @Benchmark
+    public List<PositionDto> calculateAndSetAnnualizedRoi() {
+        for (PositionDto dto : portfolio)
+            PositionMapper.calculateAndSetAnnualizedRoi(dto);
+        return portfolio;
+    }
+
+    @Benchmark
+    public int probabilityMarketExceedsTradeValue() {
+        int sum = 0;
+        for (int i = 0; i < tradeValues.length; i++) {
+            PositionDto dto = portfolio.get(i);
+            sum += PositionMapper.probabilityMarketExceedsTradeValue(
+                    tradeValues[i], dto.getMarketValue(), dto.getMarketValue() * 0.02, daysLeft[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public PortfolioFrame portfolioFrameOf() {
+        return PortfolioFrame.of(portfolio);
+    }
+
+    @Benchmark
+    public PortfolioFrame.Totals portfolioFrameAggregate() {
+        return frame.aggregate();
+    }
+}
@@ -0,0 +1,74 @@
+package co.grtk.srcprofit.benchmark;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.OptionStatus;
+import co.grtk.srcprofit.entity.OptionType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible option portfolios for the benchmarks, same seed gives the same positions.
+ *
+ * Open positions are short puts and calls on 50 tickers, traded within the last 60 days and
+ * expiring on one of the next 12 Fridays, priced like the IBKR import fills them in.
+ */
+final class SyntheticPortfolio {
+
+    private static final long SEED = 20251201L;
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate NEXT_FRIDAY = TODAY.plusDays(Math.floorMod(5 - TODAY.getDayOfWeek().getValue(), 7));
+
+    private SyntheticPortfolio() {
+    }
+
+    static List<PositionDto> openPositions(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<PositionDto> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PositionDto dto = position(random, i);
+            dto.setStatus(OptionStatus.OPEN);
+            dto.setTradeDate(TODAY.minusDays(random.nextInt(60)));
+            dto.setExpirationDate(NEXT_FRIDAY.plusWeeks(random.nextInt(12)));
+            double tradePrice = dto.getTradePrice();
+            double marketPrice = round2(tradePrice * (0.2 + random.nextDouble() * 1.3));
+            dto.setMarketPrice(marketPrice);
+            dto.setUnRealizedProfitOrLoss(round2((tradePrice - marketPrice) * Math.abs(dto.getQuantity())));
+            positions.add(dto);
+        }
+        return positions;
+    }
+
+    static List<PositionDto> closedPositions(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        List<PositionDto> positions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PositionDto dto = position(random, i);
+            dto.setStatus(OptionStatus.CLOSED);
+            dto.setTradeDate(TODAY.minusDays(60 + random.nextInt(700)));
+            dto.setExpirationDate(dto.getTradeDate().plusDays(7 + random.nextInt(45)));
+            positions.add(dto);
+        }
+        return positions;
+    }
+
+    private static PositionDto position(SplittableRandom random, int i) {
+        PositionDto dto = new PositionDto();
+        dto.setId((long) i);
+        dto.setTicker("T" + (i % 50));
+        dto.setType(random.nextInt(4) == 0 ? OptionType.CALL : OptionType.PUT);
+        dto.setQuantity(-(1 + random.nextInt(5)));
+        double strike = 20 + random.nextInt(400);
+        dto.setPositionValue(strike);
+        dto.setMarketValue(round2(strike * (0.85 + random.nextDouble() * 0.3)));
+        dto.setTradePrice(round2(strike * (0.005 + random.nextDouble() * 0.02)));
+        dto.setFee(1.05);
+        return dto;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
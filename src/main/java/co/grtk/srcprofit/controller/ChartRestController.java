@@ -0,0 +1,64 @@
+package co.grtk.srcprofit.controller;
+
+import co.grtk.srcprofit.dto.ChartSeriesDto;
+import co.grtk.srcprofit.mapper.Interval;
+import co.grtk.srcprofit.service.ChartSeriesService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * REST controller for the dashboard chart series.
+ *
+ * Series are returned as typed arrays (epoch days and cents), as JSON or in a little-endian
+ * binary form (see ChartSeriesService.toBinary). Responses carry a strong ETag derived from
+ * the trade and NAV import versions, clients revalidate with If-None-Match and get
+ * 304 Not Modified until the next import.
+ */
+@RestController
+@RequestMapping("/api/charts")
+public class ChartRestController {
+
+    private final ChartSeriesService chartSeriesService;
+
+    public ChartRestController(ChartSeriesService chartSeriesService) {
+        this.chartSeriesService = chartSeriesService;
+    }
+
+    /**
+     * @param interval week, month, year or all
+     * @return chart series as JSON, 304 if the client's copy is current
+     */
+    @GetMapping(value = "/{interval}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ChartSeriesDto> getSeries(@PathVariable String interval, WebRequest request) {
+        Interval chartInterval = Interval.fromString(interval);
+        String eTag = chartSeriesService.getVersion(chartInterval) + "-json";
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(chartSeriesService.getSeries(chartInterval));
+    }
+
+    /**
+     * @param interval week, month, year or all
+     * @return chart series in binary form, 304 if the client's copy is current
+     */
+    @GetMapping(value = "/{interval}/binary", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getBinarySeries(@PathVariable String interval, WebRequest request) {
+        Interval chartInterval = Interval.fromString(interval);
+        String eTag = chartSeriesService.getVersion(chartInterval) + "-bin";
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(ChartSeriesService.toBinary(chartSeriesService.getSeries(chartInterval)));
+    }
+}
@@ -1,14 +1,14 @@
 package co.grtk.srcprofit.controller;
 
-import co.grtk.srcprofit.dto.ChartDataDto;
+import co.grtk.srcprofit.dto.ChartSeriesDto;
 import co.grtk.srcprofit.dto.DashboardDto;
 import co.grtk.srcprofit.dto.InstrumentDto;
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.mapper.Interval;
+import co.grtk.srcprofit.service.ChartSeriesService;
 import co.grtk.srcprofit.service.InstrumentService;
 import co.grtk.srcprofit.service.NetAssetValueService;
-import co.grtk.srcprofit.service.OpenPositionService;
-import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.PortfolioAggregationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
@@ -29,25 +29,19 @@ public class HomeController {
     private static final String IBKR_LOGIN_PAGE_PATH = "ibkr-login";
     private static final String MODEL_ATTRIBUTE_POSITION_DTO = "positionDto";
     private static final String MODEL_ATTRIBUTE_DASHBOARD_DTO = "dashboardDto";
-    private static final String MODEL_ATTRIBUTE_DAILY_PREMIUM_DATES = "datesCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_NAV_DATES = "navDatesCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_PREMIUM_VALUES = "premiumsCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_TOTAL_VALUES = "totalsCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_CASH_VALUES = "cashCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_STOCK_VALUES = "stockCsv";
-    private static final String MODEL_ATTRIBUTE_DAILY_OPTION_VALUES = "optionsCsv";
+    private static final String MODEL_ATTRIBUTE_CHART_INTERVAL = "interval";
 
 
-    private final OptionService optionService;
+    private final PortfolioAggregationService portfolioAggregationService;
     private final InstrumentService instrumentService;
     private final NetAssetValueService netAssetValueService;
-    private final OpenPositionService openPositionService;
+    private final ChartSeriesService chartSeriesService;
 
-    public HomeController(OptionService optionService, InstrumentService instrumentService, NetAssetValueService netAssetValueService, OpenPositionService openPositionService) {
-        this.optionService = optionService;
+    public HomeController(PortfolioAggregationService portfolioAggregationService, InstrumentService instrumentService, NetAssetValueService netAssetValueService, ChartSeriesService chartSeriesService) {
+        this.portfolioAggregationService = portfolioAggregationService;
         this.instrumentService = instrumentService;
         this.netAssetValueService = netAssetValueService;
-        this.openPositionService = openPositionService;
+        this.chartSeriesService = chartSeriesService;
     }
 
     @GetMapping("/")
@@ -69,17 +63,10 @@ public class HomeController {
     public String positions(@PathVariable(required = false) String interval, Model model) {
         log.info("positions interval {}", interval);
 
-        ChartDataDto chartDataDto =  new ChartDataDto(Interval.fromString(interval));
-        optionService.getDailyPremium(chartDataDto);
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_PREMIUM_DATES, chartDataDto.getDatesCsv());
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_PREMIUM_VALUES, chartDataDto.getDailyPremiumCsv());
-
-        netAssetValueService.getDailyNav(chartDataDto);
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_NAV_DATES, chartDataDto.getNavDatesCsv());
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_TOTAL_VALUES, chartDataDto.getDailyTotalCsv());
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_CASH_VALUES, chartDataDto.getDailyCashCsv());
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_STOCK_VALUES, chartDataDto.getDailyStockCsv());
-        model.addAttribute(MODEL_ATTRIBUTE_DAILY_OPTION_VALUES, chartDataDto.getDailyOptionsCsv());
+        // Chart series are fetched by the page from /api/charts, only the latest values are rendered here
+        Interval chartInterval = Interval.fromString(interval);
+        ChartSeriesDto chartSeries = chartSeriesService.getSeries(chartInterval);
+        model.addAttribute(MODEL_ATTRIBUTE_CHART_INTERVAL, chartInterval.name().toLowerCase());
 
         List<InstrumentDto> instruments = instrumentService.findByTickers( Arrays.asList("QQQ", "GDX", "IBIT"));
         DashboardDto dashboardDto = new DashboardDto();
@@ -93,17 +80,15 @@ public class HomeController {
         }
         model.addAttribute(MODEL_ATTRIBUTE_DASHBOARD_DTO, dashboardDto);
 
-        // Get open positions and calculate aggregated metrics
+        // Open positions and their aggregated metrics, kept current by the market data refresh and imports
         // ISSUE-051: Use OpenPositionService for authoritative IBKR snapshot data instead of OptionService trading history
-        List<PositionDto> openOptions = openPositionService.getAllOpenOptionDtos(null);
-
-        // Calculate position summary (buy/sell obligations, premiums)
-        PositionDto positionDto = new PositionDto();
+        List<PositionDto> openOptions = portfolioAggregationService.getOpenOptions();
 
-        optionService.calculatePosition(positionDto, openOptions, List.of());
+        // Position summary (buy/sell obligations, premiums)
+        PositionDto positionDto = portfolioAggregationService.getPositionSummary();
 
-        // Get weekly positions (expiring within 7 days)
-        List<PositionDto> weeklyOpenPositions = optionService.getWeeklySummaryOpenOptionDtos(openOptions);
+        // Weekly positions (one summary per expiration date)
+        List<PositionDto> weeklyOpenPositions = portfolioAggregationService.getWeeklySummary();
 
         // Load latest NAV for cash and stock values
         var latestNav = netAssetValueService.loadLatestNetAssetValue();
@@ -115,9 +100,9 @@ public class HomeController {
         }
 
         // Set latest daily NAV values for dashboard display
-        positionDto.setCollectedPremium(chartDataDto.getLastDailyPremium());
-        positionDto.setTotal(chartDataDto.getLastDailyTotal());
-        positionDto.setOptions(chartDataDto.getLastDailyOptions());
+        positionDto.setCollectedPremium(chartSeries.lastPremium());
+        positionDto.setTotal(chartSeries.lastTotal());
+        positionDto.setOptions(chartSeries.lastOptions());
 
         model.addAttribute(MODEL_ATTRIBUTE_POSITION_DTO, positionDto);
         model.addAttribute("weeklyOpenPositions", weeklyOpenPositions);
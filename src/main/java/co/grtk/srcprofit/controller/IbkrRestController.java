@@ -3,6 +3,7 @@ package co.grtk.srcprofit.controller;
 import co.grtk.srcprofit.dto.IbkrTradeExecutionDto;
 import co.grtk.srcprofit.service.FlexReportsService;
 import co.grtk.srcprofit.service.IbkrService;
+import co.grtk.srcprofit.service.OptionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
@@ -17,11 +18,14 @@ public class IbkrRestController {
 
     private final IbkrService ibkrService;
     private final FlexReportsService flexReportsService;
+    private final OptionService optionService;
 
     public IbkrRestController(IbkrService ibkrService,
-                              FlexReportsService flexReportsService) {
+                              FlexReportsService flexReportsService,
+                              OptionService optionService) {
         this.ibkrService = ibkrService;
         this.flexReportsService = flexReportsService;
+        this.optionService = optionService;
     }
 
 
@@ -40,6 +44,11 @@ public class IbkrRestController {
         return flexReportsService.importFlexOpenPositions();
     }
 
+    @GetMapping(value = "/ibkrFlexTradesDataFixDryRun", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Long> ibkrFlexTradesDataFixDryRun() {
+        return optionService.dataFixDryRun();
+    }
+
     @GetMapping(value = "/ibkrLatestTrades", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<IbkrTradeExecutionDto> getLatestTrades() {
         List<IbkrTradeExecutionDto> ibkrTradeExecutionDtoList = ibkrService.getLatestTrades();
@@ -0,0 +1,35 @@
+package co.grtk.srcprofit.controller;
+
+import co.grtk.srcprofit.service.LiveUpdateHub;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for the Server-Sent Events of live quote and open position updates.
+ */
+@RestController
+@RequestMapping("/api/live-updates")
+public class LiveUpdateRestController {
+
+    private final LiveUpdateHub liveUpdateHub;
+
+    public LiveUpdateRestController(LiveUpdateHub liveUpdateHub) {
+        this.liveUpdateHub = liveUpdateHub;
+    }
+
+    /**
+     * Subscribe to the updates pushed after every market data refresh.
+     *
+     * @return event stream of "quotes" (moved instrument prices) and "positions" (open option positions
+     * whose underlying price, P&L or POP changed) events, see LiveUpdateDto
+     *
+     * Example: new EventSource('/api/live-updates')
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return liveUpdateHub.subscribe();
+    }
+}
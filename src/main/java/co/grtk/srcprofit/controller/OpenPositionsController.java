@@ -1,17 +1,13 @@
 package co.grtk.srcprofit.controller;
 
-import co.grtk.srcprofit.dto.OpenPositionViewDto;
-import co.grtk.srcprofit.dto.PositionDto;
-import co.grtk.srcprofit.dto.StockPositionViewDto;
+import co.grtk.srcprofit.dto.OpenPositionsPageDto;
 import co.grtk.srcprofit.service.NetAssetValueService;
-import co.grtk.srcprofit.service.OpenPositionService;
-import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.OpenPositionsReadModel;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.time.LocalDate;
-import java.util.List;
 
 /**
  * Controller for the Open Positions view page.
@@ -23,30 +19,27 @@ import java.util.List;
 @Controller
 public class OpenPositionsController {
 
-    private final OpenPositionService openPositionService;
+    private final OpenPositionsReadModel openPositionsReadModel;
     private final NetAssetValueService netAssetValueService;
-    private final OptionService optionService;
-    public OpenPositionsController(OpenPositionService openPositionService,
-                                   OptionService optionService,
+
+    public OpenPositionsController(OpenPositionsReadModel openPositionsReadModel,
                                    NetAssetValueService netAssetValueService) {
-        this.openPositionService = openPositionService;
+        this.openPositionsReadModel = openPositionsReadModel;
         this.netAssetValueService = netAssetValueService;
-        this.optionService = optionService;
     }
 
     /**
      * Display the Open Positions page with all open option positions.
+     * Positions, summary and weekly positions come from the precomputed read model.
      *
      * @param model the model to add view attributes
      * @return the openpositions_jte view template name
      */
     @GetMapping("/openpositions")
     public String openPositions(Model model) {
-        List<OpenPositionViewDto> openPositions = openPositionService.getAllOpenPositionViewDtos();
-        model.addAttribute("openPositions", openPositions);
-
-        List<StockPositionViewDto> stockPositions = openPositionService.getAllStockPositionViewDtos();
-        model.addAttribute("stockPositions", stockPositions);
+        OpenPositionsPageDto page = openPositionsReadModel.getPage();
+        model.addAttribute("openPositions", page.openPositions());
+        model.addAttribute("stockPositions", page.stockPositions());
 
         // Get report date from latest NAV (same pattern as HomeController)
         // Falls back to today's date if no NAV exists
@@ -57,17 +50,9 @@ public class OpenPositionsController {
         }
         model.addAttribute("reportDate", reportDate);
 
-        // Calculate position summary (buy/sell obligations, premiums)
-        PositionDto positionDto = new PositionDto();
-        List<PositionDto> openOptions = openPositionService.getAllOpenOptionDtos(null);
-        optionService.calculatePosition(positionDto, openOptions, List.of());
-
-        // Get weekly positions (expiring within 7 days)
-        List<PositionDto> weeklyOpenPositions = optionService.getWeeklySummaryOpenOptionDtos(openOptions);
-
-        model.addAttribute("positionDto", positionDto);
-        model.addAttribute("weeklyOpenPositions", weeklyOpenPositions);
-        model.addAttribute("openOptions", openOptions);
+        model.addAttribute("positionDto", page.positionDto());
+        model.addAttribute("weeklyOpenPositions", page.weeklyOpenPositions());
+        model.addAttribute("openOptions", page.openOptions());
 
         return "openpositions_jte";
     }
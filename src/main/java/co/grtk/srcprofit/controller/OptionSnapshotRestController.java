@@ -1,9 +1,12 @@
 package co.grtk.srcprofit.controller;
 
+import co.grtk.srcprofit.dto.OptionSnapshotSeriesDto;
 import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import co.grtk.srcprofit.service.OptionSnapshotHistoryService;
 import co.grtk.srcprofit.service.OptionSnapshotService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,8 +15,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +30,7 @@ import java.util.Map;
  * Provides endpoints to:
  * - Trigger refresh of option snapshots
  * - Query snapshots by instrument ticker
+ * - Query the intraday history of a contract
  * - Clean up expired snapshots
  */
 @RestController
@@ -31,10 +38,15 @@ import java.util.Map;
 public class OptionSnapshotRestController {
     private static final Logger log = LoggerFactory.getLogger(OptionSnapshotRestController.class);
 
+    private static final int DEFAULT_HISTORY_DAYS = 7;
+
     private final OptionSnapshotService optionSnapshotService;
+    private final OptionSnapshotHistoryService optionSnapshotHistoryService;
 
-    public OptionSnapshotRestController(OptionSnapshotService optionSnapshotService) {
+    public OptionSnapshotRestController(OptionSnapshotService optionSnapshotService,
+                                        OptionSnapshotHistoryService optionSnapshotHistoryService) {
         this.optionSnapshotService = optionSnapshotService;
+        this.optionSnapshotHistoryService = optionSnapshotHistoryService;
     }
 
     /**
@@ -118,6 +130,35 @@ public class OptionSnapshotRestController {
         }
     }
 
+    /**
+     * Get the intraday history of one option contract.
+     *
+     * @param symbol OCC symbol (e.g., "AAPL230120C00150000")
+     * @param from   inclusive ISO-8601 start, defaults to 7 days before {@code to}
+     * @param to     exclusive ISO-8601 end, defaults to now
+     * @return hourly bars of rolled up days and raw points of the retention window
+     *
+     * Example: GET /api/option-snapshots/history/AAPL230120C00150000?from=2025-12-01T00:00:00Z
+     */
+    @GetMapping(value = "/history/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OptionSnapshotSeriesDto> getSnapshotHistory(
+            @PathVariable String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        OffsetDateTime end = to != null ? to : OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS);
+        try {
+            return ResponseEntity.ok(optionSnapshotHistoryService.getSeries(symbol, start, end));
+        } catch (IllegalArgumentException e) {
+            log.warn("OptionSnapshotRestController: GET /api/option-snapshots/history/{} - {}", symbol, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("OptionSnapshotRestController: GET /api/option-snapshots/history/{} - Error: {}",
+                    symbol, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Delete all expired option snapshots.
      *
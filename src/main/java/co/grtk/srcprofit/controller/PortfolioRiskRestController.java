@@ -0,0 +1,91 @@
+package co.grtk.srcprofit.controller;
+
+import co.grtk.srcprofit.dto.PortfolioRiskDto;
+import co.grtk.srcprofit.dto.ScenarioMatrixDto;
+import co.grtk.srcprofit.mapper.ScenarioMatrix;
+import co.grtk.srcprofit.service.PortfolioRiskService;
+import co.grtk.srcprofit.service.ScenarioRiskService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for the Monte Carlo risk and the scenario matrix of the open option positions.
+ */
+@RestController
+@RequestMapping("/api/portfolio-risk")
+public class PortfolioRiskRestController {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioRiskRestController.class);
+
+    private final PortfolioRiskService portfolioRiskService;
+    private final ScenarioRiskService scenarioRiskService;
+
+    public PortfolioRiskRestController(PortfolioRiskService portfolioRiskService,
+                                       ScenarioRiskService scenarioRiskService) {
+        this.portfolioRiskService = portfolioRiskService;
+        this.scenarioRiskService = scenarioRiskService;
+    }
+
+    /**
+     * Simulate the open option positions to expiration.
+     *
+     * @param paths         number of simulated paths, default 100,000, at most 1,000,000
+     * @param lossThreshold loss amount of probabilityOfLoss, default 0 (any loss)
+     * @param seed          random seed to reproduce a previous result, optional
+     * @return VaR and expected shortfall at 95% and 99%, probability of a loss above the threshold
+     *
+     * Example: GET /api/portfolio-risk?paths=100000&lossThreshold=5000
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PortfolioRiskDto> getPortfolioRisk(
+            @RequestParam(defaultValue = "" + PortfolioRiskService.DEFAULT_PATHS) int paths,
+            @RequestParam(defaultValue = "0") double lossThreshold,
+            @RequestParam(required = false) Long seed) {
+        try {
+            return ResponseEntity.ok(portfolioRiskService.simulate(paths, lossThreshold, seed));
+        } catch (IllegalArgumentException e) {
+            log.warn("PortfolioRiskRestController: GET /api/portfolio-risk - {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("PortfolioRiskRestController: GET /api/portfolio-risk - Error: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Scenario matrix of the open option positions over underlying moves × days forward.
+     *
+     * @param moves underlying moves in percent, default -30 to +30 in steps of 5
+     * @param days  days forward, default 0, 7, 14 and 30
+     * @return P&L, put and call obligations and margin per scenario
+     *
+     * Example: GET /api/portfolio-risk/scenarios?moves=-20,-10,0,10,20&days=0,7
+     */
+    @GetMapping(value = "/scenarios", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScenarioMatrixDto> getScenarioMatrix(
+            @RequestParam(required = false) List<Double> moves,
+            @RequestParam(required = false) List<Integer> days) {
+        try {
+            List<Double> relativeMoves = moves == null || moves.isEmpty()
+                    ? ScenarioRiskService.DEFAULT_MOVES
+                    : moves.stream().map(move -> move / 100).toList();
+            ScenarioMatrix.Grid grid = new ScenarioMatrix.Grid(relativeMoves,
+                    days == null || days.isEmpty() ? ScenarioRiskService.DEFAULT_DAYS : days);
+            return ResponseEntity.ok(scenarioRiskService.evaluate(grid));
+        } catch (IllegalArgumentException e) {
+            log.warn("PortfolioRiskRestController: GET /api/portfolio-risk/scenarios - {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("PortfolioRiskRestController: GET /api/portfolio-risk/scenarios - Error: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -9,10 +9,10 @@ import co.grtk.srcprofit.mapper.PositionMapper;
 import co.grtk.srcprofit.repository.InstrumentRepository;
 import co.grtk.srcprofit.service.AlpacaService;
 import co.grtk.srcprofit.service.InstrumentService;
-import co.grtk.srcprofit.service.OpenPositionService;
 import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.PortfolioAggregationService;
+import co.grtk.srcprofit.service.QuoteCacheService;
 import co.grtk.srcprofit.service.VirtualPositionService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
@@ -44,28 +44,28 @@ public class PositionController {
 
 
     private final OptionService optionService;
-    private final OpenPositionService openPositionService;
+    private final PortfolioAggregationService portfolioAggregationService;
     private final InstrumentService instrumentService;
     private final AlpacaService alpacaService;
+    private final QuoteCacheService quoteCacheService;
     private final InstrumentRepository instrumentRepository;
     private final VirtualPositionService virtualPositionService;
-    private final ObjectMapper objectMapper;
 
     public PositionController(
             OptionService optionService,
             InstrumentService instrumentService,
             AlpacaService alpacaService,
+            QuoteCacheService quoteCacheService,
             InstrumentRepository instrumentRepository,
             VirtualPositionService virtualPositionService,
-            ObjectMapper objectMapper,
-            OpenPositionService openPositionService) {
+            PortfolioAggregationService portfolioAggregationService) {
         this.optionService = optionService;
         this.instrumentService = instrumentService;
         this.alpacaService = alpacaService;
+        this.quoteCacheService = quoteCacheService;
         this.instrumentRepository = instrumentRepository;
         this.virtualPositionService = virtualPositionService;
-        this.objectMapper = objectMapper;
-        this.openPositionService = openPositionService;
+        this.portfolioAggregationService = portfolioAggregationService;
     }
 
     @GetMapping("/calculatePosition")
@@ -122,7 +122,7 @@ public class PositionController {
         List<PositionDto> optionHistory = optionService.getClosedOptionsByTicker(positionDto.getTicker());
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_HISTORY, optionHistory);
 
-        List<PositionDto> openOptions = openPositionService.getOpenOptionsByTickerDto(positionDto.getTicker());
+        List<PositionDto> openOptions = portfolioAggregationService.getOpenOptionsByTicker(positionDto.getTicker());
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_OPEN, openOptions);
         InstrumentDto instrumentDto = instrumentService.loadInstrumentByTicker(positionDto.getTicker());
         Optional.ofNullable(instrumentDto).ifPresent(instrumentDto1 ->
@@ -145,7 +145,7 @@ public class PositionController {
         List<PositionDto> optionHistory = optionService.getClosedOptionsByTicker(positionDto.getTicker());
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_HISTORY, optionHistory);
 
-        List<PositionDto> openOptions = openPositionService.getOpenOptionsByTickerDto(positionDto.getTicker());
+        List<PositionDto> openOptions = portfolioAggregationService.getOpenOptionsByTicker(positionDto.getTicker());
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_OPEN, openOptions);
 
         InstrumentDto instrumentDto = instrumentService.loadInstrumentByTicker(positionDto.getTicker());
@@ -158,7 +158,8 @@ public class PositionController {
     /**
      * Get market value for a position with cache-first asset metadata loading.
      *
-     * Phase 1: Fetch market data snapshot from Alpaca
+     * Phase 1: Get market data snapshot from the quote cache (fetched from Alpaca on miss,
+     *          the fetched quote is written through to its instrument)
      * Phase 2: Check if asset metadata is cached, if not fetch and save
      *
      * ISSUE-014 Implementation
@@ -166,17 +167,14 @@ public class PositionController {
     private void getMarketValue(PositionDto positionDto) {
         String ticker = positionDto.getTicker();
 
-        // Fetch market data snapshot (Phase 1)
-        Optional.ofNullable(alpacaService.getMarketDataSnapshot(ticker))
-                .map(data -> {
-                    instrumentService.saveAlpacaQuotes(data);
-
+        // Get market data snapshot (Phase 1)
+        Optional.ofNullable(quoteCacheService.getQuote(ticker))
+                .map(quote -> {
                     // Phase 2: Load asset metadata from cache or API
                     loadAssetMetadata(ticker);
 
-                    return data.getQuotes();
+                    return quote;
                 })
-                .map(quotes -> quotes.get(ticker))
                 .map(alpacaSingleAssetDto -> alpacaSingleAssetDto.getLatestTrade().getPrice())
                 .ifPresent(price -> positionDto.setMarketValue(round2Digits(price * 100)));
     }
@@ -257,9 +255,9 @@ public class PositionController {
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_HISTORY, optionHistory);
 
         // Get open positions including virtual if it exists (ISSUE-028)
-        List<PositionDto> openOptions = new ArrayList<>(openPositionService.getOpenOptionsByTickerDto(positionDto.getTicker()));
+        List<PositionDto> openOptions = new ArrayList<>(portfolioAggregationService.getOpenOptionsByTicker(positionDto.getTicker()));
         virtualPositionService.getVirtualPosition(positionDto.getTicker()).ifPresent(virtualEntity -> {
-            PositionDto virtualDto = objectMapper.convertValue(virtualEntity, PositionDto.class);
+            PositionDto virtualDto = PositionMapper.toPositionDto(virtualEntity);
             virtualDto.setEarningDate(virtualEntity.getInstrument().getEarningDate());
             virtualDto.setTicker(positionDto.getTicker());
             virtualDto.setVirtual(true);
@@ -279,7 +277,7 @@ public class PositionController {
         // Add virtual position to model for separate display in "What-If Scenario" section
         virtualPositionService.getVirtualPosition(positionDto.getTicker())
                 .ifPresent(virtualEntity -> {
-                    PositionDto virtualDto = objectMapper.convertValue(virtualEntity, PositionDto.class);
+                    PositionDto virtualDto = PositionMapper.toPositionDto(virtualEntity);
                     virtualDto.setTicker(positionDto.getTicker());
                     virtualDto.setVirtual(true);
                     model.addAttribute("virtualPosition", virtualDto);
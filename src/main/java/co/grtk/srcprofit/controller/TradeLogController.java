@@ -5,6 +5,7 @@ import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.service.NetAssetValueService;
 import co.grtk.srcprofit.service.OpenPositionService;
 import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.PortfolioAggregationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
@@ -32,20 +33,27 @@ public class TradeLogController {
     private final OptionService optionService;
     private final NetAssetValueService netAssetValueService;
     private final OpenPositionService openPositionService;
+    private final PortfolioAggregationService portfolioAggregationService;
 
     public TradeLogController(
             OptionService optionService,
             NetAssetValueService netAssetValueService,
-            OpenPositionService openPositionService) {
+            OpenPositionService openPositionService,
+            PortfolioAggregationService portfolioAggregationService) {
         this.optionService = optionService;
         this.netAssetValueService = netAssetValueService;
         this.openPositionService = openPositionService;
+        this.portfolioAggregationService = portfolioAggregationService;
     }
 
     @GetMapping("/tradelog")
     public String tradelog(Model model) {
-        PositionDto positionDto = new PositionDto();
-        fillTradeLogPage(positionDto, model);
+        // All open positions: the aggregates are kept current by PortfolioAggregationService
+        PositionDto positionDto = portfolioAggregationService.getPositionSummary();
+        model.addAttribute(MODEL_ATTRIBUTE_OPTION_OPEN, portfolioAggregationService.getOpenOptions());
+        fillNetAssetValue(positionDto);
+        model.addAttribute(MODEL_ATTRIBUTE_DTO, positionDto);
+        model.addAttribute(MODEL_ATTRIBUTE_WEEKLY_OPTION_OPEN, portfolioAggregationService.getWeeklySummary());
         return TRADELOG_PAGE_PATH;
     }
 
@@ -59,17 +67,22 @@ public class TradeLogController {
         return TRADELOG_PAGE_PATH;
     }
 
+    // Positions filtered by report date are calculated from the table
     private void fillTradeLogPage(PositionDto positionDto, Model model) {
         List<PositionDto> openOptions = openPositionService.getAllOpenOptionDtos(positionDto.getPositionsFromDate());
         model.addAttribute(MODEL_ATTRIBUTE_OPTION_OPEN, openOptions);
         optionService.calculatePosition(positionDto, openOptions, List.of());
+        fillNetAssetValue(positionDto);
+        model.addAttribute(MODEL_ATTRIBUTE_DTO, positionDto);
+        List<PositionDto> weeklyOpenPositions = optionService.getWeeklySummaryOpenOptionDtos(openOptions);
+        model.addAttribute(MODEL_ATTRIBUTE_WEEKLY_OPTION_OPEN, weeklyOpenPositions);
+    }
+
+    private void fillNetAssetValue(PositionDto positionDto) {
         NetAssetValueDto netAssetValueDto = netAssetValueService.loadLatestNetAssetValue();
         if(netAssetValueDto == null)
             netAssetValueDto = new NetAssetValueDto();
         positionDto.setCash(netAssetValueDto.getCash());
         positionDto.setStock(netAssetValueDto.getStock());
-        model.addAttribute(MODEL_ATTRIBUTE_DTO, positionDto);
-        List<PositionDto> weeklyOpenPositions = optionService.getWeeklySummaryOpenOptionDtos(openOptions);
-        model.addAttribute(MODEL_ATTRIBUTE_WEEKLY_OPTION_OPEN, weeklyOpenPositions);
     }
 }
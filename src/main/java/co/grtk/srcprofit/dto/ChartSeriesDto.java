@@ -0,0 +1,35 @@
+package co.grtk.srcprofit.dto;
+
+import co.grtk.srcprofit.mapper.Interval;
+
+/**
+ * Dashboard chart series of one interval as compact parallel arrays.
+ *
+ * Days are epoch days (days since 1970-01-01), amounts are cents. The cumulative premium
+ * restarts from zero at the start of the interval, NAV components are daily values.
+ */
+public record ChartSeriesDto(Interval interval,
+                             int[] premiumDays,
+                             long[] premiumCents,
+                             int[] navDays,
+                             long[] totalCents,
+                             long[] cashCents,
+                             long[] stockCents,
+                             long[] optionsCents) {
+
+    public double lastPremium() {
+        return last(premiumCents);
+    }
+
+    public double lastTotal() {
+        return last(totalCents);
+    }
+
+    public double lastOptions() {
+        return last(optionsCents);
+    }
+
+    private static double last(long[] cents) {
+        return cents.length == 0 ? 0.0 : cents[cents.length - 1] / 100.0;
+    }
+}
@@ -0,0 +1,21 @@
+package co.grtk.srcprofit.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Server-Sent Event payload of GET /api/live-updates, only the values that moved since the previous event.
+ *
+ * A "quotes" event carries the moved instrument prices, a "positions" event the open option positions
+ * whose underlying price, P&L or POP changed. The list of the other kind is null and not serialized.
+ */
+public record LiveUpdateDto(Instant at,
+                            List<Quote> quotes,
+                            List<Position> positions) {
+
+    public record Quote(String ticker, double price) {
+    }
+
+    public record Position(Long id, String symbol, Double underlyingPrice, Double calculatedPnl, Integer pop) {
+    }
+}
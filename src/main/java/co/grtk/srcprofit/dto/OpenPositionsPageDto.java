@@ -0,0 +1,22 @@
+package co.grtk.srcprofit.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Precomputed content of the /openpositions page (see OpenPositionsReadModel).
+ *
+ * @param openPositions       option positions of the table
+ * @param stockPositions      stock positions of the table
+ * @param openOptions         option positions with calculated metrics
+ * @param positionDto         position summary (buy/sell obligations, premiums)
+ * @param weeklyOpenPositions positions expiring within 7 days
+ * @param builtAt             when the projection was built
+ */
+public record OpenPositionsPageDto(List<OpenPositionViewDto> openPositions,
+                                   List<StockPositionViewDto> stockPositions,
+                                   List<PositionDto> openOptions,
+                                   PositionDto positionDto,
+                                   List<PositionDto> weeklyOpenPositions,
+                                   Instant builtAt) {
+}
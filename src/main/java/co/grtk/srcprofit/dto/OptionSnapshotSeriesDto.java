@@ -0,0 +1,20 @@
+package co.grtk.srcprofit.dto;
+
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository.HistoryPoint;
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository.HourlyBar;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Time series of one option contract for charting (e.g. theta decay).
+ *
+ * Days inside the raw retention window are returned as points (one per refresh),
+ * older days as 1-hour OHLC bars of mid price, implied volatility and delta.
+ */
+public record OptionSnapshotSeriesDto(String symbol,
+                                      OffsetDateTime from,
+                                      OffsetDateTime to,
+                                      List<HourlyBar> hourlyBars,
+                                      List<HistoryPoint> points) {
+}
@@ -0,0 +1,27 @@
+package co.grtk.srcprofit.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Monte Carlo risk of the open option positions held to expiration.
+ *
+ * Amounts are in account currency, losses are positive. probabilityOfLoss is the share
+ * of the simulated paths losing more than lossThreshold (0..1).
+ */
+public record PortfolioRiskDto(int paths,
+                               int positions,
+                               int skippedPositions,
+                               int underlyings,
+                               LocalDate horizon,
+                               double correlation,
+                               long seed,
+                               double meanPnl,
+                               double valueAtRisk95,
+                               double valueAtRisk99,
+                               double expectedShortfall95,
+                               double expectedShortfall99,
+                               double worstLoss,
+                               double lossThreshold,
+                               double probabilityOfLoss,
+                               long elapsedMillis) {
+}
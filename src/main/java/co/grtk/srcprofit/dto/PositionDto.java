@@ -154,6 +154,13 @@ public class PositionDto {
         return realizedProfitOrLoss == null ? 0 : realizedProfitOrLoss;
     }
 
+    /**
+     * @return realized P&L, null if not set (getRealizedProfitOrLoss defaults it to 0)
+     */
+    public Double getRawRealizedProfitOrLoss() {
+        return realizedProfitOrLoss;
+    }
+
     public void setRealizedProfitOrLoss(Double realizedProfitOrLoss) {
         this.realizedProfitOrLoss = realizedProfitOrLoss;
     }
@@ -322,6 +329,13 @@ public class PositionDto {
         return marketPrice == null ? 0 : marketPrice;
     }
 
+    /**
+     * @return market price, null if not set (getMarketPrice defaults it to 0)
+     */
+    public Double getRawMarketPrice() {
+        return marketPrice;
+    }
+
     public void setMarketPrice(Double marketPrice) {
         this.marketPrice = marketPrice;
     }
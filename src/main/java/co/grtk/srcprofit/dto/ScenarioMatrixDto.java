@@ -0,0 +1,25 @@
+package co.grtk.srcprofit.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Scenario risk matrix of the open option positions, matrices indexed [move][day].
+ *
+ * Amounts are in account currency. pnl is the change against the current marks, putObligation
+ * the cash needed if the in the money short puts are assigned, callObligation the value of the
+ * shares to deliver for the in the money short calls and margin a naked short option requirement.
+ */
+public record ScenarioMatrixDto(LocalDate valuationDate,
+                                List<Double> moves,
+                                List<Integer> days,
+                                double[][] pnl,
+                                double[][] putObligation,
+                                double[][] callObligation,
+                                double[][] margin,
+                                int positions,
+                                int underlyings,
+                                int columnsRecomputed,
+                                int columnsReused,
+                                long elapsedMillis) {
+}
@@ -0,0 +1,59 @@
+package co.grtk.srcprofit.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing one day of the option premium ledger.
+ *
+ * Derived from OPTION (sum of tradePrice * |quantity| per trade date, rounded up to cents)
+ * and maintained incrementally by PremiumLedgerService whenever trades are written.
+ * Amounts are stored in cents so the running total, built in memory by PremiumLedgerService, is exact.
+ *
+ * @see co.grtk.srcprofit.service.PremiumLedgerService
+ * @see co.grtk.srcprofit.repository.DailyPremiumJdbcRepository
+ */
+@Entity
+@Table(name = "OPTION_DAILY_PREMIUM")
+public class DailyPremiumEntity {
+
+    /**
+     * Trade date.
+     */
+    @Id
+    private LocalDate tradeDate;
+
+    /**
+     * Premium collected on the trade date, in cents.
+     */
+    @Column(nullable = false)
+    private Long premiumCents;
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+
+    public Long getPremiumCents() {
+        return premiumCents;
+    }
+
+    public void setPremiumCents(Long premiumCents) {
+        this.premiumCents = premiumCents;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyPremiumEntity{" +
+                "tradeDate=" + tradeDate +
+                ", premiumCents=" + premiumCents +
+                '}';
+    }
+}
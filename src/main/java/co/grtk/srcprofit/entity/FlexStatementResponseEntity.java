@@ -125,6 +125,28 @@ public class FlexStatementResponseEntity {
     @Column(name = "csv_skipped_records_count")
     private Integer csvSkippedRecordsCount;
 
+    /**
+     * Import pipeline state of this statement.
+     * Values: "REQUESTED", "POLLING", "DOWNLOADED", "IMPORTED" or "FAILED".
+     * Each transition is committed on its own so in-flight imports are visible while
+     * the statement is still being generated by IBKR.
+     * Nullable for records created before the state machine was introduced.
+     */
+    @Column(name = "import_state", length = 20)
+    private String importState;
+
+    /**
+     * Number of GetStatement calls issued until the report was ready (or polling gave up).
+     */
+    @Column(name = "poll_attempts")
+    private Integer pollAttempts;
+
+    /**
+     * Error message of a FAILED import, truncated to the column length.
+     */
+    @Column(name = "import_error", length = 500)
+    private String importError;
+
     /**
      * Timestamp when this entity was last updated.
      * Automatically managed by Hibernate using database server time.
@@ -256,6 +278,30 @@ public class FlexStatementResponseEntity {
         this.csvSkippedRecordsCount = csvSkippedRecordsCount;
     }
 
+    public String getImportState() {
+        return importState;
+    }
+
+    public void setImportState(String importState) {
+        this.importState = importState;
+    }
+
+    public Integer getPollAttempts() {
+        return pollAttempts;
+    }
+
+    public void setPollAttempts(Integer pollAttempts) {
+        this.pollAttempts = pollAttempts;
+    }
+
+    public String getImportError() {
+        return importError;
+    }
+
+    public void setImportError(String importError) {
+        this.importError = importError;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -280,6 +326,9 @@ public class FlexStatementResponseEntity {
                 ", dataFixRecordsCount=" + dataFixRecordsCount +
                 ", csvFailedRecordsCount=" + csvFailedRecordsCount +
                 ", csvSkippedRecordsCount=" + csvSkippedRecordsCount +
+                ", importState='" + importState + '\'' +
+                ", pollAttempts=" + pollAttempts +
+                ", importError='" + importError + '\'' +
                 ", updatedAt=" + updatedAt +
                 '}';
     }
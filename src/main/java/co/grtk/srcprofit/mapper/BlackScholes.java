@@ -0,0 +1,121 @@
+package co.grtk.srcprofit.mapper;
+
+/**
+ * Black-Scholes prices and greeks of European options without dividends, evaluated for a whole
+ * option chain in one loop over primitive arrays.
+ *
+ * Units follow the Alpaca/OPRA indicative feed so model and feed values can be stored side by side:
+ * - delta: per 1$ move of the underlying
+ * - gamma: change of delta per 1$ move
+ * - theta: per calendar day
+ * - vega: per 1 volatility point (0.01)
+ * - rho: per 1 percentage point of the rate (0.01)
+ *
+ * Contracts with a non-positive spot, strike, time or volatility get NaN values.
+ */
+public class BlackScholes {
+
+    static final double INV_SQRT_2PI = 0.3989422804014327;
+    private static final double DAYS_PER_YEAR = 365.0;
+
+    private BlackScholes() {
+    }
+
+    /**
+     * Inputs and outputs of a chain as parallel arrays, index i is one contract.
+     */
+    public static final class Chain {
+        private final int size;
+        final boolean[] call;
+        final double[] spot;
+        final double[] strike;
+        final double[] years;
+        final double[] volatility;
+        public final double[] price;
+        public final double[] delta;
+        public final double[] gamma;
+        public final double[] theta;
+        public final double[] vega;
+        public final double[] rho;
+
+        public Chain(int size) {
+            this.size = size;
+            this.call = new boolean[size];
+            this.spot = new double[size];
+            this.strike = new double[size];
+            this.years = new double[size];
+            this.volatility = new double[size];
+            this.price = new double[size];
+            this.delta = new double[size];
+            this.gamma = new double[size];
+            this.theta = new double[size];
+            this.vega = new double[size];
+            this.rho = new double[size];
+        }
+
+        /**
+         * @param i          contract index
+         * @param call       true for a call, false for a put
+         * @param spot       underlying price
+         * @param strike     strike price
+         * @param years      time to expiration in years
+         * @param volatility annualized volatility, 0.25 for 25%
+         */
+        public void set(int i, boolean call, double spot, double strike, double years, double volatility) {
+            this.call[i] = call;
+            this.spot[i] = spot;
+            this.strike[i] = strike;
+            this.years[i] = years;
+            this.volatility[i] = volatility;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Prices every contract of the chain and fills its greeks.
+     *
+     * @param chain chain with inputs set
+     * @param rate  continuously compounded risk free rate, 0.04 for 4%
+     */
+    public static void price(Chain chain, double rate) {
+        for (int i = 0; i < chain.size; i++) {
+            double s = chain.spot[i];
+            double k = chain.strike[i];
+            double t = chain.years[i];
+            double sigma = chain.volatility[i];
+            if (!(s > 0 && k > 0 && t > 0 && sigma > 0)) {
+                chain.price[i] = chain.delta[i] = chain.gamma[i] = chain.theta[i] = chain.vega[i] = chain.rho[i] = Double.NaN;
+                continue;
+            }
+            double sqrtT = Math.sqrt(t);
+            double sigmaSqrtT = sigma * sqrtT;
+            double d1 = (Math.log(s / k) + (rate + 0.5 * sigma * sigma) * t) / sigmaSqrtT;
+            double d2 = d1 - sigmaSqrtT;
+            double pdf = INV_SQRT_2PI * Math.exp(-0.5 * d1 * d1);
+            double discountedStrike = k * Math.exp(-rate * t);
+            double decay = -s * pdf * sigma / (2 * sqrtT);
+
+            if (chain.call[i]) {
+                double nd1 = NormalCdf.cdf(d1);
+                double nd2 = NormalCdf.cdf(d2);
+                chain.price[i] = s * nd1 - discountedStrike * nd2;
+                chain.delta[i] = nd1;
+                chain.theta[i] = (decay - rate * discountedStrike * nd2) / DAYS_PER_YEAR;
+                chain.rho[i] = discountedStrike * t * nd2 / 100;
+            } else {
+                // N(-x) evaluated directly, 1 - N(x) loses precision deep in the money
+                double nMinusD1 = NormalCdf.cdf(-d1);
+                double nMinusD2 = NormalCdf.cdf(-d2);
+                chain.price[i] = discountedStrike * nMinusD2 - s * nMinusD1;
+                chain.delta[i] = -nMinusD1;
+                chain.theta[i] = (decay + rate * discountedStrike * nMinusD2) / DAYS_PER_YEAR;
+                chain.rho[i] = -discountedStrike * t * nMinusD2 / 100;
+            }
+            chain.gamma[i] = pdf / (s * sigmaSqrtT);
+            chain.vega[i] = s * pdf * sqrtT / 100;
+        }
+    }
+}
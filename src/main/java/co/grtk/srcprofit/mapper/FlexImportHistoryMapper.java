@@ -0,0 +1,31 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.dto.FlexImportHistoryDto;
+import co.grtk.srcprofit.entity.FlexStatementResponseEntity;
+
+public class FlexImportHistoryMapper {
+
+    private FlexImportHistoryMapper() {
+    }
+
+    /**
+     * Copies the fields shown on the import history page, replaces
+     * objectMapper.convertValue(entity, FlexImportHistoryDto.class).
+     *
+     * @param entity stored FLEX statement response
+     * @return new import history DTO
+     */
+    public static FlexImportHistoryDto toDto(FlexStatementResponseEntity entity) {
+        FlexImportHistoryDto dto = new FlexImportHistoryDto();
+        dto.setId(entity.getId());
+        dto.setReferenceCode(entity.getReferenceCode());
+        dto.setReportType(entity.getReportType());
+        dto.setStatus(entity.getStatus());
+        dto.setUpdatedAt(entity.getUpdatedAt());
+        dto.setCsvRecordsCount(entity.getCsvRecordsCount());
+        dto.setCsvFailedRecordsCount(entity.getCsvFailedRecordsCount());
+        dto.setCsvSkippedRecordsCount(entity.getCsvSkippedRecordsCount());
+        dto.setDataFixRecordsCount(entity.getDataFixRecordsCount());
+        return dto;
+    }
+}
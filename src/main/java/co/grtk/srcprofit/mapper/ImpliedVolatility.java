@@ -0,0 +1,257 @@
+package co.grtk.srcprofit.mapper;
+
+import java.util.Arrays;
+
+/**
+ * Implied volatility of European options, the Black-Scholes volatility that reproduces an option price.
+ *
+ * Every contract starts with Newton steps from the Manaster-Koehler guess, which converge in 2-4
+ * iterations for most quotes. When Newton leaves the volatility range or stalls on a flat vega
+ * (deep in or out of the money, close to expiration), the contract is finished with Brent's method
+ * on the bracket Newton narrowed so far, which always converges for prices within the arbitrage bounds.
+ *
+ * An instance keeps its input and output arrays between solves and only grows them, so a chain
+ * is solved without allocating per contract. Instances are not thread-safe, use one per thread.
+ */
+public class ImpliedVolatility {
+
+    public static final double MIN_VOLATILITY = 1e-4;
+    public static final double MAX_VOLATILITY = 5.0;
+    private static final double PRICE_TOLERANCE = 1e-6;
+    private static final double VOLATILITY_TOLERANCE = 1e-8;
+    private static final double MIN_VEGA = 1e-8;
+    private static final int MAX_NEWTON_ITERATIONS = 20;
+    private static final int MAX_BRENT_ITERATIONS = 100;
+
+    private boolean[] call;
+    private double[] spot;
+    private double[] strike;
+    private double[] years;
+    private double[] price;
+    private double[] volatility;
+    private int[] iterations;
+    private boolean[] bracketed;
+    private int size;
+
+    // Vega of the last modelPrice call, per 1.0 volatility
+    private double vega;
+
+    public ImpliedVolatility(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Start a new chain, keeps the arrays and grows them when the chain is larger than any before.
+     *
+     * @param size number of contracts of the chain
+     */
+    public void reset(int size) {
+        if (size > call.length)
+            allocate(Math.max(size, call.length * 2));
+        this.size = size;
+    }
+
+    /**
+     * @param i      contract index, below the size given to reset
+     * @param call   true for a call, false for a put
+     * @param spot   underlying price
+     * @param strike strike price
+     * @param years  time to expiration in years
+     * @param price  option price to invert, usually the quote mid price
+     */
+    public void set(int i, boolean call, double spot, double strike, double years, double price) {
+        this.call[i] = call;
+        this.spot[i] = spot;
+        this.strike[i] = strike;
+        this.years[i] = years;
+        this.price[i] = price;
+    }
+
+    /**
+     * Solve every contract of the chain.
+     *
+     * @param rate continuously compounded risk free rate, 0.04 for 4%
+     */
+    public void solve(double rate) {
+        for (int i = 0; i < size; i++)
+            solve(i, rate);
+    }
+
+    /**
+     * @return implied volatility of the contract, NaN if the price is outside the arbitrage
+     * bounds, the inputs are invalid or the solution is outside [MIN_VOLATILITY, MAX_VOLATILITY]
+     */
+    public double volatility(int i) {
+        return volatility[i];
+    }
+
+    /**
+     * @return Newton plus Brent iterations spent on the contract
+     */
+    public int iterations(int i) {
+        return iterations[i];
+    }
+
+    /**
+     * @return true if the contract needed the Brent fallback
+     */
+    public boolean bracketed(int i) {
+        return bracketed[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void solve(int i, double rate) {
+        volatility[i] = Double.NaN;
+        iterations[i] = 0;
+        bracketed[i] = false;
+        double s = spot[i];
+        double k = strike[i];
+        double t = years[i];
+        double target = price[i];
+        boolean isCall = call[i];
+        if (!(s > 0 && k > 0 && t > 0 && target > 0))
+            return;
+
+        double discountedStrike = k * Math.exp(-rate * t);
+        double lowerBound = isCall ? Math.max(s - discountedStrike, 0) : Math.max(discountedStrike - s, 0);
+        double upperBound = isCall ? s : discountedStrike;
+        if (target <= lowerBound || target >= upperBound)
+            return;
+
+        // Price is increasing in volatility, Newton steps narrow [low, high] on the way
+        double low = MIN_VOLATILITY;
+        double high = MAX_VOLATILITY;
+        double sigma = Math.sqrt(2 * Math.abs(Math.log(s / k) + rate * t) / t);
+        if (!(sigma > MIN_VOLATILITY && sigma < MAX_VOLATILITY))
+            sigma = 0.3;
+
+        int n = 0;
+        while (n < MAX_NEWTON_ITERATIONS) {
+            n++;
+            double diff = modelPrice(isCall, s, k, t, sigma, rate) - target;
+            if (Math.abs(diff) < PRICE_TOLERANCE) {
+                volatility[i] = sigma;
+                iterations[i] = n;
+                return;
+            }
+            if (diff > 0)
+                high = sigma;
+            else
+                low = sigma;
+            if (vega < MIN_VEGA)
+                break;
+            double next = sigma - diff / vega;
+            if (!(next > low && next < high))
+                break;
+            if (Math.abs(next - sigma) < VOLATILITY_TOLERANCE) {
+                volatility[i] = next;
+                iterations[i] = n;
+                return;
+            }
+            sigma = next;
+        }
+        bracketed[i] = true;
+        iterations[i] = n + brent(i, isCall, s, k, t, rate, target, low, high);
+    }
+
+    /**
+     * Brent's method on f(sigma) = modelPrice(sigma) - target within [a, b].
+     *
+     * @return iterations used, the root is stored in volatility[i] (NaN if not bracketed)
+     */
+    private int brent(int i, boolean isCall, double s, double k, double t, double rate,
+                      double target, double a, double b) {
+        double fa = modelPrice(isCall, s, k, t, a, rate) - target;
+        double fb = modelPrice(isCall, s, k, t, b, rate) - target;
+        if (fa > 0 || fb < 0)
+            return 0;
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+        for (int n = 1; n <= MAX_BRENT_ITERATIONS; n++) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(b) + 0.5 * VOLATILITY_TOLERANCE;
+            double m = 0.5 * (c - b);
+            if (Math.abs(m) <= tolerance || Math.abs(fb) < PRICE_TOLERANCE) {
+                volatility[i] = b;
+                return n;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Secant or inverse quadratic interpolation
+                double p;
+                double q;
+                double r = fb / fa;
+                if (a == c) {
+                    p = 2 * m * r;
+                    q = 1 - r;
+                } else {
+                    double qa = fa / fc;
+                    double rb = fb / fc;
+                    p = r * (2 * m * qa * (qa - rb) - (b - a) * (rb - 1));
+                    q = (qa - 1) * (rb - 1) * (r - 1);
+                }
+                if (p > 0)
+                    q = -q;
+                else
+                    p = -p;
+                if (2 * p < Math.min(3 * m * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = m;
+                    e = d;
+                }
+            } else {
+                // Bisection
+                d = m;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, m);
+            fb = modelPrice(isCall, s, k, t, b, rate) - target;
+        }
+        volatility[i] = b;
+        return MAX_BRENT_ITERATIONS;
+    }
+
+    private double modelPrice(boolean isCall, double s, double k, double t, double sigma, double rate) {
+        double sqrtT = Math.sqrt(t);
+        double sigmaSqrtT = sigma * sqrtT;
+        double d1 = (Math.log(s / k) + (rate + 0.5 * sigma * sigma) * t) / sigmaSqrtT;
+        double d2 = d1 - sigmaSqrtT;
+        double discountedStrike = k * Math.exp(-rate * t);
+        vega = s * BlackScholes.INV_SQRT_2PI * Math.exp(-0.5 * d1 * d1) * sqrtT;
+        return isCall
+                ? s * NormalCdf.cdf(d1) - discountedStrike * NormalCdf.cdf(d2)
+                : discountedStrike * NormalCdf.cdf(-d2) - s * NormalCdf.cdf(-d1);
+    }
+
+    private void allocate(int capacity) {
+        call = call == null ? new boolean[capacity] : Arrays.copyOf(call, capacity);
+        spot = spot == null ? new double[capacity] : Arrays.copyOf(spot, capacity);
+        strike = strike == null ? new double[capacity] : Arrays.copyOf(strike, capacity);
+        years = years == null ? new double[capacity] : Arrays.copyOf(years, capacity);
+        price = price == null ? new double[capacity] : Arrays.copyOf(price, capacity);
+        volatility = new double[capacity];
+        iterations = new int[capacity];
+        bracketed = new boolean[capacity];
+    }
+}
@@ -1,16 +1,13 @@
 package co.grtk.srcprofit.mapper;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TimeZone;
-import java.util.stream.Collectors;
 
 public class MapperUtils {
 
@@ -99,25 +96,4 @@ public class MapperUtils {
     public static String getLocalDateTimeAsString(LocalDateTime date) {
         return Objects.isNull(date) ? "" : date.format(dateFormatter);
     }
-
-    public static String getDatesCsv(Map<LocalDate, BigDecimal> map) {
-        return map.keySet().stream()
-                .sorted()
-                .map(date -> "\"" + date.toString() + "\"")
-                .reduce("", (a, b) -> a + "," + b);
-    }
-
-    public static String getValuesCsv(Map<LocalDate, BigDecimal> map) {
-       return  map.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> {
-                    String value = entry.getValue().toString();
-                    // Filter out NaN and Infinity values to prevent chart rendering issues
-                    if (value.contains("NaN") || value.contains("Infinity")) {
-                        return "0";
-                    }
-                    return value;
-                })
-               .collect(Collectors.joining(","));
-    }
 }
\ No newline at end of file
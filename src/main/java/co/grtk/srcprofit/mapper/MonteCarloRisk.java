@@ -0,0 +1,339 @@
+package co.grtk.srcprofit.mapper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo profit and loss of an option portfolio held to expiration.
+ *
+ * Underlying prices follow geometric Brownian motions without drift, correlated through one common
+ * market factor: dW = rho * dMarket + sqrt(1 - rho^2) * dIdiosyncratic. Every contract is settled
+ * at intrinsic value on its expiration date. The P&L of a path is the sum of
+ * units * (intrinsic value at expiration - current mark) over all contracts, units being
+ * quantity * multiplier (negative for short contracts).
+ *
+ * Paths are split into ForkJoin tasks, every task draws from its own SplittableRandom split off
+ * its parent, so a seed gives the same result on any pool size. A leaf task allocates its path
+ * buffers once and writes into its own range of the P&L array.
+ */
+public class MonteCarloRisk {
+
+    private static final int PATHS_PER_TASK = 2048;
+
+    private MonteCarloRisk() {
+    }
+
+    /**
+     * Underlyings and contracts of the portfolio as parallel arrays.
+     */
+    public static final class Portfolio {
+        private final double[] spot;
+        private final double[] volatility;
+        private final int[] underlying;
+        private final boolean[] call;
+        private final double[] strike;
+        private final double[] units;
+        private final double[] mark;
+        private final double[] years;
+
+        public Portfolio(int underlyings, int contracts) {
+            this.spot = new double[underlyings];
+            this.volatility = new double[underlyings];
+            this.underlying = new int[contracts];
+            this.call = new boolean[contracts];
+            this.strike = new double[contracts];
+            this.units = new double[contracts];
+            this.mark = new double[contracts];
+            this.years = new double[contracts];
+        }
+
+        /**
+         * @param u          underlying index
+         * @param spot       current underlying price
+         * @param volatility annualized volatility, 0.25 for 25%
+         */
+        public void setUnderlying(int u, double spot, double volatility) {
+            this.spot[u] = spot;
+            this.volatility[u] = volatility;
+        }
+
+        /**
+         * @param i          contract index
+         * @param underlying underlying index
+         * @param call       true for a call, false for a put
+         * @param strike     strike price
+         * @param units      quantity * multiplier, negative for short contracts
+         * @param mark       current option price per unit
+         * @param years      time to expiration in years, positive
+         */
+        public void setContract(int i, int underlying, boolean call, double strike, double units, double mark,
+                                double years) {
+            this.underlying[i] = underlying;
+            this.call[i] = call;
+            this.strike[i] = strike;
+            this.units[i] = units;
+            this.mark[i] = mark;
+            this.years[i] = years;
+        }
+
+        public int underlyings() {
+            return spot.length;
+        }
+
+        public int contracts() {
+            return underlying.length;
+        }
+    }
+
+    /**
+     * Risk figures of a simulated P&L distribution, losses are positive amounts.
+     *
+     * @param paths             number of simulated paths
+     * @param meanPnl           average P&L
+     * @param valueAtRisk95     loss not exceeded in 95% of the paths
+     * @param valueAtRisk99     loss not exceeded in 99% of the paths
+     * @param expectedShortfall95 average loss of the worst 5% of the paths
+     * @param expectedShortfall99 average loss of the worst 1% of the paths
+     * @param worstLoss         loss of the worst path
+     * @param lossThreshold     threshold of probabilityOfLoss
+     * @param probabilityOfLoss share of the paths losing more than lossThreshold, 0..1
+     */
+    public record Result(int paths,
+                         double meanPnl,
+                         double valueAtRisk95,
+                         double valueAtRisk99,
+                         double expectedShortfall95,
+                         double expectedShortfall99,
+                         double worstLoss,
+                         double lossThreshold,
+                         double probabilityOfLoss) {
+    }
+
+    /**
+     * Simulate the portfolio and summarize the P&L distribution.
+     *
+     * @param portfolio     the portfolio, at least one contract
+     * @param paths         number of paths, positive
+     * @param correlation   correlation of every underlying with the market factor, within [-1, 1]
+     * @param lossThreshold loss amount of probabilityOfLoss, 0 for the probability of any loss
+     * @param seed          random seed
+     * @param pool          pool running the path tasks
+     * @return risk figures
+     * @throws IllegalArgumentException on invalid paths, correlation or an empty portfolio
+     */
+    public static Result simulate(Portfolio portfolio, int paths, double correlation, double lossThreshold,
+                                  long seed, ForkJoinPool pool) {
+        double[] pnl = simulatePnl(portfolio, paths, correlation, seed, pool);
+        return summarize(pnl, lossThreshold);
+    }
+
+    /**
+     * @return P&L of every path, in path order
+     * @see #simulate
+     */
+    public static double[] simulatePnl(Portfolio portfolio, int paths, double correlation, long seed,
+                                       ForkJoinPool pool) {
+        if (paths <= 0)
+            throw new IllegalArgumentException("paths must be positive: " + paths);
+        if (!(correlation >= -1 && correlation <= 1))
+            throw new IllegalArgumentException("correlation must be within [-1, 1]: " + correlation);
+        if (portfolio.contracts() == 0)
+            throw new IllegalArgumentException("portfolio has no contracts");
+        Plan plan = new Plan(portfolio, correlation);
+        double[] pnl = new double[paths];
+        pool.invoke(new PathTask(plan, pnl, 0, paths, new SplittableRandom(seed)));
+        return pnl;
+    }
+
+    /**
+     * Summarize a P&L distribution, sorts the given array.
+     */
+    public static Result summarize(double[] pnl, double lossThreshold) {
+        Arrays.sort(pnl);
+        int paths = pnl.length;
+        double sum = 0;
+        int losing = 0;
+        for (double value : pnl) {
+            sum += value;
+            if (value < -lossThreshold)
+                losing++;
+        }
+        int tail95 = Math.max(1, (int) Math.ceil(paths * 0.05));
+        int tail99 = Math.max(1, (int) Math.ceil(paths * 0.01));
+        return new Result(paths,
+                sum / paths,
+                -pnl[tail95 - 1],
+                -pnl[tail99 - 1],
+                -mean(pnl, tail95),
+                -mean(pnl, tail99),
+                -pnl[0],
+                lossThreshold,
+                (double) losing / paths);
+    }
+
+    private static double mean(double[] sorted, int count) {
+        double sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += sorted[i];
+        return sum / count;
+    }
+
+    /**
+     * Time grid and per event constants shared by all path tasks.
+     *
+     * An event is one underlying on one expiration date of its contracts. The market factor is a
+     * Brownian motion sampled on every expiration date of the portfolio, an underlying only moves
+     * from one of its own events to the next, by the market increment of that interval plus one
+     * idiosyncratic draw. A path costs one draw per expiration date and one per event instead of
+     * one per expiration date and underlying.
+     */
+    private static final class Plan {
+        final int underlyings;
+        final int steps;
+        final double[] logSpot;
+        // Standard deviation of the market factor increment ending at step j
+        final double[] stepStdDev;
+        // Events sorted by step: firstContract[e]..firstContract[e + 1] settle at event e
+        final int events;
+        final int[] eventStep;
+        final int[] eventUnderlying;
+        final double[] eventDrift;
+        final double[] eventMarketLoading;
+        final double[] eventDiffusion;
+        final int[] firstContract;
+        // Contracts sorted by expiration and underlying
+        final boolean[] call;
+        final double[] strike;
+        final double[] units;
+        final double[] mark;
+
+        Plan(Portfolio portfolio, double correlation) {
+            int contracts = portfolio.contracts();
+            Integer[] order = new Integer[contracts];
+            for (int i = 0; i < contracts; i++)
+                order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int byYears = Double.compare(portfolio.years[a], portfolio.years[b]);
+                return byYears != 0 ? byYears : Integer.compare(portfolio.underlying[a], portfolio.underlying[b]);
+            });
+
+            double[] grid = Arrays.stream(portfolio.years).distinct().sorted().toArray();
+            this.underlyings = portfolio.underlyings();
+            this.steps = grid.length;
+            this.logSpot = new double[underlyings];
+            for (int u = 0; u < underlyings; u++)
+                logSpot[u] = Math.log(portfolio.spot[u]);
+            this.stepStdDev = new double[steps];
+            for (int j = 0; j < steps; j++)
+                stepStdDev[j] = Math.sqrt(grid[j] - (j == 0 ? 0 : grid[j - 1]));
+
+            this.call = new boolean[contracts];
+            this.strike = new double[contracts];
+            this.units = new double[contracts];
+            this.mark = new double[contracts];
+            int[] step = new int[contracts];
+            int[] underlying = new int[contracts];
+            int eventCount = 0;
+            for (int p = 0, j = 0; p < contracts; p++) {
+                int i = order[p];
+                while (portfolio.years[i] != grid[j])
+                    j++;
+                step[p] = j;
+                underlying[p] = portfolio.underlying[i];
+                call[p] = portfolio.call[i];
+                strike[p] = portfolio.strike[i];
+                units[p] = portfolio.units[i];
+                mark[p] = portfolio.mark[i];
+                if (p == 0 || step[p] != step[p - 1] || underlying[p] != underlying[p - 1])
+                    eventCount++;
+            }
+
+            this.events = eventCount;
+            this.eventStep = new int[events];
+            this.eventUnderlying = new int[events];
+            this.eventDrift = new double[events];
+            this.eventMarketLoading = new double[events];
+            this.eventDiffusion = new double[events];
+            this.firstContract = new int[events + 1];
+            double idiosyncratic = Math.sqrt(1 - correlation * correlation);
+            double[] lastYears = new double[underlyings];
+            for (int p = 0, e = -1; p < contracts; p++) {
+                if (p > 0 && step[p] == step[p - 1] && underlying[p] == underlying[p - 1])
+                    continue;
+                e++;
+                int u = underlying[p];
+                double sigma = portfolio.volatility[u];
+                double dt = grid[step[p]] - lastYears[u];
+                lastYears[u] = grid[step[p]];
+                eventStep[e] = step[p];
+                eventUnderlying[e] = u;
+                eventDrift[e] = -0.5 * sigma * sigma * dt;
+                eventMarketLoading[e] = sigma * correlation;
+                eventDiffusion[e] = sigma * idiosyncratic * Math.sqrt(dt);
+                firstContract[e] = p;
+            }
+            firstContract[events] = contracts;
+        }
+    }
+
+    private static final class PathTask extends RecursiveAction {
+        private final Plan plan;
+        private final double[] pnl;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        PathTask(Plan plan, double[] pnl, int from, int to, SplittableRandom random) {
+            this.plan = plan;
+            this.pnl = pnl;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PATHS_PER_TASK) {
+                simulate();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            PathTask right = new PathTask(plan, pnl, middle, to, random.split());
+            invokeAll(new PathTask(plan, pnl, from, middle, random), right);
+        }
+
+        private void simulate() {
+            Plan p = plan;
+            double[] market = new double[p.steps];
+            double[] logPrice = new double[p.underlyings];
+            double[] lastMarket = new double[p.underlyings];
+            for (int path = from; path < to; path++) {
+                double w = 0;
+                for (int j = 0; j < p.steps; j++) {
+                    w += p.stepStdDev[j] * random.nextGaussian();
+                    market[j] = w;
+                }
+                System.arraycopy(p.logSpot, 0, logPrice, 0, p.underlyings);
+                Arrays.fill(lastMarket, 0);
+
+                double value = 0;
+                for (int e = 0; e < p.events; e++) {
+                    int u = p.eventUnderlying[e];
+                    double marketNow = market[p.eventStep[e]];
+                    logPrice[u] += p.eventDrift[e]
+                            + p.eventMarketLoading[e] * (marketNow - lastMarket[u])
+                            + p.eventDiffusion[e] * random.nextGaussian();
+                    lastMarket[u] = marketNow;
+                    double s = Math.exp(logPrice[u]);
+                    for (int c = p.firstContract[e]; c < p.firstContract[e + 1]; c++) {
+                        double intrinsic = p.call[c] ? Math.max(s - p.strike[c], 0) : Math.max(p.strike[c] - s, 0);
+                        value += p.units[c] * (intrinsic - p.mark[c]);
+                    }
+                }
+                pnl[path] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package co.grtk.srcprofit.mapper;
+
+/**
+ * Allocation-free cumulative distribution function of the normal distribution.
+ *
+ * Replaces a commons-math NormalDistribution instance per probability on the per-row paths
+ * (open positions, position form, option snapshots). Uses Hart's double precision rational
+ * approximation (as given by G. West, Better approximations to cumulative normal functions, 2005),
+ * absolute error around 1e-14, exactly 0.5 at the mean.
+ */
+public class NormalCdf {
+
+    private static final double SQRT_2PI = 2.506628274631;
+
+    private NormalCdf() {
+    }
+
+    /**
+     * @param x value
+     * @return P(X &lt;= x) of the standard normal distribution, NaN for NaN
+     */
+    public static double cdf(double x) {
+        double xAbs = Math.abs(x);
+        double tail;
+        if (xAbs > 37) {
+            tail = 0;
+        } else {
+            double e = Math.exp(-xAbs * xAbs / 2);
+            if (xAbs < 7.07106781186547) {
+                double n = 3.52624965998911E-02 * xAbs + 0.700383064443688;
+                n = n * xAbs + 6.37396220353165;
+                n = n * xAbs + 33.912866078383;
+                n = n * xAbs + 112.079291497871;
+                n = n * xAbs + 221.213596169931;
+                n = n * xAbs + 220.206867912376;
+                double d = 8.83883476483184E-02 * xAbs + 1.75566716318264;
+                d = d * xAbs + 16.064177579207;
+                d = d * xAbs + 86.7807322029461;
+                d = d * xAbs + 296.564248779674;
+                d = d * xAbs + 637.333633378831;
+                d = d * xAbs + 793.826512519948;
+                d = d * xAbs + 440.413735824752;
+                tail = e * n / d;
+            } else {
+                // Continued fraction for the far tail
+                double b = xAbs + 0.65;
+                b = xAbs + 4 / b;
+                b = xAbs + 3 / b;
+                b = xAbs + 2 / b;
+                b = xAbs + 1 / b;
+                tail = e / b / SQRT_2PI;
+            }
+        }
+        return x > 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * @param x      value
+     * @param mean   mean of the distribution
+     * @param stdDev standard deviation, must be positive
+     * @return P(X &lt;= x) of N(mean, stdDev²)
+     */
+    public static double cdf(double x, double mean, double stdDev) {
+        return cdf((x - mean) / stdDev);
+    }
+
+    /**
+     * Batch form of {@link #cdf(double, double, double)} over parallel arrays,
+     * for callers that evaluate a whole portfolio at once.
+     *
+     * @param x      values
+     * @param mean   means, same length as x
+     * @param stdDev standard deviations, same length as x
+     * @param result output array, same length as x (may be x itself)
+     * @throws IllegalArgumentException if the array lengths differ
+     */
+    public static void cdf(double[] x, double[] mean, double[] stdDev, double[] result) {
+        int n = x.length;
+        if (mean.length != n || stdDev.length != n || result.length != n)
+            throw new IllegalArgumentException("Array lengths differ");
+        for (int i = 0; i < n; i++)
+            result[i] = cdf((x[i] - mean[i]) / stdDev[i]);
+    }
+}
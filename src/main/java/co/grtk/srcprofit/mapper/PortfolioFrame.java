@@ -0,0 +1,314 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.OptionType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static co.grtk.srcprofit.mapper.MapperUtils.round2Digits;
+import static java.lang.Math.abs;
+
+/**
+ * Open positions of a portfolio as parallel primitive columns, aggregated in one pass.
+ *
+ * Copied once from the PositionDto list (after the per-position metrics are calculated), then
+ * {@link #aggregate()} produces premium, put/call split, obligations, market price, P&L and the
+ * capital and time weighted ROI/POP without unboxing or re-walking the list per metric.
+ *
+ * Money columns are doubles (trade prices carry more than two decimals), the sums are accumulated
+ * in list order so the results are identical to the former per-metric loops of OptionService.
+ * Missing values count as zero, missing ROI/POP exclude the position from the weighted averages.
+ */
+public final class PortfolioFrame {
+
+    /**
+     * Reference period of the time weight, √(daysLeft / 45), TastyTrade mechanical trading standard.
+     */
+    public static final double TIME_WEIGHT_REFERENCE_DAYS = 45.0;
+
+    private static final byte PUT = 0;
+    private static final byte CALL = 1;
+    private static final byte UNKNOWN = 2;
+
+    private final int size;
+    private final byte[] type;
+    private final int[] quantity;
+    private final int[] tradeDay;
+    private final int[] expirationDay;
+    private final int[] daysLeft;
+    private final int[] roi;
+    private final int[] probability;
+    private final double[] tradePrice;
+    private final double[] marketPrice;
+    private final double[] marketValue;
+    private final double[] positionValue;
+    private final double[] unrealizedProfitOrLoss;
+
+    private PortfolioFrame(int size) {
+        this.size = size;
+        this.type = new byte[size];
+        this.quantity = new int[size];
+        this.tradeDay = new int[size];
+        this.expirationDay = new int[size];
+        this.daysLeft = new int[size];
+        this.roi = new int[size];
+        this.probability = new int[size];
+        this.tradePrice = new double[size];
+        this.marketPrice = new double[size];
+        this.marketValue = new double[size];
+        this.positionValue = new double[size];
+        this.unrealizedProfitOrLoss = new double[size];
+    }
+
+    /**
+     * Portfolio aggregates, money values are unrounded sums.
+     *
+     * @param positions                 number of positions
+     * @param firstPositionValue        positionValue of the first position, 0 for an empty frame
+     * @param premium                   sum of tradePrice × |quantity|
+     * @param put                       premium of the PUT positions
+     * @param call                      premium of the other positions
+     * @param putMarketPrice            sum of the PUT market prices
+     * @param callMarketPrice           sum of the other market prices
+     * @param putObligationValue        positionValue × |quantity| of short PUTs
+     * @param putObligationMarketValue  marketValue × |quantity| of short PUTs
+     * @param callObligationValue       positionValue × |quantity| of short CALLs
+     * @param callObligationMarketValue marketValue × |quantity| of short CALLs
+     * @param marketPrice               signed market price × |quantity|, negative for bought positions
+     * @param unrealizedProfitOrLoss    sum of the unrealized P&L
+     * @param startDate                 earliest trade date, null for an empty frame
+     * @param endDate                   latest expiration date, null for an empty frame
+     * @param lastType                  type of the last position, null for an empty frame
+     * @param weightedRoi               capital at risk weighted ROI, 2 digits
+     * @param weightedProbability       capital at risk weighted POP, 2 digits
+     * @param timeWeightedRoi           capital × √(daysLeft / 45) weighted ROI, 2 digits
+     * @param timeWeightedProbability   capital × √(daysLeft / 45) weighted POP, 2 digits
+     */
+    public record Totals(int positions, double firstPositionValue,
+                         double premium, double put, double call,
+                         double putMarketPrice, double callMarketPrice,
+                         double putObligationValue, double putObligationMarketValue,
+                         double callObligationValue, double callObligationMarketValue,
+                         double marketPrice, double unrealizedProfitOrLoss,
+                         LocalDate startDate, LocalDate endDate, OptionType lastType,
+                         double weightedRoi, double weightedProbability,
+                         double timeWeightedRoi, double timeWeightedProbability) {
+    }
+
+    /**
+     * @param positions open positions, ROI, POP and daysLeft as calculated by PositionMapper
+     * @return columnar copy of the positions
+     */
+    public static PortfolioFrame of(List<PositionDto> positions) {
+        PortfolioFrame frame = new PortfolioFrame(positions.size());
+        int i = 0;
+        for (PositionDto dto : positions) {
+            frame.type[i] = OptionType.PUT.equals(dto.getType()) ? PUT : dto.getType() == null ? UNKNOWN : CALL;
+            frame.quantity[i] = dto.getQuantity();
+            frame.tradeDay[i] = dto.getTradeDate() == null ? Integer.MAX_VALUE : (int) dto.getTradeDate().toEpochDay();
+            frame.expirationDay[i] = dto.getExpirationDate() == null ? Integer.MIN_VALUE : (int) dto.getExpirationDate().toEpochDay();
+            frame.daysLeft[i] = dto.getDaysLeft() == null ? 0 : dto.getDaysLeft();
+            frame.roi[i] = dto.getAnnualizedRoiPercent() == null ? Integer.MIN_VALUE : dto.getAnnualizedRoiPercent();
+            frame.probability[i] = dto.getProbability() == null ? Integer.MIN_VALUE : dto.getProbability();
+            frame.tradePrice[i] = valueOf(dto.getTradePrice());
+            frame.marketPrice[i] = valueOf(dto.getMarketPrice());
+            frame.marketValue[i] = valueOf(dto.getMarketValue());
+            frame.positionValue[i] = valueOf(dto.getPositionValue());
+            frame.unrealizedProfitOrLoss[i] = valueOf(dto.getUnRealizedProfitOrLoss());
+            i++;
+        }
+        return frame;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Single pass over the columns.
+     *
+     * @return aggregates of the whole portfolio
+     */
+    public Totals aggregate() {
+        return sums().totals();
+    }
+
+    /**
+     * @return mergeable partial aggregates of the positions, in list order
+     */
+    public Sums sums() {
+        Sums sums = new Sums();
+        for (int i = 0; i < size; i++)
+            sums.add(this, i);
+        return sums;
+    }
+
+    /**
+     * Partial aggregates of a group of positions, groups are merged with {@link #add(Sums)}.
+     *
+     * Every metric of {@link Totals} is a sum, a min/max or a weighted average kept as sum and
+     * weight, so the aggregates of a portfolio are the merge of the aggregates of its parts
+     * (see PortfolioGraph). Merging in position order gives the same totals as one pass.
+     */
+    public static final class Sums {
+        private int positions;
+        private double firstPositionValue;
+        private byte lastType = UNKNOWN;
+        private double premium;
+        private double put;
+        private double call;
+        private double putMarketPrice;
+        private double callMarketPrice;
+        private double putObligationValue;
+        private double putObligationMarketValue;
+        private double callObligationValue;
+        private double callObligationMarketValue;
+        private double marketPrice;
+        private double unrealized;
+        private int minTradeDay = Integer.MAX_VALUE;
+        private int maxExpirationDay = Integer.MIN_VALUE;
+        private double roiSum;
+        private double roiWeight;
+        private double probabilitySum;
+        private double probabilityWeight;
+        private double timeRoiSum;
+        private double timeRoiWeight;
+        private double timeProbabilitySum;
+        private double timeProbabilityWeight;
+
+        private void add(PortfolioFrame frame, int i) {
+            int qty = abs(frame.quantity[i]);
+            boolean isPut = frame.type[i] == PUT;
+            boolean isShort = frame.quantity[i] < 0;
+            double value = frame.tradePrice[i] * qty;
+
+            if (positions++ == 0)
+                firstPositionValue = frame.positionValue[i];
+            lastType = frame.type[i];
+            premium += value;
+            unrealized += frame.unrealizedProfitOrLoss[i];
+            minTradeDay = Math.min(minTradeDay, frame.tradeDay[i]);
+            maxExpirationDay = Math.max(maxExpirationDay, frame.expirationDay[i]);
+            marketPrice += (frame.tradePrice[i] > 0 ? frame.marketPrice[i] : -frame.marketPrice[i]) * qty;
+
+            if (isPut) {
+                put += value;
+                putMarketPrice += frame.marketPrice[i];
+                if (isShort) {
+                    putObligationMarketValue += frame.marketValue[i] * qty;
+                    putObligationValue += frame.positionValue[i] * qty;
+                }
+            } else {
+                call += value;
+                callMarketPrice += frame.marketPrice[i];
+                if (isShort) {
+                    callObligationMarketValue += frame.marketValue[i] * qty;
+                    callObligationValue += frame.positionValue[i] * qty;
+                }
+            }
+
+            if (frame.positionValue[i] > 0) {
+                double capitalAtRisk = frame.positionValue[i] * qty;
+                int daysLeft = frame.daysLeft[i];
+                double timeWeight = timeWeight(daysLeft);
+                double timeWeighted = capitalAtRisk * timeWeight;
+                if (frame.roi[i] != Integer.MIN_VALUE) {
+                    roiSum += frame.roi[i] * capitalAtRisk;
+                    roiWeight += capitalAtRisk;
+                    if (timeWeight > 0) {
+                        timeRoiSum += frame.roi[i] * timeWeighted;
+                        timeRoiWeight += timeWeighted;
+                    }
+                }
+                if (frame.probability[i] != Integer.MIN_VALUE) {
+                    probabilitySum += frame.probability[i] * capitalAtRisk;
+                    probabilityWeight += capitalAtRisk;
+                    if (timeWeight > 0) {
+                        timeProbabilitySum += frame.probability[i] * timeWeighted;
+                        timeProbabilityWeight += timeWeighted;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Merge the aggregates of the positions following this group.
+         *
+         * @param other aggregates of the next group
+         * @return this
+         */
+        public Sums add(Sums other) {
+            if (other.positions == 0)
+                return this;
+            if (positions == 0)
+                firstPositionValue = other.firstPositionValue;
+            positions += other.positions;
+            lastType = other.lastType;
+            premium += other.premium;
+            put += other.put;
+            call += other.call;
+            putMarketPrice += other.putMarketPrice;
+            callMarketPrice += other.callMarketPrice;
+            putObligationValue += other.putObligationValue;
+            putObligationMarketValue += other.putObligationMarketValue;
+            callObligationValue += other.callObligationValue;
+            callObligationMarketValue += other.callObligationMarketValue;
+            marketPrice += other.marketPrice;
+            unrealized += other.unrealized;
+            minTradeDay = Math.min(minTradeDay, other.minTradeDay);
+            maxExpirationDay = Math.max(maxExpirationDay, other.maxExpirationDay);
+            roiSum += other.roiSum;
+            roiWeight += other.roiWeight;
+            probabilitySum += other.probabilitySum;
+            probabilityWeight += other.probabilityWeight;
+            timeRoiSum += other.timeRoiSum;
+            timeRoiWeight += other.timeRoiWeight;
+            timeProbabilitySum += other.timeProbabilitySum;
+            timeProbabilityWeight += other.timeProbabilityWeight;
+            return this;
+        }
+
+        public int positions() {
+            return positions;
+        }
+
+        public Totals totals() {
+            return new Totals(positions, firstPositionValue, premium, put, call, putMarketPrice, callMarketPrice,
+                    putObligationValue, putObligationMarketValue, callObligationValue, callObligationMarketValue,
+                    marketPrice, unrealized,
+                    minTradeDay == Integer.MAX_VALUE ? null : LocalDate.ofEpochDay(minTradeDay),
+                    maxExpirationDay == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(maxExpirationDay),
+                    positions == 0 ? null : toOptionType(lastType),
+                    weightedAverage(roiSum, roiWeight), weightedAverage(probabilitySum, probabilityWeight),
+                    weightedAverage(timeRoiSum, timeRoiWeight), weightedAverage(timeProbabilitySum, timeProbabilityWeight));
+        }
+    }
+
+    /**
+     * Time weight of a position, √(daysLeft / 45): longer-dated options have wider distributions,
+     * matching the σ√t volatility scaling. 7 DTE → 0.39, 45 DTE → 1.00, 90 DTE → 1.41.
+     *
+     * @param daysLeft days remaining until expiration
+     * @return time weight, 0 for an expired position
+     */
+    public static double timeWeight(int daysLeft) {
+        return daysLeft > 0 ? Math.sqrt(daysLeft / TIME_WEIGHT_REFERENCE_DAYS) : 0.0;
+    }
+
+    private static OptionType toOptionType(byte type) {
+        return switch (type) {
+            case PUT -> OptionType.PUT;
+            case CALL -> OptionType.CALL;
+            default -> null;
+        };
+    }
+
+    private static double weightedAverage(double sum, double weight) {
+        return weight == 0 ? 0.0 : round2Digits(sum / weight);
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0.0 : value;
+    }
+}
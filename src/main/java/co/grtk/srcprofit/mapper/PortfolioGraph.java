@@ -0,0 +1,257 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.dto.PositionDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static co.grtk.srcprofit.mapper.PositionMapper.calculateAndSetAnnualizedRoi;
+
+/**
+ * Aggregation graph of the open option positions: position → ticker bucket → expiration bucket → portfolio.
+ *
+ * Every bucket keeps the PortfolioFrame.Sums of its children. A change (a new underlying price,
+ * an added, changed or removed position) recomputes only the buckets on the path of the changed
+ * positions: the ticker buckets from their positions, their expiration buckets from the ticker
+ * buckets and the portfolio from the expiration buckets. Unchanged buckets are merged as they are.
+ *
+ * After every change the graph publishes an immutable {@link Snapshot}, reads never aggregate.
+ * Not thread-safe, writers must be serialized (see PortfolioAggregationService).
+ */
+public final class PortfolioGraph {
+
+    /**
+     * @param dto        open position with calculated metrics, code (option symbol) is the key
+     * @param multiplier contract multiplier, marketValue is the underlying price × multiplier
+     */
+    public record Position(PositionDto dto, double multiplier) {
+    }
+
+    /**
+     * @param positions   open positions ordered by code
+     * @param portfolio   aggregates of all positions
+     * @param expirations aggregates of the positions of each expiration date, ordered by date
+     * @param byTicker    open positions of each underlying ticker
+     * @param version     number of changes applied since the graph was created
+     */
+    public record Snapshot(List<PositionDto> positions,
+                           PortfolioFrame.Totals portfolio,
+                           Map<LocalDate, PortfolioFrame.Totals> expirations,
+                           Map<String, List<PositionDto>> byTicker,
+                           long version) {
+    }
+
+    private static final class TickerBucket {
+        private final LocalDate expiration;
+        private final String ticker;
+        private final TreeMap<String, Position> positions = new TreeMap<>();
+        private PortfolioFrame.Sums sums = new PortfolioFrame.Sums();
+
+        private TickerBucket(LocalDate expiration, String ticker) {
+            this.expiration = expiration;
+            this.ticker = ticker;
+        }
+
+        private void recompute() {
+            sums = PortfolioFrame.of(positions.values().stream().map(Position::dto).toList()).sums();
+        }
+    }
+
+    private static final class ExpirationBucket {
+        private final TreeMap<String, TickerBucket> tickers = new TreeMap<>();
+        private PortfolioFrame.Sums sums = new PortfolioFrame.Sums();
+        private PortfolioFrame.Totals totals;
+
+        private void recompute() {
+            sums = new PortfolioFrame.Sums();
+            for (TickerBucket bucket : tickers.values())
+                sums.add(bucket.sums);
+            totals = sums.totals();
+        }
+    }
+
+    private final TreeMap<String, Position> positions = new TreeMap<>();
+    private final Map<String, Set<String>> codesByTicker = new HashMap<>();
+    private final TreeMap<LocalDate, ExpirationBucket> expirations = new TreeMap<>();
+    private final Set<TickerBucket> dirty = new LinkedHashSet<>();
+    private long version;
+    private Snapshot snapshot = new Snapshot(List.of(), new PortfolioFrame.Sums().totals(), Map.of(), Map.of(), 0);
+
+    /**
+     * @return the aggregates after the last change
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replace the positions with the current ones, only the buckets of added, removed or changed
+     * positions are recomputed.
+     *
+     * @param current all open positions
+     * @return number of added, changed and removed positions
+     */
+    public int reconcile(Collection<Position> current) {
+        Map<String, Position> byCode = new HashMap<>();
+        for (Position position : current)
+            byCode.put(position.dto().getCode(), position);
+        int changes = 0;
+        for (String code : List.copyOf(positions.keySet())) {
+            if (!byCode.containsKey(code)) {
+                remove(code);
+                changes++;
+            }
+        }
+        for (Position position : byCode.values()) {
+            Position previous = positions.get(position.dto().getCode());
+            if (previous == null || !sameInputs(previous, position)) {
+                put(position);
+                changes++;
+            }
+        }
+        publish();
+        return changes;
+    }
+
+    /**
+     * Revalue the positions of the moved underlyings: marketValue, probability and the buckets they are in.
+     *
+     * @param pricesByTicker new underlying prices keyed by ticker
+     * @return number of revalued positions
+     */
+    public int updatePrices(Map<String, Double> pricesByTicker) {
+        int revalued = 0;
+        for (Map.Entry<String, Double> price : pricesByTicker.entrySet()) {
+            Set<String> codes = codesByTicker.get(price.getKey());
+            if (codes == null || price.getValue() == null)
+                continue;
+            for (String code : List.copyOf(codes)) {
+                Position position = positions.get(code);
+                double marketValue = price.getValue() * position.multiplier();
+                if (Objects.equals(position.dto().getMarketValue(), marketValue))
+                    continue;
+                put(new Position(withMarketValue(position.dto(), marketValue), position.multiplier()));
+                revalued++;
+            }
+        }
+        publish();
+        return revalued;
+    }
+
+    private void put(Position position) {
+        String code = position.dto().getCode();
+        if (positions.containsKey(code))
+            remove(code);
+        positions.put(code, position);
+        codesByTicker.computeIfAbsent(position.dto().getTicker(), t -> new HashSet<>()).add(code);
+        TickerBucket bucket = expirations
+                .computeIfAbsent(position.dto().getExpirationDate(), e -> new ExpirationBucket())
+                .tickers.computeIfAbsent(position.dto().getTicker(),
+                        t -> new TickerBucket(position.dto().getExpirationDate(), t));
+        bucket.positions.put(code, position);
+        dirty.add(bucket);
+    }
+
+    private void remove(String code) {
+        Position position = positions.remove(code);
+        Set<String> codes = codesByTicker.get(position.dto().getTicker());
+        codes.remove(code);
+        if (codes.isEmpty())
+            codesByTicker.remove(position.dto().getTicker());
+        TickerBucket bucket = expirations.get(position.dto().getExpirationDate()).tickers.get(position.dto().getTicker());
+        bucket.positions.remove(code);
+        dirty.add(bucket);
+    }
+
+    /**
+     * Recompute the dirty buckets and their ancestors, then publish the snapshot.
+     */
+    private void publish() {
+        if (dirty.isEmpty())
+            return;
+        Set<LocalDate> dirtyExpirations = new HashSet<>();
+        for (TickerBucket bucket : dirty) {
+            ExpirationBucket expiration = expirations.get(bucket.expiration);
+            if (bucket.positions.isEmpty())
+                expiration.tickers.remove(bucket.ticker);
+            else
+                bucket.recompute();
+            dirtyExpirations.add(bucket.expiration);
+        }
+        dirty.clear();
+        for (LocalDate date : dirtyExpirations) {
+            ExpirationBucket expiration = expirations.get(date);
+            if (expiration.tickers.isEmpty())
+                expirations.remove(date);
+            else
+                expiration.recompute();
+        }
+
+        PortfolioFrame.Sums portfolio = new PortfolioFrame.Sums();
+        Map<LocalDate, PortfolioFrame.Totals> expirationTotals = new TreeMap<>();
+        for (Map.Entry<LocalDate, ExpirationBucket> expiration : expirations.entrySet()) {
+            portfolio.add(expiration.getValue().sums);
+            expirationTotals.put(expiration.getKey(), expiration.getValue().totals);
+        }
+        Map<String, List<PositionDto>> byTicker = new HashMap<>();
+        for (Position position : positions.values())
+            byTicker.computeIfAbsent(position.dto().getTicker(), t -> new ArrayList<>()).add(position.dto());
+        byTicker.replaceAll((ticker, list) -> List.copyOf(list));
+        snapshot = new Snapshot(positions.values().stream().map(Position::dto).toList(), portfolio.totals(),
+                Collections.unmodifiableMap(expirationTotals), Map.copyOf(byTicker), ++version);
+    }
+
+    /**
+     * Copy of an open position at a new underlying price, published positions are replaced, not updated.
+     */
+    private static PositionDto withMarketValue(PositionDto dto, double marketValue) {
+        PositionDto copy = new PositionDto();
+        copy.setId(dto.getId());
+        copy.setConid(dto.getConid());
+        copy.setTicker(dto.getTicker());
+        copy.setCode(dto.getCode());
+        copy.setQuantity(dto.getQuantity());
+        copy.setTradeDate(dto.getTradeDate());
+        copy.setExpirationDate(dto.getExpirationDate());
+        copy.setPositionValue(dto.getPositionValue());
+        copy.setTradePrice(dto.getTradePrice());
+        copy.setMarketPrice(dto.getMarketPrice());
+        copy.setMarketValue(marketValue);
+        copy.setType(dto.getType());
+        copy.setUnRealizedProfitOrLoss(dto.getUnRealizedProfitOrLoss());
+        copy.setStatus(dto.getStatus());
+        copy.setAssetClass(dto.getAssetClass());
+        calculateAndSetAnnualizedRoi(copy);
+        return copy;
+    }
+
+    /**
+     * Same values of every field the position is aggregated or revalued from.
+     */
+    private static boolean sameInputs(Position a, Position b) {
+        PositionDto x = a.dto();
+        PositionDto y = b.dto();
+        return a.multiplier() == b.multiplier()
+                && x.getQuantity() == y.getQuantity()
+                && Objects.equals(x.getTicker(), y.getTicker())
+                && x.getType() == y.getType()
+                && Objects.equals(x.getTradeDate(), y.getTradeDate())
+                && Objects.equals(x.getExpirationDate(), y.getExpirationDate())
+                && Objects.equals(x.getDaysLeft(), y.getDaysLeft())
+                && Objects.equals(x.getPositionValue(), y.getPositionValue())
+                && Objects.equals(x.getTradePrice(), y.getTradePrice())
+                && Objects.equals(x.getMarketPrice(), y.getMarketPrice())
+                && Objects.equals(x.getMarketValue(), y.getMarketValue())
+                && Objects.equals(x.getUnRealizedProfitOrLoss(), y.getUnRealizedProfitOrLoss());
+    }
+}
@@ -2,7 +2,6 @@ package co.grtk.srcprofit.mapper;
 
 import co.grtk.srcprofit.entity.OptionType;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -182,10 +181,28 @@ public class PositionCalculationHelper {
             return 0;
         }
 
-        BigDecimal tradeValue = BigDecimal.valueOf(positionValue);
         double dailyStdDev = marketValue * DAILY_VOLATILITY_ESTIMATE;
 
-        return PositionMapper.probabilityMarketExceedsTradeValue(tradeValue, marketValue, dailyStdDev, daysBetween);
+        return PositionMapper.probabilityMarketExceedsTradeValue(positionValue, marketValue, dailyStdDev, daysBetween);
+    }
+
+    /**
+     * Batch form of {@link #calculateProbability(double, double, int)} over parallel arrays.
+     *
+     * @param positionValues underlying position values (strike prices)
+     * @param marketValues current or expected market values, same length
+     * @param daysBetween days until expiration, same length
+     * @return probabilities as percentages (0-100), 0 where the inputs are invalid
+     * @throws IllegalArgumentException if the array lengths differ
+     */
+    public static int[] calculateProbabilities(double[] positionValues, double[] marketValues, int[] daysBetween) {
+        int n = positionValues.length;
+        if (marketValues.length != n || daysBetween.length != n)
+            throw new IllegalArgumentException("Array lengths differ");
+        int[] probabilities = new int[n];
+        for (int i = 0; i < n; i++)
+            probabilities[i] = calculateProbability(positionValues[i], marketValues[i], daysBetween[i]);
+        return probabilities;
     }
 
     /**
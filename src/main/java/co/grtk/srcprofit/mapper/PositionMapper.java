@@ -2,9 +2,9 @@ package co.grtk.srcprofit.mapper;
 
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.AssetClass;
+import co.grtk.srcprofit.entity.OptionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import co.grtk.srcprofit.entity.OptionType;
-import org.apache.commons.math3.distribution.NormalDistribution;
 import org.springframework.util.MultiValueMap;
 
 import java.math.BigDecimal;
@@ -78,6 +78,82 @@ public class PositionMapper {
         return positionDto;
     }
 
+    /**
+     * Copies the persisted fields of an option onto a new PositionDto.
+     *
+     * Replaces objectMapper.convertValue(entity, PositionDto.class) on the position pages and keeps
+     * its semantics: null values of the entity leave the DTO defaults (color, quantity, assetClass) in place.
+     * Instrument dependent fields (ticker of the instrument, earningDate, marketValue of open positions)
+     * are set by the callers.
+     *
+     * @param entity option to copy
+     * @return new position DTO
+     */
+    public static PositionDto toPositionDto(OptionEntity entity) {
+        PositionDto dto = new PositionDto();
+        dto.setId(entity.getId());
+        dto.setConid(entity.getConid());
+        dto.setCode(entity.getCode());
+        dto.setTradeDate(entity.getTradeDate());
+        dto.setExpirationDate(entity.getExpirationDate());
+        dto.setNote(entity.getNote());
+        if (entity.getColor() != null)
+            dto.setColor(entity.getColor());
+        if (entity.getQuantity() != null)
+            dto.setQuantity(entity.getQuantity());
+        dto.setFee(entity.getFee());
+        dto.setAnnualizedRoiPercent(entity.getAnnualizedRoiPercent());
+        dto.setProbability(entity.getProbability());
+        dto.setDaysBetween(entity.getDaysBetween());
+        dto.setDaysLeft(entity.getDaysLeft());
+        if (entity.getAssetClass() != null)
+            dto.setAssetClass(entity.getAssetClass());
+        dto.setType(entity.getType());
+        dto.setStatus(entity.getStatus());
+        dto.setTicker(entity.getTicker());
+        dto.setTradePrice(entity.getTradePrice());
+        dto.setRealizedProfitOrLoss(entity.getRealizedProfitOrLoss());
+        dto.setPositionValue(entity.getPositionValue());
+        dto.setMarketValue(entity.getMarketValue());
+        dto.setMarketPrice(entity.getMarketPrice());
+        return dto;
+    }
+
+    /**
+     * Copies the fields of a position form onto a new, detached OptionEntity.
+     * Account, instrument and audit timestamps are not part of the DTO and stay null, unset
+     * DTO fields are copied as null (not the defaults of the DTO getters).
+     *
+     * @param dto position to copy
+     * @return new option entity
+     */
+    public static OptionEntity toOptionEntity(PositionDto dto) {
+        OptionEntity entity = new OptionEntity();
+        entity.setId(dto.getId());
+        entity.setConid(dto.getConid());
+        entity.setCode(dto.getCode());
+        entity.setTradeDate(dto.getTradeDate());
+        entity.setExpirationDate(dto.getExpirationDate());
+        entity.setNote(dto.getNote());
+        entity.setColor(dto.getColor());
+        entity.setQuantity(dto.getQuantity());
+        entity.setFee(dto.getFee());
+        entity.setAnnualizedRoiPercent(dto.getAnnualizedRoiPercent());
+        entity.setProbability(dto.getProbability());
+        entity.setDaysBetween(dto.getDaysBetween());
+        entity.setDaysLeft(dto.getDaysLeft());
+        entity.setAssetClass(dto.getAssetClass());
+        entity.setType(dto.getType());
+        entity.setStatus(dto.getStatus());
+        entity.setTicker(dto.getTicker());
+        entity.setTradePrice(dto.getTradePrice());
+        entity.setRealizedProfitOrLoss(dto.getRawRealizedProfitOrLoss());
+        entity.setPositionValue(dto.getPositionValue());
+        entity.setMarketValue(dto.getMarketValue());
+        entity.setMarketPrice(dto.getRawMarketPrice());
+        return entity;
+    }
+
     /**
      * Calculates ROI, break-even, and probability metrics for a position and sets them on the DTO.
      *
@@ -150,19 +226,25 @@ public class PositionMapper {
 
 
     public static int probabilityMarketExceedsTradeValue(BigDecimal tradeValue, double marketMean, double dailyStdDev, int days) {
-        if (tradeValue == null || tradeValue.compareTo(BigDecimal.ZERO) <= 0 || days <= 0 || marketMean <= 0 || dailyStdDev <= 0) {
+        if (tradeValue == null) {
             return 0;
         }
+        return probabilityMarketExceedsTradeValue(tradeValue.doubleValue(), marketMean, dailyStdDev, days);
+    }
 
-        double trade = tradeValue.doubleValue();
+    /**
+     * Allocation-free form of {@link #probabilityMarketExceedsTradeValue(BigDecimal, double, double, int)}.
+     */
+    public static int probabilityMarketExceedsTradeValue(double tradeValue, double marketMean, double dailyStdDev, int days) {
+        if (!(tradeValue > 0) || days <= 0 || marketMean <= 0 || dailyStdDev <= 0) {
+            return 0;
+        }
 
         // Szórás növelése idő szerint: σ × √t
         double timeAdjustedStdDev = dailyStdDev * Math.sqrt(days);
 
-        NormalDistribution distribution = new NormalDistribution(marketMean, timeAdjustedStdDev);
-
         // P(marketValue > tradeValue) = 1 - CDF(tradeValue)
-        double probability = 1.0 - distribution.cumulativeProbability(trade);
+        double probability = 1.0 - NormalCdf.cdf(tradeValue, marketMean, timeAdjustedStdDev);
 
         // 0–1 közötti valószínűség → opcionálisan szorozhatod 100-zal ha százalék kell
         return (int) (probability * 100);
@@ -0,0 +1,149 @@
+package co.grtk.srcprofit.mapper;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Scenario risk of the option contracts of one underlying over a grid of underlying moves × days forward.
+ *
+ * Every cell revalues the contracts with Black-Scholes at the moved underlying price and the
+ * remaining time, contracts expired by then are worth their intrinsic value. Per cell:
+ * - pnl: sum of units * (scenario value - current mark)
+ * - putObligation: strike * |units| of the short puts in the money, cash needed on assignment
+ * - callObligation: scenario price * |units| of the short calls in the money, value of the shares to deliver
+ * - margin: naked short option requirement, (scenario value + max(20% of the underlying - out of the
+ *   money amount, 10% of the strike for puts or of the underlying for calls)) * |units|
+ *
+ * Columns of different underlyings are independent, the portfolio matrix is their cell-wise sum.
+ */
+public class ScenarioMatrix {
+
+    private static final double DAYS_PER_YEAR = 365.0;
+
+    private ScenarioMatrix() {
+    }
+
+    /**
+     * @param moves relative underlying moves, -0.3 for -30%, each greater than -1
+     * @param days  days forward, 0 for today
+     */
+    public record Grid(List<Double> moves, List<Integer> days) {
+        public Grid {
+            if (moves.isEmpty() || days.isEmpty())
+                throw new IllegalArgumentException("moves and days must not be empty");
+            for (double move : moves) {
+                if (!(move > -1))
+                    throw new IllegalArgumentException("move must be greater than -100%: " + move);
+            }
+            for (int day : days) {
+                if (day < 0)
+                    throw new IllegalArgumentException("days must not be negative: " + day);
+            }
+            moves = List.copyOf(moves);
+            days = List.copyOf(days);
+        }
+
+        public int cells() {
+            return moves.size() * days.size();
+        }
+
+        /**
+         * @return index of a cell in the column arrays
+         */
+        public int cell(int move, int day) {
+            return move * days.size() + day;
+        }
+    }
+
+    /**
+     * @param call       true for a call, false for a put
+     * @param strike     strike price
+     * @param units      quantity * multiplier, negative for short contracts
+     * @param mark       current option price per unit
+     * @param expiration expiration date
+     */
+    public record Contract(boolean call, double strike, double units, double mark, LocalDate expiration) {
+    }
+
+    /**
+     * Inputs of one underlying's column, equal inputs give an equal column.
+     *
+     * @param spot          current underlying price
+     * @param volatility    annualized volatility
+     * @param rate          risk free rate
+     * @param valuationDate day the grid starts from
+     * @param contracts     contracts on the underlying
+     * @param grid          scenario grid
+     */
+    public record Inputs(double spot, double volatility, double rate, LocalDate valuationDate,
+                         List<Contract> contracts, Grid grid) {
+    }
+
+    /**
+     * Cell values of one underlying, indexed by Grid.cell.
+     */
+    public record Column(double[] pnl, double[] putObligation, double[] callObligation, double[] margin) {
+        Column(int cells) {
+            this(new double[cells], new double[cells], new double[cells], new double[cells]);
+        }
+    }
+
+    /**
+     * Revalue the contracts of one underlying over the grid, all cells priced as one BlackScholes chain.
+     *
+     * @param inputs column inputs
+     * @return the column
+     */
+    public static Column evaluate(Inputs inputs) {
+        Grid grid = inputs.grid();
+        List<Contract> contracts = inputs.contracts();
+        int cells = grid.cells();
+        Column column = new Column(cells);
+
+        BlackScholes.Chain chain = new BlackScholes.Chain(contracts.size() * cells);
+        for (int c = 0; c < contracts.size(); c++) {
+            Contract contract = contracts.get(c);
+            long daysToExpiration = ChronoUnit.DAYS.between(inputs.valuationDate(), contract.expiration());
+            for (int m = 0; m < grid.moves().size(); m++) {
+                double spot = inputs.spot() * (1 + grid.moves().get(m));
+                for (int d = 0; d < grid.days().size(); d++) {
+                    // Expiration day counts as one day of time value, expired contracts get NaN (intrinsic below)
+                    double years = (daysToExpiration + 1 - grid.days().get(d)) / DAYS_PER_YEAR;
+                    chain.set(c * cells + grid.cell(m, d), contract.call(), spot, contract.strike(), years,
+                            inputs.volatility());
+                }
+            }
+        }
+        BlackScholes.price(chain, inputs.rate());
+
+        for (int c = 0; c < contracts.size(); c++) {
+            Contract contract = contracts.get(c);
+            double strike = contract.strike();
+            double shortUnits = contract.units() < 0 ? -contract.units() : 0;
+            for (int m = 0; m < grid.moves().size(); m++) {
+                double spot = inputs.spot() * (1 + grid.moves().get(m));
+                double intrinsic = contract.call() ? Math.max(spot - strike, 0) : Math.max(strike - spot, 0);
+                for (int d = 0; d < grid.days().size(); d++) {
+                    int cell = grid.cell(m, d);
+                    double value = chain.price[c * cells + cell];
+                    if (Double.isNaN(value))
+                        value = intrinsic;
+                    column.pnl()[cell] += contract.units() * (value - contract.mark());
+                    if (shortUnits == 0)
+                        continue;
+                    if (intrinsic > 0) {
+                        if (contract.call())
+                            column.callObligation()[cell] += spot * shortUnits;
+                        else
+                            column.putObligation()[cell] += strike * shortUnits;
+                    }
+                    double outOfTheMoney = contract.call() ? Math.max(strike - spot, 0) : Math.max(spot - strike, 0);
+                    double minimum = 0.10 * (contract.call() ? spot : strike);
+                    column.margin()[cell] += (value + Math.max(0.20 * spot - outOfTheMoney, minimum)) * shortUnits;
+                }
+            }
+        }
+        return column;
+    }
+}
@@ -0,0 +1,103 @@
+package co.grtk.srcprofit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set-based JDBC maintenance of the OPTION_DAILY_PREMIUM ledger (see DailyPremiumEntity).
+ *
+ * The premium of a day is the sum of tradePrice * |quantity| of its trades rounded up (away from zero)
+ * to cents, the same figure OptionService used to compute from the OPTION table on every dashboard load.
+ * Days are re-derived from OPTION with one INSERT ... SELECT, the running total is not stored, it is built
+ * in memory by PremiumLedgerService. Writers lock the ledger so concurrent imports serialize.
+ * Column names follow the Spring Boot snake_case physical naming strategy.
+ */
+@Repository
+public class DailyPremiumJdbcRepository {
+
+    /**
+     * Per-day premium in cents from the OPTION table, trades without a price are skipped.
+     */
+    private static final String DAY_CENTS_SQL =
+            "SELECT trade_date, (sign(s) * ceil(abs(s) * 100))::bigint AS day_cents FROM (" +
+                    "SELECT trade_date, sum((trade_price * abs(quantity))::numeric) AS s FROM option " +
+                    "WHERE trade_price IS NOT NULL AND trade_date IS NOT NULL %s GROUP BY trade_date) d";
+
+    private static final String LOCK_SQL = "LOCK TABLE option_daily_premium IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String INSERT_DAYS_SQL =
+            "INSERT INTO option_daily_premium (trade_date, premium_cents) " +
+                    "SELECT trade_date, day_cents FROM (" + DAY_CENTS_SQL + ") p";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyPremiumJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One ledger row, amounts in cents.
+     */
+    public record PremiumDay(LocalDate tradeDate, long premiumCents) {
+    }
+
+    /**
+     * @return true if the ledger has no rows yet
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM option_daily_premium)", Boolean.class));
+    }
+
+    /**
+     * Loads the whole ledger, one row per trade date.
+     *
+     * @return ledger rows ordered by trade date
+     */
+    @Transactional(readOnly = true)
+    public List<PremiumDay> findAll() {
+        return jdbcTemplate.query(
+                "SELECT trade_date, premium_cents FROM option_daily_premium ORDER BY trade_date",
+                (rs, rowNum) -> new PremiumDay(rs.getObject(1, LocalDate.class), rs.getLong(2)));
+    }
+
+    /**
+     * Recomputes the whole ledger from the OPTION table.
+     *
+     * @return number of ledger rows
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update("DELETE FROM option_daily_premium");
+        return jdbcTemplate.update(INSERT_DAYS_SQL.formatted(""));
+    }
+
+    /**
+     * Re-derives the given trade dates from the OPTION table.
+     * Days without priced trades are removed from the ledger.
+     *
+     * @param tradeDates trade dates whose trades were inserted, updated or deleted
+     * @return number of re-derived ledger rows
+     */
+    @Transactional
+    public int refreshDays(Collection<LocalDate> tradeDates) {
+        if (tradeDates.isEmpty())
+            return 0;
+        Object[] dates = tradeDates.stream().distinct().map(Date::valueOf).toArray();
+        String placeholders = String.join(", ", Collections.nCopies(dates.length, "?"));
+
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update("DELETE FROM option_daily_premium WHERE trade_date IN (" + placeholders + ")", dates);
+        return jdbcTemplate.update(
+                INSERT_DAYS_SQL.formatted("AND trade_date IN (" + placeholders + ")"), dates);
+    }
+}
@@ -0,0 +1,59 @@
+package co.grtk.srcprofit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the INSTRUMENT table for the periodic market data refresh.
+ *
+ * Only the market data columns are written, one batched UPDATE per refresh instead of
+ * a full entity merge per instrument. Column names follow the Spring Boot snake_case
+ * physical naming strategy.
+ *
+ * Callers are expected to run inside a transaction (see InstrumentService).
+ */
+@Repository
+public class InstrumentJdbcRepository {
+
+    private static final String UPDATE_MARKET_DATA_SQL =
+            "UPDATE instrument SET name = ?, price = ?, change = ?, change_percent = ?, updated = ?, " +
+                    "updated_at = now() WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InstrumentJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * New market data values of a persisted instrument.
+     */
+    public record MarketDataUpdate(Long id, String name, Double price, Double change, Double changePercent,
+                                   LocalDateTime updated) {
+    }
+
+    /**
+     * Writes the market data columns of the given instruments with a single JDBC batch.
+     *
+     * @param updates new values, one per instrument id
+     * @return number of updated instruments
+     */
+    public int updateMarketData(List<MarketDataUpdate> updates) {
+        if (updates.isEmpty())
+            return 0;
+        jdbcTemplate.batchUpdate(UPDATE_MARKET_DATA_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setString(1, update.name());
+            ps.setObject(2, update.price(), Types.DOUBLE);
+            ps.setObject(3, update.change(), Types.DOUBLE);
+            ps.setObject(4, update.changePercent(), Types.DOUBLE);
+            ps.setTimestamp(5, update.updated() == null ? null : Timestamp.valueOf(update.updated()));
+            ps.setLong(6, update.id());
+        });
+        return updates.size();
+    }
+}
@@ -0,0 +1,106 @@
+package co.grtk.srcprofit.repository;
+
+import co.grtk.srcprofit.entity.OpenPositionEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based JDBC access to the OPEN_POSITION table for bulk FLEX imports.
+ *
+ * Upserts are keyed on the unique op_conid_idx using Postgres INSERT ... ON CONFLICT (conid),
+ * so one batched statement replaces per-row lookup + save round trips.
+ * Column names follow the Spring Boot snake_case physical naming strategy
+ * (note: percentOfNAV maps to percent_ofnav).
+ *
+ * Callers are expected to run inside a transaction (see OpenPositionService.upsertCSV).
+ */
+@Repository
+public class OpenPositionJdbcRepository {
+
+    private static final String[] COLUMNS = {
+            "conid", "account", "account_alias", "report_date", "asset_class", "sub_category", "currency",
+            "side", "level_of_detail", "symbol", "description", "multiplier", "quantity",
+            "cost_basis_price", "cost_basis_money", "mark_price", "position_value", "position_value_in_base",
+            "fx_rate_to_base", "open_price", "fifo_pnl_unrealized", "unrealized_capital_gains_pnl",
+            "unrealized_fx_pnl", "percent_ofnav", "security_id", "security_id_type", "cusip", "isin", "figi",
+            "sedol", "expiration_date", "strike", "put_call", "trade_date", "days_between", "roi",
+            "underlying_conid", "underlying_symbol", "underlying_security_id", "underlying_listing_exchange",
+            "principal_adjust_factor", "accrued_interest", "code", "holding_period_date_time",
+            "originating_order_id", "originating_transaction_id", "issuer", "issuer_country_code",
+            "commodity_type", "fineness", "weight", "delivery_type", "serial_number", "model", "open_date_time"
+    };
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO open_position (" + String.join(", ", COLUMNS) + ") " +
+                    "VALUES (" + Arrays.stream(COLUMNS).map(c -> "?").collect(Collectors.joining(", ")) + ") " +
+                    "ON CONFLICT (conid) DO UPDATE SET " +
+                    Arrays.stream(COLUMNS)
+                            .filter(c -> !"conid".equals(c))
+                            .map(c -> c + " = EXCLUDED." + c)
+                            .collect(Collectors.joining(", "));
+
+    private static final String DELETE_MISSING_SQL =
+            "DELETE FROM open_position WHERE account = ? AND conid <> ALL (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OpenPositionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts or updates all positions with a single JDBC batch keyed on conid.
+     * Columns not populated from the FLEX report (tradePrice) are left untouched on update.
+     *
+     * @param positions positions to upsert, conids must be unique within the list
+     * @return number of upserted rows
+     */
+    public int upsertBatch(List<OpenPositionEntity> positions) {
+        if (positions.isEmpty())
+            return 0;
+        List<Object[]> rows = positions.stream().map(OpenPositionJdbcRepository::toRow).toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        return rows.size();
+    }
+
+    /**
+     * Deletes the positions of an account whose conid is not in the given set (closed in IBKR).
+     *
+     * @param account account identifier
+     * @param conids  conids present in the latest report
+     * @return number of deleted rows
+     */
+    public int deleteByAccountAndConidNotIn(String account, Collection<Long> conids) {
+        return jdbcTemplate.execute(DELETE_MISSING_SQL, (PreparedStatementCallback<Integer>) ps -> {
+            Array conidArray = ps.getConnection().createArrayOf("bigint", conids.toArray());
+            ps.setString(1, account);
+            ps.setArray(2, conidArray);
+            return ps.executeUpdate();
+        });
+    }
+
+    private static Object[] toRow(OpenPositionEntity p) {
+        return new Object[]{
+                p.getConid(), p.getAccount(), p.getAccountAlias(), p.getReportDate(), p.getAssetClass(),
+                p.getSubCategory(), p.getCurrency(), p.getSide(), p.getLevelOfDetail(), p.getSymbol(),
+                p.getDescription(), p.getMultiplier(), p.getQuantity(), p.getCostBasisPrice(),
+                p.getCostBasisMoney(), p.getMarkPrice(), p.getPositionValue(), p.getPositionValueInBase(),
+                p.getFxRateToBase(), p.getOpenPrice(), p.getFifoPnlUnrealized(), p.getUnrealizedCapitalGainsPnl(),
+                p.getUnrealizedFxPnl(), p.getPercentOfNAV(), p.getSecurityId(), p.getSecurityIdType(),
+                p.getCusip(), p.getIsin(), p.getFigi(), p.getSedol(), p.getExpirationDate(), p.getStrike(),
+                p.getPutCall(), p.getTradeDate(), p.getDaysBetween(), p.getRoi(), p.getUnderlyingConid(),
+                p.getUnderlyingSymbol(), p.getUnderlyingSecurityId(), p.getUnderlyingListingExchange(),
+                p.getPrincipalAdjustFactor(), p.getAccruedInterest(), p.getCode(), p.getHoldingPeriodDateTime(),
+                p.getOriginatingOrderId(), p.getOriginatingTransactionId(), p.getIssuer(),
+                p.getIssuerCountryCode(), p.getCommodityType(), p.getFineness(), p.getWeight(),
+                p.getDeliveryType(), p.getSerialNumber(), p.getModel(), p.getOpenDateTime()
+        };
+    }
+}
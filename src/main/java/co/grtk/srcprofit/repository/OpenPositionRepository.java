@@ -13,8 +13,8 @@ import java.util.List;
 /**
  * Repository for OpenPositionEntity - IBKR Flex Report open positions snapshots.
  *
- * Provides data access methods for querying, inserting, and updating open positions.
- * The findByConid() method is critical for upsert logic (check if position exists before insert/update).
+ * Provides data access methods for querying open positions.
+ * Bulk CSV upserts and deletes go through {@link OpenPositionJdbcRepository}.
  *
  * @see OpenPositionEntity for entity structure
  * @see OpenPositionService for CSV parsing and persistence logic
@@ -22,19 +22,6 @@ import java.util.List;
 @Repository
 public interface OpenPositionRepository extends JpaRepository<OpenPositionEntity, Long> {
 
-    /**
-     * Upsert lookup: Find position by conid (contract ID).
-     *
-     * Returns the existing position if found, allowing saveCSV() to update it.
-     * Returns null if position doesn't exist, triggering a new insert.
-     *
-     * Natural key: conid is unique per contract (enforced by database constraint).
-     *
-     * @param conid IBKR contract ID
-     * @return OpenPositionEntity if found, null otherwise
-     */
-    OpenPositionEntity findByConid(Long conid);
-
     /**
      * Find all positions of a specific asset class.
      *
@@ -156,15 +143,4 @@ public interface OpenPositionRepository extends JpaRepository<OpenPositionEntity
            "LEFT JOIN op.underlyingInstrument " +
            "ORDER BY op.assetClass ASC, op.symbol ASC")
     List<OpenPositionEntity> findAllWithInstruments();
-
-    /**
-     * Find all positions for a specific account.
-     *
-     * Used by saveCSV() deletion logic to scope cleanup to positions from specific accounts.
-     * Enables account-scoped deletion: only positions from accounts present in CSV are deleted.
-     *
-     * @param account the client account ID (e.g., "DU12345")
-     * @return list of all positions for that account
-     */
-    List<OpenPositionEntity> findByAccount(String account);
 }
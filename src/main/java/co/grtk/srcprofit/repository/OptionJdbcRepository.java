@@ -0,0 +1,123 @@
+package co.grtk.srcprofit.repository;
+
+import co.grtk.srcprofit.entity.OptionEntity;
+import co.grtk.srcprofit.entity.OptionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to the OPTION table for bulk FLEX imports.
+ *
+ * OptionEntity uses IDENTITY ids, which disables Hibernate insert batching, so the
+ * streaming trades import writes new rows through JdbcTemplate batches instead.
+ * Column names follow the Spring Boot snake_case physical naming strategy.
+ */
+@Repository
+public class OptionJdbcRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO option (account, conid, status, asset_class, type, trade_date, expiration_date, " +
+                    "position_value, quantity, ticker, code, realized_profit_or_loss, trade_price, " +
+                    "instrument_id, market_value, days_between, days_left, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())";
+
+    private static final String UPDATE_MARKET_PRICE_SQL =
+            "UPDATE option SET market_price = ?, updated_at = now() WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OptionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Identity of an imported trade row, mirrors OptionRepository.findByConidAndStatusAndTradePrice.
+     */
+    public record TradeKey(Long conid, OptionStatus status, Double tradePrice) {
+    }
+
+    /**
+     * Loads the (conid, status, tradePrice) fingerprint of every stored option.
+     * Rows are streamed into the set through a server side cursor, no entity or
+     * intermediate list is materialized.
+     *
+     * @return mutable set of existing trade fingerprints
+     */
+    @Transactional(readOnly = true)
+    public Set<TradeKey> findAllTradeKeys() {
+        Set<TradeKey> keys = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT conid, status, trade_price FROM option");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Long conid = rs.getObject(1, Long.class);
+            String status = rs.getString(2);
+            Double tradePrice = rs.getObject(3, Double.class);
+            keys.add(new TradeKey(conid, status == null ? null : OptionStatus.valueOf(status), tradePrice));
+        });
+        return keys;
+    }
+
+    /**
+     * Inserts new option rows with a single JDBC batch, committed as one chunk.
+     * The instrument of every option must already be persisted.
+     *
+     * @param options new (unsaved) option entities
+     * @return number of inserted rows
+     */
+    @Transactional
+    public int insertBatch(List<OptionEntity> options) {
+        if (options.isEmpty())
+            return 0;
+        jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, options, options.size(), (ps, option) -> {
+            ps.setString(1, option.getAccount());
+            ps.setObject(2, option.getConid());
+            ps.setString(3, option.getStatus().name());
+            ps.setString(4, option.getAssetClass().name());
+            ps.setString(5, option.getType().name());
+            ps.setDate(6, Date.valueOf(option.getTradeDate()));
+            ps.setDate(7, Date.valueOf(option.getExpirationDate()));
+            ps.setDouble(8, option.getPositionValue());
+            ps.setInt(9, option.getQuantity());
+            ps.setString(10, option.getTicker());
+            ps.setString(11, option.getCode());
+            ps.setObject(12, option.getRealizedProfitOrLoss());
+            ps.setDouble(13, option.getTradePrice());
+            ps.setLong(14, option.getInstrument().getId());
+            ps.setDouble(15, option.getMarketValue());
+            ps.setObject(16, option.getDaysBetween());
+            ps.setObject(17, option.getDaysLeft());
+        });
+        return options.size();
+    }
+
+    /**
+     * Writes new market prices with a single JDBC batch.
+     *
+     * @param marketPrices market price by option id
+     * @return number of updated rows
+     */
+    @Transactional
+    public int updateMarketPrices(Map<Long, Double> marketPrices) {
+        if (marketPrices.isEmpty())
+            return 0;
+        List<Map.Entry<Long, Double>> rows = List.copyOf(marketPrices.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_MARKET_PRICE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setDouble(1, row.getValue());
+            ps.setLong(2, row.getKey());
+        });
+        return rows.size();
+    }
+}
@@ -5,11 +5,13 @@ import co.grtk.srcprofit.entity.OptionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -137,4 +139,48 @@ public interface OptionRepository extends JpaRepository<OptionEntity, Long> {
             "WHERE o.conid = :conid " +
             "ORDER BY o.tradeDate ASC")
     List<OptionEntity> findByConid(@Param("conid") Long conid);
-}
\ No newline at end of file
+
+    /**
+     * Batch variant of {@link #findByConid(Long)}, trades of every contract in trade date order.
+     */
+    @Query("SELECT o " +
+            "FROM OptionEntity o " +
+            "WHERE o.conid IN (:conids) " +
+            "ORDER BY o.conid ASC, o.tradeDate ASC")
+    List<OptionEntity> findByConidIn(@Param("conids") Collection<Long> conids);
+
+    /**
+     * Projection of the earliest trade date per option contract.
+     */
+    interface FirstTradeDate {
+        Long getConid();
+
+        LocalDate getTradeDate();
+    }
+
+    @Query("SELECT o.conid AS conid, MIN(o.tradeDate) AS tradeDate " +
+            "FROM OptionEntity o " +
+            "WHERE o.conid IN (:conids) " +
+            "GROUP BY o.conid")
+    List<FirstTradeDate> findFirstTradeDates(@Param("conids") Collection<Long> conids);
+
+    /**
+     * Orphan trade predicate used by the FLEX trades data fix.
+     * A row is kept only if its conid has an OPEN row and either a CLOSED row (closed pair, see findAllClosed)
+     * or an unexpired OPEN row (see findAllOpen). Anti-joins on opt_conid_status_idx, no rows are loaded.
+     */
+    String ORPHAN_TRADE_PREDICATE =
+            "NOT EXISTS (SELECT 1 FROM option p WHERE p.conid = o.conid AND p.status = 'OPEN') " +
+            "OR (NOT EXISTS (SELECT 1 FROM option c WHERE c.conid = o.conid AND c.status = 'CLOSED') " +
+            "AND NOT EXISTS (SELECT 1 FROM option p WHERE p.conid = o.conid AND p.status = 'OPEN' " +
+            "AND p.expiration_date >= :expirationDate))";
+
+    @Query(value = "SELECT o.id FROM option o WHERE " + ORPHAN_TRADE_PREDICATE + " ORDER BY o.id",
+            nativeQuery = true)
+    List<Long> findOrphanTradeIds(@Param("expirationDate") LocalDate expirationDate);
+
+    @Modifying
+    @Query(value = "DELETE FROM option o WHERE " + ORPHAN_TRADE_PREDICATE,
+            nativeQuery = true)
+    int deleteOrphanTrades(@Param("expirationDate") LocalDate expirationDate);
+}
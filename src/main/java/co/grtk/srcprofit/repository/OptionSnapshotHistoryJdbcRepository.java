@@ -0,0 +1,215 @@
+package co.grtk.srcprofit.repository;
+
+import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only JDBC store of intraday option snapshots (OPTION_SNAPSHOT_HISTORY).
+ *
+ * OPTION_SNAPSHOT keeps only the latest values per OCC symbol, every refresh also appends
+ * one row per contract here. The table is range partitioned by UTC day on captured_at:
+ * - BRIN index on captured_at (rows arrive in time order, the index stays a few pages per partition)
+ * - B-tree index on (symbol, captured_at) for per-contract series reads
+ * - Partitions are created on demand, retention rolls a whole day into
+ *   OPTION_SNAPSHOT_HISTORY_HOURLY (1-hour OHLC of mid/IV/delta) and drops the partition
+ *
+ * Hibernate ddl-auto cannot create partitioned tables, the parent tables and indexes are created
+ * by V006__Add_Option_Snapshot_History.sql, only the day partitions are created here (on write).
+ * Partition names are generated from dates only, never from user input.
+ */
+@Repository
+public class OptionSnapshotHistoryJdbcRepository {
+    private static final Logger log = LoggerFactory.getLogger(OptionSnapshotHistoryJdbcRepository.class);
+
+    private static final String PARTITION_PREFIX = "option_snapshot_history_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO option_snapshot_history (symbol, captured_at, underlying_price, bid_price, ask_price, " +
+                    "mid_price, last_trade_price, implied_volatility, delta, gamma, theta, vega) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_POINTS_SQL =
+            "SELECT captured_at, underlying_price, bid_price, ask_price, mid_price, implied_volatility, delta, theta " +
+                    "FROM option_snapshot_history WHERE symbol = ? AND captured_at >= ? AND captured_at < ? " +
+                    "ORDER BY captured_at";
+
+    private static final String SELECT_BARS_SQL =
+            "SELECT bucket_start, mid_open, mid_high, mid_low, mid_close, iv_open, iv_high, iv_low, iv_close, " +
+                    "delta_open, delta_high, delta_low, delta_close, samples " +
+                    "FROM option_snapshot_history_hourly WHERE symbol = ? AND bucket_start >= ? AND bucket_start < ? " +
+                    "ORDER BY bucket_start";
+
+    private static final String SELECT_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+                    "JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "JOIN pg_class p ON p.oid = i.inhparent " +
+                    "WHERE p.relname = 'option_snapshot_history'";
+
+    private static final String ROLLUP_SQL_TEMPLATE =
+            "INSERT INTO option_snapshot_history_hourly (symbol, bucket_start, " +
+                    "mid_open, mid_high, mid_low, mid_close, iv_open, iv_high, iv_low, iv_close, " +
+                    "delta_open, delta_high, delta_low, delta_close, samples) " +
+                    "SELECT symbol, date_trunc('hour', captured_at), " +
+                    ohlc("mid_price") + ", " + ohlc("implied_volatility") + ", " + ohlc("delta") + ", count(*) " +
+                    "FROM %s GROUP BY symbol, date_trunc('hour', captured_at) " +
+                    "ON CONFLICT (symbol, bucket_start) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<LocalDate> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public OptionSnapshotHistoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One raw history row of a contract.
+     */
+    public record HistoryPoint(OffsetDateTime capturedAt, BigDecimal underlyingPrice, BigDecimal bidPrice,
+                               BigDecimal askPrice, BigDecimal midPrice, BigDecimal impliedVolatility,
+                               BigDecimal delta, BigDecimal theta) {
+    }
+
+    /**
+     * One rolled up hour of a contract: OHLC of mid price, implied volatility and delta.
+     */
+    public record HourlyBar(OffsetDateTime bucketStart,
+                            BigDecimal midOpen, BigDecimal midHigh, BigDecimal midLow, BigDecimal midClose,
+                            BigDecimal ivOpen, BigDecimal ivHigh, BigDecimal ivLow, BigDecimal ivClose,
+                            BigDecimal deltaOpen, BigDecimal deltaHigh, BigDecimal deltaLow, BigDecimal deltaClose,
+                            int samples) {
+    }
+
+    /**
+     * Appends one row per snapshot with a single JDBC batch, all stamped with the same capture time.
+     *
+     * @param snapshots  snapshots of one refresh, instrument price is used as underlying price
+     * @param capturedAt capture time of the refresh
+     * @return number of appended rows
+     */
+    @Transactional
+    public int insertBatch(List<OptionSnapshotEntity> snapshots, OffsetDateTime capturedAt) {
+        if (snapshots.isEmpty())
+            return 0;
+        ensurePartition(capturedAt.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate());
+        jdbcTemplate.batchUpdate(INSERT_SQL, snapshots, snapshots.size(), (ps, s) -> {
+            ps.setString(1, s.symbol);
+            ps.setObject(2, capturedAt);
+            ps.setObject(3, s.instrument == null || s.instrument.getPrice() == null
+                    ? null : BigDecimal.valueOf(s.instrument.getPrice()));
+            ps.setBigDecimal(4, s.bidPrice);
+            ps.setBigDecimal(5, s.askPrice);
+            ps.setBigDecimal(6, s.getMidPrice());
+            ps.setBigDecimal(7, s.lastTradePrice);
+            ps.setBigDecimal(8, s.impliedVolatility);
+            ps.setBigDecimal(9, s.delta);
+            ps.setBigDecimal(10, s.gamma);
+            ps.setBigDecimal(11, s.theta);
+            ps.setBigDecimal(12, s.vega);
+        });
+        return snapshots.size();
+    }
+
+    /**
+     * Raw history of a contract, served from the (symbol, captured_at) index of the pruned partitions.
+     *
+     * @param symbol OCC symbol
+     * @param from   inclusive start
+     * @param to     exclusive end
+     * @return points in capture order
+     */
+    @Transactional(readOnly = true)
+    public List<HistoryPoint> findPoints(String symbol, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.query(SELECT_POINTS_SQL, (rs, rowNum) -> new HistoryPoint(
+                rs.getObject(1, OffsetDateTime.class),
+                rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5),
+                rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getBigDecimal(8)
+        ), symbol, from, to);
+    }
+
+    /**
+     * Rolled up hourly bars of a contract.
+     *
+     * @param symbol OCC symbol
+     * @param from   inclusive start
+     * @param to     exclusive end
+     * @return bars in time order
+     */
+    @Transactional(readOnly = true)
+    public List<HourlyBar> findHourlyBars(String symbol, OffsetDateTime from, OffsetDateTime to) {
+        return jdbcTemplate.query(SELECT_BARS_SQL, (rs, rowNum) -> new HourlyBar(
+                rs.getObject(1, OffsetDateTime.class),
+                rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getBigDecimal(5),
+                rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getBigDecimal(8), rs.getBigDecimal(9),
+                rs.getBigDecimal(10), rs.getBigDecimal(11), rs.getBigDecimal(12), rs.getBigDecimal(13),
+                rs.getInt(14)
+        ), symbol, from, to);
+    }
+
+    /**
+     * Days that still have a raw partition.
+     *
+     * @return partition days, unordered
+     */
+    public List<LocalDate> findPartitionDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(SELECT_PARTITIONS_SQL, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches())
+                days.add(LocalDate.parse(matcher.group(1), PARTITION_SUFFIX));
+        }
+        return days;
+    }
+
+    /**
+     * Rolls the raw rows of one day into hourly bars and drops the day partition, in one transaction.
+     *
+     * @param day partition day (UTC)
+     * @return number of hourly bars written
+     */
+    @Transactional
+    public int rollupAndDropPartition(LocalDate day) {
+        String partition = partitionName(day);
+        int bars = jdbcTemplate.update(ROLLUP_SQL_TEMPLATE.formatted(partition));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        knownPartitions.remove(day);
+        return bars;
+    }
+
+    private void ensurePartition(LocalDate day) {
+        if (knownPartitions.contains(day))
+            return;
+        OffsetDateTime start = day.atStartOfDay().atOffset(ZoneOffset.UTC);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) +
+                " PARTITION OF option_snapshot_history FOR VALUES FROM ('" + start + "') TO ('" + start.plusDays(1) + "')");
+        knownPartitions.add(day);
+        log.debug("Option snapshot history partition ready for {}", day);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    private static String ohlc(String column) {
+        return "(array_agg(" + column + " ORDER BY captured_at) FILTER (WHERE " + column + " IS NOT NULL))[1], " +
+                "max(" + column + "), min(" + column + "), " +
+                "(array_agg(" + column + " ORDER BY captured_at DESC) FILTER (WHERE " + column + " IS NOT NULL))[1]";
+    }
+}
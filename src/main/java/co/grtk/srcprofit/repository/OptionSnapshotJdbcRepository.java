@@ -0,0 +1,76 @@
+package co.grtk.srcprofit.repository;
+
+import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based JDBC access to the OPTION_SNAPSHOT table for the periodic Alpaca snapshot refresh.
+ *
+ * OptionSnapshotEntity uses IDENTITY ids, which disables Hibernate insert batching and turns
+ * every save of a detached snapshot into a SELECT + UPDATE. Upserts are keyed on the unique
+ * opt_snap_symbol_idx using Postgres INSERT ... ON CONFLICT (symbol), one batch per chunk.
+ * Column names follow the Spring Boot snake_case physical naming strategy.
+ */
+@Repository
+public class OptionSnapshotJdbcRepository {
+
+    private static final String[] COLUMNS = {
+            "symbol", "instrument_id", "option_type", "strike_price", "expiration_date",
+            "last_trade_time", "last_trade_exchange", "last_trade_price", "last_trade_size",
+            "last_quote_time", "ask_exchange", "ask_price", "ask_size", "bid_exchange", "bid_price", "bid_size",
+            "delta", "gamma", "theta", "vega", "rho", "implied_volatility",
+            "days_left", "roi_on_collateral", "roi_on_premium", "pop"
+    };
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO option_snapshot (" + String.join(", ", COLUMNS) +
+                    ", created_at, updated_at, snapshot_updated_at) " +
+                    "VALUES (" + Arrays.stream(COLUMNS).map(c -> "?").collect(Collectors.joining(", ")) +
+                    ", now(), now(), now()) " +
+                    "ON CONFLICT (symbol) DO UPDATE SET " +
+                    Arrays.stream(COLUMNS)
+                            .filter(c -> !"symbol".equals(c))
+                            .map(c -> c + " = EXCLUDED." + c)
+                            .collect(Collectors.joining(", ")) +
+                    ", updated_at = now(), snapshot_updated_at = now()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OptionSnapshotJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts or updates the given snapshots with a single JDBC batch keyed on symbol,
+     * committed as one chunk. The instrument of every snapshot must already be persisted.
+     *
+     * @param snapshots snapshots to upsert, symbols must be unique within the list
+     * @return number of upserted rows
+     */
+    @Transactional
+    public int upsertBatch(List<OptionSnapshotEntity> snapshots) {
+        if (snapshots.isEmpty())
+            return 0;
+        List<Object[]> rows = snapshots.stream().map(OptionSnapshotJdbcRepository::toRow).toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        return rows.size();
+    }
+
+    private static Object[] toRow(OptionSnapshotEntity s) {
+        return new Object[]{
+                s.symbol, s.instrument.getId(), s.optionType, s.strikePrice,
+                s.expirationDate == null ? null : Date.valueOf(s.expirationDate),
+                s.lastTradeTime, s.lastTradeExchange, s.lastTradePrice, s.lastTradeSize,
+                s.lastQuoteTime, s.askExchange, s.askPrice, s.askSize, s.bidExchange, s.bidPrice, s.bidSize,
+                s.delta, s.gamma, s.theta, s.vega, s.rho, s.impliedVolatility,
+                s.daysLeft, s.roiOnCollateral, s.roiOnPremium, s.pop
+        };
+    }
+}
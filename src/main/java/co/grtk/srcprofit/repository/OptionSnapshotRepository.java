@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +30,16 @@ public interface OptionSnapshotRepository extends JpaRepository<OptionSnapshotEn
      */
     Optional<OptionSnapshotEntity> findBySymbol(String symbol);
 
+    /**
+     * Find the option snapshots of many OCC symbols with a single IN query.
+     *
+     * Used by the snapshot refresh to prefetch existing rows before the batched upsert.
+     *
+     * @param symbols OCC symbols
+     * @return snapshots found, in no particular order
+     */
+    List<OptionSnapshotEntity> findBySymbolIn(Collection<String> symbols);
+
     /**
      * Find all snapshots for a specific instrument.
      *
@@ -97,4 +108,28 @@ public interface OptionSnapshotRepository extends JpaRepository<OptionSnapshotEn
             InstrumentEntity instrument,
             String optionType
     );
+
+    /**
+     * Average implied volatility of each underlying over its unexpired snapshots.
+     *
+     * Used as the volatility input of the portfolio risk simulation.
+     *
+     * @param today Snapshots expiring before this date are ignored
+     * @return One row per instrument that has at least one snapshot with an implied volatility
+     */
+    @Query("SELECT o.instrument.id AS instrumentId, AVG(o.impliedVolatility) AS impliedVolatility " +
+           "FROM OptionSnapshotEntity o " +
+           "WHERE o.impliedVolatility IS NOT NULL AND o.impliedVolatility > 0 " +
+           "AND o.expirationDate >= :today " +
+           "GROUP BY o.instrument.id")
+    List<UnderlyingVolatility> findAverageImpliedVolatilityByInstrument(@Param("today") LocalDate today);
+
+    /**
+     * Projection of findAverageImpliedVolatilityByInstrument.
+     */
+    interface UnderlyingVolatility {
+        Long getInstrumentId();
+
+        Double getImpliedVolatility();
+    }
 }
@@ -0,0 +1,143 @@
+package co.grtk.srcprofit.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client side limiter for the Alpaca Data API fan-out.
+ *
+ * Combines two limits:
+ * - Token bucket: at most {@code burst} requests at once, refilled at {@code permitsPerSecond}
+ *   (Alpaca allows 200 requests/minute on the basic plan)
+ * - AIMD concurrency window: the number of in-flight requests grows by one per window of
+ *   successful responses (additive increase) and is halved on HTTP 429 (multiplicative decrease),
+ *   which also drains the bucket and pauses all callers for the Retry-After period
+ *
+ * Thread-safe, callers block in {@link #acquire()} (cheap on virtual threads) and must report
+ * the outcome with exactly one of {@link #onSuccess()}, {@link #onThrottled(long)} or {@link #onFailure()}.
+ *
+ * @see AlpacaService
+ */
+public class AlpacaRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int maxConcurrency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private double concurrencyWindow;
+    private int inFlight;
+
+    public AlpacaRateLimiter(double permitsPerSecond, int burst, int maxConcurrency) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxConcurrency = maxConcurrency;
+        this.tokens = burst;
+        this.concurrencyWindow = maxConcurrency;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Blocks until both a token and a concurrency slot are available.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                if (inFlight >= getConcurrencyLimit()) {
+                    stateChanged.await();
+                    continue;
+                }
+                if (now - pausedUntilNanos >= 0 && tokens >= 1) {
+                    tokens -= 1;
+                    inFlight++;
+                    return;
+                }
+                long waitForPause = pausedUntilNanos - now;
+                long waitForToken = (long) Math.ceil((1 - tokens) / permitsPerNano);
+                stateChanged.awaitNanos(Math.max(Math.max(waitForPause, waitForToken), TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a successful request and widens the concurrency window (additive increase).
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            inFlight--;
+            concurrencyWindow = Math.min(maxConcurrency, concurrencyWindow + 1.0 / concurrencyWindow);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a throttled (HTTP 429) request, halves the concurrency window
+     * (multiplicative decrease) and pauses every caller for the given period.
+     *
+     * @param retryAfterMillis pause requested by the server (Retry-After)
+     */
+    public void onThrottled(long retryAfterMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            concurrencyWindow = Math.max(1.0, concurrencyWindow / 2);
+            tokens = 0;
+            long resumeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+            if (resumeAt - pausedUntilNanos > 0)
+                pausedUntilNanos = resumeAt;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a request that failed for any other reason, the window is unchanged.
+     */
+    public void onFailure() {
+        lock.lock();
+        try {
+            inFlight--;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return current number of requests allowed in flight
+     */
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return (int) concurrencyWindow;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * permitsPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import co.grtk.srcprofit.dto.AlpacaContractsResponseDto;
 import co.grtk.srcprofit.dto.AlpacaMarketDataDto;
 import co.grtk.srcprofit.dto.AlpacaOptionSnapshotDto;
 import co.grtk.srcprofit.dto.AlpacaOptionSnapshotsResponseDto;
+import co.grtk.srcprofit.dto.AlpacaQuoteDto;
 import co.grtk.srcprofit.dto.AlpacaQuotesDto;
 import co.grtk.srcprofit.dto.AlpacaSingleAssetDto;
 import co.grtk.srcprofit.entity.InstrumentEntity;
@@ -15,24 +16,44 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClient;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class AlpacaService {
     private static final Logger log = LoggerFactory.getLogger(AlpacaService.class);
 
+    // Symbols per Data API request, keeps the query string well below URL and API limits
+    static final int MAX_SYMBOLS_PER_REQUEST = 100;
+    private static final int MAX_THROTTLED_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000;
+
     private final RestClient alpacaRestClient;
     private final RestClient alpacaTradingRestClient;
     private final ObjectMapper mapper;
     private final InstrumentRepository instrumentRepository;
+    // 200 requests/minute, bursts of 10, at most 8 chunks in flight
+    private final AlpacaRateLimiter rateLimiter = new AlpacaRateLimiter(200.0 / 60, 10, 8);
 
     public AlpacaService(@Qualifier("alpacaRestClient") RestClient alpacaRestClient,
                          @Qualifier("alpacaTradingRestClient") RestClient alpacaTradingRestClient,
@@ -44,57 +65,198 @@ public class AlpacaService {
         this.instrumentRepository = instrumentRepository;
     }
 
+    /**
+     * Latest stock quotes, fetched in chunks of MAX_SYMBOLS_PER_REQUEST symbols (see fetchInChunks).
+     *
+     * @param symbolsCsv comma separated tickers, any length
+     * @return merged quotes keyed by ticker
+     */
     public AlpacaQuotesDto getStocksLatestQuotes(String symbolsCsv) {
-        AlpacaQuotesDto alpacaQuotesDto = alpacaRestClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/v2/stocks/quotes/latest")
-                        .queryParam("symbols", symbolsCsv)
-                        .build())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(new ParameterizedTypeReference<AlpacaQuotesDto>() {
-                });
-        int count = (alpacaQuotesDto != null && alpacaQuotesDto.getQuotes() != null) ? alpacaQuotesDto.getQuotes().size() : 0;
-        log.info("getStocksLatestQuotes /v2/stocks/quotes/latest returned {}", count);
+        Map<String, AlpacaQuoteDto> quotes = fetchInChunks("/v2/stocks/quotes/latest", symbolsCsv, chunk -> {
+            AlpacaQuotesDto alpacaQuotesDto = alpacaRestClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/v2/stocks/quotes/latest")
+                            .queryParam("symbols", chunk)
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<AlpacaQuotesDto>() {
+                    });
+            return alpacaQuotesDto != null ? alpacaQuotesDto.getQuotes() : null;
+        });
+        log.info("getStocksLatestQuotes /v2/stocks/quotes/latest returned {}", quotes.size());
+        AlpacaQuotesDto alpacaQuotesDto = new AlpacaQuotesDto();
+        alpacaQuotesDto.setQuotes(quotes);
         return alpacaQuotesDto;
     }
 
+    /**
+     * Latest option quotes, fetched in chunks of MAX_SYMBOLS_PER_REQUEST contracts (see fetchInChunks).
+     *
+     * @param symbolsCsv comma separated OCC option symbols, any length
+     * @return merged quotes keyed by option symbol
+     */
     public AlpacaQuotesDto getOptionsLatestQuotes(String symbolsCsv) throws JsonProcessingException {
-        String json = alpacaRestClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/v1beta1/options/quotes/latest")
-                        .queryParam("feed", "indicative")
-                        .queryParam("symbols", symbolsCsv)
-                        .build())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(String.class);
-
-
-        AlpacaQuotesDto alpacaQuotesDto = mapper.readValue(json, AlpacaQuotesDto.class);
-
-        int count = (alpacaQuotesDto != null && alpacaQuotesDto.getQuotes() != null) ? alpacaQuotesDto.getQuotes().size() : 0;
-        log.info("getOptionsLatestQuotes /v1beta1/options/quotes/latest returned {}", count);
+        Map<String, AlpacaQuoteDto> quotes = fetchInChunks("/v1beta1/options/quotes/latest", symbolsCsv, chunk -> {
+            String json = alpacaRestClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/v1beta1/options/quotes/latest")
+                            .queryParam("feed", "indicative")
+                            .queryParam("symbols", chunk)
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .body(String.class);
+            try {
+                AlpacaQuotesDto alpacaQuotesDto = mapper.readValue(json, AlpacaQuotesDto.class);
+                return alpacaQuotesDto != null ? alpacaQuotesDto.getQuotes() : null;
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to parse option quotes", e);
+            }
+        });
+        log.info("getOptionsLatestQuotes /v1beta1/options/quotes/latest returned {}", quotes.size());
+        AlpacaQuotesDto alpacaQuotesDto = new AlpacaQuotesDto();
+        alpacaQuotesDto.setQuotes(quotes);
         return alpacaQuotesDto;
     }
 
+    /**
+     * Stock snapshots (latest trade, quote and bars), fetched in chunks of MAX_SYMBOLS_PER_REQUEST
+     * symbols (see fetchInChunks).
+     *
+     * @param symbolsCsv comma separated tickers, any length
+     * @return merged snapshots keyed by ticker
+     */
     public AlpacaMarketDataDto getMarketDataSnapshot(String symbolsCsv) {
-        Map<String, AlpacaSingleAssetDto> quotes = alpacaRestClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/v2/stocks/snapshots")
-                        .queryParam("symbols", symbolsCsv)
-                        .build())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .body(new ParameterizedTypeReference<Map<String, AlpacaSingleAssetDto>>() {
-                });
-        int count = (quotes != null) ? quotes.size() : 0;
-        log.info("getMarketData /v2/stocks/snapshots returned {}", count);
+        Map<String, AlpacaSingleAssetDto> quotes = fetchInChunks("/v2/stocks/snapshots", symbolsCsv, chunk ->
+                alpacaRestClient.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/v2/stocks/snapshots")
+                                .queryParam("symbols", chunk)
+                                .build())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<Map<String, AlpacaSingleAssetDto>>() {
+                        }));
+        log.info("getMarketData /v2/stocks/snapshots returned {}", quotes.size());
         AlpacaMarketDataDto alpacaMarketDataDto = new AlpacaMarketDataDto();
         alpacaMarketDataDto.setQuotes(quotes);
         return alpacaMarketDataDto;
     }
 
+    /**
+     * Fans a symbol list out to the Alpaca Data API.
+     *
+     * The symbols are de-duplicated and split into chunks of MAX_SYMBOLS_PER_REQUEST, every chunk
+     * is fetched on its own virtual thread under the shared AlpacaRateLimiter and the partial maps
+     * are merged in chunk order. Throttled chunks (HTTP 429) are retried after the Retry-After pause.
+     * A failing chunk is logged and skipped, only a failure of every chunk fails the call.
+     *
+     * @param endpoint     endpoint path, for logging
+     * @param symbolsCsv   comma separated symbols
+     * @param chunkFetcher fetches one comma separated chunk, returns symbol keyed results (or null)
+     * @return merged results keyed by symbol
+     */
+    private <T> Map<String, T> fetchInChunks(String endpoint, String symbolsCsv, Function<String, Map<String, T>> chunkFetcher) {
+        List<String> chunks = chunkSymbols(symbolsCsv, MAX_SYMBOLS_PER_REQUEST);
+        Map<String, T> merged = new LinkedHashMap<>();
+        if (chunks.isEmpty())
+            return merged;
+
+        RuntimeException lastFailure = null;
+        int failedChunks = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, T>>> futures = chunks.stream()
+                    .map(chunk -> executor.submit(() -> callRateLimited(() -> chunkFetcher.apply(chunk))))
+                    .toList();
+            for (Future<Map<String, T>> future : futures) {
+                try {
+                    Map<String, T> part = future.get();
+                    if (part != null)
+                        merged.putAll(part);
+                } catch (ExecutionException e) {
+                    failedChunks++;
+                    lastFailure = e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+                    log.error("fetchInChunks {} chunk failed - {}", endpoint, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching " + endpoint, e);
+        }
+        if (failedChunks == chunks.size())
+            throw lastFailure;
+        log.debug("fetchInChunks {} {} chunks, {} failed, {} results, concurrency limit {}",
+                endpoint, chunks.size(), failedChunks, merged.size(), rateLimiter.getConcurrencyLimit());
+        return merged;
+    }
+
+    /**
+     * Runs one Alpaca Data API request under the shared AlpacaRateLimiter.
+     * Throttled requests (HTTP 429) are retried after the Retry-After pause.
+     *
+     * @param request the HTTP call
+     * @return the request result
+     * @throws InterruptedException if interrupted while waiting for a permit
+     */
+    private <T> T callRateLimited(Supplier<T> request) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                T result = request.get();
+                rateLimiter.onSuccess();
+                return result;
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value() || attempt > MAX_THROTTLED_RETRIES) {
+                    rateLimiter.onFailure();
+                    throw e;
+                }
+                long retryAfterMillis = getRetryAfterMillis(e);
+                rateLimiter.onThrottled(retryAfterMillis);
+                log.warn("Alpaca throttled (429), attempt {}/{}, retrying in {}ms with concurrency limit {}",
+                        attempt, MAX_THROTTLED_RETRIES, retryAfterMillis, rateLimiter.getConcurrencyLimit());
+            } catch (RuntimeException e) {
+                rateLimiter.onFailure();
+                throw e;
+            }
+        }
+    }
+
+    private static long getRetryAfterMillis(HttpStatusCodeException e) {
+        String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException _) {
+                // HTTP-date form, fall back to the default pause
+            }
+        }
+        return DEFAULT_RETRY_AFTER_MS;
+    }
+
+    /**
+     * Splits a comma separated symbol list into comma separated chunks.
+     * Blank entries and duplicates are dropped, the original order is kept.
+     *
+     * @param symbolsCsv comma separated symbols (null or blank gives no chunks)
+     * @param chunkSize  maximum symbols per chunk
+     * @return comma separated chunks
+     */
+    static List<String> chunkSymbols(String symbolsCsv, int chunkSize) {
+        if (symbolsCsv == null || symbolsCsv.isBlank())
+            return List.of();
+        List<String> symbols = Arrays.stream(symbolsCsv.split(","))
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .toList();
+        List<String> chunks = new ArrayList<>();
+        for (int from = 0; from < symbols.size(); from += chunkSize) {
+            chunks.add(String.join(",", symbols.subList(from, Math.min(from + chunkSize, symbols.size()))));
+        }
+        return chunks;
+    }
+
     /**
      * Fetch asset metadata from Alpaca Assets API
      *
@@ -262,6 +424,9 @@ public class AlpacaService {
      * Note: Expiration date filtering is not supported by this endpoint,
      * so filtering is done locally after API response.
      *
+     * Thread-safe, requests share the AlpacaRateLimiter with the quote fan-out so
+     * concurrent callers stay within the Alpaca request budget.
+     *
      * @param underlyingSymbol The underlying stock symbol (e.g., "AAPL")
      * @param type Option type: "call" or "put"
      * @param strikePriceGte Minimum strike price (e.g., "80.00")
@@ -276,7 +441,7 @@ public class AlpacaService {
                                                                String strikePriceGte,
                                                                String strikePriceLte) {
         try {
-            String json = alpacaRestClient.get()
+            String json = callRateLimited(() -> alpacaRestClient.get()
                     .uri(uriBuilder -> uriBuilder
                             .path("/v1beta1/options/snapshots/{symbol}")
                             .queryParam("feed", "indicative")
@@ -286,7 +451,7 @@ public class AlpacaService {
                             .build(underlyingSymbol))
                     .accept(MediaType.APPLICATION_JSON)
                     .retrieve()
-                    .body(String.class);
+                    .body(String.class));
 
             AlpacaOptionSnapshotsResponseDto response = mapper.readValue(json, AlpacaOptionSnapshotsResponseDto.class);
 
@@ -296,6 +461,9 @@ public class AlpacaService {
             log.info("getOptionSnapshots /v1beta1/options/snapshots/{} returned {} snapshots (type={})",
                     underlyingSymbol, count, type);
             return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching option snapshots for " + underlyingSymbol, e);
         } catch (Exception e) {
             log.error("Error fetching option snapshots for symbol {} (type={}): {}",
                     underlyingSymbol, type, e.getMessage(), e);
@@ -0,0 +1,267 @@
+package co.grtk.srcprofit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional streaming ingestion of the stock trades of the held underlyings from the Alpaca
+ * market data websocket (ALPACA_STREAM_ENABLED, default false).
+ *
+ * Streamed trades are conflated in a QuoteBook and written in batches by the flush job
+ * (MarketDataService.flushStreamedTrades). While the stream is up the REST poll skips the
+ * streamed tickers, after a dropped connection it polls every ticker again and the next poll
+ * reconnects. Option quotes are always polled, the option stream is only served as MessagePack.
+ *
+ * ALPACA_STREAM_URL selects the feed, default the IEX feed. For development it can point to the
+ * AlpacaStreamStandIn test server, e.g. ws://localhost:8765/v2/iex.
+ *
+ * Metrics: srcprofit.alpaca.stream.trades
+ */
+@Service
+public class AlpacaStreamService {
+    private static final Logger log = LoggerFactory.getLogger(AlpacaStreamService.class);
+
+    static final String DEFAULT_STREAM_URL = "wss://stream.data.alpaca.markets/v2/iex";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final URI streamUri;
+    private final String apiKey;
+    private final String apiSecret;
+    private final HttpClient httpClient;
+    private final QuoteBook quoteBook = new QuoteBook();
+    private final Counter streamedTrades;
+
+    private final ReentrantLock connectLock = new ReentrantLock();
+    private volatile WebSocket webSocket;
+    private volatile boolean authenticated;
+    private volatile Set<String> requested = Set.of();
+    private volatile Set<String> streamed = Set.of();
+    private CompletableFuture<?> sending = CompletableFuture.completedFuture(null);
+
+    public AlpacaStreamService(ObjectMapper objectMapper, Environment environment, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = environment.getProperty("ALPACA_STREAM_ENABLED", Boolean.class, false);
+        this.streamUri = URI.create(environment.getProperty("ALPACA_STREAM_URL", DEFAULT_STREAM_URL));
+        this.apiKey = enabled ? environment.getRequiredProperty("ALPACA_API_KEY") : null;
+        this.apiSecret = enabled ? environment.getRequiredProperty("ALPACA_API_SECRET_KEY") : null;
+        this.httpClient = enabled ? HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build() : null;
+        this.streamedTrades = Counter.builder("srcprofit.alpaca.stream.trades").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        WebSocket current = webSocket;
+        if (current != null)
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true while the connection is authenticated, trades of the streamed tickers arrive
+     */
+    public boolean isStreaming() {
+        return authenticated && webSocket != null;
+    }
+
+    /**
+     * @return tickers whose trades are streamed, empty while the stream is down
+     */
+    public Set<String> getStreamedTickers() {
+        return isStreaming() ? streamed : Set.of();
+    }
+
+    /**
+     * Streams the trades of the tickers, connects first if the stream is down. Called by every poll,
+     * which keeps the subscription in line with the held positions and reconnects a dropped stream.
+     *
+     * @param tickers underlying tickers of the open positions
+     */
+    public void subscribe(Collection<String> tickers) {
+        if (!enabled)
+            return;
+        requested = Set.copyOf(tickers);
+        WebSocket current = webSocket;
+        if (current == null)
+            connect();
+        else if (authenticated)
+            updateSubscription(current);
+    }
+
+    /**
+     * @return the newest trade of every ticker that traded since the last drain
+     */
+    public Map<String, QuoteBook.Trade> drain() {
+        return quoteBook.drain();
+    }
+
+    private void connect() {
+        connectLock.lock();
+        try {
+            if (webSocket != null)
+                return;
+            authenticated = false;
+            streamed = Set.of();
+            WebSocket socket = httpClient.newWebSocketBuilder()
+                    .buildAsync(streamUri, new StreamListener())
+                    .get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (socket.isInputClosed()) {
+                // Closed before it became the current connection, its disconnect was ignored
+                log.warn("Alpaca stream connection to {} closed while connecting, polling", streamUri);
+                return;
+            }
+            webSocket = socket;
+            log.info("Alpaca stream connected to {}", streamUri);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Alpaca stream connection to {} failed, polling: {}", streamUri, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connectLock.unlock();
+        }
+    }
+
+    /**
+     * Handles one websocket message, an array of control messages and trades.
+     */
+    void onMessages(WebSocket socket, String json) {
+        JsonNode messages;
+        try {
+            messages = objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            log.warn("Alpaca stream message could not be parsed: {}", e.getMessage());
+            return;
+        }
+        for (JsonNode message : messages) {
+            switch (message.path("T").asText()) {
+                case "t" -> {
+                    if (!message.hasNonNull("p") || !message.hasNonNull("t"))
+                        continue;
+                    quoteBook.put(message.path("S").asText(), new QuoteBook.Trade(
+                            message.path("p").asDouble(), OffsetDateTime.parse(message.path("t").asText())));
+                    streamedTrades.increment();
+                }
+                case "success" -> {
+                    if ("connected".equals(message.path("msg").asText())) {
+                        send(socket, Map.of("action", "auth", "key", apiKey, "secret", apiSecret));
+                    } else if ("authenticated".equals(message.path("msg").asText())) {
+                        authenticated = true;
+                        updateSubscription(socket);
+                    }
+                }
+                case "subscription" -> {
+                    Set<String> tickers = new HashSet<>();
+                    message.path("trades").forEach(ticker -> tickers.add(ticker.asText()));
+                    streamed = Set.copyOf(tickers);
+                    log.info("Alpaca stream subscribed to the trades of {} tickers", tickers.size());
+                }
+                case "error" -> {
+                    // Authentication, connection limit or subscription errors, polling takes over
+                    socket.abort();
+                    disconnected(socket, "error " + message.path("code").asInt() + " " + message.path("msg").asText());
+                    return;
+                }
+                default -> log.debug("Alpaca stream message ignored: {}", message);
+            }
+        }
+    }
+
+    private void updateSubscription(WebSocket socket) {
+        Set<String> current = streamed;
+        Set<String> subscribe = new HashSet<>(requested);
+        subscribe.removeAll(current);
+        Set<String> unsubscribe = new HashSet<>(current);
+        unsubscribe.removeAll(requested);
+        if (!subscribe.isEmpty())
+            send(socket, Map.of("action", "subscribe", "trades", subscribe));
+        if (!unsubscribe.isEmpty())
+            send(socket, Map.of("action", "unsubscribe", "trades", unsubscribe));
+    }
+
+    /**
+     * A websocket accepts one outstanding send, messages are chained.
+     */
+    private synchronized void send(WebSocket socket, Map<String, Object> message) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Alpaca stream message could not be serialized", e);
+        }
+        sending = sending
+                .exceptionally(e -> null)
+                .thenCompose(previous -> socket.sendText(json, true))
+                .whenComplete((sent, e) -> {
+                    if (e != null)
+                        log.warn("Alpaca stream {} failed: {}", message.get("action"), e.getMessage());
+                });
+    }
+
+    /**
+     * Resets the stream state, unless a late callback of a replaced connection reports it.
+     */
+    private void disconnected(WebSocket socket, String reason) {
+        if (socket != webSocket)
+            return;
+        webSocket = null;
+        authenticated = false;
+        streamed = Set.of();
+        log.warn("Alpaca stream disconnected ({}), polling until the next reconnect", reason);
+    }
+
+
+    private final class StreamListener implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                String json = text.toString();
+                text.setLength(0);
+                onMessages(socket, json);
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            disconnected(socket, statusCode + " " + reason);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            disconnected(socket, error.getMessage());
+        }
+    }
+}
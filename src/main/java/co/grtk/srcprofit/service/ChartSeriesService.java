@@ -0,0 +1,89 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.ChartDataDto;
+import co.grtk.srcprofit.dto.ChartSeriesDto;
+import co.grtk.srcprofit.mapper.Interval;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+
+/**
+ * Dashboard chart series (cumulative premium and daily NAV) served from the in-memory
+ * premium ledger and NAV series, plus the version tag used for HTTP revalidation.
+ *
+ * @see PremiumLedgerService
+ * @see NetAssetValueService
+ */
+@Service
+public class ChartSeriesService {
+
+    /**
+     * Distinguishes the version counters of this process from the ones before a restart.
+     */
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final PremiumLedgerService premiumLedgerService;
+    private final NetAssetValueService netAssetValueService;
+
+    public ChartSeriesService(PremiumLedgerService premiumLedgerService, NetAssetValueService netAssetValueService) {
+        this.premiumLedgerService = premiumLedgerService;
+        this.netAssetValueService = netAssetValueService;
+    }
+
+    /**
+     * Version of the series of an interval, changes with every trade or NAV import and,
+     * for calendar intervals, with the day. Must be taken before the series it tags.
+     *
+     * @param interval chart interval
+     * @return opaque version string
+     */
+    public String getVersion(Interval interval) {
+        return instanceId + "-" + premiumLedgerService.getVersion() + "-" + netAssetValueService.getVersion()
+                + "-" + interval.name().toLowerCase() + "-" + LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * @param interval chart interval
+     * @return premium and NAV series of the interval
+     */
+    public ChartSeriesDto getSeries(Interval interval) {
+        ChartDataDto bounds = new ChartDataDto(interval);
+        PremiumLedgerService.PremiumSeries premium =
+                premiumLedgerService.getCumulativeSeries(bounds.getStartDate(), bounds.getEndDate());
+        NetAssetValueService.NavSlice nav =
+                netAssetValueService.getNavSlice(bounds.getStartDate(), bounds.getEndDate());
+        return new ChartSeriesDto(bounds.getInterval(),
+                premium.epochDays(), premium.cumulativeCents(),
+                nav.epochDays(), nav.totalCents(), nav.cashCents(), nav.stockCents(), nav.optionsCents());
+    }
+
+    /**
+     * Binary form of a series, little-endian:
+     * int32 premium count, int32[] premium days, int64[] premium cents,
+     * int32 NAV count, int32[] NAV days, int64[] total, cash, stock and options cents.
+     *
+     * @param series chart series
+     * @return encoded series
+     */
+    public static byte[] toBinary(ChartSeriesDto series) {
+        int premiumCount = series.premiumDays().length;
+        int navCount = series.navDays().length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + premiumCount * 12 + 4 + navCount * (4 + 4 * 8))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(premiumCount);
+        buffer.asIntBuffer().put(series.premiumDays());
+        buffer.position(buffer.position() + premiumCount * 4);
+        buffer.asLongBuffer().put(series.premiumCents());
+        buffer.position(buffer.position() + premiumCount * 8);
+        buffer.putInt(navCount);
+        buffer.asIntBuffer().put(series.navDays());
+        buffer.position(buffer.position() + navCount * 4);
+        for (long[] column : new long[][]{series.totalCents(), series.cashCents(), series.stockCents(), series.optionsCents()}) {
+            buffer.asLongBuffer().put(column);
+            buffer.position(buffer.position() + navCount * 8);
+        }
+        return buffer.array();
+    }
+}
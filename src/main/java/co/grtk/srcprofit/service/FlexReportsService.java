@@ -1,21 +1,35 @@
 package co.grtk.srcprofit.service;
 
+import co.grtk.srcprofit.dto.CsvImportResult;
 import co.grtk.srcprofit.dto.FlexImportHistoryDto;
 import co.grtk.srcprofit.dto.FlexStatementResponse;
 import co.grtk.srcprofit.entity.FlexStatementResponseEntity;
+import co.grtk.srcprofit.mapper.FlexImportHistoryMapper;
 import co.grtk.srcprofit.repository.FlexStatementResponseRepository;
-import com.ctc.wstx.io.CharsetNames;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Service for orchestrating FLEX report imports from Interactive Brokers.
@@ -23,22 +37,29 @@ import java.util.List;
  * Handles the complete FLEX import workflow:
  * 1. SendRequest - Initiates report generation, returns reference code
  * 2. Metadata Persistence - Saves FLEX API response to database (audit trail)
- * 3. Wait - 15 seconds for report generation
- * 4. GetStatement - Retrieves generated CSV report using reference code
- * 5. File Write - Saves CSV to local filesystem
- * 6. CSV Parsing - Parses CSV and saves to database
- * 7. Data Cleanup - Removes orphaned records
+ * 3. Poll - GetStatement with exponential backoff until the report is generated,
+ *    the response body is streamed straight into a gzip archive (~/FLEX_*.csv.gz).
+ *    The first delay is IBKR_FLEX_POLL_DELAY_MS (default 2000)
+ * 4. CSV Parsing - Streams the archive through the CSV parser and saves to database
+ * 5. Data Cleanup - Removes orphaned records
+ *
+ * Import State Machine (persisted in FlexStatementResponseEntity.importState):
+ * REQUESTED -> POLLING -> DOWNLOADED -> IMPORTED, any step can end in FAILED.
+ * Every transition is a short write of its own, no transaction or DB connection is
+ * held while waiting for IBKR to generate the report.
+ *
+ * Memory: the report is never held as a String, download and parsing both stream,
+ * so heap usage does not grow with the report size.
  *
  * Transaction Management:
- * - Both import methods are @Transactional
- * - Entire workflow is atomic (API call + metadata + CSV parsing)
- * - Rollback occurs if any step fails
+ * - The import methods are not transactional, only the CSV parsing step writes
+ *   (OptionService / NetAssetValueService / OpenPositionService own their transactions)
+ * - The CSV parsing steps of concurrent imports are serialized (see importLock)
  *
- * IMPORTANT: This service is stateless orchestration only. Scheduling is handled
+ * IMPORTANT: This service is orchestration only. Scheduling is handled
  * by ScheduledJobsService. Use this service for the actual FLEX API orchestration logic.
  *
- * Note: This implementation uses a thread-safe, stateless approach. Each call is
- * independent with no shared mutable state (unlike the previous instance variable approach).
+ * Note: Each call is independent, the only shared state is the import lock.
  * This makes it safe for concurrent execution from both scheduled jobs and manual API endpoints.
  *
  * @see ScheduledJobsService for @Scheduled annotations (job scheduling)
@@ -51,31 +72,54 @@ import java.util.List;
 public class FlexReportsService {
     private static final Logger log = LoggerFactory.getLogger(FlexReportsService.class);
     private static final int MAX_RETRY_ATTEMPTS = 5;
-    private static final long WAIT_FOR_REPORT_MS = 15000;  // 15 seconds
+    private static final long DEFAULT_POLL_DELAY_MS = 2000;
+
+    static final String STATE_REQUESTED = "REQUESTED";
+    static final String STATE_POLLING = "POLLING";
+    static final String STATE_DOWNLOADED = "DOWNLOADED";
+    static final String STATE_IMPORTED = "IMPORTED";
+    static final String STATE_FAILED = "FAILED";
+
+    // GetStatement error codes meaning "not ready yet, try again later"
+    // 1009: server under heavy load, 1018: too many requests,
+    // 1019: statement generation in progress, 1021: statement could not be retrieved at this time
+    private static final Set<String> STATEMENT_NOT_READY_CODES = Set.of("1009", "1018", "1019", "1021");
+    private static final int STATEMENT_HEAD_CHARS = 2048;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern ERROR_CODE_PATTERN = Pattern.compile("<ErrorCode>\\s*(\\d+)\\s*</ErrorCode>");
 
     private final IbkrService ibkrService;
     private final OptionService optionService;
     private final NetAssetValueService netAssetValueService;
     private final OpenPositionService openPositionService;
+    private final OpenPositionsReadModel openPositionsReadModel;
+    private final PortfolioAggregationService portfolioAggregationService;
     private final Environment environment;
     private final FlexStatementResponseRepository flexStatementResponseRepository;
-    private final ObjectMapper objectMapper;
+    private final long initialPollDelayMs;  // doubled after every attempt
     private final String userHome = System.getProperty("user.home");
 
+    // Report downloads run concurrently, the CSV parsing steps are serialized because
+    // trades and open positions imports may both create the same (unique ticker) instrument
+    private final ReentrantLock importLock = new ReentrantLock();
+
     public FlexReportsService(IbkrService ibkrService,
                               OptionService optionService,
                               NetAssetValueService netAssetValueService,
                               OpenPositionService openPositionService,
+                              OpenPositionsReadModel openPositionsReadModel,
+                              PortfolioAggregationService portfolioAggregationService,
                               Environment environment,
-                              FlexStatementResponseRepository flexStatementResponseRepository,
-                              ObjectMapper objectMapper) {
+                              FlexStatementResponseRepository flexStatementResponseRepository) {
         this.ibkrService = ibkrService;
         this.optionService = optionService;
         this.netAssetValueService = netAssetValueService;
         this.openPositionService = openPositionService;
+        this.openPositionsReadModel = openPositionsReadModel;
+        this.portfolioAggregationService = portfolioAggregationService;
         this.environment = environment;
         this.flexStatementResponseRepository = flexStatementResponseRepository;
-        this.objectMapper = objectMapper;
+        this.initialPollDelayMs = environment.getProperty("IBKR_FLEX_POLL_DELAY_MS", Long.class, DEFAULT_POLL_DELAY_MS);
     }
 
     /**
@@ -97,6 +141,8 @@ public class FlexReportsService {
             entity.setReportType(reportType);
             entity.setOriginalTimestamp(response.getTimestamp());
             entity.setDbUrl(environment.getProperty("SRCPROFIT_DB_URL"));
+            entity.setImportState(STATE_REQUESTED);
+            entity.setPollAttempts(0);
 
             flexStatementResponseRepository.save(entity);
             log.debug("Saved FlexStatementResponse to database: referenceCode={}, reportType={}, requestDate={}, dbUrl={}",
@@ -107,21 +153,173 @@ public class FlexReportsService {
         }
     }
 
+    /**
+     * Polls the FLEX GetStatement API until the report is generated and archives it.
+     *
+     * Waits IBKR_FLEX_POLL_DELAY_MS before the first call and doubles the delay after every
+     * "not ready" answer (1019 generation in progress, 1018 throttled, ...), giving up after
+     * MAX_RETRY_ATTEMPTS calls. The attempt count is persisted with every state transition.
+     *
+     * Every answer is streamed into ~/{filePrefix}{referenceCode}.csv.gz, only its head is
+     * read back to tell the report apart from a FlexStatementResponse error document.
+     *
+     * @param response the SendRequest response holding the reference code and statement URL
+     * @param filePrefix archive file name prefix (e.g., "FLEX_TRADES_")
+     * @return the gzip archive holding the generated CSV report
+     * @throws IllegalStateException if IBKR answers with a non-retryable error or the report is not ready in time
+     * @throws InterruptedException if interrupted while waiting between attempts
+     * @throws IOException if the archive cannot be written or read
+     */
+    private File downloadFlexStatement(FlexStatementResponse response, String filePrefix)
+            throws InterruptedException, IOException {
+        String referenceCode = response.getReferenceCode();
+        File file = new File(userHome + "/" + filePrefix + referenceCode + ".csv.gz");
+        long delay = initialPollDelayMs;
+        for (int attempt = 1; attempt <= MAX_RETRY_ATTEMPTS; attempt++) {
+            Thread.sleep(delay);
+            long bytes = ibkrService.downloadFlexWebServiceStatement(response.getUrl(), referenceCode, file.toPath());
+            String errorCode = getStatementErrorCode(readStatementHead(file));
+            if (errorCode == null) {
+                log.debug("downloadFlexStatement referenceCode {} archived {} bytes to {}", referenceCode, bytes, file.getAbsolutePath());
+                updateImportState(referenceCode, STATE_DOWNLOADED, attempt, null);
+                return file;
+            }
+            Files.deleteIfExists(file.toPath());
+            if (!STATEMENT_NOT_READY_CODES.contains(errorCode)) {
+                throw new IllegalStateException("FLEX GetStatement failed for " + referenceCode + " with ErrorCode " + errorCode);
+            }
+            log.debug("downloadFlexStatement referenceCode {} not ready (ErrorCode {}), attempt {}/{}, next poll in {}ms",
+                    referenceCode, errorCode, attempt, MAX_RETRY_ATTEMPTS, delay * 2);
+            updateImportState(referenceCode, STATE_POLLING, attempt, null);
+            delay *= 2;
+        }
+        throw new IllegalStateException("FLEX statement " + referenceCode + " not ready after " + MAX_RETRY_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Opens a streaming reader over a gzip statement archive.
+     */
+    static Reader openStatement(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file.toPath()), STREAM_BUFFER_SIZE),
+                StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the first STATEMENT_HEAD_CHARS characters of a statement archive, enough to
+     * hold a complete FlexStatementResponse error document.
+     */
+    private static String readStatementHead(File file) throws IOException {
+        try (Reader reader = openStatement(file)) {
+            char[] head = new char[STATEMENT_HEAD_CHARS];
+            int length = 0;
+            int read;
+            while (length < head.length && (read = reader.read(head, length, head.length - length)) != -1) {
+                length += read;
+            }
+            return new String(head, 0, length);
+        }
+    }
+
+    /**
+     * Returns the ErrorCode of a GetStatement answer, or null if the answer is the report itself.
+     * Errors are returned as a FlexStatementResponse XML document instead of the CSV report.
+     */
+    static String getStatementErrorCode(String statement) {
+        if (statement == null)
+            return "EMPTY";
+        String trimmed = statement.stripLeading();
+        if (!trimmed.startsWith("<FlexStatementResponse") && !trimmed.startsWith("<?xml"))
+            return null;
+        Matcher matcher = ERROR_CODE_PATTERN.matcher(trimmed);
+        return matcher.find() ? matcher.group(1) : "UNKNOWN";
+    }
+
+    /**
+     * Persists an import state transition of a FLEX statement. Failures are logged only,
+     * monitoring must never break the import itself.
+     */
+    private void updateImportState(String referenceCode, String state, Integer pollAttempts, String error) {
+        if (referenceCode == null)
+            return;
+        try {
+            FlexStatementResponseEntity entity = flexStatementResponseRepository.findByReferenceCode(referenceCode);
+            if (entity == null)
+                return;
+            entity.setImportState(state);
+            if (pollAttempts != null)
+                entity.setPollAttempts(pollAttempts);
+            if (error != null)
+                entity.setImportError(error.length() > 500 ? error.substring(0, 500) : error);
+            flexStatementResponseRepository.save(entity);
+        } catch (Exception e) {
+            log.debug("Failed to update FlexStatementResponse {} to {}: {}", referenceCode, state, e.getMessage(), e);
+        }
+    }
+
+    private void markFailed(String referenceCode, Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        updateImportState(referenceCode, STATE_FAILED, null, String.valueOf(cause.getMessage()));
+    }
+
+    /**
+     * Runs a CSV parsing step while holding the import lock.
+     */
+    private <T> T withImportLock(Callable<T> importStep) throws Exception {
+        importLock.lock();
+        try {
+            return importStep.call();
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    /**
+     * Imports the Trades, Net Asset Value and Open Positions reports concurrently.
+     *
+     * Each report runs on its own virtual thread, so the backoff waits for the three
+     * statements overlap instead of adding up. A failing report does not abort the others,
+     * it is reported as FAILED in the summary (details in the log and FlexStatementResponseEntity).
+     *
+     * @return Summary: "TRADES={result} NAV={result} OPEN_POSITIONS={result}"
+     */
+    public String importAllFlexReports() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> trades = executor.submit(this::importFlexTrades);
+            Future<String> nav = executor.submit(this::importFlexNetAssetValue);
+            Future<String> openPositions = executor.submit(this::importFlexOpenPositions);
+            return "TRADES=" + getImportResult("TRADES", trades) +
+                    " NAV=" + getImportResult("NAV", nav) +
+                    " OPEN_POSITIONS=" + getImportResult("OPEN_POSITIONS", openPositions);
+        }
+    }
+
+    private String getImportResult(String reportType, Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for FLEX " + reportType + " import", e);
+        } catch (ExecutionException e) {
+            log.error("FLEX {} import failed - {}", reportType, e.getCause().getMessage(), e.getCause());
+            return "FAILED";
+        }
+    }
+
     /**
      * Imports FLEX Trades report from IBKR.
      *
      * Workflow:
      * 1. Calls FLEX SendRequest API to initiate report generation
      * 2. Saves response metadata to database
-     * 3. Waits 15 seconds for report generation
-     * 4. Calls FLEX GetStatement API to retrieve CSV
-     * 5. Writes CSV to file: ~/FLEX_TRADES_{referenceCode}.csv
-     * 6. Parses CSV and saves trades to database (OptionService)
-     * 7. Runs data cleanup to remove orphaned records (OptionService.dataFix)
+     * 3. Polls FLEX GetStatement API with backoff and streams the CSV to ~/FLEX_TRADES_{referenceCode}.csv.gz
+     * 4. Streams the archive into the database (OptionService.saveCSV(Reader))
+     * 5. Runs data cleanup to remove orphaned records (OptionService.dataFix)
      *
-     * Transactional:
-     * - Entire workflow is atomic (API call + metadata + CSV parsing)
-     * - Rollback occurs if any step fails
+     * Not transactional:
+     * - The streaming import commits its inserts in chunks, wrapping it in one
+     *   transaction would pin a connection for the whole import
+     * - Re-running the import is safe, already stored trades are skipped
      *
      * Environment Variables Required:
      * - IBKR_FLEX_TRADES_ID: Query ID for trades report
@@ -129,9 +327,9 @@ public class FlexReportsService {
      * @return Success: "{csvRecords}/{dataFixRecords}/0" (e.g., "42/3/0")
      * @throws RuntimeException if API call fails or CSV parsing fails
      */
-    @Transactional
     public String importFlexTrades() {
         long start = System.currentTimeMillis();
+        String referenceCode = null;
         try {
             // Check if IBKR_FLEX_TRADES_ID is configured
             String flexTradesId = environment.getProperty("IBKR_FLEX_TRADES_ID");
@@ -144,15 +342,18 @@ public class FlexReportsService {
 
             // Save FLEX statement response metadata to database
             saveFlexStatementResponse(flexTradesResponse, "TRADES");
+            referenceCode = flexTradesResponse.getReferenceCode();
 
             log.debug("importFlexTrades flexTradesResponse {}", flexTradesResponse);
-            Thread.sleep(WAIT_FOR_REPORT_MS);
-
-            String flexTradesQuery = ibkrService.getFlexWebServiceGetStatement(flexTradesResponse.getUrl(), flexTradesResponse.getReferenceCode());
-            File file = new File(userHome + "/FLEX_TRADES_" + flexTradesResponse.getReferenceCode() + ".csv");
-            FileUtils.write(file, flexTradesQuery, CharsetNames.CS_UTF8);
-            var csvImportResult = optionService.saveCSV(flexTradesQuery);
+            File file = downloadFlexStatement(flexTradesResponse, "FLEX_TRADES_");
+            CsvImportResult csvImportResult = withImportLock(() -> {
+                try (Reader reader = openStatement(file)) {
+                    return optionService.saveCSV(reader);
+                }
+            });
             int dataFixRecords = optionService.dataFix();
+            // Trade dates and prices of the open positions page come from the trades
+            openPositionsReadModel.rebuild();
 
             // Update entity with monitoring fields
             FlexStatementResponseEntity entity = flexStatementResponseRepository.findByReferenceCode(flexTradesResponse.getReferenceCode());
@@ -162,6 +363,7 @@ public class FlexReportsService {
                 entity.setCsvFailedRecordsCount(csvImportResult.getFailedRecords());
                 entity.setCsvSkippedRecordsCount(csvImportResult.getSkippedRecords());
                 entity.setDataFixRecordsCount(dataFixRecords);
+                entity.setImportState(STATE_IMPORTED);
                 flexStatementResponseRepository.save(entity);
                 log.debug("Updated FlexStatementResponse with monitoring fields: successful={}, failed={}, skipped={}, dataFixRecords={}, csvFilePath={}",
                         csvImportResult.getSuccessfulRecords(), csvImportResult.getFailedRecords(),
@@ -173,8 +375,10 @@ public class FlexReportsService {
             return csvImportResult.getSuccessfulRecords() + "/" + dataFixRecords + "/" + csvImportResult.getFailedRecords();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            markFailed(referenceCode, e);
             throw new RuntimeException("Interrupted while waiting for FLEX report", e);
         } catch (Exception e) {
+            markFailed(referenceCode, e);
             throw new RuntimeException("Failed to import FLEX trades", e);
         }
     }
@@ -185,14 +389,12 @@ public class FlexReportsService {
      * Workflow:
      * 1. Calls FLEX SendRequest API to initiate report generation
      * 2. Saves response metadata to database
-     * 3. Waits 15 seconds for report generation
-     * 4. Calls FLEX GetStatement API to retrieve CSV
-     * 5. Writes CSV to file: ~/FLEX_NET_ASSET_VALUE_{referenceCode}.csv
-     * 6. Parses CSV and saves NAV records to database (NetAssetValueService)
+     * 3. Polls FLEX GetStatement API with backoff and streams the CSV to ~/FLEX_NET_ASSET_VALUE_{referenceCode}.csv.gz
+     * 4. Streams the archive and saves NAV records to database (NetAssetValueService.saveCSV(Reader))
      *
-     * Transactional:
-     * - Entire workflow is atomic (API call + metadata + CSV parsing)
-     * - Rollback occurs if any step fails
+     * Not transactional:
+     * - No connection is held while polling, only the CSV parsing step writes
+     * - The statement is marked FAILED if any step fails
      *
      * Environment Variables Required:
      * - IBKR_FLEX_NET_ASSET_VALUE_ID: Query ID for NAV report
@@ -200,9 +402,9 @@ public class FlexReportsService {
      * @return Success: "{records}/0" (e.g., "30/0")
      * @throws RuntimeException if API call fails or CSV parsing fails
      */
-    @Transactional
     public String importFlexNetAssetValue() {
         long start = System.currentTimeMillis();
+        String referenceCode = null;
         try {
             // Check if IBKR_FLEX_NET_ASSET_VALUE_ID is configured
             String flexNetAssetValueId = environment.getProperty("IBKR_FLEX_NET_ASSET_VALUE_ID");
@@ -215,14 +417,15 @@ public class FlexReportsService {
 
             // Save FLEX statement response metadata to database
             saveFlexStatementResponse(flexNetAssetValueResponse, "NAV");
+            referenceCode = flexNetAssetValueResponse.getReferenceCode();
 
             log.debug("importFlexNetAssetValue flexNetAssetValueResponse {}", flexNetAssetValueResponse);
-            Thread.sleep(WAIT_FOR_REPORT_MS);
-
-            String flexTradesQuery = ibkrService.getFlexWebServiceGetStatement(flexNetAssetValueResponse.getUrl(), flexNetAssetValueResponse.getReferenceCode());
-            File file = new File(userHome + "/FLEX_NET_ASSET_VALUE_" + flexNetAssetValueResponse.getReferenceCode() + ".csv");
-            FileUtils.write(file, flexTradesQuery, CharsetNames.CS_UTF8);
-            int records = netAssetValueService.saveCSV(flexTradesQuery);
+            File file = downloadFlexStatement(flexNetAssetValueResponse, "FLEX_NET_ASSET_VALUE_");
+            int records = withImportLock(() -> {
+                try (Reader reader = openStatement(file)) {
+                    return netAssetValueService.saveCSV(reader);
+                }
+            });
 
             // Update entity with monitoring fields
             FlexStatementResponseEntity entity = flexStatementResponseRepository.findByReferenceCode(flexNetAssetValueResponse.getReferenceCode());
@@ -232,6 +435,7 @@ public class FlexReportsService {
                 entity.setCsvFailedRecordsCount(0); // NAV import doesn't track failed records separately
                 entity.setCsvSkippedRecordsCount(0); // NAV import doesn't track skipped records
                 entity.setDataFixRecordsCount(null); // NAV reports don't have data fix
+                entity.setImportState(STATE_IMPORTED);
                 flexStatementResponseRepository.save(entity);
                 log.debug("Updated FlexStatementResponse with monitoring fields: csvRecords={}, csvFilePath={}",
                         records, file.getAbsolutePath());
@@ -242,8 +446,10 @@ public class FlexReportsService {
             return String.valueOf(records) + "/0";
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            markFailed(referenceCode, e);
             throw new RuntimeException("Interrupted while waiting for FLEX report", e);
         } catch (Exception e) {
+            markFailed(referenceCode, e);
             throw new RuntimeException("Failed to import FLEX Net Asset Value", e);
         }
     }
@@ -254,14 +460,12 @@ public class FlexReportsService {
      * Workflow:
      * 1. Calls FLEX SendRequest API to initiate report generation
      * 2. Saves response metadata to database
-     * 3. Waits 15 seconds for report generation
-     * 4. Calls FLEX GetStatement API to retrieve CSV
-     * 5. Writes CSV to file: ~/FLEX_OPEN_POSITIONS_{referenceCode}.csv
-     * 6. Parses CSV and saves open positions to database (OpenPositionService)
+     * 3. Polls FLEX GetStatement API with backoff and streams the CSV to ~/FLEX_OPEN_POSITIONS_{referenceCode}.csv.gz
+     * 4. Streams the archive and bulk upserts open positions to database (OpenPositionService.upsertCSV(Reader))
      *
-     * Transactional:
-     * - Entire workflow is atomic (API call + metadata + CSV parsing)
-     * - Rollback occurs if any step fails
+     * Not transactional:
+     * - No connection is held while polling, only the CSV parsing step writes
+     * - The statement is marked FAILED if any step fails
      *
      * Environment Variables Required:
      * - IBKR_FLEX_OPEN_POSITIONS_ID: Query ID for open positions report
@@ -269,9 +473,9 @@ public class FlexReportsService {
      * @return Success: "{records}/0" (e.g., "42/0")
      * @throws RuntimeException if API call fails or CSV parsing fails
      */
-    @Transactional
     public String importFlexOpenPositions() {
         long start = System.currentTimeMillis();
+        String referenceCode = null;
         try {
             // Check if IBKR_FLEX_OPEN_POSITIONS_ID is configured
             String flexOpenPositionsId = environment.getProperty("IBKR_FLEX_OPEN_POSITIONS_ID");
@@ -284,16 +488,19 @@ public class FlexReportsService {
 
             // Save FLEX statement response metadata to database
             saveFlexStatementResponse(flexResponse, "OPEN_POSITIONS");
+            referenceCode = flexResponse.getReferenceCode();
 
             log.debug("importFlexOpenPositions flexResponse {}", flexResponse);
-            Thread.sleep(WAIT_FOR_REPORT_MS);
-
-            String csvData = ibkrService.getFlexWebServiceGetStatement(flexResponse.getUrl(), flexResponse.getReferenceCode());
-            File file = new File(userHome + "/FLEX_OPEN_POSITIONS_" + flexResponse.getReferenceCode() + ".csv");
-            FileUtils.write(file, csvData, CharsetNames.CS_UTF8);
+            File file = downloadFlexStatement(flexResponse, "FLEX_OPEN_POSITIONS_");
 
-            // ISSUE-046: saveCSV now returns "saved/deleted" format
-            String result = openPositionService.saveCSV(csvData);
+            // ISSUE-046: "saved/deleted" format, set-based upsert keyed on conid
+            String result = withImportLock(() -> {
+                try (Reader reader = openStatement(file)) {
+                    return openPositionService.upsertCSV(reader);
+                }
+            });
+            portfolioAggregationService.reload();
+            openPositionsReadModel.rebuild();
             int savedCount = Integer.parseInt(result.split("/")[0]);
             int deletedCount = Integer.parseInt(result.split("/")[1]);
 
@@ -305,6 +512,7 @@ public class FlexReportsService {
                 entity.setCsvFailedRecordsCount(0);  // Simple error handling
                 entity.setCsvSkippedRecordsCount(0);
                 entity.setDataFixRecordsCount(deletedCount);  // Track deleted positions
+                entity.setImportState(STATE_IMPORTED);
                 flexStatementResponseRepository.save(entity);
                 log.debug("Updated FlexStatementResponse with monitoring fields: csvRecords={}, deletedRecords={}, csvFilePath={}",
                         savedCount, deletedCount, file.getAbsolutePath());
@@ -315,8 +523,10 @@ public class FlexReportsService {
             return result;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            markFailed(referenceCode, e);
             throw new RuntimeException("Interrupted while waiting for FLEX report", e);
         } catch (Exception e) {
+            markFailed(referenceCode, e);
             throw new RuntimeException("Failed to import FLEX Open Positions", e);
         }
     }
@@ -334,7 +544,7 @@ public class FlexReportsService {
         List<FlexImportHistoryDto> history = flexStatementResponseRepository
                 .findAll()
                 .stream()
-                .map(entity -> objectMapper.convertValue(entity, FlexImportHistoryDto.class))
+                .map(FlexImportHistoryMapper::toDto)
                 .toList();
 
         // Sort by updatedAt descending (most recent first), null values last
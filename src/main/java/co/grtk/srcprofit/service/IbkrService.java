@@ -12,11 +12,17 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class IbkrService {
     private static final Logger log = LoggerFactory.getLogger(IbkrService.class);
+    private static final int FLEX_STREAM_BUFFER_SIZE = 64 * 1024;
 
     private final RestClient ibkrRestClient;
     private final RestClient ibkrFlexRestClient;
@@ -69,15 +75,31 @@ public class IbkrService {
                 .body(FlexStatementResponse.class);
     }
 
-    public String getFlexWebServiceGetStatement(String url, String referenceCode) {
+    /**
+     * Streams a FLEX GetStatement response into a gzip archive.
+     * The body is copied from the response InputStream, it is never materialized on the heap.
+     *
+     * @param url           statement URL from the SendRequest response
+     * @param referenceCode reference code from the SendRequest response
+     * @param target        gzip file to (over)write
+     * @return number of uncompressed bytes written
+     */
+    public long downloadFlexWebServiceStatement(String url, String referenceCode, Path target) {
         String uri = url +
                 "?t=" +
                 environment.getRequiredProperty("IBKR_FLEX_API_TOKEN") +
                 "&q=" + referenceCode + "&v=3";
         log.debug("getFlexQuery uri:{}", uri);
         return ibkrFlexRestClient.get().uri(uri)
-                .retrieve()
-                .body(String.class);
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new IllegalStateException("FLEX GetStatement failed with HTTP " + response.getStatusCode().value());
+                    }
+                    try (InputStream in = response.getBody();
+                         OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), FLEX_STREAM_BUFFER_SIZE)) {
+                        return in.transferTo(out);
+                    }
+                });
     }
 
     public List<IbkrTradeExecutionDto> getLatestTrades() {
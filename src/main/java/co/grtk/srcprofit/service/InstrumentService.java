@@ -7,6 +7,8 @@ import co.grtk.srcprofit.dto.AlpacaTradeDto;
 import co.grtk.srcprofit.dto.IbkrMarketDataDto;
 import co.grtk.srcprofit.dto.InstrumentDto;
 import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.repository.InstrumentJdbcRepository;
+import co.grtk.srcprofit.repository.InstrumentJdbcRepository.MarketDataUpdate;
 import co.grtk.srcprofit.repository.InstrumentRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
@@ -16,9 +18,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static co.grtk.srcprofit.mapper.MapperUtils.parseDouble;
@@ -28,26 +33,18 @@ import static co.grtk.srcprofit.mapper.MapperUtils.toLocalDateTime;
 @Service
 public class InstrumentService {
     private final InstrumentRepository instrumentRepository;
+    private final InstrumentJdbcRepository instrumentJdbcRepository;
     private final ObjectMapper objectMapper;
     private static final Logger log = LoggerFactory.getLogger(InstrumentService.class);
 
-    public InstrumentService(InstrumentRepository instrumentRepository, ObjectMapper objectMapper) {
+    public InstrumentService(InstrumentRepository instrumentRepository,
+                             InstrumentJdbcRepository instrumentJdbcRepository,
+                             ObjectMapper objectMapper) {
         this.instrumentRepository = instrumentRepository;
+        this.instrumentJdbcRepository = instrumentJdbcRepository;
         this.objectMapper = objectMapper;
     }
 
-    private static InstrumentEntity getInstrumentEntity(Map.Entry<String, AlpacaSingleAssetDto> alpacaMarketDataDtoEntry, Optional<InstrumentEntity> result) {
-        InstrumentEntity instrumentEntity;
-        if (result.isPresent()) {
-            instrumentEntity = result.get();
-        } else {
-            instrumentEntity = new InstrumentEntity();
-            instrumentEntity.setTicker(alpacaMarketDataDtoEntry.getKey());
-        }
-        instrumentEntity.setPrice(alpacaMarketDataDtoEntry.getValue().getLatestTrade().getPrice());
-        return instrumentEntity;
-    }
-
     public List<InstrumentDto> loadAllInstruments() {
         List<InstrumentEntity> ibkrInstrumentEntities = instrumentRepository.findAllInstrument();
         return ibkrInstrumentEntities.stream()
@@ -82,66 +79,168 @@ public class InstrumentService {
         }
     }
 
+    /**
+     * Applies an IBKR market data snapshot to the stored instruments.
+     *
+     * Snapshots are joined to instruments through a conid keyed map, and only instruments
+     * whose name, price or change actually moved are written, as one JDBC batch.
+     *
+     * @param ibkrMarketDataDtoList market data snapshots, one per conid
+     * @return new prices of the instruments whose price moved, keyed by ticker
+     */
     @Transactional
-    public void saveIbkrMarketData(List<IbkrMarketDataDto> ibkrMarketDataDtoList) {
-        List<InstrumentEntity> ibkrInstrumentEntities = instrumentRepository.findAllInstrument();
-        for (InstrumentEntity instrumentEntity : ibkrInstrumentEntities) {
-            Optional<IbkrMarketDataDto> result = ibkrMarketDataDtoList.stream()
-                    .filter(dto -> dto.getConid().equals(instrumentEntity.getConid()))
-                    .findFirst();
-            if (result.isPresent()) {
-                IbkrMarketDataDto ibkrMarketDataDto = result.get();
-                instrumentEntity.setName(ibkrMarketDataDto.getCompanyName());
-                if (instrumentEntity.getUpdated() == null || instrumentEntity.getUpdated().isBefore(toLocalDateTime(ibkrMarketDataDto.getUpdated()))) {
-                    instrumentEntity.setPrice(parseDouble(ibkrMarketDataDto.getPriceStr(), instrumentEntity.getPrice()));
-                    instrumentEntity.setUpdated(toLocalDateTime(ibkrMarketDataDto.getUpdated()));
-                    if (ibkrMarketDataDto.getChange() != null)
-                        instrumentEntity.setChange(ibkrMarketDataDto.getChange());
-                    if (ibkrMarketDataDto.getChangePercent() != null)
-                        instrumentEntity.setChangePercent(ibkrMarketDataDto.getChangePercent());
-                }
-                instrumentRepository.save(instrumentEntity);
+    public Map<String, Double> saveIbkrMarketData(List<IbkrMarketDataDto> ibkrMarketDataDtoList) {
+        Map<Long, IbkrMarketDataDto> marketDataByConid = ibkrMarketDataDtoList.stream()
+                .filter(dto -> dto.getConid() != null)
+                .collect(Collectors.toMap(IbkrMarketDataDto::getConid, Function.identity(), (first, second) -> first));
+        List<MarketDataUpdate> updates = new ArrayList<>();
+        Map<String, Double> movedPrices = new HashMap<>();
+        for (InstrumentEntity instrumentEntity : instrumentRepository.findAllInstrument()) {
+            IbkrMarketDataDto ibkrMarketDataDto = marketDataByConid.get(instrumentEntity.getConid());
+            if (ibkrMarketDataDto == null)
+                continue;
+            Double price = instrumentEntity.getPrice();
+            LocalDateTime updated = instrumentEntity.getUpdated();
+            Double change = instrumentEntity.getChange();
+            Double changePercent = instrumentEntity.getChangePercent();
+            if (updated == null || updated.isBefore(toLocalDateTime(ibkrMarketDataDto.getUpdated()))) {
+                price = parseDouble(ibkrMarketDataDto.getPriceStr(), price);
+                updated = toLocalDateTime(ibkrMarketDataDto.getUpdated());
+                if (ibkrMarketDataDto.getChange() != null)
+                    change = ibkrMarketDataDto.getChange();
+                if (ibkrMarketDataDto.getChangePercent() != null)
+                    changePercent = ibkrMarketDataDto.getChangePercent();
+            }
+            addIfChanged(updates, instrumentEntity, new MarketDataUpdate(instrumentEntity.getId(),
+                    ibkrMarketDataDto.getCompanyName(), price, change, changePercent, updated));
+            addIfMoved(movedPrices, instrumentEntity, price);
+        }
+        int updatedCount = instrumentJdbcRepository.updateMarketData(updates);
+        log.debug("saveIbkrMarketData {} snapshots, {} instruments updated", marketDataByConid.size(), updatedCount);
+        return movedPrices;
+    }
+
+    /**
+     * Applies an Alpaca market data snapshot to the stored instruments.
+     *
+     * The snapshot map is keyed by ticker, so every instrument is a single lookup.
+     * Only newer trades with a different price/change are written, as one JDBC batch.
+     *
+     * @param alpacaMarketDataDto snapshots keyed by ticker
+     * @return new prices of the instruments whose price moved, keyed by ticker
+     */
+    @Transactional
+    public Map<String, Double> saveAlpacaMarketData(AlpacaMarketDataDto alpacaMarketDataDto) {
+        Map<String, AlpacaSingleAssetDto> quotes = alpacaMarketDataDto.getQuotes() != null
+                ? alpacaMarketDataDto.getQuotes() : Map.of();
+        List<MarketDataUpdate> updates = new ArrayList<>();
+        Map<String, Double> movedPrices = new HashMap<>();
+        for (InstrumentEntity instrumentEntity : instrumentRepository.findAllInstrument()) {
+            AlpacaSingleAssetDto alpacaSingleAssetDto = quotes.get(instrumentEntity.getTicker());
+            if (alpacaSingleAssetDto == null)
+                continue;
+            AlpacaTradeDto alpacaTradeDto = alpacaSingleAssetDto.getLatestTrade();
+            LocalDateTime updated = alpacaTradeDto.getTimestamp().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+
+            if (instrumentEntity.getUpdated() == null ||
+                    instrumentEntity.getUpdated().isBefore(updated)) {
+                AlpacaBarDto alpacaPrevDailyBarDto = alpacaSingleAssetDto.getPrevDailyBar();
+                double change = alpacaTradeDto.getPrice() - alpacaPrevDailyBarDto.getClose();
+                double changePercent = (change / alpacaPrevDailyBarDto.getOpen()) * 100;
+                addIfChanged(updates, instrumentEntity, new MarketDataUpdate(instrumentEntity.getId(),
+                        instrumentEntity.getName(), alpacaTradeDto.getPrice(),
+                        round2Digits(change), round2Digits(changePercent), updated));
+                addIfMoved(movedPrices, instrumentEntity, alpacaTradeDto.getPrice());
             }
         }
+        int updatedCount = instrumentJdbcRepository.updateMarketData(updates);
+        log.debug("saveAlpacaMarketData {} snapshots, {} instruments updated", quotes.size(), updatedCount);
+        return movedPrices;
     }
 
+    /**
+     * Applies conflated streamed trades to the stored instruments, as one JDBC batch.
+     *
+     * A trade carries no daily bar, the change is kept against the previous close of the last
+     * polled snapshot (price - change).
+     *
+     * @param trades newest trade of every streamed ticker that traded since the last flush
+     * @return new prices of the instruments whose price moved, keyed by ticker
+     */
     @Transactional
-    public void saveAlpacaMarketData(AlpacaMarketDataDto alpacaMarketDataDto) {
-        List<InstrumentEntity> instrumentEntities = instrumentRepository.findAllInstrument();
-        for (InstrumentEntity instrumentEntity : instrumentEntities) {
-            Optional<Map.Entry<String, AlpacaSingleAssetDto>> result = alpacaMarketDataDto.getQuotes().entrySet().stream()
-                    .filter(dto -> dto.getKey().equals(instrumentEntity.getTicker()))
-                    .findFirst();
-            if (result.isPresent()) {
-                Map.Entry<String, AlpacaSingleAssetDto> alpacaSingleAssetDtoEntry = result.get();
-                AlpacaTradeDto alpacaTradeDto = alpacaSingleAssetDtoEntry.getValue().getLatestTrade();
-                LocalDateTime updated = alpacaTradeDto.getTimestamp().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
-
-                if (instrumentEntity.getUpdated() == null ||
-                        instrumentEntity.getUpdated().isBefore(updated)) {
-                    AlpacaBarDto alpacaPrevDailyBarDto = alpacaSingleAssetDtoEntry.getValue().getPrevDailyBar();
-                    instrumentEntity.setUpdated(updated);
-                    instrumentEntity.setPrice(alpacaTradeDto.getPrice());
-                    double change = alpacaTradeDto.getPrice() - alpacaPrevDailyBarDto.getClose();
-                    double changePercent = (change / alpacaPrevDailyBarDto.getOpen()) * 100;
-                    instrumentEntity.setChange(round2Digits(change));
-                    instrumentEntity.setChangePercent(round2Digits(changePercent));
-                    instrumentRepository.save(instrumentEntity);
-                }
+    public Map<String, Double> saveStreamedTrades(Map<String, QuoteBook.Trade> trades) {
+        if (trades.isEmpty())
+            return Map.of();
+        List<MarketDataUpdate> updates = new ArrayList<>();
+        Map<String, Double> movedPrices = new HashMap<>();
+        for (InstrumentEntity instrumentEntity : instrumentRepository.findByTickers(List.copyOf(trades.keySet()))) {
+            QuoteBook.Trade trade = trades.get(instrumentEntity.getTicker());
+            LocalDateTime updated = trade.timestamp().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            if (instrumentEntity.getUpdated() != null && !instrumentEntity.getUpdated().isBefore(updated))
+                continue;
+            Double change = instrumentEntity.getChange();
+            Double changePercent = instrumentEntity.getChangePercent();
+            if (instrumentEntity.getPrice() != null && change != null) {
+                double previousClose = instrumentEntity.getPrice() - change;
+                change = round2Digits(trade.price() - previousClose);
+                if (previousClose != 0)
+                    changePercent = round2Digits(change / previousClose * 100);
             }
+            addIfChanged(updates, instrumentEntity, new MarketDataUpdate(instrumentEntity.getId(),
+                    instrumentEntity.getName(), trade.price(), change, changePercent, updated));
+            addIfMoved(movedPrices, instrumentEntity, trade.price());
         }
+        int updatedCount = instrumentJdbcRepository.updateMarketData(updates);
+        log.debug("saveStreamedTrades {} trades, {} instruments updated", trades.size(), updatedCount);
+        return movedPrices;
     }
 
+    /**
+     * Stores the latest trade price of every quoted ticker.
+     * Unknown tickers become new instruments, known ones are batch updated when their price moved.
+     *
+     * @param alpacaMarketDataDto snapshots keyed by ticker
+     */
     @Transactional
     public void saveAlpacaQuotes(AlpacaMarketDataDto alpacaMarketDataDto) {
-        List<InstrumentEntity> ibkrInstrumentEntities = instrumentRepository.findAllInstrument();
+        // Only the quoted instruments are loaded, the request path saves a single ticker
+        List<String> tickers = List.copyOf(alpacaMarketDataDto.getQuotes().keySet());
+        Map<String, InstrumentEntity> instrumentsByTicker = instrumentRepository.findByTickers(tickers).stream()
+                .collect(Collectors.toMap(InstrumentEntity::getTicker, Function.identity()));
+        List<InstrumentEntity> newInstruments = new ArrayList<>();
+        List<MarketDataUpdate> updates = new ArrayList<>();
         for (Map.Entry<String, AlpacaSingleAssetDto> alpacaMarketDataDtoEntry : alpacaMarketDataDto.getQuotes().entrySet()) {
-            Optional<InstrumentEntity> result = ibkrInstrumentEntities.stream()
-                    .filter(instrumentEntity -> alpacaMarketDataDtoEntry.getKey().equals(instrumentEntity.getTicker()))
-                    .findFirst();
-            InstrumentEntity instrumentEntity = getInstrumentEntity(alpacaMarketDataDtoEntry, result);
-            instrumentRepository.save(instrumentEntity);
+            Double price = alpacaMarketDataDtoEntry.getValue().getLatestTrade().getPrice();
+            InstrumentEntity instrumentEntity = instrumentsByTicker.get(alpacaMarketDataDtoEntry.getKey());
+            if (instrumentEntity == null) {
+                instrumentEntity = new InstrumentEntity();
+                instrumentEntity.setTicker(alpacaMarketDataDtoEntry.getKey());
+                instrumentEntity.setPrice(price);
+                newInstruments.add(instrumentEntity);
+            } else {
+                addIfChanged(updates, instrumentEntity, new MarketDataUpdate(instrumentEntity.getId(),
+                        instrumentEntity.getName(), price, instrumentEntity.getChange(),
+                        instrumentEntity.getChangePercent(), instrumentEntity.getUpdated()));
+            }
         }
+        instrumentRepository.saveAll(newInstruments);
+        int updatedCount = instrumentJdbcRepository.updateMarketData(updates);
+        log.debug("saveAlpacaQuotes {} new instruments, {} instruments updated", newInstruments.size(), updatedCount);
+    }
+
+    // Timestamp only moves are not written, the row is refreshed with the next real price change
+    private static void addIfChanged(List<MarketDataUpdate> updates, InstrumentEntity instrumentEntity, MarketDataUpdate update) {
+        if (!Objects.equals(instrumentEntity.getName(), update.name()) ||
+                !Objects.equals(instrumentEntity.getPrice(), update.price()) ||
+                !Objects.equals(instrumentEntity.getChange(), update.change()) ||
+                !Objects.equals(instrumentEntity.getChangePercent(), update.changePercent())) {
+            updates.add(update);
+        }
+    }
+
+    private static void addIfMoved(Map<String, Double> movedPrices, InstrumentEntity instrumentEntity, Double price) {
+        if (price != null && !Objects.equals(instrumentEntity.getPrice(), price))
+            movedPrices.put(instrumentEntity.getTicker(), price);
     }
 
     public String buildTickerCsv(List<InstrumentDto> instruments) {
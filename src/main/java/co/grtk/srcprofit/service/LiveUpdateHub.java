@@ -0,0 +1,100 @@
+package co.grtk.srcprofit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out hub of the Server-Sent Events of GET /api/live-updates.
+ *
+ * A published event is serialized to JSON and framed once, the same frame is written to every
+ * subscriber. Subscribers that fail to receive it (closed browser tab, dropped connection) are
+ * removed, the browser's EventSource reconnects by itself after the connection timed out.
+ *
+ * Publishers (MarketDataService, OpenPositionsReadModel) are never affected by a failing subscriber.
+ */
+@Service
+public class LiveUpdateHub {
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateHub.class);
+
+    static final long DEFAULT_TIMEOUT_MINUTES = 30;
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventId = new AtomicLong();
+
+    public LiveUpdateHub(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(environment.getProperty("LIVE_UPDATES_TIMEOUT_MINUTES",
+                Long.class, DEFAULT_TIMEOUT_MINUTES));
+    }
+
+    /**
+     * @return a new subscriber, receives the events published from now on
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        log.debug("Live updates subscribed, {} subscribers", emitters.size());
+        return emitter;
+    }
+
+    /**
+     * @return number of current subscribers
+     */
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Sends an event to every subscriber. Nothing is serialized without subscribers.
+     *
+     * @param name    event name, the EventSource listener of the page
+     * @param payload event data, serialized to JSON once
+     * @return number of subscribers the event was sent to
+     */
+    public int publish(String name, Object payload) {
+        if (emitters.isEmpty())
+            return 0;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Live update {} could not be serialized: {}", name, e.getMessage());
+            return 0;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                .id(Long.toString(eventId.incrementAndGet()))
+                .name(name)
+                .data(json)
+                .build();
+        int sent = 0;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event);
+                sent++;
+            } catch (IOException | IllegalStateException e) {
+                // Connection closed by the client or emitter already completed
+                emitters.remove(emitter);
+                log.debug("Live updates subscriber removed: {}", e.getMessage());
+            }
+        }
+        log.debug("Live update {} ({} bytes) sent to {} subscribers", name, json.length(), sent);
+        return sent;
+    }
+}
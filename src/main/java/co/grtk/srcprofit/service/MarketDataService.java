@@ -5,13 +5,21 @@ import co.grtk.srcprofit.dto.AlpacaQuoteDto;
 import co.grtk.srcprofit.dto.AlpacaQuotesDto;
 import co.grtk.srcprofit.dto.IbkrMarketDataDto;
 import co.grtk.srcprofit.dto.InstrumentDto;
+import co.grtk.srcprofit.dto.LiveUpdateDto;
+import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.OptionEntity;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +29,18 @@ import java.util.stream.Collectors;
  * handled by ScheduledJobsService via @Scheduled annotations.
  *
  * Methods:
- * - refreshAlpacaMarketData(): Updates stock quotes and option prices from Alpaca
- * - refreshIbkrMarketData(): Updates market data from Interactive Brokers (IBKR)
+ * - refreshAlpacaMarketData(): Updates stock quotes and option prices from Alpaca,
+ *   only changed prices are written (one JDBC batch per table), populates the QuoteCacheService,
+ *   applies the moved underlying prices to the PortfolioAggregationService and rebuilds the OpenPositionsReadModel
+ * - refreshIbkrMarketData(): Updates market data from Interactive Brokers (IBKR), moved prices
+ *   are applied to the PortfolioAggregationService
+ * - flushStreamedTrades(): Writes the conflated trades of the streamed underlyings (AlpacaStreamService)
+ *   and applies them like a refresh
+ * All of them push the moved prices to the live update subscribers as a "quotes" event (LiveUpdateHub).
+ *
+ * With streaming enabled the Alpaca refresh keeps the held underlyings subscribed and skips their
+ * snapshots while the stream is up, except on the first refresh of the day, which refreshes the
+ * previous close the streamed changes are calculated against. It polls every ticker while the stream is down.
  *
  * @see ScheduledJobsService for @Scheduled annotations
  */
@@ -32,54 +50,128 @@ public class MarketDataService {
     private final InstrumentService instrumentService;
     private final IbkrService ibkrService;
     private final OptionService optionService;
+    private final QuoteCacheService quoteCacheService;
+    private final OpenPositionsReadModel openPositionsReadModel;
+    private final PortfolioAggregationService portfolioAggregationService;
+    private final LiveUpdateHub liveUpdateHub;
+    private final AlpacaStreamService alpacaStreamService;
+    private volatile LocalDate fullRefreshDate;
     private static final Logger log = LoggerFactory.getLogger(MarketDataService.class);
 
-    public MarketDataService(InstrumentService instrumentService, AlpacaService alpacaService, IbkrService ibkrService, OptionService optionService) {
+    public MarketDataService(InstrumentService instrumentService, AlpacaService alpacaService, IbkrService ibkrService,
+                             OptionService optionService, QuoteCacheService quoteCacheService,
+                             OpenPositionsReadModel openPositionsReadModel,
+                             PortfolioAggregationService portfolioAggregationService,
+                             LiveUpdateHub liveUpdateHub,
+                             AlpacaStreamService alpacaStreamService) {
         this.instrumentService = instrumentService;
         this.alpacaService = alpacaService;
         this.ibkrService = ibkrService;
         this.optionService = optionService;
+        this.quoteCacheService = quoteCacheService;
+        this.openPositionsReadModel = openPositionsReadModel;
+        this.portfolioAggregationService = portfolioAggregationService;
+        this.liveUpdateHub = liveUpdateHub;
+        this.alpacaStreamService = alpacaStreamService;
     }
 
     /**
      * Refreshes market data from Alpaca API.
      *
      * Updates:
-     * - Stock quotes for all instruments
+     * - Stock quotes for all instruments, except the streamed ones while the stream is up
      * - Option market prices for all open options
      *
-     * Called by ScheduledJobsService every 60 seconds.
+     * Called by ScheduledJobsService every 5 minutes.
      *
      * @throws JsonProcessingException if JSON parsing fails
      */
     public void refreshAlpacaMarketData() throws JsonProcessingException {
         List<InstrumentDto> instruments = instrumentService.loadAllInstruments();
-        String tickerCsv = instrumentService.buildTickerCsv(instruments);
-        AlpacaMarketDataDto alpacaMarketDataDto = alpacaService.getMarketDataSnapshot(tickerCsv);
-        instrumentService.saveAlpacaMarketData(alpacaMarketDataDto);
+        if (alpacaStreamService.isEnabled()) {
+            // Keeps the stream in line with the held underlyings, reconnects a dropped stream
+            alpacaStreamService.subscribe(portfolioAggregationService.getOpenOptions().stream()
+                    .map(PositionDto::getTicker)
+                    .collect(Collectors.toSet()));
+        }
+        LocalDate today = LocalDate.now();
+        Set<String> streamedTickers = today.equals(fullRefreshDate) ? alpacaStreamService.getStreamedTickers() : Set.of();
+        List<InstrumentDto> polledInstruments = instruments.stream()
+                .filter(instrument -> !streamedTickers.contains(instrument.getTicker()))
+                .toList();
+        if (!polledInstruments.isEmpty()) {
+            String tickerCsv = instrumentService.buildTickerCsv(polledInstruments);
+            AlpacaMarketDataDto alpacaMarketDataDto = alpacaService.getMarketDataSnapshot(tickerCsv);
+            Map<String, Double> movedPrices = instrumentService.saveAlpacaMarketData(alpacaMarketDataDto);
+            quoteCacheService.putAll(alpacaMarketDataDto);
+            // Only the positions of the moved underlyings are revalued
+            portfolioAggregationService.applyPrices(movedPrices);
+            publishQuotes(movedPrices);
+        }
+        if (streamedTickers.isEmpty())
+            fullRefreshDate = today;
 
         List<OptionEntity>  openOptions = optionService.getAllOpenOptions(null);
         String optionSymbols = openOptions.stream().map(dto -> dto.getCode().replaceAll("\\s","")).collect(Collectors.joining(","));
         if(!optionSymbols.isEmpty()) {
             AlpacaQuotesDto alpacaQuotesDto = alpacaService.getOptionsLatestQuotes(optionSymbols);
+            Map<Long, Double> changedMarketPrices = new HashMap<>();
             for (OptionEntity option : openOptions) {
                 String key = option.getCode().replaceAll("\\s", "");
                 AlpacaQuoteDto alpacaQuoteDto = alpacaQuotesDto.getQuotes().get(key);
-                if (alpacaQuoteDto != null) {
-                    option.setMarketPrice(alpacaQuoteDto.getMidPrice());
-                    optionService.saveOption(option);
+                if (alpacaQuoteDto != null && !Objects.equals(option.getMarketPrice(), alpacaQuoteDto.getMidPrice())) {
+                    changedMarketPrices.put(option.getId(), alpacaQuoteDto.getMidPrice());
                 }
             }
+            // Only moved bid/ask mid prices are written, as one batch
+            optionService.updateMarketPrices(changedMarketPrices);
         } else {
             log.info("No open options found");
         }
-
+        // Prices, P&L and POP of the open positions page moved
+        openPositionsReadModel.rebuild();
     }
 
     public void refreshIbkrMarketData() {
         List<InstrumentDto> instruments = instrumentService.loadAllInstruments();
         String conidCSV = instrumentService.buildConidCsv(instruments);
         List<IbkrMarketDataDto> ibkrMarketDataDtos = ibkrService.getMarketDataSnapshots(conidCSV);
-        instrumentService.saveIbkrMarketData(ibkrMarketDataDtos);
+        Map<String, Double> movedPrices = instrumentService.saveIbkrMarketData(ibkrMarketDataDtos);
+        portfolioAggregationService.applyPrices(movedPrices);
+        publishQuotes(movedPrices);
+        // Prices, P&L and POP of the open positions page moved
+        openPositionsReadModel.rebuild();
+    }
+
+    /**
+     * Writes the trades streamed since the last flush, one row per moved instrument however many
+     * trades arrived, and applies the moved prices like a refresh.
+     *
+     * Called by ScheduledJobsService every 15 seconds (ALPACA_STREAM_FLUSH_SECONDS), nothing to do
+     * without streaming.
+     *
+     * @return number of instruments whose price moved
+     */
+    public int flushStreamedTrades() {
+        Map<String, QuoteBook.Trade> trades = alpacaStreamService.drain();
+        if (trades.isEmpty())
+            return 0;
+        Map<String, Double> movedPrices = instrumentService.saveStreamedTrades(trades);
+        if (movedPrices.isEmpty())
+            return 0;
+        portfolioAggregationService.applyPrices(movedPrices);
+        publishQuotes(movedPrices);
+        // Prices, P&L and POP of the open positions page moved
+        openPositionsReadModel.rebuild();
+        return movedPrices.size();
+    }
+
+    private void publishQuotes(Map<String, Double> movedPrices) {
+        if (movedPrices.isEmpty())
+            return;
+        List<LiveUpdateDto.Quote> quotes = movedPrices.entrySet().stream()
+                .map(price -> new LiveUpdateDto.Quote(price.getKey(), price.getValue()))
+                .toList();
+        liveUpdateHub.publish("quotes", new LiveUpdateDto(Instant.now(), quotes, null));
     }
 }
\ No newline at end of file
@@ -1,27 +1,33 @@
 package co.grtk.srcprofit.service;
 
-import co.grtk.srcprofit.dto.ChartDataDto;
 import co.grtk.srcprofit.dto.NetAssetValueDto;
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.NetAssetValueEntity;
-import co.grtk.srcprofit.mapper.Interval;
 import co.grtk.srcprofit.repository.NetAssetValueRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static co.grtk.srcprofit.mapper.MapperUtils.parseDouble;
 import static co.grtk.srcprofit.mapper.MapperUtils.round2Digits;
@@ -29,8 +35,11 @@ import static org.apache.commons.csv.CSVParser.parse;
 
 @Service
 public class NetAssetValueService {
+    private static final Logger log = LoggerFactory.getLogger(NetAssetValueService.class);
     private final NetAssetValueRepository netAssetValueRepository;
     private final ObjectMapper objectMapper;
+    private final AtomicLong version = new AtomicLong();
+    private volatile NavSeries navSeries;
 
     public NetAssetValueService(NetAssetValueRepository netAssetValueRepository, ObjectMapper objectMapper) {
         this.netAssetValueRepository = netAssetValueRepository;
@@ -45,7 +54,7 @@ public class NetAssetValueService {
     }
 
     public List<NetAssetValueDto> loadAllNetAssetValues() {
-        List<NetAssetValueDto> navList = new java.util.ArrayList<>(netAssetValueRepository
+        List<NetAssetValueDto> navList = new ArrayList<>(netAssetValueRepository
                 .findAll()
                 .stream()
                 .map(nav -> objectMapper.convertValue(nav, NetAssetValueDto.class))
@@ -54,76 +63,187 @@ public class NetAssetValueService {
         return navList;
     }
 
-    public void getDailyNav(ChartDataDto chartDataDto) {
-        if (Interval.ALL.equals(chartDataDto.getInterval())) {
-            List<NetAssetValueEntity> navs =  netAssetValueRepository.findAll();
-            chartDataDto.setDailyTotal(getDailyTotal(navs));
-            chartDataDto.setDailyCash(getDailyCash(navs));
-            chartDataDto.setDailyStock(getDailyStock(navs));
-            chartDataDto.setDailyOptions(getDailyOptions(navs));
-        } else {
-            List<NetAssetValueEntity> navs =
-                    netAssetValueRepository.findBetweenDates(chartDataDto.getStartDate(), chartDataDto.getEndDate());
-            chartDataDto.setDailyTotal(getDailyTotal(navs));
-            chartDataDto.setDailyCash(getDailyCash(navs));
-            chartDataDto.setDailyStock(getDailyStock(navs));
-            chartDataDto.setDailyOptions(getDailyOptions(navs));
-        }
+    /**
+     * Columnar daily NAV components of an interval for the chart API, sliced from the in-memory
+     * NAV series. The series is loaded once and extended with the rows of every NAV import, so the
+     * dashboard does not query NET_ASSET_VALUE.
+     *
+     * @param startDate first report date (inclusive), null for the first one
+     * @param endDate   last report date (inclusive), null for the last one
+     * @return report dates as epoch days and the components in cents
+     */
+    public NavSlice getNavSlice(LocalDate startDate, LocalDate endDate) {
+        NavSeries series = getNavSeries();
+        int from = series.lowerBound(startDate);
+        int to = Math.max(from, endDate == null ? series.size() : series.lowerBound(endDate.plusDays(1)));
+        return new NavSlice(Arrays.copyOfRange(series.epochDays, from, to),
+                Arrays.copyOfRange(series.totalCents, from, to),
+                Arrays.copyOfRange(series.cashCents, from, to),
+                Arrays.copyOfRange(series.stockCents, from, to),
+                Arrays.copyOfRange(series.optionsCents, from, to));
     }
 
-    private Map<LocalDate, BigDecimal> getDailyTotal(List<NetAssetValueEntity> navs) {
-        return navs.stream()
-                .collect(Collectors.groupingBy(
-                        NetAssetValueEntity::getReportDate,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                nav -> BigDecimal.valueOf(nav.getTotal()),
-                                BigDecimal::add
-                        )
-                ));
+    /**
+     * @return counter bumped by every NAV import that added rows, read it before the slice it tags
+     */
+    public long getVersion() {
+        return version.get();
     }
 
-    private Map<LocalDate, BigDecimal> getDailyCash(List<NetAssetValueEntity> navs) {
-        return navs.stream()
-                .collect(Collectors.groupingBy(
-                        NetAssetValueEntity::getReportDate,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                nav -> BigDecimal.valueOf(nav.getCash()),
-                                BigDecimal::add
-                        )
-                ));
+    /**
+     * Daily NAV components of an interval, parallel arrays ordered by report date.
+     */
+    public record NavSlice(int[] epochDays, long[] totalCents, long[] cashCents, long[] stockCents, long[] optionsCents) {
     }
 
+    private NavSeries getNavSeries() {
+        NavSeries series = navSeries;
+        if (series != null)
+            return series;
+        synchronized (this) {
+            if (navSeries == null) {
+                navSeries = NavSeries.of(netAssetValueRepository.findAll());
+                log.debug("NAV series loaded with {} days", navSeries.size());
+            }
+            return navSeries;
+        }
+    }
 
-    private Map<LocalDate, BigDecimal> getDailyStock(List<NetAssetValueEntity> navs) {
-        return navs.stream()
-                .collect(Collectors.groupingBy(
-                        NetAssetValueEntity::getReportDate,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                nav -> BigDecimal.valueOf(nav.getStock()),
-                                BigDecimal::add
-                        )
-                ));
+    /**
+     * Merges imported rows into the loaded series once the import transaction commits.
+     * A series loaded while the import was running gets the same rows merged, merging is idempotent.
+     */
+    private void mergeAfterCommit(List<NetAssetValueEntity> imported) {
+        if (imported.isEmpty())
+            return;
+        Runnable merge = () -> {
+            synchronized (this) {
+                if (navSeries != null)
+                    navSeries = navSeries.merge(imported);
+                version.incrementAndGet();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge.run();
+                }
+            });
+        } else {
+            merge.run();
+        }
     }
 
-    private Map<LocalDate, BigDecimal> getDailyOptions(List<NetAssetValueEntity> navs) {
-        return navs.stream()
-                .collect(Collectors.groupingBy(
-                        NetAssetValueEntity::getReportDate,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                nav -> BigDecimal.valueOf(nav.getOptions()),
-                                BigDecimal::add
-                        )
-                ));
+    /**
+     * Immutable columnar NAV history: report dates as sorted epoch days and one cents column
+     * per component, one row per report date.
+     */
+    static final class NavSeries {
+        private final int[] epochDays;
+        private final long[] totalCents;
+        private final long[] cashCents;
+        private final long[] stockCents;
+        private final long[] optionsCents;
+
+        private NavSeries(int size) {
+            epochDays = new int[size];
+            totalCents = new long[size];
+            cashCents = new long[size];
+            stockCents = new long[size];
+            optionsCents = new long[size];
+        }
+
+        static NavSeries of(List<NetAssetValueEntity> navs) {
+            return new NavSeries(0).merge(navs);
+        }
+
+        /**
+         * @return new series with the given rows added, a row replaces the one with the same report date
+         */
+        NavSeries merge(List<NetAssetValueEntity> navs) {
+            TreeMap<Integer, NetAssetValueEntity> rows = new TreeMap<>();
+            for (NetAssetValueEntity nav : navs) {
+                if (nav.getReportDate() != null)
+                    rows.put((int) nav.getReportDate().toEpochDay(), nav);
+            }
+            NavSeries merged = new NavSeries(size() + rows.size());
+            int i = 0, n = 0;
+            for (Map.Entry<Integer, NetAssetValueEntity> row : rows.entrySet()) {
+                int day = row.getKey();
+                while (i < size() && epochDays[i] < day)
+                    merged.copyRow(n++, this, i++);
+                if (i < size() && epochDays[i] == day)
+                    i++;
+                merged.setRow(n++, day, row.getValue());
+            }
+            while (i < size())
+                merged.copyRow(n++, this, i++);
+            return merged.truncate(n);
+        }
+
+        int size() {
+            return epochDays.length;
+        }
+
+        /**
+         * @return index of the first report date on or after the date, 0 for null
+         */
+        int lowerBound(LocalDate date) {
+            if (date == null)
+                return 0;
+            int i = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+            return i >= 0 ? i : -i - 1;
+        }
+
+        private void copyRow(int row, NavSeries source, int sourceRow) {
+            epochDays[row] = source.epochDays[sourceRow];
+            totalCents[row] = source.totalCents[sourceRow];
+            cashCents[row] = source.cashCents[sourceRow];
+            stockCents[row] = source.stockCents[sourceRow];
+            optionsCents[row] = source.optionsCents[sourceRow];
+        }
+
+        private void setRow(int row, int epochDay, NetAssetValueEntity nav) {
+            epochDays[row] = epochDay;
+            totalCents[row] = toCents(nav.getTotal());
+            cashCents[row] = toCents(nav.getCash());
+            stockCents[row] = toCents(nav.getStock());
+            optionsCents[row] = toCents(nav.getOptions());
+        }
+
+        private NavSeries truncate(int size) {
+            if (size == size())
+                return this;
+            NavSeries truncated = new NavSeries(size);
+            System.arraycopy(epochDays, 0, truncated.epochDays, 0, size);
+            System.arraycopy(totalCents, 0, truncated.totalCents, 0, size);
+            System.arraycopy(cashCents, 0, truncated.cashCents, 0, size);
+            System.arraycopy(stockCents, 0, truncated.stockCents, 0, size);
+            System.arraycopy(optionsCents, 0, truncated.optionsCents, 0, size);
+            return truncated;
+        }
+
+        private static long toCents(Double value) {
+            return value == null ? 0 : Math.round(value * 100);
+        }
     }
 
     @Transactional
     public int saveCSV(String csv) throws IOException {
-        int rowCount = 0;
-        try (CSVParser csvRecords = parse(csv,
+        return saveCSV(new StringReader(csv));
+    }
+
+    /**
+     * Streaming variant of {@link #saveCSV(String)}, records are parsed one by one from the reader.
+     *
+     * @param reader CSV source, closed by the caller
+     * @return number of new NAV records
+     */
+    @Transactional
+    public int saveCSV(Reader reader) throws IOException {
+        List<NetAssetValueEntity> imported = new ArrayList<>();
+        try (CSVParser csvRecords = parse(reader,
                 CSVFormat.Builder.create()
                         .setHeader()                   // első sor fejléc
                         .setSkipHeaderRecord(true)    // ne olvassa be újra a fejlécet
@@ -156,10 +276,11 @@ public class NetAssetValueService {
                     netAssetValueEntity.setInterestAccruals(round2Digits(interestAccruals));
                     netAssetValueEntity.setTotal(round2Digits(total));
                     netAssetValueRepository.save(netAssetValueEntity);
-                    rowCount++;
+                    imported.add(netAssetValueEntity);
                 }
             }
         }
-        return rowCount;
+        mergeAfterCommit(imported);
+        return imported.size();
     }
 }
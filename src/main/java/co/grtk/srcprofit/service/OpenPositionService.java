@@ -9,9 +9,11 @@ import co.grtk.srcprofit.entity.OpenPositionEntity;
 import co.grtk.srcprofit.entity.OptionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import co.grtk.srcprofit.entity.OptionType;
+import co.grtk.srcprofit.mapper.PortfolioGraph;
 import co.grtk.srcprofit.mapper.PositionCalculationHelper;
 import co.grtk.srcprofit.mapper.PositionMapper;
 import co.grtk.srcprofit.repository.InstrumentRepository;
+import co.grtk.srcprofit.repository.OpenPositionJdbcRepository;
 import co.grtk.srcprofit.repository.OpenPositionRepository;
 import co.grtk.srcprofit.repository.OptionRepository;
 import org.apache.commons.csv.CSVFormat;
@@ -23,12 +25,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static co.grtk.srcprofit.mapper.PositionMapper.calculateAndSetAnnualizedRoi;
@@ -40,10 +48,9 @@ import static org.apache.commons.csv.CSVParser.parse;
  * Implements the CSV parsing and upsert workflow for open positions snapshots:
  * 1. Parse CSV using Apache Commons CSV
  * 2. Upsert corresponding InstrumentEntity (ground truth sync)
- * 3. For each row, check if position exists by conid
- * 4. If exists: update all fields (upsert behavior)
- * 5. If new: create and insert new position
- * 6. Return count of successful records
+ * 3. Batch upsert all positions keyed on conid (INSERT ... ON CONFLICT)
+ * 4. Delete positions of the CSV accounts that are no longer in the report
+ * 5. Return count of saved/deleted records
  *
  * Instrument Synchronization:
  * - Before position upsert, ensures corresponding InstrumentEntity exists
@@ -58,6 +65,10 @@ import static org.apache.commons.csv.CSVParser.parse;
  * - No detailed error tracking (unlike OptionService which uses CsvImportResult)
  * - Rationale: Open positions are snapshots, not transactional data
  *
+ * Bulk Import:
+ * - upsertCSV() is set-based, used by the scheduled FLEX import
+ * - Prefetched instruments/first trade dates, INSERT ... ON CONFLICT (conid), one DELETE per account
+ *
  * Transaction Management:
  * - @Transactional ensures all-or-nothing semantics
  * - Both instrument and position are saved/rolled back atomically
@@ -76,18 +87,173 @@ public class OpenPositionService {
     private final OpenPositionRepository openPositionRepository;
     private final InstrumentRepository instrumentRepository;
     private final OptionRepository optionRepository;
+    private final OpenPositionJdbcRepository openPositionJdbcRepository;
 
     public OpenPositionService(
             OpenPositionRepository openPositionRepository,
             InstrumentRepository instrumentRepository,
-            OptionRepository optionRepository) {
+            OptionRepository optionRepository,
+            OpenPositionJdbcRepository openPositionJdbcRepository) {
         this.openPositionRepository = openPositionRepository;
         this.instrumentRepository = instrumentRepository;
         this.optionRepository = optionRepository;
+        this.openPositionJdbcRepository = openPositionJdbcRepository;
+    }
+
+    /**
+     * Finds (or creates) the instrument of a position and applies the IBKR ground truth:
+     * conid first (primary key), then ticker (unique constraint), otherwise a new instrument.
+     * Name is taken from the CSV description, falling back to the symbol.
+     * Other fields (price, Alpaca metadata, etc.) are not touched, the caller persists the result.
+     */
+    private InstrumentEntity resolveInstrument(Long instrumentConid, String underlyingSymbol, String description,
+                                               Map<Long, InstrumentEntity> instrumentsByConid,
+                                               Map<String, InstrumentEntity> instrumentsByTicker) {
+        InstrumentEntity instrument = instrumentsByConid.get(instrumentConid);
+        if (instrument == null) {
+            // conid not found - check if ticker already exists
+            // (can happen if same symbol has different conid in CSV)
+            instrument = instrumentsByTicker.get(underlyingSymbol);
+            if (instrument == null) {
+                // Neither conid nor ticker exists - create new
+                log.debug("Creating new instrument for conid={}, symbol={}", instrumentConid, underlyingSymbol);
+                instrument = new InstrumentEntity();
+                instrument.setConid(instrumentConid);
+                instrument.setTicker(underlyingSymbol);
+            } else {
+                // Ticker exists but conid differs - update ticker's conid
+                log.debug("Updating conid for existing ticker: symbol={}, old_conid={}, new_conid={}",
+                        underlyingSymbol, instrument.getConid(), instrumentConid);
+                instrument.setConid(instrumentConid);
+            }
+        } else {
+            log.debug("Updating existing instrument for conid={}", instrumentConid);
+        }
+
+        // Update instrument name from CSV description (IBKR ground truth)
+        // Fallback to symbol if description is empty
+        String instrumentName = (description != null && !description.isEmpty())
+                ? description
+                : underlyingSymbol;
+        instrument.setName(instrumentName);
+        return instrument;
+    }
+
+    /**
+     * Copies all CSV columns of an open positions record onto the entity (upsert behavior).
+     * Conid and the ISSUE-048 calculated fields are handled by the caller.
+     */
+    private void applyCsvFields(CSVRecord csvRecord, OpenPositionEntity entity) {
+        entity.setAccount(csvRecord.get("ClientAccountID"));
+        entity.setAssetClass(csvRecord.get("AssetClass"));
+        entity.setSymbol(csvRecord.get("Symbol"));
+        entity.setReportDate(LocalDate.parse(csvRecord.get("ReportDate")));
+        entity.setQuantity(parseInt(csvRecord.get("Quantity")));
+        entity.setCurrency(csvRecord.get("CurrencyPrimary"));
+
+        // Core Identification fields
+        entity.setAccountAlias(getStringOrNull(csvRecord, "AccountAlias"));
+
+        // Position Classification fields
+        entity.setSubCategory(getStringOrNull(csvRecord, "SubCategory"));
+        entity.setSide(getStringOrNull(csvRecord, "Side"));
+        entity.setLevelOfDetail(getStringOrNull(csvRecord, "LevelOfDetail"));
+
+        // Basic Position Info fields
+        entity.setDescription(getStringOrNull(csvRecord, "Description"));
+        entity.setMultiplier(parseDoubleOrNull(csvRecord, "Multiplier"));
+
+        // Pricing and Value fields
+        entity.setCostBasisPrice(parseDoubleOrNull(csvRecord, "CostBasisPrice"));
+        entity.setCostBasisMoney(parseDoubleOrNull(csvRecord, "CostBasisMoney"));
+        entity.setMarkPrice(parseDoubleOrNull(csvRecord, "MarkPrice"));
+        entity.setPositionValue(parseDoubleOrNull(csvRecord, "PositionValue"));
+        entity.setPositionValueInBase(parseDoubleOrNull(csvRecord, "PositionValueInBase"));
+        entity.setFxRateToBase(parseDoubleOrNull(csvRecord, "FXRateToBase"));
+        entity.setOpenPrice(parseDoubleOrNull(csvRecord, "OpenPrice"));
+
+        // Profit and Loss fields
+        entity.setFifoPnlUnrealized(parseDoubleOrNull(csvRecord, "FifoPnlUnrealized"));
+        entity.setUnrealizedCapitalGainsPnl(parseDoubleOrNull(csvRecord, "UnrealizedCapitalGainsPnL"));
+        entity.setUnrealizedFxPnl(parseDoubleOrNull(csvRecord, "UnrealizedFxPnL"));
+        entity.setPercentOfNAV(parseDoubleOrNull(csvRecord, "PercentOfNAV"));
+
+        // Securities Identification fields
+        entity.setSecurityId(getStringOrNull(csvRecord, "SecurityID"));
+        entity.setSecurityIdType(getStringOrNull(csvRecord, "SecurityIDType"));
+        entity.setCusip(getStringOrNull(csvRecord, "CUSIP"));
+        entity.setIsin(getStringOrNull(csvRecord, "ISIN"));
+        entity.setFigi(getStringOrNull(csvRecord, "FIGI"));
+        entity.setSedol(getStringOrNull(csvRecord, "SEDOL"));
+
+        // Options-specific fields (nullable for non-OPT assets)
+        entity.setStrike(parseDoubleOrNull(csvRecord, "Strike"));
+        entity.setExpirationDate(parseDateOrNull(csvRecord, "Expiry"));
+        entity.setPutCall(getStringOrNull(csvRecord, "Put/Call"));
+        entity.setUnderlyingConid(parseLongOrNull(csvRecord, "UnderlyingConid"));
+        entity.setUnderlyingSymbol(getStringOrNull(csvRecord, "UnderlyingSymbol"));
+        entity.setUnderlyingSecurityId(getStringOrNull(csvRecord, "UnderlyingSecurityID"));
+        entity.setUnderlyingListingExchange(getStringOrNull(csvRecord, "UnderlyingListingExchange"));
+
+        // Corporate Actions & Adjustments fields
+        entity.setPrincipalAdjustFactor(parseDoubleOrNull(csvRecord, "PrincipalAdjustFactor"));
+        entity.setAccruedInterest(parseDoubleOrNull(csvRecord, "AccruedInterest"));
+        entity.setCode(getStringOrNull(csvRecord, "Code"));
+        entity.setHoldingPeriodDateTime(parseLocalDateTimeOrNull(csvRecord, "HoldingPeriodDateTime"));
+        entity.setOriginatingOrderId(getStringOrNull(csvRecord, "OriginatingOrderID"));
+        entity.setOriginatingTransactionId(getStringOrNull(csvRecord, "OriginatingTransactionID"));
+
+        // Bond & Structured Products fields
+        entity.setIssuer(getStringOrNull(csvRecord, "Issuer"));
+        entity.setIssuerCountryCode(getStringOrNull(csvRecord, "IssuerCountryCode"));
+
+        // Commodities fields
+        entity.setCommodityType(getStringOrNull(csvRecord, "CommodityType"));
+        entity.setFineness(parseDoubleOrNull(csvRecord, "Fineness"));
+        entity.setWeight(getStringOrNull(csvRecord, "Weight"));
+        entity.setDeliveryType(getStringOrNull(csvRecord, "DeliveryType"));
+        entity.setSerialNumber(getStringOrNull(csvRecord, "SerialNumber"));
+
+        // Metadata fields
+        entity.setModel(getStringOrNull(csvRecord, "Model"));
+        entity.setOpenDateTime(parseLocalDateTimeOrNull(csvRecord, "OpenDateTime"));
+    }
+
+    /**
+     * ISSUE-048: Calculates and sets tradeDate, daysBetween and roi of an option position.
+     *
+     * @param entity option position with expiration date
+     * @param firstTradeDate earliest OptionEntity trade date for the conid, null falls back to reportDate
+     */
+    private void applyOptionMetrics(OpenPositionEntity entity, LocalDate firstTradeDate) {
+        LocalDate calculatedTradeDate = firstTradeDate != null ? firstTradeDate : entity.getReportDate();
+        entity.setTradeDate(calculatedTradeDate);
+
+        // Calculate days between trade and expiration
+        int calculatedDaysBetween = PositionCalculationHelper.calculateDaysBetween(
+            calculatedTradeDate,
+            entity.getExpirationDate()
+        );
+        entity.setDaysBetween(calculatedDaysBetween > 0 ? calculatedDaysBetween : null);
+
+        // Calculate annualized ROI percentage
+        if (entity.getStrike() != null && entity.getCostBasisPrice() != null && calculatedDaysBetween > 0) {
+            int calculatedRoi = PositionCalculationHelper.calculateAnnualizedRoiPercent(
+                entity.getStrike(),
+                entity.getCostBasisPrice(),
+                calculatedDaysBetween
+            );
+            entity.setRoi(calculatedRoi);
+        } else {
+            entity.setRoi(null);
+        }
+
+        log.debug("Calculated for conid {}: tradeDate={}, daysBetween={}, roi={}",
+            entity.getConid(), calculatedTradeDate, calculatedDaysBetween, entity.getRoi());
     }
 
     /**
-     * Parses IBKR Open Positions CSV and persists to database using upsert logic.
+     * Parses IBKR Open Positions CSV and persists to database using set-based upsert logic.
      *
      * CSV Format:
      * - First row: column headers
@@ -109,39 +275,55 @@ public class OpenPositionService {
      * - For options: Strike, Expiry, Put/Call, Underlying Symbol, Underlying Conid
      *
      * Position Upsert Logic:
-     * - Check if position with same conid already exists via findByConid()
-     * - If yes: update all fields on existing entity
-     * - If no: create new entity and insert
-     * - Natural key: conid (unique constraint enforced at database level)
-     *
-     * Instrument Upsert (NEW):
-     * - Before position upsert, ensures InstrumentEntity exists via findByConid()
-     * - If new: creates instrument with conid, ticker, and name from CSV
-     * - If exists: updates name/ticker from CSV (IBKR is ground truth)
+     * - Positions are written with one batched INSERT ... ON CONFLICT (conid) statement
+     * - Duplicate conids in the CSV: later rows win
+     * - Closed positions are removed with one DELETE per CSV account (ISSUE-046)
+     *
+     * Instrument Upsert:
+     * - Instruments are prefetched once and resolved by conid, then ticker
+     * - New instruments are inserted, changed name/ticker/conid is flushed by dirty checking
      * - Falls back to symbol if description is empty
      * - Preserves existing price/metadata fields
-     * - Same transaction boundary: instrument + position = atomic
      *
      * Financial Metrics Calculation (ISSUE-048):
      * - For OPT assets with valid expiration date:
-     *   - Calculates tradeDate from OptionEntity (earliest trade by tradeDate)
+     *   - Calculates tradeDate from OptionEntity (one grouped query, conid → MIN(tradeDate))
      *   - Calculates daysBetween (trade to expiration)
      *   - Calculates roi (annualized ROI percentage)
-     * - Persists these values to eliminate N+1 query problem in views
      * - Non-OPT assets skip this calculation
      *
+     * Rows are validated before anything is written, so a bad record still rolls back the whole import.
+     *
      * @param csv the CSV data as a string (complete file content)
      * @return count in format "saved/deleted" (e.g., "50/10" = 50 saved, 10 deleted)
-     * @throws IOException if CSV parsing fails
      * @throws RuntimeException if any field parsing fails (will cause transaction rollback)
      */
     @Transactional
-    public String saveCSV(String csv) throws IOException {
-        Set<Long> processedConids = new HashSet<>();
-        Set<String> csvAccounts = new HashSet<>();
-        int savedCount = 0;
+    public String upsertCSV(String csv) {
+        return upsertCSV(new StringReader(csv));
+    }
+
+    /**
+     * Streaming variant of {@link #upsertCSV(String)} used by the FLEX import,
+     * records are parsed one by one from the reader (e.g., a gzip statement archive).
+     *
+     * @param reader CSV source, closed by the caller
+     * @return count in format "saved/deleted" (e.g., "50/10" = 50 saved, 10 deleted)
+     */
+    @Transactional
+    public String upsertCSV(Reader reader) {
+        Map<Long, OpenPositionEntity> positionsByConid = new LinkedHashMap<>();
+        Map<Long, InstrumentEntity> instrumentsByConid = new HashMap<>();
+        Map<String, InstrumentEntity> instrumentsByTicker = new HashMap<>();
+        for (InstrumentEntity instrument : instrumentRepository.findAll()) {
+            if (instrument.getConid() != null)
+                instrumentsByConid.put(instrument.getConid(), instrument);
+            instrumentsByTicker.put(instrument.getTicker(), instrument);
+        }
+        List<InstrumentEntity> newInstruments = new ArrayList<>();
+        Set<String> csvAccounts = new LinkedHashSet<>();
 
-        try (CSVParser csvRecords = parse(csv,
+        try (CSVParser csvRecords = parse(reader,
                 CSVFormat.Builder.create()
                         .setHeader()                   // First row is headers
                         .setSkipHeaderRecord(true)     // Don't parse header row again
@@ -151,239 +333,70 @@ public class OpenPositionService {
 
             for (CSVRecord csvRecord : csvRecords) {
                 try {
-                    // Parse required fields (will throw exception if missing/invalid)
-                    String account = csvRecord.get("ClientAccountID");
                     Long conid = parseLong(csvRecord.get("Conid"));
-                    String assetClass = csvRecord.get("AssetClass");
-
-                    // ISSUE-046: Track for deletion logic (account-scoped)
-                    csvAccounts.add(account);
-                    processedConids.add(conid);
-                    String symbol = csvRecord.get("Symbol");
-                    LocalDate reportDate = LocalDate.parse(csvRecord.get("ReportDate"));
-                    Integer quantity = parseInt(csvRecord.get("Quantity"));
-                    String currency = csvRecord.get("CurrencyPrimary");
-                    String description = getStringOrNull(csvRecord, "Description");
-
-                    // INSTRUMENT UPSERT: Ensure instrument exists for this position
-                    // IBKR Flex Report is ground truth for instrument identification
-                    // For stocks: use conid (the stock's own contract ID)
-                    // For options: use underlyingConid (the underlying stock's contract ID)
-                    Long instrumentConid = "OPT".equals(assetClass)
-                            ? parseLongOrNull(csvRecord, "UnderlyingConid")
-                            : conid;
-                    String underlyingSymbol = "OPT".equals(assetClass)
-                            ? getStringOrNull(csvRecord, "UnderlyingSymbol")
-                            : symbol;
-
-                    // Only sync instruments for STK and OPT (stocks and options)
-                    // Skip other asset classes (CASH, BOND, FOP, etc.)
+                    OpenPositionEntity entity = new OpenPositionEntity();
+                    entity.setConid(conid);
+                    applyCsvFields(csvRecord, entity);
+                    csvAccounts.add(entity.getAccount());
+
+                    boolean option = "OPT".equals(entity.getAssetClass());
+                    Long instrumentConid = option ? entity.getUnderlyingConid() : conid;
+                    String underlyingSymbol = option ? entity.getUnderlyingSymbol() : entity.getSymbol();
                     if (instrumentConid != null && underlyingSymbol != null) {
-                        // Check by conid first (primary key), then by ticker (unique constraint)
-                        InstrumentEntity instrument = instrumentRepository.findByConid(instrumentConid);
-                        if (instrument == null) {
-                            // conid not found - check if ticker already exists
-                            // (can happen if same symbol has different conid in CSV)
-                            instrument = instrumentRepository.findByTicker(underlyingSymbol);
-                            if (instrument == null) {
-                                // Neither conid nor ticker exists - create new
-                                log.debug("Creating new instrument for conid={}, symbol={}", instrumentConid, underlyingSymbol);
-                                instrument = new InstrumentEntity();
-                                instrument.setConid(instrumentConid);
-                                instrument.setTicker(underlyingSymbol);
-                            } else {
-                                // Ticker exists but conid differs - update ticker's conid
-                                log.debug("Updating conid for existing ticker: symbol={}, old_conid={}, new_conid={}",
-                                        underlyingSymbol, instrument.getConid(), instrumentConid);
-                                instrument.setConid(instrumentConid);
-                            }
-                        } else {
-                            log.debug("Updating existing instrument for conid={}", instrumentConid);
-                        }
-
-                        // Update instrument name from CSV description (IBKR ground truth)
-                        // Fallback to symbol if description is empty
-                        String instrumentName = (description != null && !description.isEmpty())
-                                ? description
-                                : underlyingSymbol;
-                        instrument.setName(instrumentName);
-
-                        // Save instrument (upsert)
-                        // Note: Don't touch other fields (price, Alpaca metadata, etc.)
-                        instrumentRepository.save(instrument);
-                        log.debug("Saved instrument: conid={}, ticker={}, name={}",
-                                instrument.getConid(), instrument.getTicker(), instrument.getName());
-                    } else if ("OPT".equals(assetClass)) {
-                        // Options without underlying info - log warning but don't fail
-                        log.warn("Option position missing underlying info: conid={}, symbol={}", conid, symbol);
+                        InstrumentEntity instrument = resolveInstrument(instrumentConid, underlyingSymbol,
+                                entity.getDescription(), instrumentsByConid, instrumentsByTicker);
+                        if (instrument.getId() == null && !newInstruments.contains(instrument))
+                            newInstruments.add(instrument);
+                        instrumentsByConid.put(instrument.getConid(), instrument);
+                        instrumentsByTicker.put(instrument.getTicker(), instrument);
+                    } else if (option) {
+                        log.warn("Option position missing underlying info: conid={}, symbol={}", conid, entity.getSymbol());
                     }
 
-                    // UPSERT LOGIC: Check if position already exists
-                    OpenPositionEntity entity = openPositionRepository.findByConid(conid);
-                    if (entity == null) {
-                        entity = new OpenPositionEntity();
-                        entity.setConid(conid);
-                    }
-
-                    // Always update all fields (upsert behavior)
-                    entity.setAccount(account);
-                    entity.setAssetClass(assetClass);
-                    entity.setSymbol(symbol);
-                    entity.setReportDate(reportDate);
-                    entity.setQuantity(quantity);
-                    entity.setCurrency(currency);
-
-                    // Core Identification fields
-                    entity.setAccountAlias(getStringOrNull(csvRecord, "AccountAlias"));
-
-                    // Position Classification fields
-                    entity.setSubCategory(getStringOrNull(csvRecord, "SubCategory"));
-                    entity.setSide(getStringOrNull(csvRecord, "Side"));
-                    entity.setLevelOfDetail(getStringOrNull(csvRecord, "LevelOfDetail"));
-
-                    // Basic Position Info fields
-                    entity.setDescription(getStringOrNull(csvRecord, "Description"));
-                    entity.setMultiplier(parseDoubleOrNull(csvRecord, "Multiplier"));
-
-                    // Pricing and Value fields
-                    entity.setCostBasisPrice(parseDoubleOrNull(csvRecord, "CostBasisPrice"));
-                    entity.setCostBasisMoney(parseDoubleOrNull(csvRecord, "CostBasisMoney"));
-                    entity.setMarkPrice(parseDoubleOrNull(csvRecord, "MarkPrice"));
-                    entity.setPositionValue(parseDoubleOrNull(csvRecord, "PositionValue"));
-                    entity.setPositionValueInBase(parseDoubleOrNull(csvRecord, "PositionValueInBase"));
-                    entity.setFxRateToBase(parseDoubleOrNull(csvRecord, "FXRateToBase"));
-                    entity.setOpenPrice(parseDoubleOrNull(csvRecord, "OpenPrice"));
-
-                    // Profit and Loss fields
-                    entity.setFifoPnlUnrealized(parseDoubleOrNull(csvRecord, "FifoPnlUnrealized"));
-                    entity.setUnrealizedCapitalGainsPnl(parseDoubleOrNull(csvRecord, "UnrealizedCapitalGainsPnL"));
-                    entity.setUnrealizedFxPnl(parseDoubleOrNull(csvRecord, "UnrealizedFxPnL"));
-                    entity.setPercentOfNAV(parseDoubleOrNull(csvRecord, "PercentOfNAV"));
-
-                    // Securities Identification fields
-                    entity.setSecurityId(getStringOrNull(csvRecord, "SecurityID"));
-                    entity.setSecurityIdType(getStringOrNull(csvRecord, "SecurityIDType"));
-                    entity.setCusip(getStringOrNull(csvRecord, "CUSIP"));
-                    entity.setIsin(getStringOrNull(csvRecord, "ISIN"));
-                    entity.setFigi(getStringOrNull(csvRecord, "FIGI"));
-                    entity.setSedol(getStringOrNull(csvRecord, "SEDOL"));
-
-                    // Options-specific fields (nullable for non-OPT assets)
-                    entity.setStrike(parseDoubleOrNull(csvRecord, "Strike"));
-                    entity.setExpirationDate(parseDateOrNull(csvRecord, "Expiry"));
-                    entity.setPutCall(getStringOrNull(csvRecord, "Put/Call"));
-                    entity.setUnderlyingConid(parseLongOrNull(csvRecord, "UnderlyingConid"));
-                    entity.setUnderlyingSymbol(getStringOrNull(csvRecord, "UnderlyingSymbol"));
-                    entity.setUnderlyingSecurityId(getStringOrNull(csvRecord, "UnderlyingSecurityID"));
-                    entity.setUnderlyingListingExchange(getStringOrNull(csvRecord, "UnderlyingListingExchange"));
-
-                    // Corporate Actions & Adjustments fields
-                    entity.setPrincipalAdjustFactor(parseDoubleOrNull(csvRecord, "PrincipalAdjustFactor"));
-                    entity.setAccruedInterest(parseDoubleOrNull(csvRecord, "AccruedInterest"));
-                    entity.setCode(getStringOrNull(csvRecord, "Code"));
-                    entity.setHoldingPeriodDateTime(parseLocalDateTimeOrNull(csvRecord, "HoldingPeriodDateTime"));
-                    entity.setOriginatingOrderId(getStringOrNull(csvRecord, "OriginatingOrderID"));
-                    entity.setOriginatingTransactionId(getStringOrNull(csvRecord, "OriginatingTransactionID"));
-
-                    // Bond & Structured Products fields
-                    entity.setIssuer(getStringOrNull(csvRecord, "Issuer"));
-                    entity.setIssuerCountryCode(getStringOrNull(csvRecord, "IssuerCountryCode"));
-
-                    // Commodities fields
-                    entity.setCommodityType(getStringOrNull(csvRecord, "CommodityType"));
-                    entity.setFineness(parseDoubleOrNull(csvRecord, "Fineness"));
-                    entity.setWeight(getStringOrNull(csvRecord, "Weight"));
-                    entity.setDeliveryType(getStringOrNull(csvRecord, "DeliveryType"));
-                    entity.setSerialNumber(getStringOrNull(csvRecord, "SerialNumber"));
-
-                    // Metadata fields
-                    entity.setModel(getStringOrNull(csvRecord, "Model"));
-                    entity.setOpenDateTime(parseLocalDateTimeOrNull(csvRecord, "OpenDateTime"));
-
-                    // ISSUE-048: Calculate and persist tradeDate, daysBetween, roi for OPTIONS
-                    // Only for OPT asset class with valid expiration date
-                    if ("OPT".equals(assetClass) && entity.getExpirationDate() != null) {
-                        // Lookup trade date from OptionEntity (earliest trade by tradeDate)
-                        LocalDate calculatedTradeDate = entity.getReportDate();  // fallback
-
-                        if (entity.getConid() != null) {
-                            List<OptionEntity> optionEntities = optionRepository.findByConid(entity.getConid());
-                            if (!optionEntities.isEmpty()) {
-                                // First record is earliest trade (ordered by tradeDate ASC)
-                                OptionEntity tradedOption = optionEntities.get(0);
-                                if (tradedOption.getTradeDate() != null) {
-                                    calculatedTradeDate = tradedOption.getTradeDate();
-                                }
-                            }
-                        }
-
-                        entity.setTradeDate(calculatedTradeDate);
-
-                        // Calculate days between trade and expiration
-                        int calculatedDaysBetween = PositionCalculationHelper.calculateDaysBetween(
-                            calculatedTradeDate,
-                            entity.getExpirationDate()
-                        );
-                        entity.setDaysBetween(calculatedDaysBetween > 0 ? calculatedDaysBetween : null);
-
-                        // Calculate annualized ROI percentage
-                        if (entity.getStrike() != null && entity.getCostBasisPrice() != null && calculatedDaysBetween > 0) {
-                            int calculatedRoi = PositionCalculationHelper.calculateAnnualizedRoiPercent(
-                                entity.getStrike(),
-                                entity.getCostBasisPrice(),
-                                calculatedDaysBetween
-                            );
-                            entity.setRoi(calculatedRoi);
-                        } else {
-                            entity.setRoi(null);
-                        }
-
-                        log.debug("Calculated for conid {}: tradeDate={}, daysBetween={}, roi={}",
-                            entity.getConid(), calculatedTradeDate, calculatedDaysBetween, entity.getRoi());
-                    }
-
-                    // Save or update
-                    openPositionRepository.save(entity);
-                    savedCount++;
-
+                    // Later rows win
+                    positionsByConid.put(conid, entity);
                 } catch (Exception e) {
                     log.error("Error processing CSV record #{}: {}", csvRecord.getRecordNumber(), e.getMessage(), e);
                     throw new RuntimeException("Failed to parse record " + csvRecord.getRecordNumber(), e);
                 }
             }
+        } catch (IOException e) {
+            log.error("CSV parsing error: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to parse CSV", e);
+        }
 
-            // ISSUE-046: DELETE POSITIONS NOT IN CSV (account-scoped)
-            int deletedCount = 0;
-            if (!csvAccounts.isEmpty()) {
-                // Query positions from CSV accounts
-                List<OpenPositionEntity> accountPositions = new ArrayList<>();
-                for (String account : csvAccounts) {
-                    accountPositions.addAll(openPositionRepository.findByAccount(account));
-                }
-
-                // Filter to positions not processed (closed in IBKR)
-                List<OpenPositionEntity> toDelete = accountPositions.stream()
-                        .filter(entity -> !processedConids.contains(entity.getConid()))
-                        .toList();
-
-                if (!toDelete.isEmpty()) {
-                    openPositionRepository.deleteAll(toDelete);
-                    deletedCount = toDelete.size();
-                    log.info("Deleted {} closed positions not in CSV from accounts: {}",
-                            deletedCount, csvAccounts);
-                }
-            }
+        // Prefetched instruments are managed, changes are flushed by dirty checking
+        instrumentRepository.saveAll(newInstruments);
+        instrumentRepository.flush();
 
-            log.info("OpenPositionService.saveCSV() completed: {} saved, {} deleted",
-                    savedCount, deletedCount);
+        // ISSUE-048: tradeDate, daysBetween, roi from a single conid -> first trade map
+        List<Long> optionConids = positionsByConid.values().stream()
+                .filter(p -> "OPT".equals(p.getAssetClass()) && p.getExpirationDate() != null)
+                .map(OpenPositionEntity::getConid)
+                .toList();
+        Map<Long, LocalDate> firstTradeDates = new HashMap<>();
+        if (!optionConids.isEmpty()) {
+            optionRepository.findFirstTradeDates(optionConids)
+                    .forEach(t -> firstTradeDates.put(t.getConid(), t.getTradeDate()));
+        }
+        for (Long conid : optionConids) {
+            applyOptionMetrics(positionsByConid.get(conid), firstTradeDates.get(conid));
+        }
 
-            // Return in format "saved/deleted"
-            return savedCount + "/" + deletedCount;
+        int savedCount = openPositionJdbcRepository.upsertBatch(new ArrayList<>(positionsByConid.values()));
 
-        } catch (IOException e) {
-            log.error("CSV parsing error: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to parse CSV", e);
+        // ISSUE-046: DELETE POSITIONS NOT IN CSV (account-scoped)
+        int deletedCount = 0;
+        for (String account : csvAccounts) {
+            deletedCount += openPositionJdbcRepository.deleteByAccountAndConidNotIn(account, positionsByConid.keySet());
         }
+        if (deletedCount > 0) {
+            log.info("Deleted {} closed positions not in CSV from accounts: {}", deletedCount, csvAccounts);
+        }
+
+        log.info("OpenPositionService.upsertCSV() completed: {} saved, {} deleted, {} new instruments",
+                savedCount, deletedCount, newInstruments.size());
+        return savedCount + "/" + deletedCount;
     }
 
     /**
@@ -562,6 +575,20 @@ public class OpenPositionService {
         return convertToPositionDtos(openOptions);
     }
 
+    /**
+     * Get all open option positions with their contract multiplier.
+     *
+     * Same positions and metrics as getAllOpenOptionDtos(null), the multiplier lets
+     * PortfolioAggregationService revalue a position when its underlying price moves.
+     *
+     * @return open option positions of the aggregation graph
+     */
+    public List<PortfolioGraph.Position> getAllOpenOptionPositions() {
+        return openPositionRepository.findAllOptions().stream()
+                .map(entity -> new PortfolioGraph.Position(convertToPositionDto(entity), entity.getMultiplier()))
+                .toList();
+    }
+
     /**
      * Get open option positions for a specific underlying ticker.
      *
@@ -667,14 +694,24 @@ public class OpenPositionService {
      * pnl, roi, pop, and type.
      *
      * The underlyingPrice is fetched from the related InstrumentEntity via the
-     * underlyingInstrument relationship.
+     * underlyingInstrument relationship. The first trade of every position is loaded
+     * with one batched query (no query per position).
      *
      * @return List of open option positions as view DTOs
      */
     public List<OpenPositionViewDto> getAllOpenPositionViewDtos() {
         List<OpenPositionEntity> openOptions = openPositionRepository.findAllOptionsWithUnderlying();
+        List<Long> conids = openOptions.stream()
+                .map(OpenPositionEntity::getConid)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, OptionEntity> firstTrades = new HashMap<>();
+        if (!conids.isEmpty()) {
+            // Ordered by tradeDate, the first row of a conid is its earliest trade
+            optionRepository.findByConidIn(conids).forEach(o -> firstTrades.putIfAbsent(o.getConid(), o));
+        }
         return openOptions.stream()
-                .map(this::convertToOpenPositionViewDto)
+                .map(entity -> convertToOpenPositionViewDto(entity, firstTrades.get(entity.getConid())))
                 .toList();
     }
 
@@ -685,14 +722,11 @@ public class OpenPositionService {
      * persisted tradeDate, daysBetween, and roi from entity (ISSUE-048).
      * Falls back to calculation for positions imported before ISSUE-048.
      *
-     * Performance:
-     * - New data (post-ISSUE-048): No database queries, reads persisted values
-     * - Old data (pre-ISSUE-048): Queries OptionEntity by conid for backwards compatibility
-     *
-     * @param entity the open position entity with underlying instrument loaded
+     * @param entity      the open position entity with underlying instrument loaded
+     * @param tradedOption earliest trade of the position, null if there is none
      * @return view DTO with essential fields
      */
-    private OpenPositionViewDto convertToOpenPositionViewDto(OpenPositionEntity entity) {
+    private OpenPositionViewDto convertToOpenPositionViewDto(OpenPositionEntity entity, OptionEntity tradedOption) {
         // Get underlying price from InstrumentEntity
         Double underlyingPrice = null;
         InstrumentEntity underlyingInstrument = entity.getUnderlyingInstrument();
@@ -710,10 +744,7 @@ public class OpenPositionService {
         Double tradePrice = entity.getCostBasisPrice();  // fallback to cost basis
         Double marketPrice = entity.getMarkPrice();      // fallback to entity markPrice
 
-        List<OptionEntity> optionEntities = optionRepository.findByConid(entity.getConid());
-        if (!optionEntities.isEmpty()) {
-            // First record is earliest trade (ordered by tradeDate ASC)
-            OptionEntity tradedOption = optionEntities.getFirst();
+        if (tradedOption != null) {
             if (tradedOption.getMarketPrice() != null) {
                 marketPrice = tradedOption.getMarketPrice() / entity.getMultiplier();
             }
@@ -0,0 +1,135 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.LiveUpdateDto;
+import co.grtk.srcprofit.dto.OpenPositionViewDto;
+import co.grtk.srcprofit.dto.OpenPositionsPageDto;
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.dto.StockPositionViewDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read model of the /openpositions page.
+ *
+ * The page content (position tables, summary and weekly positions) is projected once and kept
+ * in memory, requests only read the current projection. The option summaries are read from the
+ * PortfolioAggregationService, which the writers update first. It is rebuilt by the writers:
+ * - after the FLEX open positions and trades imports (FlexReportsService)
+ * - after every market data change, which moves prices, P&L and POP (MarketDataService): the Alpaca
+ *   and IBKR refreshes and the flush of the streamed trades
+ *
+ * After a rebuild the open option positions whose underlying price, P&L or POP changed are pushed
+ * to the live update subscribers as a "positions" event (LiveUpdateHub).
+ *
+ * A failed rebuild drops the projection, the next request builds it again.
+ */
+@Service
+public class OpenPositionsReadModel {
+    private static final Logger log = LoggerFactory.getLogger(OpenPositionsReadModel.class);
+
+    private final OpenPositionService openPositionService;
+    private final PortfolioAggregationService portfolioAggregationService;
+    private final LiveUpdateHub liveUpdateHub;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile OpenPositionsPageDto page;
+
+    public OpenPositionsReadModel(OpenPositionService openPositionService,
+                                  PortfolioAggregationService portfolioAggregationService,
+                                  LiveUpdateHub liveUpdateHub) {
+        this.openPositionService = openPositionService;
+        this.portfolioAggregationService = portfolioAggregationService;
+        this.liveUpdateHub = liveUpdateHub;
+    }
+
+    /**
+     * @return current projection, built on first use
+     */
+    public OpenPositionsPageDto getPage() {
+        OpenPositionsPageDto current = page;
+        if (current != null)
+            return current;
+        rebuildLock.lock();
+        try {
+            if (page == null)
+                page = build();
+            return page;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the projection after positions, trades or prices changed and pushes the changed positions.
+     * Failures are logged and never propagate to the writer.
+     */
+    public void rebuild() {
+        OpenPositionsPageDto previous;
+        OpenPositionsPageDto current;
+        rebuildLock.lock();
+        try {
+            previous = page;
+            page = build();
+            current = page;
+        } catch (RuntimeException e) {
+            page = null;
+            log.warn("Open positions read model rebuild failed, rebuilding on next read: {}", e.getMessage(), e);
+            return;
+        } finally {
+            rebuildLock.unlock();
+        }
+        // Without a previous projection no page shows positions to update
+        if (previous == null)
+            return;
+        List<LiveUpdateDto.Position> positions = changedPositions(previous.openPositions(), current.openPositions());
+        if (!positions.isEmpty())
+            liveUpdateHub.publish("positions", new LiveUpdateDto(current.builtAt(), null, positions));
+    }
+
+    /**
+     * @return the current positions that are new or whose underlying price, P&L or POP changed
+     */
+    static List<LiveUpdateDto.Position> changedPositions(List<OpenPositionViewDto> previous,
+                                                         List<OpenPositionViewDto> current) {
+        Map<Long, OpenPositionViewDto> previousById = new HashMap<>();
+        for (OpenPositionViewDto position : previous)
+            previousById.put(position.id(), position);
+        List<LiveUpdateDto.Position> changed = new ArrayList<>();
+        for (OpenPositionViewDto position : current) {
+            OpenPositionViewDto before = previousById.get(position.id());
+            if (before != null
+                    && Objects.equals(before.underlyingPrice(), position.underlyingPrice())
+                    && Objects.equals(before.calculatedPnl(), position.calculatedPnl())
+                    && Objects.equals(before.pop(), position.pop()))
+                continue;
+            changed.add(new LiveUpdateDto.Position(position.id(), position.symbol(), position.underlyingPrice(),
+                    position.calculatedPnl(), position.pop()));
+        }
+        return changed;
+    }
+
+    private OpenPositionsPageDto build() {
+        long start = System.currentTimeMillis();
+        List<OpenPositionViewDto> openPositions = openPositionService.getAllOpenPositionViewDtos();
+        List<StockPositionViewDto> stockPositions = openPositionService.getAllStockPositionViewDtos();
+
+        // Position summary (buy/sell obligations, premiums) and weekly positions, already aggregated
+        List<PositionDto> openOptions = portfolioAggregationService.getOpenOptions();
+        PositionDto positionDto = portfolioAggregationService.getPositionSummary();
+        List<PositionDto> weeklyOpenPositions = portfolioAggregationService.getWeeklySummary();
+
+        log.debug("Open positions read model built with {} options and {} stocks in {}ms",
+                openPositions.size(), stockPositions.size(), System.currentTimeMillis() - start);
+        return new OpenPositionsPageDto(List.copyOf(openPositions), List.copyOf(stockPositions),
+                List.copyOf(openOptions), positionDto, List.copyOf(weeklyOpenPositions), Instant.now());
+    }
+}
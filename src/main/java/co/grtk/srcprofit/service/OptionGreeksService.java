@@ -0,0 +1,204 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import co.grtk.srcprofit.mapper.BlackScholes;
+import co.grtk.srcprofit.mapper.ImpliedVolatility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Local Black-Scholes greeks for option snapshots the Alpaca indicative feed returned without greeks.
+ *
+ * A chain (the snapshots of one underlying and type) is priced in one batch, see BlackScholes.
+ * Volatility input is the last known implied volatility of the contract, or
+ * OPTION_GREEKS_DEFAULT_VOLATILITY (default 0.30) when it never had one.
+ * The rate is OPTION_GREEKS_RISK_FREE_RATE (default 0.04).
+ *
+ * Model values are written with the scale of the greek columns (NUMERIC(8,6)), values that do not
+ * fit (e.g. gamma in the last hour before expiration) are left null.
+ *
+ * Implied volatility of contracts without a feed value is solved from the quote mid price
+ * (see ImpliedVolatility). Chains of different underlyings are solved in parallel on a dedicated
+ * ForkJoinPool of OPTION_IV_PARALLELISM workers (default: available processors), each worker reuses
+ * its own solver arrays.
+ *
+ * Metrics: srcprofit.option.iv.solves{result=newton|brent|failed} and srcprofit.option.iv.iterations.
+ */
+@Service
+public class OptionGreeksService {
+    private static final Logger log = LoggerFactory.getLogger(OptionGreeksService.class);
+
+    static final double DEFAULT_VOLATILITY = 0.30;
+    static final double DEFAULT_RISK_FREE_RATE = 0.04;
+    private static final double MINUTES_PER_YEAR = 365.0 * 24 * 60;
+    // Time value floor on the expiration day, one hour
+    private static final double MIN_YEARS = 60 / MINUTES_PER_YEAR;
+    // NUMERIC(8,6)
+    private static final double MAX_GREEK_COLUMN_VALUE = 99.999999;
+
+    private static final String SOLVES_METRIC = "srcprofit.option.iv.solves";
+    private static final ThreadLocal<ImpliedVolatility> SOLVERS =
+            ThreadLocal.withInitial(() -> new ImpliedVolatility(64));
+
+    private final double defaultVolatility;
+    private final double riskFreeRate;
+    private final ForkJoinPool solverPool;
+
+    private final Counter newtonSolves;
+    private final Counter brentSolves;
+    private final Counter failedSolves;
+    private final DistributionSummary solveIterations;
+
+    public OptionGreeksService(Environment environment, MeterRegistry meterRegistry) {
+        this.defaultVolatility = environment.getProperty("OPTION_GREEKS_DEFAULT_VOLATILITY", Double.class, DEFAULT_VOLATILITY);
+        this.riskFreeRate = environment.getProperty("OPTION_GREEKS_RISK_FREE_RATE", Double.class, DEFAULT_RISK_FREE_RATE);
+        this.solverPool = new ForkJoinPool(environment.getProperty("OPTION_IV_PARALLELISM", Integer.class,
+                Runtime.getRuntime().availableProcessors()));
+        this.newtonSolves = Counter.builder(SOLVES_METRIC).tag("result", "newton").register(meterRegistry);
+        this.brentSolves = Counter.builder(SOLVES_METRIC).tag("result", "brent").register(meterRegistry);
+        this.failedSolves = Counter.builder(SOLVES_METRIC).tag("result", "failed").register(meterRegistry);
+        this.solveIterations = DistributionSummary.builder("srcprofit.option.iv.iterations").register(meterRegistry);
+    }
+
+    /**
+     * Snapshots of one underlying and the underlying price they are priced against.
+     */
+    public record OptionChain(List<OptionSnapshotEntity> snapshots, double underlyingPrice) {
+    }
+
+    @PreDestroy
+    void shutdown() {
+        solverPool.shutdown();
+    }
+
+    /**
+     * Solve and set the implied volatility of every snapshot of the given chains from its mid price.
+     * Snapshots without a quote or with a mid price outside the arbitrage bounds keep their previous value.
+     *
+     * @param chains chains to solve, one task per chain
+     * @return number of snapshots that got a solved implied volatility
+     */
+    public int solveImpliedVolatilities(List<OptionChain> chains) {
+        if (chains.isEmpty())
+            return 0;
+        LocalDateTime now = LocalDateTime.now();
+        List<ForkJoinTask<Integer>> tasks = chains.stream()
+                .map(chain -> solverPool.submit(() -> solveChain(chain, now)))
+                .toList();
+        int solved = 0;
+        for (ForkJoinTask<Integer> task : tasks)
+            solved += task.join();
+        log.debug("Implied volatility solved for {} snapshots of {} chains", solved, chains.size());
+        return solved;
+    }
+
+    private int solveChain(OptionChain chain, LocalDateTime now) {
+        List<OptionSnapshotEntity> snapshots = chain.snapshots();
+        ImpliedVolatility solver = SOLVERS.get();
+        solver.reset(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            OptionSnapshotEntity snapshot = snapshots.get(i);
+            BigDecimal midPrice = snapshot.getMidPrice();
+            solver.set(i,
+                    "call".equals(snapshot.optionType),
+                    chain.underlyingPrice(),
+                    snapshot.strikePrice == null ? Double.NaN : snapshot.strikePrice.doubleValue(),
+                    yearsToExpiration(snapshot.expirationDate, now),
+                    midPrice == null ? Double.NaN : midPrice.doubleValue());
+        }
+        solver.solve(riskFreeRate);
+
+        int solved = 0;
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (solver.iterations(i) > 0)
+                solveIterations.record(solver.iterations(i));
+            double volatility = solver.volatility(i);
+            if (Double.isNaN(volatility)) {
+                failedSolves.increment();
+                continue;
+            }
+            (solver.bracketed(i) ? brentSolves : newtonSolves).increment();
+            snapshots.get(i).impliedVolatility = BigDecimal.valueOf(volatility).setScale(4, RoundingMode.HALF_UP);
+            solved++;
+        }
+        return solved;
+    }
+
+    /**
+     * Calculate and set delta, gamma, theta, vega and rho of the given snapshots.
+     *
+     * @param snapshots       mapped snapshots of one underlying (strike, type and expiration set)
+     * @param underlyingPrice current price of the underlying
+     * @return number of snapshots that got model greeks
+     */
+    public int applyModelGreeks(List<OptionSnapshotEntity> snapshots, double underlyingPrice) {
+        if (snapshots.isEmpty())
+            return 0;
+        LocalDateTime now = LocalDateTime.now();
+        BlackScholes.Chain chain = new BlackScholes.Chain(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            OptionSnapshotEntity snapshot = snapshots.get(i);
+            chain.set(i,
+                    "call".equals(snapshot.optionType),
+                    underlyingPrice,
+                    snapshot.strikePrice == null ? Double.NaN : snapshot.strikePrice.doubleValue(),
+                    yearsToExpiration(snapshot.expirationDate, now),
+                    volatilityOf(snapshot));
+        }
+        BlackScholes.price(chain, riskFreeRate);
+
+        int applied = 0;
+        for (int i = 0; i < snapshots.size(); i++) {
+            OptionSnapshotEntity snapshot = snapshots.get(i);
+            if (Double.isNaN(chain.delta[i]))
+                continue;
+            snapshot.delta = toColumn(chain.delta[i]);
+            snapshot.gamma = toColumn(chain.gamma[i]);
+            snapshot.theta = toColumn(chain.theta[i]);
+            snapshot.vega = toColumn(chain.vega[i]);
+            snapshot.rho = toColumn(chain.rho[i]);
+            applied++;
+        }
+        log.debug("Model greeks set for {} of {} snapshots", applied, snapshots.size());
+        return applied;
+    }
+
+    private double volatilityOf(OptionSnapshotEntity snapshot) {
+        if (snapshot.impliedVolatility != null && snapshot.impliedVolatility.signum() > 0)
+            return snapshot.impliedVolatility.doubleValue();
+        return defaultVolatility;
+    }
+
+    /**
+     * Time until the end of the expiration day in years, at least one hour, NaN once expired.
+     */
+    static double yearsToExpiration(LocalDate expirationDate, LocalDateTime now) {
+        if (expirationDate == null)
+            return Double.NaN;
+        long minutes = Duration.between(now, expirationDate.plusDays(1).atStartOfDay()).toMinutes();
+        if (minutes <= 0)
+            return Double.NaN;
+        return Math.max(minutes / MINUTES_PER_YEAR, MIN_YEARS);
+    }
+
+    private static BigDecimal toColumn(double value) {
+        if (!Double.isFinite(value) || Math.abs(value) > MAX_GREEK_COLUMN_VALUE)
+            return null;
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
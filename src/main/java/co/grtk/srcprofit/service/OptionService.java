@@ -1,6 +1,5 @@
 package co.grtk.srcprofit.service;
 
-import co.grtk.srcprofit.dto.ChartDataDto;
 import co.grtk.srcprofit.dto.CsvImportResult;
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.AssetClass;
@@ -8,20 +7,24 @@ import co.grtk.srcprofit.entity.InstrumentEntity;
 import co.grtk.srcprofit.entity.OptionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import co.grtk.srcprofit.entity.OptionType;
-import co.grtk.srcprofit.mapper.Interval;
 import co.grtk.srcprofit.mapper.MapperUtils;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
 import co.grtk.srcprofit.mapper.PositionCalculationHelper;
+import co.grtk.srcprofit.mapper.PositionMapper;
 import co.grtk.srcprofit.repository.InstrumentRepository;
+import co.grtk.srcprofit.repository.OptionJdbcRepository;
 import co.grtk.srcprofit.repository.OptionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -30,11 +33,14 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static co.grtk.srcprofit.mapper.MapperUtils.round2Digits;
@@ -45,23 +51,26 @@ import static org.apache.commons.csv.CSVParser.parse;
 @Service
 public class OptionService {
     private final OptionRepository optionRepository;
+    private final OptionJdbcRepository optionJdbcRepository;
     private final InstrumentRepository instrumentRepository;
-    private final ObjectMapper objectMapper;
     private final VirtualPositionService virtualPositionService;
+    private final PremiumLedgerService premiumLedgerService;
     private static final Logger log = LoggerFactory.getLogger(OptionService.class);
+    private static final int IMPORT_CHUNK_SIZE = 500;
 
-    public OptionService(OptionRepository optionRepository, InstrumentRepository instrumentRepository, ObjectMapper objectMapper, VirtualPositionService virtualPositionService) {
+    public OptionService(OptionRepository optionRepository, OptionJdbcRepository optionJdbcRepository, InstrumentRepository instrumentRepository, VirtualPositionService virtualPositionService, PremiumLedgerService premiumLedgerService) {
         this.optionRepository = optionRepository;
-        this.objectMapper = objectMapper;
+        this.optionJdbcRepository = optionJdbcRepository;
         this.instrumentRepository = instrumentRepository;
         this.virtualPositionService = virtualPositionService;
+        this.premiumLedgerService = premiumLedgerService;
     }
 
     private List<PositionDto> getPositionDtos(List<OptionEntity> optionEntities) {
         return optionEntities.stream()
                 .map(entity -> {
                     InstrumentEntity instrumentEntity = entity.getInstrument();
-                    PositionDto positionDto = objectMapper.convertValue(entity, PositionDto.class);
+                    PositionDto positionDto = PositionMapper.toPositionDto(entity);
                     positionDto.setEarningDate(instrumentEntity.getEarningDate());
                     positionDto.setTicker(instrumentEntity.getTicker());
                     if(entity.getTradePrice() != null && entity.getMarketPrice() != null)
@@ -77,7 +86,7 @@ public class OptionService {
         return optionEntities.stream()
                 .map(entity -> {
                     InstrumentEntity instrumentEntity = entity.getInstrument();
-                    PositionDto positionDto = objectMapper.convertValue(entity, PositionDto.class);
+                    PositionDto positionDto = PositionMapper.toPositionDto(entity);
                     positionDto.setEarningDate(instrumentEntity.getEarningDate());
                     positionDto.setTicker(instrumentEntity.getTicker());
                     positionDto.setMarketValue(instrumentEntity.getOptionPrice());
@@ -127,7 +136,7 @@ public class OptionService {
 
         // Add virtual position if it exists for this ticker
         virtualPositionService.getVirtualPosition(ticker).ifPresent(virtualEntity -> {
-            PositionDto virtualDto = objectMapper.convertValue(virtualEntity, PositionDto.class);
+            PositionDto virtualDto = PositionMapper.toPositionDto(virtualEntity);
             virtualDto.setEarningDate(virtualEntity.getInstrument().getEarningDate());
             virtualDto.setTicker(ticker);
             virtualDto.setVirtual(true); // Mark as virtual for UI distinction
@@ -158,18 +167,6 @@ public class OptionService {
         return weeklyOpenPositions;
     }
 
-    public void getDailyPremium(ChartDataDto chartDataDto) {
-        if(Interval.ALL.equals(chartDataDto.getInterval()))
-            chartDataDto.setDailyPremium(getDailyPremium());
-        else
-            chartDataDto.setDailyPremium(getDailyPremium(chartDataDto.getStartDate(), chartDataDto.getEndDate()));
-    }
-
-    public Map<LocalDate, BigDecimal> getDailyPremium(LocalDate startDate, LocalDate endDate) {
-        List<OptionEntity> options =  optionRepository.findOptionsBetweenDates(startDate, endDate);
-        return getDailyPremium(options);
-    }
-
     public Map<LocalDate, BigDecimal> getDailyPremium() {
         List<OptionEntity> options =  optionRepository.findAll();
         return getDailyPremium(options);
@@ -206,216 +203,10 @@ public class OptionService {
         return cumulativePremiumPerDay;
     }
 
-    /**
-     * Calculate position-weighted ROI for portfolio.
-     * Weight each position's ROI by its capital at risk (positionValue * quantity).
-     * Formula: sum(roi * positionValue * quantity) / sum(positionValue * quantity)
-     *
-     * @param openPositions List of open positions
-     * @return Weighted ROI percentage, or 0 if no valid positions
-     */
-    private double calculateWeightedROI(List<PositionDto> openPositions) {
-        if (openPositions == null || openPositions.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalWeightedROI = 0.0;
-        double totalCapitalAtRisk = 0.0;
-
-        for (PositionDto position : openPositions) {
-            Integer roi = position.getAnnualizedRoiPercent();
-            Double posValue = position.getPositionValue();
-            int qty = abs(position.getQuantity());
-
-            if (roi != null && posValue != null && posValue > 0) {
-                double capitalAtRisk = posValue * qty;
-                totalWeightedROI += (roi * capitalAtRisk);
-                totalCapitalAtRisk += capitalAtRisk;
-            }
-        }
-
-        if (totalCapitalAtRisk == 0) {
-            return 0.0;
-        }
-
-        double weightedROI = totalWeightedROI / totalCapitalAtRisk;
-        return round2Digits(weightedROI);
-    }
-
-    /**
-     * Calculate position-weighted probability for portfolio.
-     * Weight each position's probability by its capital at risk (positionValue * quantity).
-     * Formula: sum(probability * positionValue * quantity) / sum(positionValue * quantity)
-     *
-     * @param openPositions List of open positions
-     * @return Weighted probability (0-100), or 0 if no valid positions
-     */
-    private double calculateWeightedProbability(List<PositionDto> openPositions) {
-        if (openPositions == null || openPositions.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalWeightedProbability = 0.0;
-        double totalCapitalAtRisk = 0.0;
-
-        for (PositionDto position : openPositions) {
-            Integer probability = position.getProbability();
-            Double posValue = position.getPositionValue();
-            int qty = abs(position.getQuantity());
-
-            if (probability != null && posValue != null && posValue > 0) {
-                double capitalAtRisk = posValue * qty;
-                totalWeightedProbability += (probability * capitalAtRisk);
-                totalCapitalAtRisk += capitalAtRisk;
-            }
-        }
-
-        if (totalCapitalAtRisk == 0) {
-            return 0.0;
-        }
-
-        double weightedProbability = totalWeightedProbability / totalCapitalAtRisk;
-        return round2Digits(weightedProbability);
-    }
-
-    /**
-     * Calculate normalized time weight using square root scaling.
-     * Reference: 45 DTE = 1.0 (TastyTrade mechanical trading standard)
-     *
-     * Formula: √(daysLeft / 45)
-     * - Longer-dated options have MORE uncertainty (wider distributions)
-     * - Matches volatility scaling in options theory (σ × √t)
-     * - Consistent with existing probability calculation (PositionMapper.java:158)
-     *
-     * Examples:
-     * -  7 DTE → 0.39 (61% less weight than baseline)
-     * - 30 DTE → 0.82 (18% less weight)
-     * - 45 DTE → 1.00 (baseline)
-     * - 60 DTE → 1.15 (15% more weight)
-     * - 90 DTE → 1.41 (41% more weight)
-     *
-     * @param daysLeft days remaining until expiration
-     * @return normalized time weight (0.0 if invalid)
-     */
-    private double calculateNormalizedTimeWeight(Integer daysLeft) {
-        if (daysLeft == null || daysLeft <= 0) {
-            return 0.0;
-        }
-        // Normalize to 45 DTE reference period
-        return Math.sqrt(daysLeft / 45.0);
-    }
-
-    /**
-     * Calculate time-weighted ROI for portfolio.
-     * Weights each position by: positionValue × quantity × √(daysLeft / 45)
-     *
-     * This reflects time-based uncertainty:
-     * - Longer-dated positions have wider probability distributions (more risk)
-     * - Weight scaling matches Black-Scholes volatility term (σ√t)
-     * - 45 DTE baseline aligns with TastyTrade mechanical trading standard
-     *
-     * Formula: sum(roi × posValue × qty × √(days/45)) / sum(posValue × qty × √(days/45))
-     *
-     * @param openPositions List of open positions
-     * @return Time-weighted ROI percentage, or 0 if no valid positions
-     */
-    private double calculateTimeWeightedROI(List<PositionDto> openPositions) {
-        if (openPositions == null || openPositions.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalWeightedROI = 0.0;
-        double totalWeight = 0.0;
-
-        for (PositionDto position : openPositions) {
-            Integer roi = position.getAnnualizedRoiPercent();
-            Double posValue = position.getPositionValue();
-            Integer daysLeft = position.getDaysLeft();
-            int qty = abs(position.getQuantity());
-
-            if (roi != null && posValue != null && posValue > 0
-                && daysLeft != null && daysLeft > 0) {
-
-                double timeWeight = calculateNormalizedTimeWeight(daysLeft);
-                double weight = posValue * qty * timeWeight;
-
-                totalWeightedROI += (roi * weight);
-                totalWeight += weight;
-            }
-        }
-
-        if (totalWeight == 0) {
-            return 0.0;
-        }
-
-        double timeWeightedROI = totalWeightedROI / totalWeight;
-        return round2Digits(timeWeightedROI);
-    }
-
-    /**
-     * Calculate time-weighted probability for portfolio.
-     * Weights each position by: positionValue × quantity × √(daysLeft / 45)
-     *
-     * Formula: sum(prob × posValue × qty × √(days/45)) / sum(posValue × qty × √(days/45))
-     *
-     * @param openPositions List of open positions
-     * @return Time-weighted probability (0-100), or 0 if no valid positions
-     */
-    private double calculateTimeWeightedProbability(List<PositionDto> openPositions) {
-        if (openPositions == null || openPositions.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalWeightedProbability = 0.0;
-        double totalWeight = 0.0;
-
-        for (PositionDto position : openPositions) {
-            Integer probability = position.getProbability();
-            Double posValue = position.getPositionValue();
-            Integer daysLeft = position.getDaysLeft();
-            int qty = abs(position.getQuantity());
-
-            if (probability != null && posValue != null && posValue > 0
-                && daysLeft != null && daysLeft > 0) {
-
-                double timeWeight = calculateNormalizedTimeWeight(daysLeft);
-                double weight = posValue * qty * timeWeight;
-
-                totalWeightedProbability += (probability * weight);
-                totalWeight += weight;
-            }
-        }
-
-        if (totalWeight == 0) {
-            return 0.0;
-        }
-
-        double timeWeightedProbability = totalWeightedProbability / totalWeight;
-        return round2Digits(timeWeightedProbability);
-    }
-
     public void calculatePosition(PositionDto positionDto, List<PositionDto> openPositions, List<PositionDto> closedPositions) {
-        log.info("calculatePosition openPositions:{}, closedPositions:{}",openPositions.size(), closedPositions.size());
+        log.debug("calculatePosition openPositions:{}, closedPositions:{}",openPositions.size(), closedPositions.size());
         double realizedProfitOrLoss = 0.0;
         double collectedPremium = 0.0;
-        double openPositionsTradePrice = 0.0;
-        double putObligationMarketValue = 0.0;
-
-        double unRealizedProfitOrLoss = 0.0;
-        double put = 0.0;
-        double call = 0.0;
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = LocalDate.now();
-        double putObligationValue = 0.0;
-
-        double marketPrice = 0.0;
-        double putMarketPrice = 0.0;
-        double callMarketPrice = 0.0;
-        double callObligationValue = 0.0;
-        double callObligationMarketValue = 0.0;
-        double allpop = 0.0;
-        double allRoi = 0.0;
-        int openPositionsSize = openPositions.size();
 
         for (PositionDto dto : closedPositions) {
             int qty = abs(dto.getQuantity());
@@ -425,71 +216,49 @@ public class OptionService {
         positionDto.setRealizedProfitOrLoss(round2Digits(realizedProfitOrLoss));
 
         for (PositionDto dto : openPositions) {
-            if (dto.getTradeDate().isBefore(startDate)
-                    && positionDto.getTradeDate()==null) {
-                startDate = dto.getTradeDate();
-            }
-
-            if (dto.getExpirationDate().isAfter(endDate)
-                    && positionDto.getExpirationDate()==null) {
-                endDate = dto.getExpirationDate();
-            }
-
-
-            int qty = abs(dto.getQuantity());
-            collectedPremium += dto.getTradePrice() * qty;
-            openPositionsTradePrice += dto.getTradePrice() * qty;
-
-            // ISSUE-054: Use IBKR's fifoPnlUnrealized value (already set in PositionDto)
-            // instead of recalculating, as it includes the correct multiplier
-            if (dto.getUnRealizedProfitOrLoss() != null) {
-                unRealizedProfitOrLoss += dto.getUnRealizedProfitOrLoss();
-            }
-
-            if (OptionType.PUT.equals(dto.getType())) {
-                put += dto.getTradePrice() * qty;
-                putMarketPrice += dto.getMarketPrice();
-                log.debug("ticker:{}, qty:{}, tradePrice:{}, put:{}, marketPrice:{}, putMarketPrice:{}",
-                        dto.getTicker(), qty,dto.getTradePrice(), put,  dto.getMarketPrice(), putMarketPrice) ;
+            calculateAndSetAnnualizedRoi(dto);
+        }
 
-                if (dto.getQuantity() < 0) { //PUT SELL
-                    putObligationMarketValue += dto.getMarketValue() * qty;
-                    putObligationValue += dto.getPositionValue() * qty;
-                    log.debug("ticker:{}, qty:{}, positionValue:{}, putObligationValue:{}, putObligationMarketValue:{}",
-                            dto.getTicker(), dto.getQuantity(), dto.getPositionValue(), putObligationValue, putObligationMarketValue);
+        // One pass over the open positions for every portfolio metric, the weighted ROI/POP included.
+        // ISSUE-054: unrealized P&L is IBKR's fifoPnlUnrealized value (already set in PositionDto)
+        applyTotals(positionDto, PortfolioFrame.of(openPositions).aggregate(), collectedPremium);
+    }
 
-                }
-            } else {
-                call += dto.getTradePrice() * qty;
-                callMarketPrice += dto.getMarketPrice();
-                if (dto.getQuantity() < 0) { //CALL SELL
-                    callObligationMarketValue += (dto.getMarketValue() * qty);
-                    callObligationValue += (dto.getPositionValue() * qty);
-
-                    log.debug("ticker:{}, qty:{}, positionValue:{}, callObligationValue:{}, callObligationMarketValue:{}",
-                            dto.getTicker(), dto.getQuantity(), dto.getPositionValue(), callObligationValue, callObligationMarketValue);
-                }
-            }
+    /**
+     * Position summary of open positions aggregated elsewhere (see PortfolioAggregationService),
+     * same result as calculatePosition with the positions and no closed positions.
+     *
+     * @param positionDto summary to fill
+     * @param totals      aggregates of the open positions
+     */
+    public void calculatePosition(PositionDto positionDto, PortfolioFrame.Totals totals) {
+        positionDto.setRealizedProfitOrLoss(0.0);
+        applyTotals(positionDto, totals, 0.0);
+    }
 
-            positionDto.setType(dto.getType());
-            calculateAndSetAnnualizedRoi(dto);
-            allpop += dto.getProbability();
-            allRoi += dto.getAnnualizedRoiPercent();
-            if(dto.getTradePrice() > 0) {
-                marketPrice += (dto.getMarketPrice() * qty);
-            } else {
-                marketPrice += (-1 * dto.getMarketPrice() * qty);
-            }
-        }
+    private void applyTotals(PositionDto positionDto, PortfolioFrame.Totals totals, double collectedPremium) {
+        int openPositionsSize = totals.positions();
+        collectedPremium += totals.premium();
+        double put = totals.put();
+        double call = totals.call();
+        double putObligationValue = totals.putObligationValue();
+        double putObligationMarketValue = totals.putObligationMarketValue();
+        double callObligationValue = totals.callObligationValue();
+        double callObligationMarketValue = totals.callObligationMarketValue();
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = totals.startDate() != null && totals.startDate().isBefore(today) ? totals.startDate() : today;
+        LocalDate endDate = totals.endDate() != null && totals.endDate().isAfter(today) ? totals.endDate() : today;
+        if (openPositionsSize > 0)
+            positionDto.setType(totals.lastType());
 
         positionDto.setPut(round2Digits(put));
         positionDto.setCall(round2Digits(call));
 
         if (positionDto.getTradePrice() == null)
-            positionDto.setTradePrice(round2Digits(openPositionsTradePrice));
+            positionDto.setTradePrice(round2Digits(totals.premium()));
 
         if (positionDto.getUnRealizedProfitOrLoss() == null)
-            positionDto.setUnRealizedProfitOrLoss(round2Digits(unRealizedProfitOrLoss));
+            positionDto.setUnRealizedProfitOrLoss(round2Digits(totals.unrealizedProfitOrLoss()));
 
         if (positionDto.getExpirationDate() == null)
             positionDto.setExpirationDate(endDate);
@@ -502,7 +271,7 @@ public class OptionService {
 
         positionDto.setCollectedPremium(round2Digits(collectedPremium));
         if(putObligationValue == 0 && openPositionsSize == 1)
-            putObligationValue = openPositions.getFirst().getPositionValue();
+            putObligationValue = totals.firstPositionValue();
 
         if (positionDto.getPositionValue() == null)
             positionDto.setPositionValue(round2Digits(putObligationValue));
@@ -516,18 +285,15 @@ public class OptionService {
         } else if(openPositionsSize > 0) {
             // Use position-weighted calculations instead of simple averaging
             // Weight by capital at risk (positionValue * quantity) to properly reflect portfolio impact
-            double weightedROI = calculateWeightedROI(openPositions);
-            double weightedProbability = calculateWeightedProbability(openPositions);
-
-            positionDto.setAnnualizedRoiPercent((int) weightedROI);
-            positionDto.setProbability((int) weightedProbability);
+            positionDto.setAnnualizedRoiPercent((int) totals.weightedRoi());
+            positionDto.setProbability((int) totals.weightedProbability());
         }
 
 
 
-        positionDto.setMarketPrice(round2Digits(marketPrice));
-        positionDto.setPutMarketPrice(round2Digits(putMarketPrice));
-        positionDto.setCallMarketPrice(round2Digits(callMarketPrice));
+        positionDto.setMarketPrice(round2Digits(totals.marketPrice()));
+        positionDto.setPutMarketPrice(round2Digits(totals.putMarketPrice()));
+        positionDto.setCallMarketPrice(round2Digits(totals.callMarketPrice()));
         positionDto.setCallObligationValue(round2Digits(callObligationValue));
         positionDto.setCallObligationMarketValue(round2Digits(callObligationMarketValue));
 
@@ -631,7 +397,21 @@ public class OptionService {
     @Transactional
     public void saveOption(OptionEntity optionEntity) {
         log.debug("Saving option {}", optionEntity);
-        optionRepository.save(optionEntity);
+        Set<LocalDate> tradeDates = previousTradeDate(optionEntity.getId());
+        optionEntity = optionRepository.save(optionEntity);
+        addTradeDate(tradeDates, optionEntity.getTradeDate());
+        premiumLedgerService.refreshDays(tradeDates);
+    }
+
+    /**
+     * Batch updates the market price of options, see MarketDataService.refreshAlpacaMarketData.
+     *
+     * @param marketPrices new market price by option id
+     * @return number of updated options
+     */
+    public int updateMarketPrices(Map<Long, Double> marketPrices) {
+        log.debug("Updating market price of {} options", marketPrices.size());
+        return optionJdbcRepository.updateMarketPrices(marketPrices);
     }
 
 
@@ -639,7 +419,7 @@ public class OptionService {
     public PositionDto savePosition(PositionDto positionDto) {
         log.debug("Saving postion {}", positionDto);
 
-        OptionEntity optionEntity = objectMapper.convertValue(positionDto, OptionEntity.class);
+        OptionEntity optionEntity = PositionMapper.toOptionEntity(positionDto);
         optionEntity.setType(
                 Optional.ofNullable(optionEntity.getType())
                         .orElse(OptionType.PUT)
@@ -659,19 +439,203 @@ public class OptionService {
         }
 
         optionEntity.setInstrument(instrumentEntity);
+        Set<LocalDate> tradeDates = previousTradeDate(optionEntity.getId());
         optionEntity = optionRepository.save(optionEntity);
+        addTradeDate(tradeDates, optionEntity.getTradeDate());
+        premiumLedgerService.refreshDays(tradeDates);
 
-        positionDto = objectMapper.convertValue(optionEntity, PositionDto.class);
+        positionDto = PositionMapper.toPositionDto(optionEntity);
         positionDto.setTicker(optionEntity.getInstrument().getTicker());
 
         return positionDto;
     }
 
+    /**
+     * Trade date an existing option had before it is updated, its ledger day has to be refreshed too.
+     */
+    private Set<LocalDate> previousTradeDate(Long optionId) {
+        Set<LocalDate> tradeDates = new HashSet<>();
+        if (optionId != null)
+            optionRepository.findById(optionId).ifPresent(o -> addTradeDate(tradeDates, o.getTradeDate()));
+        return tradeDates;
+    }
+
+    private static void addTradeDate(Set<LocalDate> tradeDates, LocalDate tradeDate) {
+        if (tradeDate != null)
+            tradeDates.add(tradeDate);
+    }
+
+    /**
+     * Per-record persistence hooks of the FLEX trades parser.
+     * The String import answers every lookup from the repositories, the streaming
+     * import answers them from prefetched hash sets/maps and buffers the inserts.
+     */
+    private interface TradeImportSink {
+        boolean exists(Long conid, OptionStatus status, Double tradePrice);
+
+        InstrumentEntity findInstrument(String ticker);
+
+        InstrumentEntity saveInstrument(InstrumentEntity instrumentEntity);
+
+        /**
+         * Saves a parsed record, counts it as successful once it is written.
+         */
+        void save(OptionEntity optionEntity, int recordNumber);
+
+        /**
+         * Writes the records still buffered, called after the last record.
+         */
+        void flush();
+    }
+
+    /**
+     * Record buffered by the streaming import until its chunk is written.
+     */
+    private record PendingTrade(int recordNumber, OptionEntity option) {
+    }
+
     @Transactional
     public CsvImportResult saveCSV(String csv) {
+        Set<LocalDate> tradeDates = new HashSet<>();
         CsvImportResult result = new CsvImportResult();
+        importCsv(new StringReader(csv), result, new TradeImportSink() {
+            @Override
+            public boolean exists(Long conid, OptionStatus status, Double tradePrice) {
+                return optionRepository.findByConidAndStatusAndTradePrice(conid, status, tradePrice) != null;
+            }
+
+            @Override
+            public InstrumentEntity findInstrument(String ticker) {
+                return instrumentRepository.findByTicker(ticker);
+            }
+
+            @Override
+            public InstrumentEntity saveInstrument(InstrumentEntity instrumentEntity) {
+                instrumentRepository.save(instrumentEntity);
+                return instrumentEntity;
+            }
+
+            @Override
+            public void save(OptionEntity optionEntity, int recordNumber) {
+                optionRepository.save(optionEntity);
+                addTradeDate(tradeDates, optionEntity.getTradeDate());
+                result.incrementSuccessful();
+            }
+
+            @Override
+            public void flush() {
+                // Every record is saved right away
+            }
+        });
+        premiumLedgerService.refreshDays(tradeDates);
+        return result;
+    }
+
+    /**
+     * Streaming FLEX trades import for large reports.
+     *
+     * Unlike {@link #saveCSV(String)} it does not hold the report in memory and does not run
+     * in one long transaction. Existing trade fingerprints (conid, status, tradePrice) and the
+     * instruments are prefetched once into hash sets/maps, new rows are written with JDBC batches
+     * and every chunk of {@value #IMPORT_CHUNK_SIZE} rows is committed on its own, so a database
+     * connection is only held while a chunk is flushed.
+     * The CsvImportResult accounting is identical to the String import: records are counted as
+     * successful once their chunk is committed, the rows of a failed chunk are retried one by one
+     * and the failing ones are reported as failed records.
+     *
+     * @param reader FLEX trades CSV, closed by the caller
+     * @return import result with successful/failed/skipped counts
+     */
+    public CsvImportResult saveCSV(Reader reader) {
+        Set<OptionJdbcRepository.TradeKey> tradeKeys = optionJdbcRepository.findAllTradeKeys();
+        Map<String, InstrumentEntity> instrumentsByTicker = new HashMap<>();
+        instrumentRepository.findAll().forEach(i -> instrumentsByTicker.put(i.getTicker(), i));
+        log.info("saveCSV prefetched {} trade keys and {} instruments", tradeKeys.size(), instrumentsByTicker.size());
+
+        List<PendingTrade> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        Set<LocalDate> tradeDates = new HashSet<>();
+        CsvImportResult result = new CsvImportResult();
+        importCsv(reader, result, new TradeImportSink() {
+            @Override
+            public boolean exists(Long conid, OptionStatus status, Double tradePrice) {
+                return tradeKeys.contains(new OptionJdbcRepository.TradeKey(conid, status, tradePrice));
+            }
+
+            @Override
+            public InstrumentEntity findInstrument(String ticker) {
+                return instrumentsByTicker.get(ticker);
+            }
+
+            @Override
+            public InstrumentEntity saveInstrument(InstrumentEntity instrumentEntity) {
+                InstrumentEntity saved = instrumentRepository.save(instrumentEntity);
+                instrumentsByTicker.put(saved.getTicker(), saved);
+                return saved;
+            }
+
+            @Override
+            public void save(OptionEntity optionEntity, int recordNumber) {
+                // Later duplicates of the record in the same report are skipped
+                tradeKeys.add(tradeKey(optionEntity));
+                chunk.add(new PendingTrade(recordNumber, optionEntity));
+                if (chunk.size() >= IMPORT_CHUNK_SIZE)
+                    flush();
+            }
+
+            @Override
+            public void flush() {
+                insertChunk(chunk, result, tradeKeys, tradeDates);
+                chunk.clear();
+            }
+        });
+        // One ledger refresh for the whole report, the touched days are few compared to the rows
+        premiumLedgerService.refreshDays(tradeDates);
+        return result;
+    }
+
+    /**
+     * Writes one chunk of the streaming import as one batch. A failed chunk is rolled back and its
+     * rows are retried one by one, so only the failing records are counted as failed.
+     */
+    private void insertChunk(List<PendingTrade> chunk, CsvImportResult result,
+                             Set<OptionJdbcRepository.TradeKey> tradeKeys, Set<LocalDate> tradeDates) {
+        if (chunk.isEmpty())
+            return;
+        try {
+            optionJdbcRepository.insertBatch(chunk.stream().map(PendingTrade::option).toList());
+            chunk.forEach(pending -> committed(pending, result, tradeDates));
+            return;
+        } catch (DataAccessException e) {
+            log.warn("CSV chunk of {} records failed, retrying record by record: {}", chunk.size(), e.getMessage());
+        }
+        for (PendingTrade pending : chunk) {
+            try {
+                optionJdbcRepository.insertBatch(List.of(pending.option()));
+                committed(pending, result, tradeDates);
+            } catch (DataAccessException e) {
+                tradeKeys.remove(tradeKey(pending.option()));
+                result.incrementFailed();
+                result.addError(new CsvImportResult.CsvRecordError(
+                        pending.recordNumber(), "UNKNOWN", "",
+                        e.getMessage(), e.getClass().getSimpleName()));
+                log.error("CSV Record #{} - Unexpected error: {}", pending.recordNumber(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void committed(PendingTrade pending, CsvImportResult result, Set<LocalDate> tradeDates) {
+        addTradeDate(tradeDates, pending.option().getTradeDate());
+        result.incrementSuccessful();
+    }
+
+    private static OptionJdbcRepository.TradeKey tradeKey(OptionEntity optionEntity) {
+        return new OptionJdbcRepository.TradeKey(
+                optionEntity.getConid(), optionEntity.getStatus(), optionEntity.getTradePrice());
+    }
+
+    private void importCsv(Reader reader, CsvImportResult result, TradeImportSink sink) {
         long start = System.currentTimeMillis();
-        try (CSVParser csvRecords = parse(csv,
+        try (CSVParser csvRecords = parse(reader,
                 CSVFormat.Builder.create()
                         .setHeader()                   // első sor fejléc
                         .setSkipHeaderRecord(true)    // ne olvassa be újra a fejlécet
@@ -738,13 +702,11 @@ public class OptionService {
                         }
 
                         log.debug("ticker: {}, optionStatus: {}, conid:{} qty:{}, tradePrice:{}", ticker, optionStatus, conid, quantity, tradePrice);
-                        OptionEntity optionEntity = optionRepository.findByConidAndStatusAndTradePrice(conid, optionStatus,tradePrice);
-                        if( optionEntity == null)
-                            optionEntity = new OptionEntity();
-                        else {
+                        if (sink.exists(conid, optionStatus, tradePrice)) {
                             result.incrementSkipped();
                             continue;
                         }
+                        OptionEntity optionEntity = new OptionEntity();
                         optionEntity.setAccount(account);
                         optionEntity.setConid(conid);
                         optionEntity.setStatus(optionStatus);
@@ -800,7 +762,7 @@ public class OptionService {
                         optionEntity.setPositionValue(strikeValue);
                         optionEntity.setQuantity(quantity);
 
-                        InstrumentEntity instrumentEntity = instrumentRepository.findByTicker(ticker);
+                        InstrumentEntity instrumentEntity = sink.findInstrument(ticker);
                         if ((instrumentEntity == null || instrumentEntity.getId() == null)) {
                             instrumentEntity = new InstrumentEntity();
                             instrumentEntity.setTicker(ticker);
@@ -815,7 +777,7 @@ public class OptionService {
                                         csvRecord.getRecordNumber(), underlyingConid, e.getMessage());
                                 continue;
                             }
-                            instrumentRepository.save(instrumentEntity);
+                            instrumentEntity = sink.saveInstrument(instrumentEntity);
                         }
 
                         optionEntity.setTicker(ticker);
@@ -853,9 +815,8 @@ public class OptionService {
                                         .atStartOfDay());
                         optionEntity.setDaysLeft(daysLeft);
 
-                        optionRepository.save(optionEntity);
+                        sink.save(optionEntity, (int) csvRecord.getRecordNumber());
                         log.debug("CSV Record #{} saved: {}", csvRecord.getRecordNumber(), csvRecord.toString());
-                        result.incrementSuccessful();
                     } else {
                         result.incrementSkipped();
                     }
@@ -867,46 +828,42 @@ public class OptionService {
                     log.error("CSV Record #{} - Unexpected error: {}", csvRecord.getRecordNumber(), e.getMessage(), e);
                 }
             }
+            sink.flush();
             long end = System.currentTimeMillis();
             int elapsedSeconds = (int) ((end - start) / 1000.0);
 
             log.info(result.getSummary());
             log.info("CSV file parsed in {} sec, total records in file: {}", elapsedSeconds, csvRecords.getRecordNumber());
-            return result;
         } catch (Exception e) {
             log.error("CSV parsing configuration error (missing columns or malformed CSV): {}", e.getMessage(), e);
             throw new RuntimeException("Fail to parse CSV " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Removes orphaned trades after a FLEX trades import: rows whose conid has neither a closed
+     * OPEN/CLOSED pair nor an unexpired OPEN leg. Runs as one set-based DELETE.
+     *
+     * @return number of deleted rows
+     */
     @Transactional
-    public int dataFix(){
-        int rowCount = 0;
-        List<OptionEntity> options =  optionRepository.findAll();
-        List<OptionEntity> closedOptions = optionRepository.findAllClosed();
-        List<OptionEntity> openOptions = optionRepository.findAllOpen(LocalDate.now());
-
-        for (OptionEntity optionEntity : options) {
-            boolean toDelete = false;
-            List<OptionEntity> closedPairs = closedOptions.stream().filter(o -> o.getConid().equals(optionEntity.getConid())).toList();
-            List<OptionEntity> openPairs = openOptions.stream().filter(o -> o.getConid().equals(optionEntity.getConid())).toList();
-
-            if (closedPairs.isEmpty() && openPairs.isEmpty())
-                toDelete = true;
-
-            if(toDelete) {
-                log.warn("DataFix no pairs found for id:{}, symbol:{} conid:{} code:{} status:{} price:{} qty:{}",
-                        optionEntity.getId(),
-                        optionEntity.getTicker(),
-                        optionEntity.getConid(),
-                        optionEntity.getCode(),
-                        optionEntity.getStatus(),
-                        optionEntity.getTradePrice(),
-                        optionEntity.getQuantity());
-                optionRepository.delete(optionEntity);
-                rowCount++;
-            }
+    public int dataFix() {
+        int rowCount = optionRepository.deleteOrphanTrades(LocalDate.now());
+        if (rowCount > 0) {
+            log.warn("DataFix deleted {} options without pairs", rowCount);
+            premiumLedgerService.rebuild();
         }
         return rowCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * Dry run of {@link #dataFix()}: reports the ids that would be deleted without touching them.
+     *
+     * @return ids of orphaned trades, ascending
+     */
+    public List<Long> dataFixDryRun() {
+        List<Long> ids = optionRepository.findOrphanTradeIds(LocalDate.now());
+        log.info("DataFix dry run found {} options without pairs: {}", ids.size(), ids);
+        return ids;
+    }
+}
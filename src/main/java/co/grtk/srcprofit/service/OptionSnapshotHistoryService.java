@@ -0,0 +1,102 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.OptionSnapshotSeriesDto;
+import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository.HistoryPoint;
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository.HourlyBar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Service for the append-only option snapshot history.
+ *
+ * - Appends every refreshed snapshot batch (see OptionSnapshotService.refreshOptionSnapshots)
+ * - Serves per-contract time series: raw points plus hourly bars of rolled up days
+ * - Applies the retention policy: raw day partitions older than OPTION_SNAPSHOT_HISTORY_RAW_DAYS
+ *   (default 14) are rolled up into 1-hour OHLC bars and dropped
+ *
+ * @see OptionSnapshotHistoryJdbcRepository
+ */
+@Service
+public class OptionSnapshotHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(OptionSnapshotHistoryService.class);
+
+    static final int DEFAULT_RAW_RETENTION_DAYS = 14;
+
+    private final OptionSnapshotHistoryJdbcRepository historyRepository;
+    private final int rawRetentionDays;
+
+    public OptionSnapshotHistoryService(OptionSnapshotHistoryJdbcRepository historyRepository,
+                                        Environment environment) {
+        this.historyRepository = historyRepository;
+        this.rawRetentionDays = environment.getProperty("OPTION_SNAPSHOT_HISTORY_RAW_DAYS", Integer.class,
+                DEFAULT_RAW_RETENTION_DAYS);
+    }
+
+    /**
+     * Append a batch of refreshed snapshots to the history.
+     *
+     * @param snapshots  refreshed snapshots
+     * @param capturedAt capture time of the refresh run
+     * @return number of appended rows
+     */
+    public int record(List<OptionSnapshotEntity> snapshots, OffsetDateTime capturedAt) {
+        return historyRepository.insertBatch(snapshots, capturedAt);
+    }
+
+    /**
+     * Get the time series of one contract.
+     *
+     * @param symbol OCC symbol
+     * @param from   inclusive start
+     * @param to     exclusive end
+     * @return hourly bars of rolled up days and raw points of the retention window
+     */
+    public OptionSnapshotSeriesDto getSeries(String symbol, OffsetDateTime from, OffsetDateTime to) {
+        if (!from.isBefore(to))
+            throw new IllegalArgumentException("from must be before to: " + from + " / " + to);
+        // Rolled up bars only exist before the raw window and raw partitions are dropped once rolled up
+        OffsetDateTime rawStart = getRawCutoff().atStartOfDay().atOffset(ZoneOffset.UTC);
+        List<HourlyBar> bars = from.isBefore(rawStart)
+                ? historyRepository.findHourlyBars(symbol, from, to)
+                : List.of();
+        List<HistoryPoint> points = historyRepository.findPoints(symbol, from, to);
+        log.debug("getSeries {} {} - {}: {} hourly bars, {} points", symbol, from, to, bars.size(), points.size());
+        return new OptionSnapshotSeriesDto(symbol, from, to, bars, points);
+    }
+
+    /**
+     * Roll up and drop every raw day partition older than the retention window.
+     * Each day is processed in its own transaction, a failing day is logged and retried next run.
+     *
+     * @return number of rolled up days
+     */
+    public int applyRetention() {
+        LocalDate cutoff = getRawCutoff();
+        int rolledUp = 0;
+        for (LocalDate day : historyRepository.findPartitionDays().stream().sorted().toList()) {
+            if (!day.isBefore(cutoff))
+                continue;
+            try {
+                int bars = historyRepository.rollupAndDropPartition(day);
+                rolledUp++;
+                log.info("Rolled up option snapshot history of {} into {} hourly bars", day, bars);
+            } catch (Exception e) {
+                log.error("Failed to roll up option snapshot history of {}: {}", day, e.getMessage());
+            }
+        }
+        return rolledUp;
+    }
+
+    private LocalDate getRawCutoff() {
+        return LocalDate.now(ZoneOffset.UTC).minusDays(rawRetentionDays);
+    }
+}
@@ -7,6 +7,7 @@ import co.grtk.srcprofit.entity.OpenPositionEntity;
 import co.grtk.srcprofit.entity.OptionSnapshotEntity;
 import co.grtk.srcprofit.repository.InstrumentRepository;
 import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotJdbcRepository;
 import co.grtk.srcprofit.repository.OptionSnapshotRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,12 +19,21 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static co.grtk.srcprofit.mapper.PositionCalculationHelper.calculateDaysLeft;
@@ -54,39 +64,52 @@ public class OptionSnapshotService {
     private static final double MIN_STRIKE_MULTIPLIER = 0.90;  // -10%
     private static final double MAX_STRIKE_MULTIPLIER = 1.10;  // +10%
     private static final long EXPIRATION_DAYS = 90;            // 3 months
+    private static final int UPSERT_BATCH_SIZE = 200;          // matches hibernate.jdbc.batch_size
+    private static final String[] OPTION_TYPES = {"call", "put"};
 
     private final AlpacaService alpacaService;
     private final OptionSnapshotRepository optionSnapshotRepository;
+    private final OptionSnapshotJdbcRepository optionSnapshotJdbcRepository;
     private final InstrumentRepository instrumentRepository;
     private final OpenPositionRepository openPositionRepository;
+    private final OptionSnapshotHistoryService optionSnapshotHistoryService;
+    private final OptionGreeksService optionGreeksService;
 
     public OptionSnapshotService(AlpacaService alpacaService,
                                 OptionSnapshotRepository optionSnapshotRepository,
+                                OptionSnapshotJdbcRepository optionSnapshotJdbcRepository,
                                 InstrumentRepository instrumentRepository,
-                                OpenPositionRepository openPositionRepository) {
+                                OpenPositionRepository openPositionRepository,
+                                OptionSnapshotHistoryService optionSnapshotHistoryService,
+                                OptionGreeksService optionGreeksService) {
         this.alpacaService = alpacaService;
         this.optionSnapshotRepository = optionSnapshotRepository;
+        this.optionSnapshotJdbcRepository = optionSnapshotJdbcRepository;
         this.instrumentRepository = instrumentRepository;
         this.openPositionRepository = openPositionRepository;
+        this.optionSnapshotHistoryService = optionSnapshotHistoryService;
+        this.optionGreeksService = optionGreeksService;
     }
 
     /**
      * Refresh option snapshots based on open positions from OpenPositionEntity.
      *
-     * For each underlying symbol with open option positions:
-     * 1. Validates all positions have valid underlyingInstrument relationships
-     * 2. Calculates strike range from actual positions ± 2 strikes
-     * 3. Calculates expiration range from actual positions
-     * 4. Fetches CALL snapshots from Alpaca API
-     * 5. Fetches PUT snapshots from Alpaca API
-     * 6. Filters results to only save snapshots for held + nearby positions
-     * 7. Saves/updates snapshots in database
+     * Runs as a pipeline instead of one underlying after another:
+     * 1. Plan: per underlying, validates the underlyingInstrument relationships and calculates
+     *    the strike range (actual positions ± 2 strikes), expiration range and OCC symbols to save
+     * 2. Prefetch: loads every existing snapshot of the planned symbols with one IN query
+     * 3. Fetch: CALL and PUT snapshots of all underlyings are requested concurrently on virtual
+     *    threads, pacing is left to the AlpacaRateLimiter shared inside AlpacaService
+     * 4. Write: results are consumed in completion order, filtered to held + nearby positions and
+     *    mapped onto the prefetched (or new) entities. Once UPSERT_BATCH_SIZE snapshots are pending,
+     *    their chains are completed (implied volatility, model greeks, derived metrics) and upserted,
+     *    each batch in its own short transaction and appended to the snapshot history
      *
+     * Not transactional, so no connection is held while waiting for Alpaca.
      * Per-underlying errors do NOT abort the batch. Continues with next underlying.
      *
      * @return Total number of snapshots saved/updated
      */
-    @Transactional
     public int refreshOptionSnapshots() {
         log.debug("OptionSnapshotService: Starting refreshOptionSnapshots()");
 
@@ -100,41 +123,84 @@ public class OptionSnapshotService {
 
         log.info("Processing {} underlying symbols", positionsByUnderlying.size());
 
-        int totalSaved = 0;
+        List<UnderlyingRefresh> refreshes = new ArrayList<>();
         for (Map.Entry<String, List<OpenPositionEntity>> entry : positionsByUnderlying.entrySet()) {
             try {
-                String underlyingSymbol = entry.getKey();
-                List<OpenPositionEntity> positions = entry.getValue();
-
-                int saved = refreshSnapshotsForUnderlying(underlyingSymbol, positions);
-                totalSaved += saved;
-                log.info("Refreshed {} snapshots for {}", saved, underlyingSymbol);
+                UnderlyingRefresh refresh = planRefresh(entry.getKey(), entry.getValue());
+                if (refresh != null)
+                    refreshes.add(refresh);
             } catch (Exception e) {
                 log.warn("Failed to refresh snapshots for {}: {}",
                         entry.getKey(), e.getMessage());
                 // Continue with next underlying - don't abort batch
             }
         }
+        if (refreshes.isEmpty())
+            return 0;
+
+        Map<String, OptionSnapshotEntity> existingBySymbol = prefetchSnapshots(refreshes);
+        OffsetDateTime capturedAt = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+
+        Map<String, Integer> savedByUnderlying = new LinkedHashMap<>();
+        List<MappedChain> pending = new ArrayList<>();
+        int pendingSnapshots = 0;
+        int totalSaved = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<SnapshotFetch> completionService = new ExecutorCompletionService<>(executor);
+            for (UnderlyingRefresh refresh : refreshes) {
+                for (String type : OPTION_TYPES) {
+                    completionService.submit(() -> fetchSnapshots(refresh, type));
+                }
+            }
 
+            for (int i = 0; i < refreshes.size() * OPTION_TYPES.length; i++) {
+                SnapshotFetch fetch = completionService.take().get();
+                String underlyingSymbol = fetch.refresh().underlyingSymbol();
+                if (fetch.error() != null) {
+                    log.warn("Failed to refresh {} snapshots for {}: {}",
+                            fetch.type(), underlyingSymbol, fetch.error().getMessage());
+                    continue;
+                }
+                MappedChain chain = mapSnapshots(fetch, existingBySymbol);
+                if (chain == null)
+                    continue;
+                pending.add(chain);
+                pendingSnapshots += chain.snapshots().size();
+                savedByUnderlying.merge(underlyingSymbol, chain.snapshots().size(), Integer::sum);
+                if (pendingSnapshots >= UPSERT_BATCH_SIZE) {
+                    totalSaved += flushSnapshots(completeChains(pending), capturedAt);
+                    pendingSnapshots = 0;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while refreshing option snapshots", e);
+        } catch (ExecutionException e) {
+            // fetchSnapshots captures its own failures, this is a programming error
+            throw new IllegalStateException("Unexpected snapshot fetch failure", e.getCause());
+        }
+        totalSaved += flushSnapshots(completeChains(pending), capturedAt);
+
+        savedByUnderlying.forEach((underlyingSymbol, saved) ->
+                log.info("Refreshed {} snapshots for {}", saved, underlyingSymbol));
         log.info("OptionSnapshotService: Completed refreshOptionSnapshots() - {} total snapshots saved",
                 totalSaved);
         return totalSaved;
     }
 
     /**
-     * Refresh option snapshots for a specific underlying symbol with given positions.
+     * Plan the refresh of a specific underlying symbol with given positions.
      *
      * Validates all positions have valid underlyingInstrument relationships (fail-fast).
      * Calculates strike and expiration ranges from actual positions.
-     * Fetches snapshots for held + nearby positions via two API calls (CALL and PUT).
      *
      * @param underlyingSymbol The underlying symbol (e.g., "SPY")
      * @param positions The open option positions for this underlying
-     * @return Number of snapshots saved/updated for this underlying
+     * @return The refresh plan, or null if the underlying has no valid price
      * @throws IllegalStateException if any position lacks underlyingInstrument
      */
-    private int refreshSnapshotsForUnderlying(String underlyingSymbol,
-                                              List<OpenPositionEntity> positions) {
+    private UnderlyingRefresh planRefresh(String underlyingSymbol,
+                                          List<OpenPositionEntity> positions) {
         // FAIL FAST: Validate all positions have underlyingInstrument
         for (OpenPositionEntity position : positions) {
             if (position.getUnderlyingInstrument() == null) {
@@ -152,7 +218,7 @@ public class OptionSnapshotService {
             underlyingInstrument.getPrice() <= 0) {
             log.warn("Skipping {} - invalid underlying price {}",
                     underlyingSymbol, underlyingInstrument.getPrice());
-            return 0;
+            return null;
         }
 
         // Calculate strike range from ACTUAL positions ± 2 strikes
@@ -170,108 +236,189 @@ public class OptionSnapshotService {
                 expirationRange.min, expirationRange.max,
                 symbolsToSave.size());
 
-        // Rate limiting
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Snapshot fetch delay interrupted for {}", underlyingSymbol);
-        }
-
-        int saved = 0;
-        // Fetch CALL options
-        saved += fetchAndSaveSnapshots(
-            underlyingInstrument, "call",
-            strikeRange.min, strikeRange.max,
-            expirationRange.max, symbolsToSave);
-
-        // Fetch PUT options
-        saved += fetchAndSaveSnapshots(
-            underlyingInstrument, "put",
-            strikeRange.min, strikeRange.max,
-            expirationRange.max, symbolsToSave);
+        return new UnderlyingRefresh(underlyingSymbol, underlyingInstrument,
+                strikeRange, expirationRange, symbolsToSave);
+    }
 
-        return saved;
+    /**
+     * Load the existing snapshots of every planned symbol with a single IN query.
+     *
+     * @param refreshes Planned underlyings
+     * @return Existing snapshots keyed by OCC symbol
+     */
+    private Map<String, OptionSnapshotEntity> prefetchSnapshots(List<UnderlyingRefresh> refreshes) {
+        Set<String> symbols = new HashSet<>();
+        for (UnderlyingRefresh refresh : refreshes) {
+            symbols.addAll(refresh.symbolsToSave());
+        }
+        Map<String, OptionSnapshotEntity> existingBySymbol = new HashMap<>();
+        for (OptionSnapshotEntity snapshot : optionSnapshotRepository.findBySymbolIn(symbols)) {
+            existingBySymbol.put(snapshot.symbol, snapshot);
+        }
+        log.debug("Prefetched {} existing snapshots for {} symbols", existingBySymbol.size(), symbols.size());
+        return existingBySymbol;
     }
 
     /**
-     * Fetch option snapshots for a specific type (call/put) and save only those in symbolsToSave.
+     * Fetch option snapshots of one underlying for a specific type (call/put).
+     * Runs on a fetch thread, failures are captured in the result instead of thrown.
      *
-     * @param instrument The underlying instrument
+     * @param refresh The planned underlying
      * @param type "call" or "put"
-     * @param lowerStrike Minimum strike price
-     * @param upperStrike Maximum strike price
-     * @param maxExpiration Maximum expiration date
-     * @param symbolsToSave Set of OCC symbols to save (held + nearby positions)
-     * @return Number of snapshots saved
+     * @return The API response or the failure
      */
-    private int fetchAndSaveSnapshots(InstrumentEntity instrument, String type,
-                                      BigDecimal lowerStrike, BigDecimal upperStrike,
-                                      LocalDate maxExpiration, Set<String> symbolsToSave) {
+    private SnapshotFetch fetchSnapshots(UnderlyingRefresh refresh, String type) {
         try {
             AlpacaOptionSnapshotsResponseDto response = alpacaService.getOptionSnapshots(
-                    instrument.getTicker(),
+                    refresh.instrument().getTicker(),
                     type,
-                    lowerStrike.toString(),
-                    upperStrike.toString()
+                    refresh.strikeRange().min.toString(),
+                    refresh.strikeRange().max.toString()
             );
+            return new SnapshotFetch(refresh, type, response, null);
+        } catch (Exception e) {
+            log.error("Error fetching {} snapshots from Alpaca for {}: {}",
+                    type, refresh.underlyingSymbol(), e.getMessage());
+            return new SnapshotFetch(refresh, type, null, e);
+        }
+    }
 
-            if (response == null || response.getSnapshots() == null || response.getSnapshots().isEmpty()) {
-                log.debug("No {} snapshots found for {} in specified range", type, instrument.getTicker());
-                return 0;
-            }
+    /**
+     * Map the fetched snapshots that are in symbolsToSave onto entities.
+     *
+     * @param fetch The API response of one underlying and type
+     * @param existingBySymbol Prefetched snapshots, new entities are added to it
+     * @return The mapped chain, or null if the response has no snapshots
+     */
+    private MappedChain mapSnapshots(SnapshotFetch fetch, Map<String, OptionSnapshotEntity> existingBySymbol) {
+        AlpacaOptionSnapshotsResponseDto response = fetch.response();
+        UnderlyingRefresh refresh = fetch.refresh();
+        if (response == null || response.getSnapshots() == null || response.getSnapshots().isEmpty()) {
+            log.debug("No {} snapshots found for {} in specified range", fetch.type(), refresh.underlyingSymbol());
+            return null;
+        }
+
+        List<OptionSnapshotEntity> mapped = new ArrayList<>();
+        List<OptionSnapshotEntity> withoutGreeks = new ArrayList<>();
+        List<OptionSnapshotEntity> withoutImpliedVolatility = new ArrayList<>();
+        for (Map.Entry<String, AlpacaOptionSnapshotDto> entry : response.snapshots.entrySet()) {
+            try {
+                String symbol = entry.getKey();
+
+                // FILTER: Only save if symbol is in our set of held/nearby positions
+                if (!refresh.symbolsToSave().contains(symbol)) {
+                    log.trace("Skipping {} - not in held or nearby positions", symbol);
+                    continue;
+                }
 
-            int count = 0;
-            for (Map.Entry<String, AlpacaOptionSnapshotDto> entry : response.snapshots.entrySet()) {
-                try {
-                    String symbol = entry.getKey();
-                    AlpacaOptionSnapshotDto snapshotDto = entry.getValue();
-
-                    // FILTER: Only save if symbol is in our set of held/nearby positions
-                    if (!symbolsToSave.contains(symbol)) {
-                        log.trace("Skipping {} - not in held or nearby positions", symbol);
-                        continue;
-                    }
-
-                    // Parse expiration from OCC symbol and filter
-                    LocalDate expiration = parseExpirationFromSymbol(symbol);
-                    if (expiration.isAfter(maxExpiration)) {
-                        log.debug("Skipping {} - expiration {} beyond range",
-                                 symbol, expiration);
-                        continue;
-                    }
-
-                    saveOrUpdateSnapshot(symbol, snapshotDto, instrument);
-                    count++;
-                } catch (Exception e) {
-                    log.warn("Failed to save snapshot {}: {}", entry.getKey(), e.getMessage());
-                    // Continue with next snapshot
+                // Parse expiration from OCC symbol and filter
+                LocalDate expiration = parseExpirationFromSymbol(symbol);
+                if (expiration.isAfter(refresh.expirationRange().max)) {
+                    log.debug("Skipping {} - expiration {} beyond range",
+                             symbol, expiration);
+                    continue;
                 }
+
+                OptionSnapshotEntity snapshot = existingBySymbol.computeIfAbsent(symbol, s -> new OptionSnapshotEntity());
+                boolean hasGreeks = mapSnapshot(symbol, entry.getValue(), refresh.instrument(), snapshot);
+                if (!hasGreeks)
+                    withoutGreeks.add(snapshot);
+                // Prefetched entities keep the previous value, only the feed decides what is current
+                if (!hasGreeks || entry.getValue().greeks.impliedVolatility == null)
+                    withoutImpliedVolatility.add(snapshot);
+                mapped.add(snapshot);
+            } catch (Exception e) {
+                log.warn("Failed to save snapshot {}: {}", entry.getKey(), e.getMessage());
+                // Continue with next snapshot
             }
+        }
 
-            return count;
+        return new MappedChain(refresh, fetch.type(), mapped, withoutGreeks, withoutImpliedVolatility);
+    }
+
+    /**
+     * Complete the pending chains and return their snapshots as the next upsert batch.
+     *
+     * 1. Implied volatility: solved from the mid price for contracts the feed sent none, all chains
+     *    in parallel (OptionGreeksService)
+     * 2. Model greeks: contracts the feed returned without greeks are priced as one chain, using the
+     *    solved (or last known) implied volatility, so their POP comes from the model delta
+     * 3. Derived metrics: daysLeft, ROI and POP of every snapshot
+     *
+     * @param pending The mapped chains, cleared on return
+     * @return The snapshots of all chains
+     */
+    private List<OptionSnapshotEntity> completeChains(List<MappedChain> pending) {
+        List<OptionSnapshotEntity> batch = new ArrayList<>(UPSERT_BATCH_SIZE);
+        try {
+            optionGreeksService.solveImpliedVolatilities(pending.stream()
+                    .filter(chain -> !chain.withoutImpliedVolatility().isEmpty())
+                    .map(chain -> new OptionGreeksService.OptionChain(
+                            chain.withoutImpliedVolatility(), chain.refresh().instrument().getPrice()))
+                    .toList());
         } catch (Exception e) {
-            log.error("Error fetching {} snapshots from Alpaca for {}: {}",
-                    type, instrument.getTicker(), e.getMessage());
-            throw e;
+            log.warn("Failed to solve implied volatilities of {} chains: {}", pending.size(), e.getMessage());
         }
+        for (MappedChain chain : pending) {
+            UnderlyingRefresh refresh = chain.refresh();
+            try {
+                optionGreeksService.applyModelGreeks(chain.withoutGreeks(), refresh.instrument().getPrice());
+            } catch (Exception e) {
+                log.warn("Failed to calculate model greeks for {} {}: {}",
+                        refresh.underlyingSymbol(), chain.type(), e.getMessage());
+            }
+            for (OptionSnapshotEntity snapshot : chain.snapshots()) {
+                // Calculate derived metrics (ROI, POP, daysLeft)
+                calculateDerivedMetrics(snapshot, refresh.instrument());
+                log.debug("Calculated metrics for {}: daysLeft={}, roiOnCollateral={}, roiOnPremium={}, pop={}",
+                        snapshot.symbol, snapshot.daysLeft, snapshot.roiOnCollateral, snapshot.roiOnPremium, snapshot.pop);
+                batch.add(snapshot);
+            }
+        }
+        pending.clear();
+        return batch;
     }
 
     /**
-     * Save or update a single option snapshot.
+     * Upsert a batch and append it to the snapshot history.
+     * A failed batch is logged and dropped, a failed history append does not undo the upsert.
      *
-     * Uses upsert pattern: checks if snapshot already exists by symbol.
-     * If exists, updates fields. If not, creates new snapshot.
+     * @param snapshots The upsert batch
+     * @param capturedAt Capture time of this refresh run
+     * @return Number of snapshots written
+     */
+    private int flushSnapshots(List<OptionSnapshotEntity> snapshots, OffsetDateTime capturedAt) {
+        if (snapshots.isEmpty())
+            return 0;
+        try {
+            optionSnapshotJdbcRepository.upsertBatch(snapshots);
+        } catch (Exception e) {
+            log.error("Failed to upsert {} option snapshots: {}", snapshots.size(), e.getMessage());
+            return 0;
+        }
+        try {
+            optionSnapshotHistoryService.record(snapshots, capturedAt);
+        } catch (Exception e) {
+            log.error("Failed to append {} option snapshots to history: {}", snapshots.size(), e.getMessage());
+        }
+        return snapshots.size();
+    }
+
+    /**
+     * Map a single option snapshot from the API onto an entity.
+     *
+     * Uses upsert pattern: the entity is the prefetched snapshot if it already exists,
+     * so trade and quote fields missing from the API response keep their previous values.
      *
      * @param symbol The OCC symbol (from API response map key)
      * @param snapshotDto The snapshot data from Alpaca API
      * @param instrument The underlying instrument
+     * @param snapshot The existing or new snapshot entity
+     * @return true if the API response contained greeks
      */
-    private void saveOrUpdateSnapshot(String symbol, AlpacaOptionSnapshotDto snapshotDto, InstrumentEntity instrument) {
-
-        // Check if snapshot already exists
-        Optional<OptionSnapshotEntity> existing = optionSnapshotRepository.findBySymbol(symbol);
-        OptionSnapshotEntity snapshot = existing.orElse(new OptionSnapshotEntity());
+    private boolean mapSnapshot(String symbol, AlpacaOptionSnapshotDto snapshotDto, InstrumentEntity instrument,
+                             OptionSnapshotEntity snapshot) {
+        boolean isNew = snapshot.id == null;
 
         // Parse OCC symbol to extract strike, expiration, type
         OccSymbolParts parts = parseOccSymbol(symbol);
@@ -325,19 +472,9 @@ public class OptionSnapshotService {
             snapshot.impliedVolatility = parseBigDecimal(greeks.impliedVolatility);
         }
 
-        // Calculate derived metrics (ROI, POP, daysLeft)
-        calculateDerivedMetrics(snapshot, instrument);
-
-        // Log calculated metrics
-        log.debug("Calculated metrics for {}: daysLeft={}, roiOnCollateral={}, roiOnPremium={}, pop={}",
-                snapshot.symbol, snapshot.daysLeft, snapshot.roiOnCollateral, snapshot.roiOnPremium, snapshot.pop);
-
-        // Save to database (snapshotUpdatedAt will be set by Hibernate)
-        optionSnapshotRepository.save(snapshot);
-
-        boolean isNew = !existing.isPresent();
-        log.debug("{}d snapshot: {} ({})", isNew ? "Saved new" : "Updated", symbol,
+        log.debug("{} snapshot: {} ({})", isNew ? "New" : "Updated", symbol,
                 parts.strikePrice + " " + parts.type + " " + parts.expirationDate);
+        return snapshotDto.greeks != null;
     }
 
     /**
@@ -384,7 +521,7 @@ public class OptionSnapshotService {
      * - pop: Probability of Profit (two methods available)
      *
      * POP Calculation Strategy:
-     * 1. Primary: Delta approximation if delta available → POP = (1 - |delta|) * 100
+     * 1. Primary: Delta approximation if delta available (feed or model greeks) → POP = (1 - |delta|) * 100
      * 2. Fallback: Probability method if delta unavailable but has price/daysLeft data
      *    Uses normal distribution: calculateProbability(strikePrice, instrumentPrice, daysLeft)
      * 3. Null: If delta unavailable AND insufficient data for probability method
@@ -781,6 +918,29 @@ public class OptionSnapshotService {
         }
     }
 
+    /**
+     * Refresh plan of one underlying: API request parameters and the symbols to keep.
+     */
+    private record UnderlyingRefresh(String underlyingSymbol, InstrumentEntity instrument,
+                                     StrikeRange strikeRange, ExpirationRange expirationRange,
+                                     Set<String> symbolsToSave) {
+    }
+
+    /**
+     * Result of one CALL or PUT snapshot request, handed from a fetch thread to the writer.
+     */
+    private record SnapshotFetch(UnderlyingRefresh refresh, String type,
+                                 AlpacaOptionSnapshotsResponseDto response, Exception error) {
+    }
+
+    /**
+     * Snapshots mapped from one SnapshotFetch, waiting for implied volatility, greeks and metrics.
+     */
+    private record MappedChain(UnderlyingRefresh refresh, String type, List<OptionSnapshotEntity> snapshots,
+                               List<OptionSnapshotEntity> withoutGreeks,
+                               List<OptionSnapshotEntity> withoutImpliedVolatility) {
+    }
+
     /**
      * Helper class for parsed OCC symbol parts.
      */
@@ -0,0 +1,159 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
+import co.grtk.srcprofit.mapper.PortfolioGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory aggregates of the open option positions (see PortfolioGraph), read by the dashboard,
+ * trade log, open positions and position pages instead of recalculating them per request.
+ *
+ * The graph is loaded from the OPEN_POSITION table on first use and kept current by the writers:
+ * - market data refreshes apply the moved underlying prices, only the positions and buckets of
+ *   those tickers are recomputed (MarketDataService)
+ * - the FLEX open positions import reconciles the graph with the table, only added, changed or
+ *   removed positions are applied (FlexReportsService)
+ * The first read of a new day reconciles the graph too, days left, ROI and POP move with the date.
+ *
+ * A failed update drops the graph, the next read loads it again.
+ */
+@Service
+public class PortfolioAggregationService {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioAggregationService.class);
+
+    private final OpenPositionService openPositionService;
+    private final OptionService optionService;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private PortfolioGraph graph;
+    private volatile PortfolioGraph.Snapshot snapshot;
+    private volatile LocalDate loadedOn;
+
+    public PortfolioAggregationService(OpenPositionService openPositionService, OptionService optionService) {
+        this.openPositionService = openPositionService;
+        this.optionService = optionService;
+    }
+
+    /**
+     * @return open option positions with calculated metrics, ordered by symbol
+     */
+    public List<PositionDto> getOpenOptions() {
+        return getSnapshot().positions();
+    }
+
+    /**
+     * @param ticker underlying ticker
+     * @return open option positions of the underlying
+     */
+    public List<PositionDto> getOpenOptionsByTicker(String ticker) {
+        return getSnapshot().byTicker().getOrDefault(ticker, List.of());
+    }
+
+    /**
+     * Position summary of all open options (buy/sell obligations, premiums), a new instance per call.
+     *
+     * @return same summary as OptionService.calculatePosition of the open options
+     */
+    public PositionDto getPositionSummary() {
+        PositionDto positionDto = new PositionDto();
+        optionService.calculatePosition(positionDto, getSnapshot().portfolio());
+        return positionDto;
+    }
+
+    /**
+     * @return one summary per expiration date, ordered by date, same as OptionService.getWeeklySummaryOpenOptionDtos
+     */
+    public List<PositionDto> getWeeklySummary() {
+        Map<LocalDate, PortfolioFrame.Totals> expirations = getSnapshot().expirations();
+        List<PositionDto> weeklyOpenPositions = new ArrayList<>(expirations.size());
+        for (PortfolioFrame.Totals totals : expirations.values()) {
+            PositionDto positionDto = new PositionDto();
+            optionService.calculatePosition(positionDto, totals);
+            weeklyOpenPositions.add(positionDto);
+        }
+        return weeklyOpenPositions;
+    }
+
+    /**
+     * Applies moved underlying prices to the loaded graph. Nothing to do before the first read,
+     * the graph is loaded with the stored prices.
+     *
+     * @param pricesByTicker new underlying prices keyed by ticker
+     */
+    public void applyPrices(Map<String, Double> pricesByTicker) {
+        if (pricesByTicker.isEmpty())
+            return;
+        update(graph -> graph.updatePrices(pricesByTicker), "prices");
+    }
+
+    /**
+     * Reconciles the loaded graph with the OPEN_POSITION table after an import.
+     */
+    public void reload() {
+        update(graph -> graph.reconcile(openPositionService.getAllOpenOptionPositions()), "reload");
+    }
+
+    private PortfolioGraph.Snapshot getSnapshot() {
+        PortfolioGraph.Snapshot current = snapshot;
+        if (current != null && LocalDate.now().equals(loadedOn))
+            return current;
+        updateLock.lock();
+        try {
+            if (snapshot == null || !LocalDate.now().equals(loadedOn))
+                load();
+            return snapshot;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        if (graph == null)
+            graph = new PortfolioGraph();
+        int changes;
+        try {
+            changes = graph.reconcile(openPositionService.getAllOpenOptionPositions());
+        } catch (RuntimeException e) {
+            graph = null;
+            throw e;
+        }
+        snapshot = graph.snapshot();
+        loadedOn = today;
+        log.debug("Portfolio aggregation graph loaded with {} positions, {} changes in {}ms",
+                snapshot.positions().size(), changes, System.currentTimeMillis() - start);
+    }
+
+    private interface GraphUpdate {
+        int apply(PortfolioGraph graph);
+    }
+
+    private void update(GraphUpdate update, String name) {
+        updateLock.lock();
+        try {
+            if (graph == null)
+                return;
+            long start = System.currentTimeMillis();
+            int changes = update.apply(graph);
+            snapshot = graph.snapshot();
+            log.debug("Portfolio aggregation graph {}: {} positions changed in {}ms",
+                    name, changes, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            graph = null;
+            snapshot = null;
+            log.warn("Portfolio aggregation graph {} failed, loading on next read: {}", name, e.getMessage(), e);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
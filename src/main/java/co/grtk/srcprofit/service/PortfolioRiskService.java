@@ -0,0 +1,161 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.PortfolioRiskDto;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OpenPositionEntity;
+import co.grtk.srcprofit.mapper.MonteCarloRisk;
+import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo value at risk, expected shortfall and probability of loss of the open option positions.
+ *
+ * Every option of OpenPositionRepository.findAllOptionsWithUnderlying is held to expiration and
+ * settled at intrinsic value against its current mark (see MonteCarloRisk). Inputs:
+ * - Spot: price of the underlying instrument
+ * - Volatility: average implied volatility of the underlying's option snapshots,
+ *   RISK_MC_DEFAULT_VOLATILITY (default 0.30) when it has none
+ * - Correlation: RISK_MC_CORRELATION (default 0.5) of every underlying with one market factor
+ *
+ * Paths run on a dedicated ForkJoinPool of RISK_MC_PARALLELISM workers (default: available processors).
+ * Positions without strike, quantity, underlying price or already expired are skipped and counted.
+ */
+@Service
+public class PortfolioRiskService {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioRiskService.class);
+
+    public static final int DEFAULT_PATHS = 100_000;
+    static final int MAX_PATHS = 1_000_000;
+    static final double DEFAULT_CORRELATION = 0.5;
+    static final double DEFAULT_VOLATILITY = 0.30;
+    private static final double DEFAULT_MULTIPLIER = 100.0;
+
+    private final OpenPositionRepository openPositionRepository;
+    private final OptionSnapshotRepository optionSnapshotRepository;
+    private final double correlation;
+    private final double defaultVolatility;
+    private final ForkJoinPool simulationPool;
+
+    public PortfolioRiskService(OpenPositionRepository openPositionRepository,
+                                OptionSnapshotRepository optionSnapshotRepository,
+                                Environment environment) {
+        this.openPositionRepository = openPositionRepository;
+        this.optionSnapshotRepository = optionSnapshotRepository;
+        this.correlation = environment.getProperty("RISK_MC_CORRELATION", Double.class, DEFAULT_CORRELATION);
+        this.defaultVolatility = environment.getProperty("RISK_MC_DEFAULT_VOLATILITY", Double.class, DEFAULT_VOLATILITY);
+        this.simulationPool = new ForkJoinPool(environment.getProperty("RISK_MC_PARALLELISM", Integer.class,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        simulationPool.shutdown();
+    }
+
+    /**
+     * Simulate the open option positions to expiration.
+     *
+     * @param paths         number of simulated paths, 1..1,000,000
+     * @param lossThreshold loss amount of probabilityOfLoss, 0 for the probability of any loss
+     * @param seed          random seed, null for a random one (returned in the result)
+     * @return risk figures, all zero if there is no position to simulate
+     * @throws IllegalArgumentException on invalid paths or a negative loss threshold
+     */
+    public PortfolioRiskDto simulate(int paths, double lossThreshold, Long seed) {
+        if (paths <= 0 || paths > MAX_PATHS)
+            throw new IllegalArgumentException("paths must be between 1 and " + MAX_PATHS + ": " + paths);
+        if (!(lossThreshold >= 0))
+            throw new IllegalArgumentException("lossThreshold must not be negative: " + lossThreshold);
+        long start = System.nanoTime();
+        long randomSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<OpenPositionEntity> options = openPositionRepository.findAllOptionsWithUnderlying();
+        List<OpenPositionEntity> positions = new ArrayList<>(options.size());
+        for (OpenPositionEntity option : options) {
+            if (isSimulated(option, now))
+                positions.add(option);
+        }
+        int skipped = options.size() - positions.size();
+        if (positions.isEmpty()) {
+            log.info("Portfolio risk: no position to simulate, {} skipped", skipped);
+            return new PortfolioRiskDto(paths, 0, skipped, 0, null, correlation, randomSeed,
+                    0, 0, 0, 0, 0, 0, lossThreshold, 0, elapsedMillis(start));
+        }
+
+        Map<Long, Double> volatilityByInstrument = new HashMap<>();
+        optionSnapshotRepository.findAverageImpliedVolatilityByInstrument(today)
+                .forEach(v -> volatilityByInstrument.put(v.getInstrumentId(), v.getImpliedVolatility()));
+
+        Map<Long, Integer> underlyingIndex = new HashMap<>();
+        List<InstrumentEntity> underlyings = new ArrayList<>();
+        for (OpenPositionEntity position : positions) {
+            InstrumentEntity instrument = position.getUnderlyingInstrument();
+            if (underlyingIndex.putIfAbsent(instrument.getId(), underlyings.size()) == null)
+                underlyings.add(instrument);
+        }
+        MonteCarloRisk.Portfolio portfolio = new MonteCarloRisk.Portfolio(underlyings.size(), positions.size());
+        for (int u = 0; u < underlyings.size(); u++) {
+            InstrumentEntity instrument = underlyings.get(u);
+            portfolio.setUnderlying(u, instrument.getPrice(),
+                    volatilityByInstrument.getOrDefault(instrument.getId(), defaultVolatility));
+        }
+
+        LocalDate horizon = today;
+        for (int i = 0; i < positions.size(); i++) {
+            OpenPositionEntity position = positions.get(i);
+            double multiplier = position.getMultiplier() != null ? position.getMultiplier() : DEFAULT_MULTIPLIER;
+            portfolio.setContract(i,
+                    underlyingIndex.get(position.getUnderlyingInstrument().getId()),
+                    "C".equals(position.getPutCall()),
+                    position.getStrike(),
+                    position.getQuantity() * multiplier,
+                    position.getMarkPrice() != null ? position.getMarkPrice() : 0,
+                    OptionGreeksService.yearsToExpiration(position.getExpirationDate(), now));
+            if (position.getExpirationDate().isAfter(horizon))
+                horizon = position.getExpirationDate();
+        }
+
+        MonteCarloRisk.Result result = MonteCarloRisk.simulate(
+                portfolio, paths, correlation, lossThreshold, randomSeed, simulationPool);
+        long elapsed = elapsedMillis(start);
+        log.info("Portfolio risk: {} paths over {} positions and {} underlyings in {} ms, VaR95={} ES95={}",
+                paths, positions.size(), underlyings.size(), elapsed,
+                Math.round(result.valueAtRisk95()), Math.round(result.expectedShortfall95()));
+        return new PortfolioRiskDto(paths, positions.size(), skipped, underlyings.size(), horizon,
+                correlation, randomSeed,
+                result.meanPnl(), result.valueAtRisk95(), result.valueAtRisk99(),
+                result.expectedShortfall95(), result.expectedShortfall99(), result.worstLoss(),
+                lossThreshold, result.probabilityOfLoss(), elapsed);
+    }
+
+    static boolean isSimulated(OpenPositionEntity position, LocalDateTime now) {
+        InstrumentEntity underlying = position.getUnderlyingInstrument();
+        return underlying != null
+                && underlying.getPrice() != null && underlying.getPrice() > 0
+                && position.getStrike() != null && position.getStrike() > 0
+                && position.getQuantity() != null && position.getQuantity() != 0
+                && ("C".equals(position.getPutCall()) || "P".equals(position.getPutCall()))
+                && !Double.isNaN(OptionGreeksService.yearsToExpiration(position.getExpirationDate(), now));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,198 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.repository.DailyPremiumJdbcRepository;
+import co.grtk.srcprofit.repository.DailyPremiumJdbcRepository.PremiumDay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cumulative option premium for the dashboard chart, answered from the OPTION_DAILY_PREMIUM ledger.
+ *
+ * The ledger is kept in memory as a prefix-sum index (sorted epoch days and running totals in cents),
+ * so the cumulative premium of any interval is two binary searches and one subtraction per day,
+ * the OPTION table is never scanned on the read path. Trade writers call {@link #refreshDays(Collection)}
+ * with the touched trade dates, the index is dropped once their transaction commits and reloaded
+ * by the next reader. An empty ledger is rebuilt from OPTION on first use.
+ */
+@Service
+public class PremiumLedgerService {
+    private static final Logger log = LoggerFactory.getLogger(PremiumLedgerService.class);
+
+    private final DailyPremiumJdbcRepository dailyPremiumJdbcRepository;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile PrefixIndex index;
+
+    public PremiumLedgerService(DailyPremiumJdbcRepository dailyPremiumJdbcRepository) {
+        this.dailyPremiumJdbcRepository = dailyPremiumJdbcRepository;
+    }
+
+    /**
+     * Cumulative premium per trade date, restarting from zero at the start of the interval.
+     *
+     * @param startDate first day (inclusive), null for the first trade
+     * @param endDate   last day (inclusive), null for the last trade
+     * @return running total per trade date in date order, scaled to 2 digits
+     */
+    public Map<LocalDate, BigDecimal> getCumulativePremium(LocalDate startDate, LocalDate endDate) {
+        return getIndex().range(startDate, endDate);
+    }
+
+    /**
+     * Columnar variant of {@link #getCumulativePremium(LocalDate, LocalDate)} for the chart API.
+     *
+     * @param startDate first day (inclusive), null for the first trade
+     * @param endDate   last day (inclusive), null for the last trade
+     * @return trade dates as epoch days and the running total in cents, restarting from zero at startDate
+     */
+    public PremiumSeries getCumulativeSeries(LocalDate startDate, LocalDate endDate) {
+        return getIndex().series(startDate, endDate);
+    }
+
+    /**
+     * @return counter bumped whenever the ledger changes, read it before the series it tags
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Cumulative premium of an interval, parallel arrays ordered by day.
+     */
+    public record PremiumSeries(int[] epochDays, long[] cumulativeCents) {
+    }
+
+    /**
+     * Re-derives the ledger rows of the given trade dates after trades were written.
+     * Joins the caller's transaction, the in-memory index is dropped after it commits.
+     *
+     * @param tradeDates trade dates of the inserted, updated or deleted trades
+     */
+    public void refreshDays(Collection<LocalDate> tradeDates) {
+        if (tradeDates.isEmpty())
+            return;
+        int rows = dailyPremiumJdbcRepository.refreshDays(tradeDates);
+        log.debug("Premium ledger refreshed {} of {} trade dates", rows, tradeDates.size());
+        invalidateAfterCommit();
+    }
+
+    /**
+     * Recomputes the whole ledger from the OPTION table, used after bulk deletes.
+     */
+    public void rebuild() {
+        int rows = dailyPremiumJdbcRepository.rebuild();
+        log.info("Premium ledger rebuilt with {} trade dates", rows);
+        invalidateAfterCommit();
+    }
+
+    private void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        } else {
+            invalidate();
+        }
+    }
+
+    private void invalidate() {
+        version.incrementAndGet();
+        index = null;
+    }
+
+    private PrefixIndex getIndex() {
+        PrefixIndex current = index;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            current = index;
+            if (current != null)
+                return current;
+            // A refresh committing while the ledger is read must not be masked by this load
+            long loadVersion = version.get();
+            if (dailyPremiumJdbcRepository.isEmpty())
+                dailyPremiumJdbcRepository.rebuild();
+            current = PrefixIndex.of(dailyPremiumJdbcRepository.findAll());
+            if (version.get() == loadVersion)
+                index = current;
+            log.debug("Premium ledger index loaded with {} trade dates", current.size());
+            return current;
+        }
+    }
+
+    /**
+     * Immutable prefix-sum view of the ledger.
+     */
+    static final class PrefixIndex {
+        private final int[] epochDays;
+        private final long[] cumulativeCents;
+
+        private PrefixIndex(int[] epochDays, long[] cumulativeCents) {
+            this.epochDays = epochDays;
+            this.cumulativeCents = cumulativeCents;
+        }
+
+        static PrefixIndex of(List<PremiumDay> days) {
+            int[] epochDays = new int[days.size()];
+            long[] cumulativeCents = new long[days.size()];
+            long runningTotal = 0;
+            for (int i = 0; i < epochDays.length; i++) {
+                PremiumDay day = days.get(i);
+                epochDays[i] = (int) day.tradeDate().toEpochDay();
+                runningTotal += day.premiumCents();
+                cumulativeCents[i] = runningTotal;
+            }
+            return new PrefixIndex(epochDays, cumulativeCents);
+        }
+
+        int size() {
+            return epochDays.length;
+        }
+
+        Map<LocalDate, BigDecimal> range(LocalDate startDate, LocalDate endDate) {
+            PremiumSeries series = series(startDate, endDate);
+            int size = series.epochDays().length;
+            Map<LocalDate, BigDecimal> result = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+            for (int i = 0; i < size; i++) {
+                result.put(LocalDate.ofEpochDay(series.epochDays()[i]), BigDecimal.valueOf(series.cumulativeCents()[i], 2));
+            }
+            return result;
+        }
+
+        PremiumSeries series(LocalDate startDate, LocalDate endDate) {
+            int from = startDate == null ? 0 : lowerBound((int) startDate.toEpochDay());
+            int to = endDate == null ? epochDays.length : lowerBound((int) endDate.toEpochDay() + 1);
+            if (to <= from)
+                return new PremiumSeries(new int[0], new long[0]);
+            long base = from == 0 ? 0 : cumulativeCents[from - 1];
+            long[] cents = new long[to - from];
+            for (int i = from; i < to; i++) {
+                cents[i - from] = cumulativeCents[i] - base;
+            }
+            return new PremiumSeries(Arrays.copyOfRange(epochDays, from, to), cents);
+        }
+
+        /**
+         * @return index of the first day on or after epochDay, size() if there is none
+         */
+        private int lowerBound(int epochDay) {
+            int i = Arrays.binarySearch(epochDays, epochDay);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+}
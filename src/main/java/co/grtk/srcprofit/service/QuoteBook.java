@@ -0,0 +1,51 @@
+package co.grtk.srcprofit.service;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest streamed trade of every ticker, filled by AlpacaStreamService and drained by the flush job.
+ *
+ * Trades are conflated: between two flushes only the newest trade of a ticker is kept, so a flush
+ * writes at most one row per ticker however many trades arrived.
+ */
+public final class QuoteBook {
+
+    /**
+     * @param price     trade price
+     * @param timestamp trade time reported by the exchange
+     */
+    public record Trade(double price, OffsetDateTime timestamp) {
+    }
+
+    private final ConcurrentHashMap<String, Trade> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Keeps the trade unless a newer one of the ticker is already pending.
+     */
+    public void put(String ticker, Trade trade) {
+        pending.merge(ticker, trade, (current, next) -> next.timestamp().isBefore(current.timestamp()) ? current : next);
+    }
+
+    /**
+     * @return the pending trades keyed by ticker, trades put while draining are kept for the next drain
+     */
+    public Map<String, Trade> drain() {
+        Map<String, Trade> drained = new HashMap<>();
+        for (String ticker : pending.keySet()) {
+            Trade trade = pending.remove(ticker);
+            if (trade != null)
+                drained.put(ticker, trade);
+        }
+        return drained;
+    }
+
+    /**
+     * @return number of tickers with a pending trade
+     */
+    public int size() {
+        return pending.size();
+    }
+}
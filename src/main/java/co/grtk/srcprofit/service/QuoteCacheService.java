@@ -0,0 +1,166 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.AlpacaMarketDataDto;
+import co.grtk.srcprofit.dto.AlpacaSingleAssetDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-symbol cache of Alpaca market data snapshots for the request path (position form).
+ *
+ * - Fresh (younger than ALPACA_QUOTE_CACHE_TTL_SECONDS, default 30): served from memory
+ * - Stale (up to ALPACA_QUOTE_CACHE_MAX_STALE_SECONDS longer, default 300): served from memory
+ *   while one background refresh runs (stale-while-revalidate)
+ * - Missing or expired: fetched synchronously
+ *
+ * Fetches are coalesced, at most one Alpaca request per symbol is in flight and concurrent
+ * callers share its result. A fetched quote is written through to its instrument only.
+ * The scheduled market data refresh populates the cache for every instrument (see MarketDataService).
+ *
+ * Metrics: srcprofit.quote.cache.requests{result=hit|stale|miss|coalesced},
+ * srcprofit.quote.cache.load.failures and srcprofit.quote.cache.size.
+ */
+@Service
+public class QuoteCacheService {
+    private static final Logger log = LoggerFactory.getLogger(QuoteCacheService.class);
+
+    static final long DEFAULT_TTL_SECONDS = 30;
+    static final long DEFAULT_MAX_STALE_SECONDS = 300;
+    private static final String REQUESTS_METRIC = "srcprofit.quote.cache.requests";
+
+    private final AlpacaService alpacaService;
+    private final InstrumentService instrumentService;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+
+    private final Map<String, CachedQuote> quotes = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AlpacaSingleAssetDto>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter loadFailures;
+
+    public QuoteCacheService(AlpacaService alpacaService,
+                             InstrumentService instrumentService,
+                             Environment environment,
+                             MeterRegistry meterRegistry) {
+        this.alpacaService = alpacaService;
+        this.instrumentService = instrumentService;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(
+                environment.getProperty("ALPACA_QUOTE_CACHE_TTL_SECONDS", Long.class, DEFAULT_TTL_SECONDS));
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(
+                environment.getProperty("ALPACA_QUOTE_CACHE_MAX_STALE_SECONDS", Long.class, DEFAULT_MAX_STALE_SECONDS));
+        this.hits = Counter.builder(REQUESTS_METRIC).tag("result", "hit").register(meterRegistry);
+        this.staleHits = Counter.builder(REQUESTS_METRIC).tag("result", "stale").register(meterRegistry);
+        this.misses = Counter.builder(REQUESTS_METRIC).tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder(REQUESTS_METRIC).tag("result", "coalesced").register(meterRegistry);
+        this.loadFailures = Counter.builder("srcprofit.quote.cache.load.failures").register(meterRegistry);
+        Gauge.builder("srcprofit.quote.cache.size", quotes, Map::size).register(meterRegistry);
+    }
+
+    private record CachedQuote(AlpacaSingleAssetDto quote, long fetchedAtNanos) {
+    }
+
+    /**
+     * Get the latest market data snapshot of a symbol.
+     *
+     * @param ticker stock symbol
+     * @return cached or fetched snapshot, null if Alpaca has no data for the symbol
+     * @throws RuntimeException if a synchronous fetch fails
+     */
+    public AlpacaSingleAssetDto getQuote(String ticker) {
+        CachedQuote cached = quotes.get(ticker);
+        if (cached != null) {
+            long age = System.nanoTime() - cached.fetchedAtNanos();
+            if (age < ttlNanos) {
+                hits.increment();
+                return cached.quote();
+            }
+            if (age < ttlNanos + maxStaleNanos) {
+                staleHits.increment();
+                load(ticker, true);
+                return cached.quote();
+            }
+        }
+        misses.increment();
+        try {
+            return load(ticker, false).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Store the snapshots of a bulk refresh, called by the scheduled market data refresh.
+     *
+     * @param marketData snapshots keyed by symbol
+     */
+    public void putAll(AlpacaMarketDataDto marketData) {
+        if (marketData == null || marketData.getQuotes() == null)
+            return;
+        long now = System.nanoTime();
+        marketData.getQuotes().forEach((ticker, quote) -> {
+            if (quote != null)
+                quotes.put(ticker, new CachedQuote(quote, now));
+        });
+        log.debug("Quote cache populated with {} symbols", marketData.getQuotes().size());
+    }
+
+    /**
+     * Start or join the fetch of a symbol. The first caller registers the fetch,
+     * everyone else gets the same future until it completes.
+     */
+    private CompletableFuture<AlpacaSingleAssetDto> load(String ticker, boolean async) {
+        CompletableFuture<AlpacaSingleAssetDto> created = new CompletableFuture<>();
+        CompletableFuture<AlpacaSingleAssetDto> existing = inFlight.putIfAbsent(ticker, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        Runnable fetch = () -> {
+            try {
+                created.complete(fetch(ticker));
+            } catch (RuntimeException e) {
+                loadFailures.increment();
+                log.warn("Quote fetch failed for {}: {}", ticker, e.getMessage());
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(ticker, created);
+            }
+        };
+        if (async)
+            Thread.ofVirtual().name("quote-refresh-" + ticker).start(fetch);
+        else
+            fetch.run();
+        return created;
+    }
+
+    private AlpacaSingleAssetDto fetch(String ticker) {
+        AlpacaMarketDataDto marketData = alpacaService.getMarketDataSnapshot(ticker);
+        AlpacaSingleAssetDto quote = marketData == null || marketData.getQuotes() == null
+                ? null : marketData.getQuotes().get(ticker);
+        if (quote == null)
+            return null;
+        quotes.put(ticker, new CachedQuote(quote, System.nanoTime()));
+        try {
+            instrumentService.saveAlpacaQuotes(marketData);
+        } catch (RuntimeException e) {
+            // The quote is still served, the next refresh persists it
+            log.warn("Failed to persist quote of {}: {}", ticker, e.getMessage());
+        }
+        return quote;
+    }
+}
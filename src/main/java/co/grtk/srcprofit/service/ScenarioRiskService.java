@@ -0,0 +1,149 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.ScenarioMatrixDto;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OpenPositionEntity;
+import co.grtk.srcprofit.mapper.ScenarioMatrix;
+import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scenario risk matrix of the open option book: P&L, assignment obligations and margin proxy over
+ * a grid of underlying moves × days forward (see ScenarioMatrix).
+ *
+ * The matrix is the sum of one column per underlying. Columns are cached with the inputs they were
+ * computed from (price, volatility, contracts, grid and valuation date), a request only recomputes
+ * the columns whose inputs changed, e.g. the one ticker whose quote moved since the last request.
+ * Volatility and rate follow PortfolioRiskService and OptionGreeksService.
+ */
+@Service
+public class ScenarioRiskService {
+    private static final Logger log = LoggerFactory.getLogger(ScenarioRiskService.class);
+
+    public static final List<Double> DEFAULT_MOVES = List.of(
+            -0.30, -0.25, -0.20, -0.15, -0.10, -0.05, 0.0, 0.05, 0.10, 0.15, 0.20, 0.25, 0.30);
+    public static final List<Integer> DEFAULT_DAYS = List.of(0, 7, 14, 30);
+    static final int MAX_CELLS = 10_000;
+    private static final double DEFAULT_MULTIPLIER = 100.0;
+
+    private final OpenPositionRepository openPositionRepository;
+    private final OptionSnapshotRepository optionSnapshotRepository;
+    private final double defaultVolatility;
+    private final double riskFreeRate;
+
+    private record CachedColumn(ScenarioMatrix.Inputs inputs, ScenarioMatrix.Column column) {
+    }
+
+    private final Map<String, CachedColumn> columns = new ConcurrentHashMap<>();
+
+    public ScenarioRiskService(OpenPositionRepository openPositionRepository,
+                               OptionSnapshotRepository optionSnapshotRepository,
+                               Environment environment) {
+        this.openPositionRepository = openPositionRepository;
+        this.optionSnapshotRepository = optionSnapshotRepository;
+        this.defaultVolatility = environment.getProperty("RISK_MC_DEFAULT_VOLATILITY", Double.class,
+                PortfolioRiskService.DEFAULT_VOLATILITY);
+        this.riskFreeRate = environment.getProperty("OPTION_GREEKS_RISK_FREE_RATE", Double.class,
+                OptionGreeksService.DEFAULT_RISK_FREE_RATE);
+    }
+
+    /**
+     * Evaluate the open option book over the grid.
+     *
+     * @param grid underlying moves and days forward, at most 10,000 cells
+     * @return matrices indexed [move][day]
+     * @throws IllegalArgumentException if the grid is too large
+     */
+    public ScenarioMatrixDto evaluate(ScenarioMatrix.Grid grid) {
+        if (grid.cells() > MAX_CELLS)
+            throw new IllegalArgumentException("grid must have at most " + MAX_CELLS + " cells: " + grid.cells());
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        // Valued at the start of the day so the inputs, and the cached columns, only change with prices
+        LocalDateTime valuationTime = today.atStartOfDay();
+
+        Map<String, InstrumentEntity> underlyings = new LinkedHashMap<>();
+        Map<String, List<ScenarioMatrix.Contract>> contractsByTicker = new LinkedHashMap<>();
+        int positions = 0;
+        for (OpenPositionEntity position : openPositionRepository.findAllOptionsWithUnderlying()) {
+            if (!PortfolioRiskService.isSimulated(position, valuationTime))
+                continue;
+            InstrumentEntity underlying = position.getUnderlyingInstrument();
+            underlyings.putIfAbsent(underlying.getTicker(), underlying);
+            double multiplier = position.getMultiplier() != null ? position.getMultiplier() : DEFAULT_MULTIPLIER;
+            contractsByTicker.computeIfAbsent(underlying.getTicker(), t -> new ArrayList<>())
+                    .add(new ScenarioMatrix.Contract(
+                            "C".equals(position.getPutCall()),
+                            position.getStrike(),
+                            position.getQuantity() * multiplier,
+                            position.getMarkPrice() != null ? position.getMarkPrice() : 0,
+                            position.getExpirationDate()));
+            positions++;
+        }
+
+        Map<Long, Double> volatilityByInstrument = new HashMap<>();
+        if (!underlyings.isEmpty()) {
+            optionSnapshotRepository.findAverageImpliedVolatilityByInstrument(today)
+                    .forEach(v -> volatilityByInstrument.put(v.getInstrumentId(), v.getImpliedVolatility()));
+        }
+
+        int cells = grid.cells();
+        double[] pnl = new double[cells];
+        double[] putObligation = new double[cells];
+        double[] callObligation = new double[cells];
+        double[] margin = new double[cells];
+        int recomputed = 0;
+        for (Map.Entry<String, List<ScenarioMatrix.Contract>> entry : contractsByTicker.entrySet()) {
+            InstrumentEntity underlying = underlyings.get(entry.getKey());
+            ScenarioMatrix.Inputs inputs = new ScenarioMatrix.Inputs(
+                    underlying.getPrice(),
+                    volatilityByInstrument.getOrDefault(underlying.getId(), defaultVolatility),
+                    riskFreeRate, today, List.copyOf(entry.getValue()), grid);
+            CachedColumn cached = columns.get(entry.getKey());
+            if (cached == null || !cached.inputs().equals(inputs)) {
+                cached = new CachedColumn(inputs, ScenarioMatrix.evaluate(inputs));
+                columns.put(entry.getKey(), cached);
+                recomputed++;
+            }
+            ScenarioMatrix.Column column = cached.column();
+            for (int i = 0; i < cells; i++) {
+                pnl[i] += column.pnl()[i];
+                putObligation[i] += column.putObligation()[i];
+                callObligation[i] += column.callObligation()[i];
+                margin[i] += column.margin()[i];
+            }
+        }
+        // Tickers without open options any more
+        columns.keySet().retainAll(contractsByTicker.keySet());
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.debug("Scenario matrix: {} cells over {} underlyings, {} columns recomputed in {} ms",
+                cells, contractsByTicker.size(), recomputed, elapsed);
+        return new ScenarioMatrixDto(today, grid.moves(), grid.days(),
+                toGrid(pnl, grid), toGrid(putObligation, grid), toGrid(callObligation, grid), toGrid(margin, grid),
+                positions, contractsByTicker.size(), recomputed, contractsByTicker.size() - recomputed, elapsed);
+    }
+
+    private static double[][] toGrid(double[] values, ScenarioMatrix.Grid grid) {
+        double[][] result = new double[grid.moves().size()][grid.days().size()];
+        for (int m = 0; m < result.length; m++) {
+            for (int d = 0; d < result[m].length; d++)
+                result[m][d] = values[grid.cell(m, d)];
+        }
+        return result;
+    }
+}
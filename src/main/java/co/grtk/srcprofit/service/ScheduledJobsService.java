@@ -21,14 +21,14 @@ import java.util.concurrent.TimeUnit;
  * Services are responsible for business logic; this service is responsible for scheduling.
  *
  * Scheduled Jobs:
- * 1. importFlexTrades() - Every 6 hours (FLEX API - trades report)
- * 2. importFlexNetAssetValue() - Every 6 hours (FLEX API - NAV report)
- * 3. importFlexOpenPositions() - Every 6 hours (FLEX API - open positions report)
- * 4. refreshMarketData() - Every 5 minutes (Alpaca API - market data refresh)
+ * 1. importFlexReports() - Every 6 hours (FLEX API - trades, NAV and open positions reports, concurrently)
+ * 2. refreshMarketData() - Every 5 minutes (Alpaca API - market data refresh)
+ * 3. flushMarketDataStream() - Every 15 seconds (streamed Alpaca trades, when streaming is enabled)
  * 4. refreshAlpacaAssets() - Every 12 hours (Alpaca Assets API - metadata refresh)
  * 5. refreshEarningsData() - Every 12 hours (Alpha Vantage - earnings calendar refresh)
  * 6. refreshOptionSnapshots() - Every 15 minutes (Alpaca Data API - option snapshots refresh)
  * 7. cleanupExpiredOptionSnapshots() - Every 24 hours (Option snapshots cleanup)
+ * 8. rollupOptionSnapshotHistory() - Every 24 hours (Option snapshot history retention)
  *
  * @see FlexReportsService for FLEX import orchestration
  * @see MarketDataService for market data refresh orchestration
@@ -46,106 +46,48 @@ public class ScheduledJobsService {
     private final AlpacaService alpacaService;
     private final EarningService earningService;
     private final OptionSnapshotService optionSnapshotService;
+    private final OptionSnapshotHistoryService optionSnapshotHistoryService;
 
     public ScheduledJobsService(FlexReportsService flexReportsService,
                                  MarketDataService marketDataService,
                                  AlpacaService alpacaService,
                                  EarningService earningService,
-                                 OptionSnapshotService optionSnapshotService) {
+                                 OptionSnapshotService optionSnapshotService,
+                                 OptionSnapshotHistoryService optionSnapshotHistoryService) {
         this.flexReportsService = flexReportsService;
         this.marketDataService = marketDataService;
         this.alpacaService = alpacaService;
         this.earningService = earningService;
         this.optionSnapshotService = optionSnapshotService;
+        this.optionSnapshotHistoryService = optionSnapshotHistoryService;
     }
 
     /**
-     * Scheduled job: Import FLEX Trades report from Interactive Brokers.
+     * Scheduled job: Import all FLEX reports from Interactive Brokers.
      *
      * Schedule: Every 6 hours, starting 1 minute after application startup
-     * Delegates to: FlexReportsService.importFlexTrades()
+     * Delegates to: FlexReportsService.importAllFlexReports()
      *
-     * Retry Logic:
-     * - Automatically retried on failure (see FlexReportsService for details)
-     * - Max 5 retry attempts
-     * - Returns status string for logging
+     * Concurrency:
+     * - Trades, Net Asset Value and Open Positions reports run concurrently on virtual threads
+     * - Each report polls GetStatement with backoff (max 5 attempts) until it is generated
+     * - A failing report does not abort the others, it is reported as FAILED
      *
-     * @return Status string: "{csvRecords}/{dataFixRecords}/{counter}" on success
-     *         or "WAITING_FOR REPORT /{counter}" if still waiting for API response
+     * @return Summary string: "TRADES={result} NAV={result} OPEN_POSITIONS={result}"
      */
     @Scheduled(fixedDelay = 360, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
-    public String importFlexTrades() {
+    public String importFlexReports() {
         long startTime = System.currentTimeMillis();
         try {
-            log.debug("ScheduledJobsService: Starting importFlexTrades() job");
-            String result = flexReportsService.importFlexTrades();
+            log.debug("ScheduledJobsService: Starting importFlexReports() job");
+            String result = flexReportsService.importAllFlexReports();
             long elapsedTime = System.currentTimeMillis() - startTime;
-            log.info("ScheduledJobsService: Completed importFlexTrades() in {}ms with result: {}", elapsedTime, result);
+            log.info("ScheduledJobsService: Completed importFlexReports() in {}ms with result: {}", elapsedTime, result);
             return result;
         } catch (Exception e) {
             long elapsedTime = System.currentTimeMillis() - startTime;
-            log.error("ScheduledJobsService: importFlexTrades() failed after {}ms - {}", elapsedTime, e.getMessage(), e);
-            throw new RuntimeException("importFlexTrades job failed", e);
-        }
-    }
-
-    /**
-     * Scheduled job: Import FLEX Net Asset Value report from Interactive Brokers.
-     *
-     * Schedule: Every 6 hours, starting 1 minute after application startup
-     * Delegates to: FlexReportsService.importFlexNetAssetValue()
-     *
-     * Retry Logic:
-     * - Automatically retried on failure (see FlexReportsService for details)
-     * - Max 5 retry attempts
-     * - Returns status string for logging
-     *
-     * @return Status string: "{records}/{counter}" on success
-     *         or "WAITING_FOR REPORT /{counter}" if still waiting for API response
-     */
-    @Scheduled(fixedDelay = 360, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
-    public String importFlexNetAssetValue() {
-        long startTime = System.currentTimeMillis();
-        try {
-            log.debug("ScheduledJobsService: Starting importFlexNetAssetValue() job");
-            String result = flexReportsService.importFlexNetAssetValue();
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            log.info("ScheduledJobsService: Completed importFlexNetAssetValue() in {}ms with result: {}", elapsedTime, result);
-            return result;
-        } catch (Exception e) {
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            log.error("ScheduledJobsService: importFlexNetAssetValue() failed after {}ms - {}", elapsedTime, e.getMessage(), e);
-            throw new RuntimeException("importFlexNetAssetValue job failed", e);
-        }
-    }
-
-    /**
-     * Scheduled job: Import FLEX Open Positions report from Interactive Brokers.
-     *
-     * Schedule: Every 6 hours, starting 1 minute after application startup
-     * Delegates to: FlexReportsService.importFlexOpenPositions()
-     *
-     * Snapshot Data:
-     * - Downloads current open positions snapshot from IBKR
-     * - Upserts positions into database (update if exists, insert if new)
-     * - Validates portfolio positions against broker data
-     *
-     * @return Status string: "{records}/0" on success
-     *         or "WAITING_FOR REPORT /{counter}" if still waiting for API response
-     */
-    @Scheduled(fixedDelay = 360, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
-    public String importFlexOpenPositions() {
-        long startTime = System.currentTimeMillis();
-        try {
-            log.debug("ScheduledJobsService: Starting importFlexOpenPositions() job");
-            String result = flexReportsService.importFlexOpenPositions();
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            log.info("ScheduledJobsService: Completed importFlexOpenPositions() in {}ms with result: {}", elapsedTime, result);
-            return result;
-        } catch (Exception e) {
-            long elapsedTime = System.currentTimeMillis() - startTime;
-            log.error("ScheduledJobsService: importFlexOpenPositions() failed after {}ms - {}", elapsedTime, e.getMessage(), e);
-            throw new RuntimeException("importFlexOpenPositions job failed", e);
+            log.error("ScheduledJobsService: importFlexReports() failed after {}ms - {}", elapsedTime, e.getMessage(), e);
+            throw new RuntimeException("importFlexReports job failed", e);
         }
     }
 
@@ -177,6 +119,32 @@ public class ScheduledJobsService {
         }
     }
 
+    /**
+     * Scheduled job: Write the trades streamed from Alpaca since the last flush.
+     *
+     * Schedule: Every ALPACA_STREAM_FLUSH_SECONDS (default 15) seconds, starting 1 minute after application startup
+     * Delegates to: MarketDataService.flushStreamedTrades()
+     *
+     * Trades are conflated in memory, a flush writes one row per moved instrument as one batch.
+     * Nothing to do unless streaming is enabled (ALPACA_STREAM_ENABLED).
+     *
+     * Non-critical job: the trades of a failed flush are dropped, the next trade or poll moves the price.
+     */
+    @Scheduled(fixedDelayString = "${ALPACA_STREAM_FLUSH_SECONDS:15}", initialDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void flushMarketDataStream() {
+        long startTime = System.currentTimeMillis();
+        try {
+            int moved = marketDataService.flushStreamedTrades();
+            if (moved > 0)
+                log.debug("ScheduledJobsService: Completed flushMarketDataStream() in {}ms - {} prices moved",
+                        System.currentTimeMillis() - startTime, moved);
+        } catch (Exception e) {
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            log.error("ScheduledJobsService: flushMarketDataStream() failed after {}ms - {}",
+                    elapsedTime, e.getMessage(), e);
+        }
+    }
+
     /**
      * Scheduled job: Refresh stale Alpaca asset metadata.
      *
@@ -312,4 +280,31 @@ public class ScheduledJobsService {
             log.debug("ScheduledJobsService: Option snapshot cleanup will retry on next schedule");
         }
     }
+
+    /**
+     * Scheduled job: Apply the option snapshot history retention policy.
+     *
+     * Schedule: Every 24 hours, starting 45 minutes after application startup
+     * Delegates to: OptionSnapshotHistoryService.applyRetention()
+     *
+     * Rolls raw day partitions older than the retention window into 1-hour OHLC bars
+     * (mid price, implied volatility, delta) and drops them.
+     *
+     * Non-critical job: Errors are logged but don't crash the application.
+     */
+    @Scheduled(fixedDelay = 1440, initialDelay = 45, timeUnit = TimeUnit.MINUTES)
+    public void rollupOptionSnapshotHistory() {
+        long startTime = System.currentTimeMillis();
+        try {
+            log.debug("ScheduledJobsService: Starting rollupOptionSnapshotHistory() job");
+            int days = optionSnapshotHistoryService.applyRetention();
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            log.info("ScheduledJobsService: Completed rollupOptionSnapshotHistory() in {}ms - {} days rolled up",
+                    elapsedTime, days);
+        } catch (Exception e) {
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            log.error("ScheduledJobsService: rollupOptionSnapshotHistory() failed after {}ms - {}",
+                    elapsedTime, e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,7 @@
+-- Track the FLEX import pipeline state on FLEX_STATEMENT_RESPONSE
+-- Imports now poll GetStatement with backoff instead of sleeping inside a transaction,
+-- each state transition (REQUESTED -> POLLING -> DOWNLOADED -> IMPORTED | FAILED) is persisted.
+
+ALTER TABLE FLEX_STATEMENT_RESPONSE ADD COLUMN IF NOT EXISTS import_state VARCHAR(20);
+ALTER TABLE FLEX_STATEMENT_RESPONSE ADD COLUMN IF NOT EXISTS poll_attempts INTEGER;
+ALTER TABLE FLEX_STATEMENT_RESPONSE ADD COLUMN IF NOT EXISTS import_error VARCHAR(500);
@@ -0,0 +1,47 @@
+-- Append-only intraday history of OPTION_SNAPSHOT, one row per contract and refresh
+-- Range partitioned by UTC day on captured_at, partitions (option_snapshot_history_pYYYYMMDD)
+-- are created on demand by OptionSnapshotHistoryJdbcRepository. Raw days older than the
+-- retention window are rolled up into 1-hour OHLC bars and their partition is dropped.
+
+CREATE TABLE IF NOT EXISTS option_snapshot_history (
+    symbol VARCHAR(50) NOT NULL,
+    captured_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    underlying_price NUMERIC(12, 4),
+    bid_price NUMERIC(10, 4),
+    ask_price NUMERIC(10, 4),
+    mid_price NUMERIC(10, 4),
+    last_trade_price NUMERIC(10, 4),
+    implied_volatility NUMERIC(6, 4),
+    delta NUMERIC(8, 6),
+    gamma NUMERIC(8, 6),
+    theta NUMERIC(8, 6),
+    vega NUMERIC(8, 6)
+) PARTITION BY RANGE (captured_at);
+
+-- Rows arrive in capture order, BRIN keeps time range scans cheap at a few pages per partition
+CREATE INDEX IF NOT EXISTS opt_snap_hist_captured_brin ON option_snapshot_history USING brin (captured_at);
+-- Per-contract series reads
+CREATE INDEX IF NOT EXISTS opt_snap_hist_symbol_captured_idx ON option_snapshot_history (symbol, captured_at);
+
+-- Example daily partition
+-- CREATE TABLE option_snapshot_history_p20251201 PARTITION OF option_snapshot_history
+--     FOR VALUES FROM ('2025-12-01T00:00Z') TO ('2025-12-02T00:00Z');
+
+CREATE TABLE IF NOT EXISTS option_snapshot_history_hourly (
+    symbol VARCHAR(50) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    mid_open NUMERIC(10, 4),
+    mid_high NUMERIC(10, 4),
+    mid_low NUMERIC(10, 4),
+    mid_close NUMERIC(10, 4),
+    iv_open NUMERIC(6, 4),
+    iv_high NUMERIC(6, 4),
+    iv_low NUMERIC(6, 4),
+    iv_close NUMERIC(6, 4),
+    delta_open NUMERIC(8, 6),
+    delta_high NUMERIC(8, 6),
+    delta_low NUMERIC(8, 6),
+    delta_close NUMERIC(8, 6),
+    samples INTEGER NOT NULL,
+    PRIMARY KEY (symbol, bucket_start)
+);
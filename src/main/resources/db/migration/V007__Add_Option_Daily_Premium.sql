@@ -0,0 +1,21 @@
+-- Daily option premium ledger backing the dashboard premium chart
+-- One row per trade date, amounts in cents. Maintained incrementally by PremiumLedgerService
+-- when trades are written, so the dashboard no longer scans the OPTION table.
+-- The running total is built in memory from premium_cents, it is not stored.
+
+CREATE TABLE IF NOT EXISTS OPTION_DAILY_PREMIUM (
+    trade_date DATE PRIMARY KEY,
+    premium_cents BIGINT NOT NULL
+);
+
+-- Initial load (also done on first use when the ledger is empty)
+INSERT INTO OPTION_DAILY_PREMIUM (trade_date, premium_cents)
+SELECT trade_date, day_cents
+FROM (
+    SELECT trade_date,
+           (sign(sum((trade_price * abs(quantity))::numeric)) * ceil(abs(sum((trade_price * abs(quantity))::numeric)) * 100))::bigint AS day_cents
+    FROM OPTION
+    WHERE trade_price IS NOT NULL AND trade_date IS NOT NULL
+    GROUP BY trade_date
+) d
+ON CONFLICT (trade_date) DO NOTHING;
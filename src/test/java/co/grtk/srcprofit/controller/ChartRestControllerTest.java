@@ -0,0 +1,102 @@
+package co.grtk.srcprofit.controller;
+
+import co.grtk.srcprofit.dto.ChartSeriesDto;
+import co.grtk.srcprofit.mapper.Interval;
+import co.grtk.srcprofit.service.ChartSeriesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChartRestController Tests")
+class ChartRestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ChartSeriesService chartSeriesService;
+
+    @InjectMocks
+    private ChartRestController chartRestController;
+
+    private final ChartSeriesDto series = new ChartSeriesDto(Interval.ALL,
+            new int[]{20000, 20001}, new long[]{10000, 15050},
+            new int[]{20001}, new long[]{500000}, new long[]{300000}, new long[]{150000}, new long[]{50000});
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(chartRestController).build();
+        when(chartSeriesService.getVersion(Interval.ALL)).thenReturn("v1-3-2-all-20400");
+    }
+
+    @Test
+    @DisplayName("Should return typed arrays with a strong ETag")
+    void testGetSeries() throws Exception {
+        when(chartSeriesService.getSeries(Interval.ALL)).thenReturn(series);
+
+        mockMvc.perform(get("/api/charts/all").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1-3-2-all-20400-json\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.premiumDays", contains(20000, 20001)))
+                .andExpect(jsonPath("$.premiumCents", contains(10000, 15050)))
+                .andExpect(jsonPath("$.totalCents[0]", is(500000)));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without building the series when the ETag matches")
+    void testGetSeriesNotModified() throws Exception {
+        mockMvc.perform(get("/api/charts/all")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v1-3-2-all-20400-json\""))
+                .andExpect(status().isNotModified());
+
+        verify(chartSeriesService, never()).getSeries(any());
+    }
+
+    @Test
+    @DisplayName("Should encode the binary series little-endian")
+    void testGetBinarySeries() throws Exception {
+        when(chartSeriesService.getSeries(Interval.ALL)).thenReturn(series);
+
+        byte[] body = mockMvc.perform(get("/api/charts/all/binary"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(body).hasSize(4 + 2 * 12 + 4 + 36);
+        assertThat(buffer.getInt()).isEqualTo(2);
+        assertThat(buffer.getInt()).isEqualTo(20000);
+        assertThat(buffer.getInt()).isEqualTo(20001);
+        assertThat(buffer.getLong()).isEqualTo(10000);
+        assertThat(buffer.getLong()).isEqualTo(15050);
+        assertThat(buffer.getInt()).isEqualTo(1);
+        assertThat(buffer.getInt()).isEqualTo(20001);
+        assertThat(buffer.getLong()).isEqualTo(500000);
+        assertThat(buffer.getLong()).isEqualTo(300000);
+        assertThat(buffer.getLong()).isEqualTo(150000);
+        assertThat(buffer.getLong()).isEqualTo(50000);
+    }
+}
@@ -1,15 +1,20 @@
 package co.grtk.srcprofit.controller;
 
+import co.grtk.srcprofit.dto.LiveUpdateDto;
 import co.grtk.srcprofit.dto.NetAssetValueDto;
 import co.grtk.srcprofit.dto.OpenPositionViewDto;
 import co.grtk.srcprofit.dto.StockPositionViewDto;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
+import co.grtk.srcprofit.service.LiveUpdateHub;
 import co.grtk.srcprofit.service.NetAssetValueService;
 import co.grtk.srcprofit.service.OpenPositionService;
+import co.grtk.srcprofit.service.OpenPositionsReadModel;
 import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.PortfolioAggregationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -38,11 +43,19 @@ class OpenPositionsControllerTest {
     @Mock
     private OptionService optionService;
 
-    @InjectMocks
+    @Mock
+    private LiveUpdateHub liveUpdateHub;
+
+    private OpenPositionsReadModel openPositionsReadModel;
+
     private OpenPositionsController openPositionsController;
 
     @BeforeEach
     void setUp() {
+        // Real read model and aggregation graph over the mocked services, built on the first request
+        openPositionsReadModel = new OpenPositionsReadModel(openPositionService,
+                new PortfolioAggregationService(openPositionService, optionService), liveUpdateHub);
+        openPositionsController = new OpenPositionsController(openPositionsReadModel, netAssetValueService);
         mockMvc = MockMvcBuilders.standaloneSetup(openPositionsController).build();
 
         // Setup default NAV with report date (lenient to avoid unnecessary stubbing errors)
@@ -51,8 +64,7 @@ class OpenPositionsControllerTest {
         lenient().when(netAssetValueService.loadLatestNetAssetValue()).thenReturn(mockNav);
 
         // Setup default option service calls (lenient to avoid unnecessary stubbing errors)
-        lenient().when(openPositionService.getAllOpenOptionDtos(null)).thenReturn(new ArrayList<>());
-        lenient().when(optionService.getWeeklySummaryOpenOptionDtos(any())).thenReturn(new ArrayList<>());
+        lenient().when(openPositionService.getAllOpenOptionPositions()).thenReturn(new ArrayList<>());
     }
 
     @Test
@@ -219,4 +231,47 @@ class OpenPositionsControllerTest {
         verify(openPositionService).getAllOpenPositionViewDtos();
         verify(openPositionService).getAllStockPositionViewDtos();
     }
+
+    @Test
+    void testOpenPositionsEndpoint_ServesReadModelUntilRebuilt() throws Exception {
+        when(openPositionService.getAllOpenPositionViewDtos()).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(get("/openpositions")).andExpect(status().isOk());
+        mockMvc.perform(get("/openpositions")).andExpect(status().isOk());
+
+        // Both requests are served from one projection
+        verify(openPositionService, times(1)).getAllOpenPositionViewDtos();
+        verify(openPositionService, times(1)).getAllOpenOptionPositions();
+        verify(optionService, times(1)).calculatePosition(any(), any(PortfolioFrame.Totals.class));
+    }
+
+    @Test
+    void testRebuild_PushesOnlyChangedPositions() throws Exception {
+        OpenPositionViewDto spy = new OpenPositionViewDto(1L, "SPY", LocalDate.of(2025, 12, 1),
+                LocalDate.of(2025, 12, 20), 10, -5, 420.0, 415.0, -125.0, -130.0, 15, 75, "PUT", 500.0);
+        OpenPositionViewDto aapl = new OpenPositionViewDto(2L, "AAPL", LocalDate.of(2025, 12, 1),
+                LocalDate.of(2025, 12, 27), 17, 10, 210.0, 208.0, 250.0, 255.0, 22, 80, "CALL", 2100.0);
+        OpenPositionViewDto spyMoved = new OpenPositionViewDto(1L, "SPY", LocalDate.of(2025, 12, 1),
+                LocalDate.of(2025, 12, 20), 10, -5, 420.0, 425.0, -125.0, -90.0, 15, 82, "PUT", 500.0);
+        when(openPositionService.getAllOpenPositionViewDtos())
+                .thenReturn(List.of(spy, aapl))
+                .thenReturn(List.of(spyMoved, aapl));
+
+        mockMvc.perform(get("/openpositions")).andExpect(status().isOk());
+        openPositionsReadModel.rebuild();
+
+        ArgumentCaptor<LiveUpdateDto> update = ArgumentCaptor.forClass(LiveUpdateDto.class);
+        verify(liveUpdateHub).publish(eq("positions"), update.capture());
+        assertNull(update.getValue().quotes());
+        assertEquals(List.of(new LiveUpdateDto.Position(1L, "SPY", 425.0, -90.0, 82)), update.getValue().positions());
+    }
+
+    @Test
+    void testRebuild_WithoutProjectionPushesNothing() {
+        when(openPositionService.getAllOpenPositionViewDtos()).thenReturn(new ArrayList<>());
+
+        openPositionsReadModel.rebuild();
+
+        verifyNoInteractions(liveUpdateHub);
+    }
 }
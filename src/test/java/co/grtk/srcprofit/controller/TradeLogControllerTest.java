@@ -5,6 +5,7 @@ import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.service.NetAssetValueService;
 import co.grtk.srcprofit.service.OpenPositionService;
 import co.grtk.srcprofit.service.OptionService;
+import co.grtk.srcprofit.service.PortfolioAggregationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +42,9 @@ class TradeLogControllerTest {
     @Mock
     private OpenPositionService openPositionService;
 
+    @Mock
+    private PortfolioAggregationService portfolioAggregationService;
+
     @InjectMocks
     private TradeLogController tradeLogController;
 
@@ -57,10 +61,10 @@ class TradeLogControllerTest {
         mockNav.setCash(10000.0);
         mockNav.setStock(5000.0);
 
-        when(openPositionService.getAllOpenOptionDtos(null)).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getOpenOptions()).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getPositionSummary()).thenReturn(new PositionDto());
+        when(portfolioAggregationService.getWeeklySummary()).thenReturn(mockOpenPositions);
         when(netAssetValueService.loadLatestNetAssetValue()).thenReturn(mockNav);
-        when(optionService.getWeeklySummaryOpenOptionDtos(mockOpenPositions)).thenReturn(mockOpenPositions);
-        doNothing().when(optionService).calculatePosition(any(PositionDto.class), anyList(), anyList());
 
         // Execute and verify
         mockMvc.perform(get("/tradelog"))
@@ -69,11 +73,11 @@ class TradeLogControllerTest {
                 .andExpect(model().attributeExists("positionDto", "openOptions", "weeklyOpenPositions"));
 
         // Verify service calls
-        verify(openPositionService).getAllOpenOptionDtos(null);
+        verify(portfolioAggregationService).getOpenOptions();
         // Should NOT call getAllClosedOptions - closed positions moved to TradeHistory
         verify(optionService, never()).getAllClosedOptions(any());
         verify(netAssetValueService).loadLatestNetAssetValue();
-        verify(optionService).getWeeklySummaryOpenOptionDtos(mockOpenPositions);
+        verify(portfolioAggregationService).getWeeklySummary();
     }
 
     @Test
@@ -81,10 +85,9 @@ class TradeLogControllerTest {
         // Setup - NetAssetValue returns null
         List<PositionDto> mockOpenPositions = new ArrayList<>();
 
-        when(openPositionService.getAllOpenOptionDtos(null)).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getOpenOptions()).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getPositionSummary()).thenReturn(new PositionDto());
         when(netAssetValueService.loadLatestNetAssetValue()).thenReturn(null);
-        lenient().when(optionService.getWeeklySummaryOpenOptionDtos(mockOpenPositions)).thenReturn(mockOpenPositions);
-        doNothing().when(optionService).calculatePosition(any(PositionDto.class), anyList(), anyList());
 
         // Execute and verify - should create default NetAssetValueDto
         mockMvc.perform(get("/tradelog"))
@@ -135,10 +138,10 @@ class TradeLogControllerTest {
         mockNav.setCash(25000.0);
         mockNav.setStock(50000.0);
 
-        when(openPositionService.getAllOpenOptionDtos(null)).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getOpenOptions()).thenReturn(mockOpenPositions);
+        when(portfolioAggregationService.getPositionSummary()).thenReturn(new PositionDto());
+        when(portfolioAggregationService.getWeeklySummary()).thenReturn(new ArrayList<>());
         when(netAssetValueService.loadLatestNetAssetValue()).thenReturn(mockNav);
-        when(optionService.getWeeklySummaryOpenOptionDtos(mockOpenPositions)).thenReturn(new ArrayList<>());
-        doNothing().when(optionService).calculatePosition(any(PositionDto.class), anyList(), anyList());
 
         // Execute and verify model attributes
         mockMvc.perform(get("/tradelog"))
@@ -153,20 +156,22 @@ class TradeLogControllerTest {
     @Test
     void testTradelogEndpoint_CallsServiceMethods() throws Exception {
         // Setup
-        when(openPositionService.getAllOpenOptionDtos(null)).thenReturn(new ArrayList<>());
+        when(portfolioAggregationService.getOpenOptions()).thenReturn(new ArrayList<>());
+        when(portfolioAggregationService.getPositionSummary()).thenReturn(new PositionDto());
+        when(portfolioAggregationService.getWeeklySummary()).thenReturn(new ArrayList<>());
         when(netAssetValueService.loadLatestNetAssetValue()).thenReturn(null);
-        when(optionService.getWeeklySummaryOpenOptionDtos(new ArrayList<>())).thenReturn(new ArrayList<>());
-        doNothing().when(optionService).calculatePosition(any(PositionDto.class), anyList(), anyList());
 
         // Execute
         mockMvc.perform(get("/tradelog"));
 
-        // Verify service methods were called exactly once
-        verify(openPositionService, times(1)).getAllOpenOptionDtos(null);
+        // Verify service methods were called exactly once, nothing is recalculated per request
+        verify(portfolioAggregationService, times(1)).getOpenOptions();
+        verify(portfolioAggregationService, times(1)).getPositionSummary();
+        verify(portfolioAggregationService, times(1)).getWeeklySummary();
         // Should NOT call getAllClosedOptions - closed positions moved to TradeHistory
         verify(optionService, never()).getAllClosedOptions(any());
-        verify(optionService, times(1)).calculatePosition(any(PositionDto.class), anyList(), anyList());
+        verify(optionService, never()).calculatePosition(any(PositionDto.class), anyList(), anyList());
+        verify(openPositionService, never()).getAllOpenOptionDtos(any());
         verify(netAssetValueService, times(1)).loadLatestNetAssetValue();
-        verify(optionService, times(1)).getWeeklySummaryOpenOptionDtos(anyList());
     }
 }
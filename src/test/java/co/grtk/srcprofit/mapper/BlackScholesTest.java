@@ -0,0 +1,82 @@
+package co.grtk.srcprofit.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("BlackScholes Tests")
+class BlackScholesTest {
+
+    private static final double TOLERANCE = 1e-4;
+
+    @Test
+    @DisplayName("price: Textbook at-the-money call and put (S=K=100, T=1, vol=20%, r=5%)")
+    void testPrice_KnownValues() {
+        BlackScholes.Chain chain = new BlackScholes.Chain(2);
+        chain.set(0, true, 100.0, 100.0, 1.0, 0.20);
+        chain.set(1, false, 100.0, 100.0, 1.0, 0.20);
+
+        BlackScholes.price(chain, 0.05);
+
+        assertEquals(10.4506, chain.price[0], TOLERANCE);
+        assertEquals(5.5735, chain.price[1], TOLERANCE);
+        assertEquals(0.6368, chain.delta[0], TOLERANCE);
+        assertEquals(-0.3632, chain.delta[1], TOLERANCE);
+        assertEquals(0.018762, chain.gamma[0], 1e-6);
+        assertEquals(chain.gamma[0], chain.gamma[1], 1e-12);
+        // Feed units: theta per day, vega and rho per 1%
+        assertEquals(-6.4140 / 365, chain.theta[0], 1e-6);
+        assertEquals(-1.6579 / 365, chain.theta[1], 1e-6);
+        assertEquals(0.3752, chain.vega[0], TOLERANCE);
+        assertEquals(0.5323, chain.rho[0], TOLERANCE);
+        assertEquals(-0.4189, chain.rho[1], TOLERANCE);
+    }
+
+    @Test
+    @DisplayName("price: Put-call parity and delta relation hold across strikes")
+    void testPrice_PutCallParity() {
+        double spot = 250.0;
+        double years = 45 / 365.0;
+        double rate = 0.04;
+        int strikes = 41;
+        BlackScholes.Chain chain = new BlackScholes.Chain(strikes * 2);
+        for (int i = 0; i < strikes; i++) {
+            double strike = 150.0 + i * 5;
+            chain.set(2 * i, true, spot, strike, years, 0.35);
+            chain.set(2 * i + 1, false, spot, strike, years, 0.35);
+        }
+
+        BlackScholes.price(chain, rate);
+
+        for (int i = 0; i < strikes; i++) {
+            double strike = 150.0 + i * 5;
+            double call = chain.price[2 * i];
+            double put = chain.price[2 * i + 1];
+            assertEquals(spot - strike * Math.exp(-rate * years), call - put, 1e-9, "strike " + strike);
+            assertEquals(1.0, chain.delta[2 * i] - chain.delta[2 * i + 1], 1e-12, "strike " + strike);
+            assertTrue(put >= 0 && call >= 0, "strike " + strike);
+        }
+    }
+
+    @Test
+    @DisplayName("price: Invalid inputs give NaN without affecting other contracts")
+    void testPrice_InvalidInputs() {
+        BlackScholes.Chain chain = new BlackScholes.Chain(5);
+        chain.set(0, true, 100.0, 100.0, Double.NaN, 0.20);
+        chain.set(1, false, 100.0, 0.0, 0.5, 0.20);
+        chain.set(2, true, 100.0, 100.0, 0.5, 0.0);
+        chain.set(3, false, -1.0, 100.0, 0.5, 0.20);
+        chain.set(4, false, 100.0, 100.0, 0.5, 0.20);
+
+        BlackScholes.price(chain, 0.04);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(Double.isNaN(chain.price[i]), "contract " + i);
+            assertTrue(Double.isNaN(chain.delta[i]), "contract " + i);
+            assertTrue(Double.isNaN(chain.vega[i]), "contract " + i);
+        }
+        assertTrue(chain.delta[4] < 0 && chain.delta[4] > -0.5);
+    }
+}
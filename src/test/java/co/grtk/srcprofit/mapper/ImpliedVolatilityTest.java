@@ -0,0 +1,107 @@
+package co.grtk.srcprofit.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ImpliedVolatility Tests")
+class ImpliedVolatilityTest {
+
+    private static final double RATE = 0.04;
+    private static final double SPOT = 100.0;
+
+    @Test
+    @DisplayName("solve: Recovers the volatility of Black-Scholes prices across strikes, expirations and volatilities")
+    void testSolve_RoundTrip() {
+        ImpliedVolatility solver = new ImpliedVolatility(4);
+        int contracts = 0;
+        for (double volatility : new double[]{0.08, 0.2, 0.45, 1.0, 2.5}) {
+            for (double years : new double[]{1 / 365.0, 7 / 365.0, 45 / 365.0, 1.0}) {
+                BlackScholes.Chain chain = chainOf(years, volatility);
+                solver.reset(chain.size());
+                for (int i = 0; i < chain.size(); i++)
+                    solver.set(i, i % 2 == 0, SPOT, strikeOf(i), years, chain.price[i]);
+                solver.solve(RATE);
+
+                for (int i = 0; i < chain.size(); i++) {
+                    // Without time value the price carries no volatility information
+                    if (chain.vega[i] < 1e-3)
+                        continue;
+                    contracts++;
+                    String contract = "strike " + strikeOf(i) + " years " + years + " vol " + volatility;
+                    assertEquals(volatility, solver.volatility(i), 1e-4, contract);
+                    assertTrue(solver.iterations(i) > 0 && solver.iterations(i) <= 30, contract);
+                }
+            }
+        }
+        assertTrue(contracts > 500);
+    }
+
+    @Test
+    @DisplayName("solve: At-the-money quotes converge with Newton in a few iterations")
+    void testSolve_NewtonConvergence() {
+        BlackScholes.Chain chain = new BlackScholes.Chain(1);
+        chain.set(0, true, SPOT, SPOT, 30 / 365.0, 0.25);
+        BlackScholes.price(chain, RATE);
+        ImpliedVolatility solver = new ImpliedVolatility(1);
+        solver.reset(1);
+        solver.set(0, true, SPOT, SPOT, 30 / 365.0, chain.price[0]);
+
+        solver.solve(RATE);
+
+        assertEquals(0.25, solver.volatility(0), 1e-6);
+        assertFalse(solver.bracketed(0));
+        assertTrue(solver.iterations(0) <= 5);
+    }
+
+    @Test
+    @DisplayName("solve: Prices outside the arbitrage bounds and invalid inputs give NaN")
+    void testSolve_Unsolvable() {
+        ImpliedVolatility solver = new ImpliedVolatility(1);
+        solver.reset(5);
+        solver.set(0, true, SPOT, 90.0, 0.1, 5.0);     // below intrinsic value
+        solver.set(1, false, SPOT, 100.0, 0.1, 150.0); // above the strike
+        solver.set(2, true, SPOT, 100.0, 0.1, 0.0);
+        solver.set(3, true, SPOT, 100.0, Double.NaN, 2.0);
+        solver.set(4, true, SPOT, 100.0, 0.1, Double.NaN);
+
+        solver.solve(RATE);
+
+        for (int i = 0; i < solver.size(); i++)
+            assertTrue(Double.isNaN(solver.volatility(i)), "contract " + i);
+    }
+
+    @Test
+    @DisplayName("reset: A larger chain grows the arrays, a smaller one reuses them")
+    void testReset_ReusesArrays() {
+        ImpliedVolatility solver = new ImpliedVolatility(2);
+        BlackScholes.Chain chain = chainOf(45 / 365.0, 0.3);
+        solver.reset(chain.size());
+        for (int i = 0; i < chain.size(); i++)
+            solver.set(i, i % 2 == 0, SPOT, strikeOf(i), 45 / 365.0, chain.price[i]);
+        solver.solve(RATE);
+        double atTheMoney = solver.volatility(40);
+
+        solver.reset(1);
+        solver.set(0, true, SPOT, strikeOf(40), 45 / 365.0, chain.price[40]);
+        solver.solve(RATE);
+
+        assertEquals(1, solver.size());
+        assertEquals(atTheMoney, solver.volatility(0), 1e-12);
+    }
+
+    private static BlackScholes.Chain chainOf(double years, double volatility) {
+        BlackScholes.Chain chain = new BlackScholes.Chain(82);
+        for (int i = 0; i < chain.size(); i++)
+            chain.set(i, i % 2 == 0, SPOT, strikeOf(i), years, volatility);
+        BlackScholes.price(chain, RATE);
+        return chain;
+    }
+
+    private static double strikeOf(int i) {
+        return 50.0 + (i / 2) * 2.5;
+    }
+}
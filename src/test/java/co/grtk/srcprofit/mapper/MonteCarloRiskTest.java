@@ -0,0 +1,107 @@
+package co.grtk.srcprofit.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("MonteCarloRisk Tests")
+class MonteCarloRiskTest {
+
+    private static final double THIRTY_DAYS = 30 / 365.0;
+
+    @Test
+    @DisplayName("simulate: Probability of loss of a short put matches the lognormal distribution")
+    void testSimulate_ShortPutProbabilityOfLoss() {
+        // Short 1 put, strike 90, premium 1.00: loses money if the underlying ends below 89
+        MonteCarloRisk.Portfolio portfolio = new MonteCarloRisk.Portfolio(1, 1);
+        portfolio.setUnderlying(0, 100.0, 0.30);
+        portfolio.setContract(0, 0, false, 90.0, -100.0, 1.0, THIRTY_DAYS);
+
+        MonteCarloRisk.Result result = MonteCarloRisk.simulate(portfolio, 200_000, 0.5, 0.0, 42L, new ForkJoinPool(2));
+
+        double sigmaSqrtT = 0.30 * Math.sqrt(THIRTY_DAYS);
+        double expected = NormalCdf.cdf((Math.log(89.0 / 100.0) + 0.5 * sigmaSqrtT * sigmaSqrtT) / sigmaSqrtT);
+        assertEquals(expected, result.probabilityOfLoss(), 0.005);
+        assertEquals(200_000, result.paths());
+        // Maximum gain is the premium, the tail is bounded by the strike
+        assertTrue(result.worstLoss() < 90.0 * 100);
+        assertTrue(result.expectedShortfall99() >= result.valueAtRisk99());
+        assertTrue(result.valueAtRisk99() >= result.valueAtRisk95());
+    }
+
+    @Test
+    @DisplayName("simulatePnl: A seed gives the same paths on any pool size")
+    void testSimulatePnl_Reproducible() {
+        MonteCarloRisk.Portfolio portfolio = portfolio(0.30);
+
+        double[] single = MonteCarloRisk.simulatePnl(portfolio, 10_000, 0.5, 7L, new ForkJoinPool(1));
+        double[] parallel = MonteCarloRisk.simulatePnl(portfolio, 10_000, 0.5, 7L, new ForkJoinPool(4));
+
+        assertArrayEquals(single, parallel);
+    }
+
+    @Test
+    @DisplayName("simulate: Correlated underlyings have a fatter loss tail")
+    void testSimulate_Correlation() {
+        MonteCarloRisk.Portfolio portfolio = portfolio(0.30);
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        MonteCarloRisk.Result independent = MonteCarloRisk.simulate(portfolio, 50_000, 0.0, 0.0, 1L, pool);
+        MonteCarloRisk.Result correlated = MonteCarloRisk.simulate(portfolio, 50_000, 0.9, 0.0, 1L, pool);
+
+        assertTrue(correlated.valueAtRisk99() > independent.valueAtRisk99());
+        assertTrue(correlated.expectedShortfall99() > independent.expectedShortfall99());
+    }
+
+    @Test
+    @DisplayName("summarize: Quantiles, tail means and probability of loss of a known distribution")
+    void testSummarize() {
+        double[] pnl = new double[100];
+        for (int i = 0; i < pnl.length; i++)
+            pnl[99 - i] = i - 50;
+
+        MonteCarloRisk.Result result = MonteCarloRisk.summarize(pnl, 10.0);
+
+        assertEquals(-0.5, result.meanPnl(), 1e-12);
+        assertEquals(46.0, result.valueAtRisk95(), 1e-12);
+        assertEquals(50.0, result.valueAtRisk99(), 1e-12);
+        assertEquals(48.0, result.expectedShortfall95(), 1e-12);
+        assertEquals(50.0, result.expectedShortfall99(), 1e-12);
+        assertEquals(50.0, result.worstLoss(), 1e-12);
+        assertEquals(0.40, result.probabilityOfLoss(), 1e-12);
+    }
+
+    @Test
+    @DisplayName("simulate: Invalid arguments are rejected")
+    void testSimulate_InvalidArguments() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        MonteCarloRisk.Portfolio portfolio = portfolio(0.30);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloRisk.simulate(portfolio, 0, 0.5, 0.0, 1L, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloRisk.simulate(portfolio, 1000, 1.5, 0.0, 1L, pool));
+        assertThrows(IllegalArgumentException.class,
+                () -> MonteCarloRisk.simulate(new MonteCarloRisk.Portfolio(1, 0), 1000, 0.5, 0.0, 1L, pool));
+    }
+
+    /**
+     * Short puts and calls on two underlyings over two expirations.
+     */
+    private static MonteCarloRisk.Portfolio portfolio(double volatility) {
+        MonteCarloRisk.Portfolio portfolio = new MonteCarloRisk.Portfolio(2, 4);
+        portfolio.setUnderlying(0, 100.0, volatility);
+        portfolio.setUnderlying(1, 50.0, volatility);
+        portfolio.setContract(0, 0, false, 95.0, -100.0, 1.20, THIRTY_DAYS);
+        portfolio.setContract(1, 1, false, 47.0, -200.0, 0.60, THIRTY_DAYS);
+        portfolio.setContract(2, 0, true, 110.0, -100.0, 0.80, 2 * THIRTY_DAYS);
+        portfolio.setContract(3, 1, false, 45.0, -200.0, 0.90, 2 * THIRTY_DAYS);
+        return portfolio;
+    }
+}
@@ -0,0 +1,103 @@
+package co.grtk.srcprofit.mapper;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("NormalCdf Tests")
+class NormalCdfTest {
+
+    private static final double TOLERANCE = 1e-7;
+    private static final NormalDistribution STANDARD_NORMAL = new NormalDistribution(0, 1);
+
+    @Test
+    @DisplayName("cdf: Matches commons-math on [-40, 40]")
+    void testCdf_MatchesCommonsMath() {
+        double maxError = 0;
+        for (int i = -40_000; i <= 40_000; i++) {
+            double x = i / 1000.0;
+            maxError = Math.max(maxError, Math.abs(NormalCdf.cdf(x) - STANDARD_NORMAL.cumulativeProbability(x)));
+        }
+        assertTrue(maxError < TOLERANCE, "max error " + maxError);
+    }
+
+    @Test
+    @DisplayName("cdf: Exactly 0.5 at the mean, symmetric and bounded")
+    void testCdf_Properties() {
+        assertEquals(0.5, NormalCdf.cdf(0.0));
+        assertEquals(0.5, NormalCdf.cdf(105.0, 105.0, 7.5));
+        assertEquals(1.0, NormalCdf.cdf(1.25) + NormalCdf.cdf(-1.25), 1e-15);
+        assertEquals(0.0, NormalCdf.cdf(-50.0));
+        assertEquals(1.0, NormalCdf.cdf(50.0));
+        assertTrue(Double.isNaN(NormalCdf.cdf(Double.NaN)));
+    }
+
+    @Test
+    @DisplayName("cdf: Non standard distribution matches commons-math")
+    void testCdf_MeanAndStdDev() {
+        NormalDistribution distribution = new NormalDistribution(110.0, 5.5 * Math.sqrt(30));
+        for (int strike = 50; strike <= 170; strike++) {
+            assertEquals(distribution.cumulativeProbability(strike), NormalCdf.cdf(strike, 110.0, 5.5 * Math.sqrt(30)), TOLERANCE);
+        }
+    }
+
+    @Test
+    @DisplayName("cdf batch: Same results as the scalar form")
+    void testCdf_Batch() {
+        double[] x = {90.0, 100.0, 110.0, 250.0};
+        double[] mean = {100.0, 100.0, 100.0, 240.0};
+        double[] stdDev = {5.0, 5.0, 5.0, 12.0};
+        double[] result = new double[x.length];
+
+        NormalCdf.cdf(x, mean, stdDev, result);
+
+        double[] expected = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            expected[i] = NormalCdf.cdf(x[i], mean[i], stdDev[i]);
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    @DisplayName("cdf batch: Different array lengths are rejected")
+    void testCdf_BatchLengthMismatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NormalCdf.cdf(new double[2], new double[2], new double[1], new double[2]));
+    }
+
+    @Test
+    @DisplayName("probabilityMarketExceedsTradeValue: Same percentages as the commons-math implementation")
+    void testProbabilityMarketExceedsTradeValue_MatchesCommonsMath() {
+        double marketMean = 100.0;
+        double dailyStdDev = marketMean * PositionCalculationConstants.DAILY_VOLATILITY_ESTIMATE;
+        for (int days : new int[]{1, 7, 30, 45, 90, 365}) {
+            NormalDistribution distribution = new NormalDistribution(marketMean, dailyStdDev * Math.sqrt(days));
+            for (int tradeValue = 70; tradeValue <= 130; tradeValue++) {
+                int expected = (int) ((1.0 - distribution.cumulativeProbability(tradeValue)) * 100);
+                assertEquals(expected, PositionMapper.probabilityMarketExceedsTradeValue(
+                        BigDecimal.valueOf(tradeValue), marketMean, dailyStdDev, days), "trade " + tradeValue + " days " + days);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("calculateProbabilities: Batch matches calculateProbability")
+    void testCalculateProbabilities_Batch() {
+        double[] positionValues = {100.0, 100.0, 100.0, 100.0};
+        double[] marketValues = {110.0, 90.0, 0.0, 105.0};
+        int[] days = {30, 30, 30, 0};
+
+        int[] probabilities = PositionCalculationHelper.calculateProbabilities(positionValues, marketValues, days);
+
+        for (int i = 0; i < positionValues.length; i++)
+            assertEquals(PositionCalculationHelper.calculateProbability(positionValues[i], marketValues[i], days[i]), probabilities[i]);
+        assertEquals(0, probabilities[2]);
+        assertEquals(0, probabilities[3]);
+    }
+}
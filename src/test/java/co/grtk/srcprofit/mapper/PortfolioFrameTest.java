@@ -0,0 +1,124 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.OptionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DisplayName("PortfolioFrame Tests")
+class PortfolioFrameTest {
+
+    private static final LocalDate TRADE_DATE = LocalDate.of(2025, 11, 3);
+
+    private static PositionDto position(OptionType type, int quantity, double tradePrice, double marketPrice,
+                                        double positionValue, double marketValue, Integer roi, Integer probability, int daysLeft) {
+        PositionDto dto = new PositionDto();
+        dto.setType(type);
+        dto.setQuantity(quantity);
+        dto.setTradePrice(tradePrice);
+        dto.setMarketPrice(marketPrice);
+        dto.setPositionValue(positionValue);
+        dto.setMarketValue(marketValue);
+        dto.setAnnualizedRoiPercent(roi);
+        dto.setProbability(probability);
+        dto.setDaysLeft(daysLeft);
+        dto.setTradeDate(TRADE_DATE.plusDays(daysLeft % 7));
+        dto.setExpirationDate(TRADE_DATE.plusDays(daysLeft));
+        dto.setUnRealizedProfitOrLoss(tradePrice - marketPrice);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("aggregate: Premium, put/call split and obligations in one pass")
+    void testAggregate_Totals() {
+        List<PositionDto> positions = List.of(
+                position(OptionType.PUT, -2, 1.50, 0.50, 100.0, 110.0, 20, 80, 45),
+                position(OptionType.CALL, -1, 2.00, 1.00, 120.0, 110.0, 30, 70, 45),
+                position(OptionType.PUT, 1, -0.40, 0.10, 90.0, 110.0, 10, 60, 45));
+
+        PortfolioFrame.Totals totals = PortfolioFrame.of(positions).aggregate();
+
+        assertEquals(1.50 * 2 + 2.00 - 0.40, totals.premium(), 1e-12);
+        assertEquals(1.50 * 2 - 0.40, totals.put(), 1e-12);
+        assertEquals(2.00, totals.call(), 1e-12);
+        assertEquals(0.60, totals.putMarketPrice(), 1e-12);
+        assertEquals(1.00, totals.callMarketPrice(), 1e-12);
+        assertEquals(200.0, totals.putObligationValue(), 1e-12);
+        assertEquals(220.0, totals.putObligationMarketValue(), 1e-12);
+        assertEquals(120.0, totals.callObligationValue(), 1e-12);
+        assertEquals(110.0, totals.callObligationMarketValue(), 1e-12);
+        // Bought positions (negative trade price) count with negative market price
+        assertEquals(0.50 * 2 + 1.00 - 0.10, totals.marketPrice(), 1e-12);
+        assertEquals(1.0 + 1.0 - 0.5, totals.unrealizedProfitOrLoss(), 1e-12);
+        assertEquals(TRADE_DATE.plusDays(3), totals.startDate());
+        assertEquals(TRADE_DATE.plusDays(45), totals.endDate());
+        assertEquals(OptionType.PUT, totals.lastType());
+    }
+
+    @Test
+    @DisplayName("aggregate: ROI and POP weighted by capital at risk and by time")
+    void testAggregate_WeightedMetrics() {
+        List<PositionDto> positions = List.of(
+                position(OptionType.PUT, -1, 1.0, 1.0, 100.0, 100.0, 10, 90, 45),
+                position(OptionType.PUT, -3, 1.0, 1.0, 100.0, 100.0, 50, 50, 180),
+                position(OptionType.PUT, -1, 1.0, 1.0, 100.0, 100.0, null, null, 45),
+                position(OptionType.PUT, -1, 1.0, 1.0, 100.0, 100.0, 99, 99, 0));
+
+        PortfolioFrame.Totals totals = PortfolioFrame.of(positions).aggregate();
+
+        // (10*100 + 50*300 + 99*100) / 500
+        assertEquals(51.8, totals.weightedRoi());
+        // (90*100 + 50*300 + 99*100) / 500
+        assertEquals(67.8, totals.weightedProbability());
+        // Time weights √(45/45)=1 and √(180/45)=2, expired position excluded: (10*100 + 50*600) / 700
+        assertEquals(MapperUtils.round2Digits(31000.0 / 700), totals.timeWeightedRoi());
+        assertEquals(MapperUtils.round2Digits((90 * 100 + 50 * 600) / 700.0), totals.timeWeightedProbability());
+    }
+
+    @Test
+    @DisplayName("aggregate: Empty portfolio returns zeros")
+    void testAggregate_Empty() {
+        PortfolioFrame.Totals totals = PortfolioFrame.of(List.of()).aggregate();
+
+        assertEquals(0.0, totals.premium());
+        assertEquals(0.0, totals.weightedRoi());
+        assertEquals(0.0, totals.timeWeightedProbability());
+        assertNull(totals.startDate());
+        assertNull(totals.endDate());
+        assertNull(totals.lastType());
+    }
+
+    @Test
+    @DisplayName("sums: Merged partial aggregates equal the aggregates of all positions")
+    void testSums_Merge() {
+        List<PositionDto> positions = List.of(
+                position(OptionType.PUT, -2, 1.50, 0.50, 100.0, 110.0, 20, 80, 45),
+                position(OptionType.CALL, -1, 2.00, 1.00, 120.0, 110.0, 30, 70, 10),
+                position(OptionType.PUT, -3, 1.00, 1.00, 100.0, 100.0, 50, 50, 180),
+                position(OptionType.CALL, 1, -0.40, 0.10, 90.0, 110.0, null, null, 45));
+
+        PortfolioFrame.Totals all = PortfolioFrame.of(positions).aggregate();
+        PortfolioFrame.Totals merged = PortfolioFrame.of(positions.subList(0, 1)).sums()
+                .add(PortfolioFrame.of(List.of()).sums())
+                .add(PortfolioFrame.of(positions.subList(1, 4)).sums())
+                .totals();
+
+        assertEquals(4, merged.positions());
+        assertEquals(100.0, merged.firstPositionValue());
+        assertEquals(all.premium(), merged.premium(), 1e-12);
+        assertEquals(all.putObligationValue(), merged.putObligationValue(), 1e-12);
+        assertEquals(all.callObligationMarketValue(), merged.callObligationMarketValue(), 1e-12);
+        assertEquals(all.marketPrice(), merged.marketPrice(), 1e-12);
+        assertEquals(all.startDate(), merged.startDate());
+        assertEquals(all.endDate(), merged.endDate());
+        assertEquals(OptionType.CALL, merged.lastType());
+        assertEquals(all.weightedRoi(), merged.weightedRoi());
+        assertEquals(all.timeWeightedProbability(), merged.timeWeightedProbability());
+    }
+}
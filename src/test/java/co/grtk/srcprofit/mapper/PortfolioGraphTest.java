@@ -0,0 +1,130 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.OptionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("PortfolioGraph Tests")
+class PortfolioGraphTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate WEEK = TODAY.plusDays(7);
+    private static final LocalDate MONTH = TODAY.plusDays(30);
+
+    private static PortfolioGraph.Position position(String code, String ticker, OptionType type, int quantity,
+                                                    double strike, double underlyingPrice, LocalDate expiration) {
+        PositionDto dto = new PositionDto();
+        dto.setCode(code);
+        dto.setTicker(ticker);
+        dto.setType(type);
+        dto.setQuantity(quantity);
+        dto.setTradeDate(TODAY.minusDays(10));
+        dto.setExpirationDate(expiration);
+        dto.setPositionValue(strike * 100);
+        dto.setTradePrice(150.0);
+        dto.setMarketPrice(80.0);
+        dto.setMarketValue(underlyingPrice * 100);
+        dto.setUnRealizedProfitOrLoss(70.0);
+        PositionMapper.calculateAndSetAnnualizedRoi(dto);
+        return new PortfolioGraph.Position(dto, 100.0);
+    }
+
+    private static List<PortfolioGraph.Position> book() {
+        return List.of(
+                position("SPY 1P", "SPY", OptionType.PUT, -1, 570.0, 600.0, WEEK),
+                position("SPY 2C", "SPY", OptionType.CALL, -1, 640.0, 600.0, MONTH),
+                position("AAPL 1P", "AAPL", OptionType.PUT, -2, 215.0, 230.0, WEEK),
+                position("QQQ 1P", "QQQ", OptionType.PUT, -1, 480.0, 510.0, MONTH));
+    }
+
+    private static PortfolioFrame.Totals aggregate(List<PositionDto> positions) {
+        return PortfolioFrame.of(positions).aggregate();
+    }
+
+    @Test
+    @DisplayName("reconcile: Portfolio and expiration buckets equal the aggregates of their positions")
+    void testReconcile_Aggregates() {
+        PortfolioGraph graph = new PortfolioGraph();
+        assertEquals(4, graph.reconcile(book()));
+
+        PortfolioGraph.Snapshot snapshot = graph.snapshot();
+        assertEquals(List.of("AAPL 1P", "QQQ 1P", "SPY 1P", "SPY 2C"),
+                snapshot.positions().stream().map(PositionDto::getCode).toList());
+        assertEquals(aggregate(snapshot.positions()).putObligationValue(), snapshot.portfolio().putObligationValue(), 1e-9);
+        assertEquals(aggregate(snapshot.positions()).weightedProbability(), snapshot.portfolio().weightedProbability());
+        assertEquals(List.of(WEEK, MONTH), List.copyOf(snapshot.expirations().keySet()));
+        assertEquals(2, snapshot.expirations().get(WEEK).positions());
+        assertEquals(570.0 * 100 + 215.0 * 100 * 2, snapshot.expirations().get(WEEK).putObligationValue(), 1e-9);
+        assertEquals(2, snapshot.byTicker().get("SPY").size());
+    }
+
+    @Test
+    @DisplayName("updatePrices: Only the positions of the moved ticker are revalued")
+    void testUpdatePrices_MovedTickerOnly() {
+        PortfolioGraph graph = new PortfolioGraph();
+        graph.reconcile(book());
+        PortfolioGraph.Snapshot before = graph.snapshot();
+        PositionDto aaplBefore = before.byTicker().get("AAPL").getFirst();
+        PositionDto spyBefore = before.byTicker().get("SPY").getFirst();
+
+        assertEquals(1, graph.updatePrices(Map.of("AAPL", 200.0, "MSFT", 400.0)));
+
+        PortfolioGraph.Snapshot after = graph.snapshot();
+        PositionDto aaplAfter = after.byTicker().get("AAPL").getFirst();
+        assertEquals(20000.0, aaplAfter.getMarketValue());
+        assertTrue(aaplAfter.getProbability() < aaplBefore.getProbability());
+        // The published position is replaced, not updated
+        assertNotSame(aaplBefore, aaplAfter);
+        assertEquals(23000.0, aaplBefore.getMarketValue());
+        assertSame(spyBefore, after.byTicker().get("SPY").getFirst());
+        // Month bucket is merged as it was, week bucket and portfolio moved
+        assertSame(before.expirations().get(MONTH), after.expirations().get(MONTH));
+        assertNotEquals(before.expirations().get(WEEK).putObligationMarketValue(),
+                after.expirations().get(WEEK).putObligationMarketValue());
+        assertEquals(aggregate(after.positions()).putObligationMarketValue(),
+                after.portfolio().putObligationMarketValue(), 1e-9);
+
+        // Unchanged price, nothing to publish
+        assertEquals(0, graph.updatePrices(Map.of("AAPL", 200.0)));
+        assertSame(after, graph.snapshot());
+    }
+
+    @Test
+    @DisplayName("reconcile: Added, changed and removed positions update their buckets")
+    void testReconcile_Changes() {
+        PortfolioGraph graph = new PortfolioGraph();
+        graph.reconcile(book());
+        assertEquals(0, graph.reconcile(book()));
+
+        List<PortfolioGraph.Position> changed = List.of(
+                position("SPY 1P", "SPY", OptionType.PUT, -3, 570.0, 600.0, WEEK),
+                position("SPY 2C", "SPY", OptionType.CALL, -1, 640.0, 600.0, MONTH),
+                position("IWM 1P", "IWM", OptionType.PUT, -1, 220.0, 230.0, TODAY.plusDays(14)));
+        assertEquals(4, graph.reconcile(changed));
+
+        PortfolioGraph.Snapshot snapshot = graph.snapshot();
+        assertEquals(3, snapshot.positions().size());
+        assertFalse(snapshot.byTicker().containsKey("AAPL"));
+        assertFalse(snapshot.byTicker().containsKey("QQQ"));
+        assertEquals(3, snapshot.expirations().size());
+        assertEquals(570.0 * 100 * 3, snapshot.expirations().get(WEEK).putObligationValue(), 1e-9);
+        assertEquals(aggregate(snapshot.positions()).premium(), snapshot.portfolio().premium(), 1e-9);
+
+        graph.reconcile(List.of());
+        assertTrue(graph.snapshot().positions().isEmpty());
+        assertTrue(graph.snapshot().expirations().isEmpty());
+        assertEquals(0, graph.snapshot().portfolio().positions());
+    }
+}
@@ -0,0 +1,145 @@
+package co.grtk.srcprofit.mapper;
+
+import co.grtk.srcprofit.config.ObjectMapperConfig;
+import co.grtk.srcprofit.dto.FlexImportHistoryDto;
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.AssetClass;
+import co.grtk.srcprofit.entity.FlexStatementResponseEntity;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OptionEntity;
+import co.grtk.srcprofit.entity.OptionStatus;
+import co.grtk.srcprofit.entity.OptionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The hand-written mappers replace objectMapper.convertValue, every test compares
+ * their result with the conversion of the application ObjectMapper.
+ */
+@DisplayName("PositionMapper entity/DTO mapping Tests")
+class PositionMapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().getObjectMapper();
+
+    @Test
+    @DisplayName("toPositionDto: copies every field like convertValue")
+    void testToPositionDto_AllFields() {
+        OptionEntity entity = optionEntity();
+
+        PositionDto dto = PositionMapper.toPositionDto(entity);
+
+        assertSameJson(objectMapper.convertValue(entity, PositionDto.class), dto);
+        assertEquals(3, dto.getQuantity());
+        assertEquals("red", dto.getColor());
+        assertEquals("AAPL", dto.getTicker());
+    }
+
+    @Test
+    @DisplayName("toPositionDto: null entity fields keep the DTO defaults")
+    void testToPositionDto_KeepsDefaults() {
+        OptionEntity entity = new OptionEntity();
+        entity.setId(7L);
+
+        PositionDto dto = PositionMapper.toPositionDto(entity);
+
+        assertSameJson(objectMapper.convertValue(entity, PositionDto.class), dto);
+        assertEquals("black", dto.getColor());
+        assertEquals(1, dto.getQuantity());
+        assertEquals(AssetClass.OPT, dto.getAssetClass());
+        assertEquals(Boolean.FALSE, dto.getVirtual());
+    }
+
+    @Test
+    @DisplayName("toOptionEntity: copies every field like convertValue")
+    void testToOptionEntity_AllFields() {
+        PositionDto dto = PositionMapper.toPositionDto(optionEntity());
+        dto.setParentId(99L);
+        dto.setBreakEven(180.5);
+
+        OptionEntity entity = PositionMapper.toOptionEntity(dto);
+
+        assertSameJson(objectMapper.convertValue(dto, OptionEntity.class), entity);
+        assertNull(entity.getInstrument());
+        assertNull(entity.getAccount());
+    }
+
+    @Test
+    @DisplayName("toOptionEntity: new position form without id")
+    void testToOptionEntity_NewPosition() {
+        PositionDto dto = new PositionDto();
+        dto.setTicker("MSFT");
+        dto.setTradeDate(LocalDate.of(2025, 11, 3));
+
+        OptionEntity entity = PositionMapper.toOptionEntity(dto);
+
+        assertSameJson(objectMapper.convertValue(dto, OptionEntity.class), entity);
+        assertNull(entity.getId());
+        assertEquals(1, entity.getQuantity());
+    }
+
+    @Test
+    @DisplayName("FlexImportHistoryMapper.toDto: copies the history fields like convertValue")
+    void testFlexImportHistoryToDto() {
+        FlexStatementResponseEntity entity = new FlexStatementResponseEntity();
+        entity.setId(5L);
+        entity.setReferenceCode("1234567890");
+        entity.setReportType("TRADES");
+        entity.setStatus("Success");
+        entity.setUrl("https://example.com/flex");
+        entity.setUpdatedAt(LocalDateTime.of(2025, 11, 3, 10, 15));
+        entity.setCsvRecordsCount(120);
+        entity.setCsvFailedRecordsCount(2);
+        entity.setCsvSkippedRecordsCount(null);
+        entity.setDataFixRecordsCount(4);
+
+        FlexImportHistoryDto dto = FlexImportHistoryMapper.toDto(entity);
+
+        assertSameJson(objectMapper.convertValue(entity, FlexImportHistoryDto.class), dto);
+        assertEquals(0, dto.getCsvSkippedRecordsCountSafe());
+    }
+
+    private static OptionEntity optionEntity() {
+        InstrumentEntity instrument = new InstrumentEntity();
+        instrument.setTicker("AAPL");
+        instrument.setEarningDate(LocalDate.of(2025, 12, 1));
+
+        OptionEntity entity = new OptionEntity();
+        entity.setId(42L);
+        entity.setInstrument(instrument);
+        entity.setAccount("U1234567");
+        entity.setConid(123456L);
+        entity.setCode("AAPL  251219P00180000");
+        entity.setTicker("AAPL");
+        entity.setTradeDate(LocalDate.of(2025, 11, 3));
+        entity.setExpirationDate(LocalDate.of(2025, 12, 19));
+        entity.setNote("roll");
+        entity.setColor("red");
+        entity.setQuantity(3);
+        entity.setFee(1.05);
+        entity.setAnnualizedRoiPercent(24);
+        entity.setProbability(81);
+        entity.setDaysBetween(47);
+        entity.setDaysLeft(30);
+        entity.setAssetClass(AssetClass.OPT);
+        entity.setType(OptionType.PUT);
+        entity.setStatus(OptionStatus.OPEN);
+        entity.setTradePrice(2.35);
+        entity.setRealizedProfitOrLoss(-12.5);
+        entity.setPositionValue(180.0);
+        entity.setMarketValue(182.4);
+        entity.setMarketPrice(1.1);
+        return entity;
+    }
+
+    private void assertSameJson(Object expected, Object actual) {
+        assertEquals(objectMapper.convertValue(expected, Map.class), objectMapper.convertValue(actual, Map.class));
+    }
+}
@@ -0,0 +1,78 @@
+package co.grtk.srcprofit.mapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ScenarioMatrix Tests")
+class ScenarioMatrixTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 12, 1);
+    private static final ScenarioMatrix.Grid GRID = new ScenarioMatrix.Grid(List.of(-0.2, 0.0, 0.2), List.of(0, 10, 40));
+
+    @Test
+    @DisplayName("evaluate: Short put matches BlackScholes before expiration and intrinsic value after")
+    void testEvaluate_ShortPut() {
+        // Short 1 put, strike 95, expires in 30 days
+        ScenarioMatrix.Contract put = new ScenarioMatrix.Contract(false, 95.0, -100.0, 1.5, TODAY.plusDays(30));
+        ScenarioMatrix.Column column = ScenarioMatrix.evaluate(inputs(List.of(put)));
+
+        BlackScholes.Chain chain = new BlackScholes.Chain(1);
+        chain.set(0, false, 100.0, 95.0, 21 / 365.0, 0.25);
+        BlackScholes.price(chain, 0.04);
+        assertEquals(-100.0 * (chain.price[0] - 1.5), column.pnl()[GRID.cell(1, 1)], 1e-9);
+
+        // Day 40: expired, -20% leaves the put 15 in the money
+        assertEquals(-100.0 * (15.0 - 1.5), column.pnl()[GRID.cell(0, 2)], 1e-9);
+        assertEquals(100.0 * 1.5, column.pnl()[GRID.cell(2, 2)], 1e-9);
+    }
+
+    @Test
+    @DisplayName("evaluate: Obligations count the short contracts in the money only")
+    void testEvaluate_Obligations() {
+        ScenarioMatrix.Contract shortPut = new ScenarioMatrix.Contract(false, 95.0, -200.0, 1.5, TODAY.plusDays(30));
+        ScenarioMatrix.Contract shortCall = new ScenarioMatrix.Contract(true, 110.0, -100.0, 1.0, TODAY.plusDays(30));
+        ScenarioMatrix.Contract longPut = new ScenarioMatrix.Contract(false, 90.0, 100.0, 0.8, TODAY.plusDays(30));
+        ScenarioMatrix.Column column = ScenarioMatrix.evaluate(inputs(List.of(shortPut, shortCall, longPut)));
+
+        for (int d = 0; d < GRID.days().size(); d++) {
+            // -20%: short put assigned at 95
+            assertEquals(95.0 * 200, column.putObligation()[GRID.cell(0, d)], 1e-9);
+            assertEquals(0.0, column.callObligation()[GRID.cell(0, d)], 1e-9);
+            // Unchanged: everything out of the money
+            assertEquals(0.0, column.putObligation()[GRID.cell(1, d)], 1e-9);
+            assertEquals(0.0, column.callObligation()[GRID.cell(1, d)], 1e-9);
+            // +20%: 100 shares at 120 to deliver
+            assertEquals(120.0 * 100, column.callObligation()[GRID.cell(2, d)], 1e-9);
+            assertTrue(column.margin()[GRID.cell(0, d)] > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("evaluate: Margin of an expired out of the money put is the 10% strike minimum")
+    void testEvaluate_MarginMinimum() {
+        ScenarioMatrix.Contract put = new ScenarioMatrix.Contract(false, 50.0, -100.0, 0.1, TODAY.plusDays(5));
+        ScenarioMatrix.Column column = ScenarioMatrix.evaluate(inputs(List.of(put)));
+
+        // Day 40, +20%: value 0, 20% of 120 - 70 out of the money < 10% of 50
+        assertEquals(5.0 * 100, column.margin()[GRID.cell(2, 2)], 1e-9);
+    }
+
+    @Test
+    @DisplayName("Grid: Invalid moves and days are rejected")
+    void testGrid_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioMatrix.Grid(List.of(), List.of(0)));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioMatrix.Grid(List.of(-1.0), List.of(0)));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioMatrix.Grid(List.of(0.1), List.of(-1)));
+    }
+
+    private static ScenarioMatrix.Inputs inputs(List<ScenarioMatrix.Contract> contracts) {
+        return new ScenarioMatrix.Inputs(100.0, 0.25, 0.04, TODAY, contracts, GRID);
+    }
+}
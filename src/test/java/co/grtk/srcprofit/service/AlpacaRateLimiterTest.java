@@ -0,0 +1,65 @@
+package co.grtk.srcprofit.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlpacaRateLimiter AIMD concurrency control.
+ */
+class AlpacaRateLimiterTest {
+
+    @Test
+    void testThrottledHalvesConcurrencyLimit() throws InterruptedException {
+        AlpacaRateLimiter limiter = new AlpacaRateLimiter(1000, 10, 8);
+
+        limiter.acquire();
+        limiter.onThrottled(0);
+        assertEquals(4, limiter.getConcurrencyLimit());
+
+        limiter.acquire();
+        limiter.onThrottled(0);
+        limiter.acquire();
+        limiter.onThrottled(0);
+        limiter.acquire();
+        limiter.onThrottled(0);
+        assertEquals(1, limiter.getConcurrencyLimit(), "Window never drops below one request");
+    }
+
+    @Test
+    void testSuccessGrowsConcurrencyLimitAdditively() throws InterruptedException {
+        AlpacaRateLimiter limiter = new AlpacaRateLimiter(1000, 10, 8);
+        limiter.acquire();
+        limiter.onThrottled(0);
+        limiter.acquire();
+        limiter.onThrottled(0);
+        assertEquals(2, limiter.getConcurrencyLimit());
+
+        // Every success adds 1/window, roughly one slot per window of successes
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        assertEquals(3, limiter.getConcurrencyLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        assertEquals(8, limiter.getConcurrencyLimit(), "Window is capped at max concurrency");
+    }
+
+    @Test
+    void testThrottledPausesCallers() throws InterruptedException {
+        AlpacaRateLimiter limiter = new AlpacaRateLimiter(1000, 10, 8);
+        limiter.acquire();
+        limiter.onThrottled(200);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        limiter.onSuccess();
+
+        assertTrue(waitedMillis >= 150, "acquire() should wait for the Retry-After pause, waited " + waitedMillis + "ms");
+    }
+}
@@ -271,4 +271,27 @@ class AlpacaServiceTest {
         verify(instrumentRepository).findStaleAlpacaAssets(any(Instant.class));
         verify(instrumentRepository, times(2)).save(any(InstrumentEntity.class));
     }
+
+    @Test
+    void testChunkSymbolsSplitsDeduplicatesAndKeepsOrder() {
+        String symbolsCsv = "AAPL, MSFT,,AAPL,GOOGL,NVDA,TSLA";
+
+        List<String> chunks = AlpacaService.chunkSymbols(symbolsCsv, 2);
+
+        assertEquals(List.of("AAPL,MSFT", "GOOGL,NVDA", "TSLA"), chunks);
+        assertEquals(List.of(), AlpacaService.chunkSymbols(" ", 2));
+        assertEquals(List.of(), AlpacaService.chunkSymbols(null, 2));
+    }
+
+    @Test
+    void testChunkSymbolsRespectsApiLimit() {
+        String symbolsCsv = String.join(",", java.util.stream.IntStream.range(0, 250)
+                .mapToObj(i -> "SYM" + i).toList());
+
+        List<String> chunks = AlpacaService.chunkSymbols(symbolsCsv, AlpacaService.MAX_SYMBOLS_PER_REQUEST);
+
+        assertEquals(3, chunks.size());
+        assertEquals(AlpacaService.MAX_SYMBOLS_PER_REQUEST, chunks.getFirst().split(",").length);
+        assertEquals(50, chunks.getLast().split(",").length);
+    }
 }
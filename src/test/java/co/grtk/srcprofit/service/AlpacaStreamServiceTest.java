@@ -0,0 +1,115 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.config.ObjectMapperConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams from the local AlpacaStreamStandIn server.
+ */
+class AlpacaStreamServiceTest {
+
+    private AlpacaStreamStandIn standIn;
+    private SimpleMeterRegistry meterRegistry;
+    private AlpacaStreamService alpacaStreamService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standIn = new AlpacaStreamStandIn(0);
+        meterRegistry = new SimpleMeterRegistry();
+        alpacaStreamService = new AlpacaStreamService(new ObjectMapperConfig().getObjectMapper(),
+                new MockEnvironment()
+                        .withProperty("ALPACA_STREAM_ENABLED", "true")
+                        .withProperty("ALPACA_STREAM_URL", standIn.getUri().toString())
+                        .withProperty("ALPACA_API_KEY", "key")
+                        .withProperty("ALPACA_API_SECRET_KEY", "secret"),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        alpacaStreamService.shutdown();
+        standIn.close();
+    }
+
+    @Test
+    void subscribe_shouldStreamConflatedTradesOfTheHeldTickers() {
+        alpacaStreamService.subscribe(Set.of("SPY", "QQQ"));
+        await(() -> alpacaStreamService.getStreamedTickers().equals(Set.of("SPY", "QQQ")));
+
+        standIn.publishTrade("SPY", 601.25);
+        standIn.publishTrade("SPY", 601.50);
+        standIn.publishTrade("QQQ", 520.10);
+        await(() -> meterRegistry.counter("srcprofit.alpaca.stream.trades").count() == 3);
+
+        Map<String, QuoteBook.Trade> trades = alpacaStreamService.drain();
+        assertThat(trades).containsOnlyKeys("SPY", "QQQ");
+        assertThat(trades.get("SPY").price()).isEqualTo(601.50);
+        assertThat(alpacaStreamService.drain()).isEmpty();
+    }
+
+    @Test
+    void subscribe_shouldFollowTheHeldTickers() {
+        alpacaStreamService.subscribe(Set.of("SPY", "QQQ"));
+        await(() -> alpacaStreamService.getStreamedTickers().size() == 2);
+
+        alpacaStreamService.subscribe(Set.of("SPY", "IWM"));
+
+        await(() -> alpacaStreamService.getStreamedTickers().equals(Set.of("SPY", "IWM")));
+        assertThat(standIn.getSubscribedTickers()).containsExactlyInAnyOrder("SPY", "IWM");
+    }
+
+    @Test
+    void subscribe_shouldReconnectAfterTheConnectionDropped() {
+        alpacaStreamService.subscribe(Set.of("SPY"));
+        await(() -> alpacaStreamService.getStreamedTickers().equals(Set.of("SPY")));
+        assertThat(standIn.getAcceptedConnections()).isEqualTo(1);
+
+        standIn.dropConnections();
+        await(() -> standIn.getClosedConnections() == 1);
+        await(() -> !alpacaStreamService.isStreaming());
+        assertThat(alpacaStreamService.getStreamedTickers()).isEmpty();
+
+        // The next poll reconnects on a new connection
+        alpacaStreamService.subscribe(Set.of("SPY"));
+        await(() -> alpacaStreamService.getStreamedTickers().equals(Set.of("SPY")));
+        assertThat(standIn.getAcceptedConnections()).isEqualTo(2);
+        assertThat(standIn.getClosedConnections()).isEqualTo(1);
+        assertThat(standIn.getSubscribedTickers()).containsExactly("SPY");
+    }
+
+    @Test
+    void subscribe_shouldNotConnectWhenStreamingIsDisabled() {
+        AlpacaStreamService disabled = new AlpacaStreamService(new ObjectMapperConfig().getObjectMapper(),
+                new MockEnvironment().withProperty("ALPACA_STREAM_URL", standIn.getUri().toString()),
+                meterRegistry);
+
+        disabled.subscribe(Set.of("SPY"));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.isStreaming()).isFalse();
+        assertThat(standIn.getSubscribedTickers()).isEmpty();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition within 5 seconds").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
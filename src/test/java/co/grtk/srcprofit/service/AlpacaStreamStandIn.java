@@ -0,0 +1,287 @@
+package co.grtk.srcprofit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in of the Alpaca market data websocket for tests and development.
+ *
+ * Speaks the text (JSON) protocol of the stock stream: sends "connected" on open, accepts any
+ * auth message, confirms subscribe/unsubscribe of trades and sends the trades published with
+ * {@link #publishTrade(String, double)} to the subscribed connections.
+ *
+ * Development: run main (port 8765 by default, optional TICKER=price start prices), then start
+ * the application with ALPACA_STREAM_ENABLED=true and ALPACA_STREAM_URL=ws://localhost:8765/v2/iex.
+ * Every subscribed ticker trades on a random walk once a second.
+ */
+public class AlpacaStreamStandIn implements Closeable {
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerSocket serverSocket;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    private final AtomicInteger closedConnections = new AtomicInteger();
+
+    public AlpacaStreamStandIn(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("alpaca-stream-stand-in").start(this::accept);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 8765;
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        for (String arg : args) {
+            if (arg.contains("="))
+                prices.put(arg.substring(0, arg.indexOf('=')), Double.parseDouble(arg.substring(arg.indexOf('=') + 1)));
+            else
+                port = Integer.parseInt(arg);
+        }
+        try (AlpacaStreamStandIn standIn = new AlpacaStreamStandIn(port)) {
+            System.out.println("Alpaca stream stand-in listening on " + standIn.getUri());
+            while (true) {
+                Thread.sleep(1000);
+                for (String ticker : standIn.getSubscribedTickers()) {
+                    double price = prices.getOrDefault(ticker, 100.0) * (1 + ThreadLocalRandom.current().nextGaussian() * 0.001);
+                    prices.put(ticker, Math.round(price * 100) / 100.0);
+                    standIn.publishTrade(ticker, prices.get(ticker));
+                }
+            }
+        }
+    }
+
+    public URI getUri() {
+        return URI.create("ws://localhost:" + serverSocket.getLocalPort() + "/v2/iex");
+    }
+
+    /**
+     * @return tickers subscribed by any connection
+     */
+    public Set<String> getSubscribedTickers() {
+        Set<String> tickers = ConcurrentHashMap.newKeySet();
+        connections.forEach(connection -> tickers.addAll(connection.trades));
+        return tickers;
+    }
+
+    /**
+     * @return number of connections accepted since the start
+     */
+    public int getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    /**
+     * @return number of connections whose close the stand-in has seen
+     */
+    public int getClosedConnections() {
+        return closedConnections.get();
+    }
+
+    /**
+     * Sends a trade to the connections subscribed to the ticker.
+     */
+    public void publishTrade(String ticker, double price) {
+        Map<String, Object> trade = new HashMap<>();
+        trade.put("T", "t");
+        trade.put("S", ticker);
+        trade.put("p", price);
+        trade.put("s", 100);
+        trade.put("t", OffsetDateTime.now(ZoneOffset.UTC).toString());
+        for (Connection connection : connections) {
+            if (connection.trades.contains(ticker))
+                connection.send(List.of(trade));
+        }
+    }
+
+    /**
+     * Closes every connection without a close frame, like a dropped network connection.
+     */
+    public void dropConnections() {
+        connections.forEach(Connection::close);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                acceptedConnections.incrementAndGet();
+                Thread.ofVirtual().start(connection::run);
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final Set<String> trades = ConcurrentHashMap.newKeySet();
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void run() {
+            try (socket) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                handshake(in, socket.getOutputStream());
+                send(List.of(Map.of("T", "success", "msg", "connected")));
+                while (true) {
+                    int first = in.readUnsignedByte();
+                    int second = in.readUnsignedByte();
+                    long length = second & 0x7F;
+                    if (length == 126)
+                        length = in.readUnsignedShort();
+                    else if (length == 127)
+                        length = in.readLong();
+                    byte[] mask = new byte[4];
+                    if ((second & 0x80) != 0)
+                        in.readFully(mask);
+                    byte[] payload = new byte[(int) length];
+                    in.readFully(payload);
+                    for (int i = 0; i < payload.length; i++)
+                        payload[i] ^= mask[i % 4];
+                    switch (first & 0x0F) {
+                        case 0x1 -> onText(new String(payload, StandardCharsets.UTF_8));
+                        case 0x8 -> {
+                            write(0x88, payload);
+                            return;
+                        }
+                        case 0x9 -> write(0x8A, payload);
+                        default -> {
+                            // Pong and continuation frames are not used by the client
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } finally {
+                connections.remove(this);
+                closedConnections.incrementAndGet();
+            }
+        }
+
+        private void onText(String json) throws IOException {
+            JsonNode message = objectMapper.readTree(json);
+            switch (message.path("action").asText()) {
+                case "auth" -> send(List.of(Map.of("T", "success", "msg", "authenticated")));
+                case "subscribe" -> {
+                    message.path("trades").forEach(ticker -> trades.add(ticker.asText()));
+                    sendSubscription();
+                }
+                case "unsubscribe" -> {
+                    message.path("trades").forEach(ticker -> trades.remove(ticker.asText()));
+                    sendSubscription();
+                }
+                default -> send(List.of(Map.of("T", "error", "code", 400, "msg", "invalid syntax")));
+            }
+        }
+
+        private void sendSubscription() {
+            send(List.of(Map.of("T", "subscription", "trades", List.copyOf(trades), "quotes", List.of(),
+                    "bars", List.of())));
+        }
+
+        private void handshake(InputStream in, OutputStream out) throws IOException {
+            String key = null;
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    String header = line.toString().trim();
+                    if (header.isEmpty())
+                        break;
+                    if (header.toLowerCase().startsWith("sec-websocket-key:"))
+                        key = header.substring(header.indexOf(':') + 1).trim();
+                    line.setLength(0);
+                } else {
+                    line.append((char) c);
+                }
+            }
+            if (key == null)
+                throw new IOException("Not a websocket handshake");
+            String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n";
+            out.write(response.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private void send(Object message) {
+            try {
+                write(0x81, objectMapper.writeValueAsBytes(message));
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private synchronized void write(int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+            frame.write(opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else if (payload.length < 65536) {
+                frame.write(126);
+                frame.write(payload.length >>> 8);
+                frame.write(payload.length);
+            } else {
+                frame.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8)
+                    frame.write((int) ((long) payload.length >>> shift));
+            }
+            frame.write(payload);
+            OutputStream out = socket.getOutputStream();
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private static String accept(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
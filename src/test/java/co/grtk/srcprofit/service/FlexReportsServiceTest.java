@@ -3,17 +3,26 @@ package co.grtk.srcprofit.service;
 import co.grtk.srcprofit.dto.CsvImportResult;
 import co.grtk.srcprofit.entity.FlexStatementResponseEntity;
 import co.grtk.srcprofit.repository.FlexStatementResponseRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.env.Environment;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -50,9 +59,11 @@ class FlexReportsServiceTest {
     private OpenPositionService openPositionService;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private OpenPositionsReadModel openPositionsReadModel;
+
+    @Mock
+    private PortfolioAggregationService portfolioAggregationService;
 
-    @InjectMocks
     private FlexReportsService flexReportsService;
 
     private FlexStatementResponseEntity testEntity;
@@ -60,6 +71,12 @@ class FlexReportsServiceTest {
 
     @BeforeEach
     void setUp() {
+        // No waiting between the statement polls
+        when(environment.getProperty("IBKR_FLEX_POLL_DELAY_MS", Long.class, 2000L)).thenReturn(0L);
+        flexReportsService = new FlexReportsService(ibkrService, optionService, netAssetValueService,
+                openPositionService, openPositionsReadModel, portfolioAggregationService, environment,
+                flexStatementResponseRepository);
+
         // Create a test entity that will be returned by repository
         testEntity = new FlexStatementResponseEntity();
         testEntity.setId(1L);
@@ -90,9 +107,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-001"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-001")))
-                .thenReturn("CSV,CONTENT,HERE");
-        when(optionService.saveCSV("CSV,CONTENT,HERE")).thenReturn(testTradesResult);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-001"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(testTradesResult);
         when(optionService.dataFix()).thenReturn(3);
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-001")).thenReturn(testEntity);
 
@@ -127,9 +144,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-002"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-002")))
-                .thenReturn("CSV,CONTENT,HERE");
-        when(optionService.saveCSV("CSV,CONTENT,HERE")).thenReturn(perfectResult);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-002"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(perfectResult);
         when(optionService.dataFix()).thenReturn(0);
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-002")).thenReturn(testEntity);
 
@@ -164,9 +181,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_NET_ASSET_VALUE_ID")).thenReturn("TEST_NAV_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_NAV_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-NAV-001"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-NAV-001")))
-                .thenReturn("CSV,NAV,CONTENT");
-        when(netAssetValueService.saveCSV("CSV,NAV,CONTENT")).thenReturn(30);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-NAV-001"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,NAV,CONTENT"));
+        when(netAssetValueService.saveCSV(any(Reader.class))).thenReturn(30);
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-NAV-001")).thenReturn(navEntity);
 
         // Execute
@@ -206,9 +223,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-003"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-003")))
-                .thenReturn("CSV,CONTENT,HERE");
-        when(optionService.saveCSV("CSV,CONTENT,HERE")).thenReturn(poorResult);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-003"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(poorResult);
         when(optionService.dataFix()).thenReturn(0);
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-003")).thenReturn(testEntity);
 
@@ -236,9 +253,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-004"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-004")))
-                .thenReturn("CSV,CONTENT,HERE");
-        when(optionService.saveCSV("CSV,CONTENT,HERE")).thenReturn(testTradesResult);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-004"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(testTradesResult);
         when(optionService.dataFix()).thenReturn(3);
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-004")).thenReturn(null);
 
@@ -266,9 +283,9 @@ class FlexReportsServiceTest {
         when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
         when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
                 .thenReturn(createMockFlexResponse("TEST-REF-005"));
-        when(ibkrService.getFlexWebServiceGetStatement(anyString(), eq("TEST-REF-005")))
-                .thenReturn("CSV,CONTENT,HERE");
-        when(optionService.saveCSV("CSV,CONTENT,HERE")).thenReturn(testTradesResult);
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-005"), any(Path.class)))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(testTradesResult);
         when(optionService.dataFix()).thenReturn(7); // 7 records fixed
         when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-005")).thenReturn(testEntity);
 
@@ -286,6 +303,79 @@ class FlexReportsServiceTest {
         assertThat(lastSaved.getDataFixRecordsCount()).isEqualTo(7);
     }
 
+    /**
+     * Test 10: importFlexTrades polls again while the statement is being generated
+     * Verifies that ErrorCode 1019 is retried and the import ends in IMPORTED state
+     */
+    @Test
+    @DisplayName("importFlexTrades retries GetStatement while generation is in progress")
+    void testImportFlexTradesRetriesWhileStatementInProgress() {
+        String inProgress = "<FlexStatementResponse timestamp='16 November, 2025 10:00 AM EST'>" +
+                "<Status>Warn</Status><ErrorCode>1019</ErrorCode>" +
+                "<ErrorMessage>Statement generation in progress. Please try again shortly.</ErrorMessage>" +
+                "</FlexStatementResponse>";
+        when(environment.getProperty("IBKR_FLEX_TRADES_ID")).thenReturn("TEST_QUERY_ID");
+        when(ibkrService.getFlexWebServiceSendRequest("TEST_QUERY_ID"))
+                .thenReturn(createMockFlexResponse("TEST-REF-006"));
+        when(ibkrService.downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-006"), any(Path.class)))
+                .thenAnswer(writeStatement(inProgress))
+                .thenAnswer(writeStatement("CSV,CONTENT,HERE"));
+        when(optionService.saveCSV(any(Reader.class))).thenReturn(testTradesResult);
+        when(optionService.dataFix()).thenReturn(3);
+        when(flexStatementResponseRepository.findByReferenceCode("TEST-REF-006")).thenReturn(testEntity);
+
+        String result = flexReportsService.importFlexTrades();
+
+        assertThat(result).isEqualTo("90/3/5");
+        verify(ibkrService, times(2)).downloadFlexWebServiceStatement(anyString(), eq("TEST-REF-006"), any(Path.class));
+        assertThat(testEntity.getPollAttempts()).isEqualTo(2);
+        assertThat(testEntity.getImportState()).isEqualTo(FlexReportsService.STATE_IMPORTED);
+    }
+
+    /**
+     * Test 11: GetStatement error detection
+     * Verifies that CSV reports are accepted and FlexStatementResponse errors are recognized
+     */
+    @Test
+    @DisplayName("getStatementErrorCode distinguishes reports from error responses")
+    void testGetStatementErrorCode() {
+        assertThat(FlexReportsService.getStatementErrorCode("\"ClientAccountID\",\"Symbol\"")).isNull();
+        assertThat(FlexReportsService.getStatementErrorCode(
+                "<FlexStatementResponse><Status>Fail</Status><ErrorCode>1012</ErrorCode></FlexStatementResponse>"))
+                .isEqualTo("1012");
+        assertThat(FlexReportsService.getStatementErrorCode("<FlexStatementResponse><Status>Fail</Status></FlexStatementResponse>"))
+                .isEqualTo("UNKNOWN");
+        assertThat(FlexReportsService.getStatementErrorCode(null)).isEqualTo("EMPTY");
+    }
+
+    /**
+     * Test 12: Downloaded statements are archived with gzip and parsed back through a streaming reader
+     */
+    @Test
+    @DisplayName("openStatement streams the gzip archive content")
+    void testOpenStatementStreamsGzipArchive(@TempDir Path tempDir) throws Exception {
+        Path archive = tempDir.resolve("FLEX_TRADES_TEST.csv.gz");
+        gzip(archive, "\"ClientAccountID\",\"Symbol\"\n\"U1\",\"AAPL\"\n");
+
+        try (Reader reader = FlexReportsService.openStatement(archive.toFile())) {
+            assertThat(new BufferedReader(reader).lines().toList())
+                    .containsExactly("\"ClientAccountID\",\"Symbol\"", "\"U1\",\"AAPL\"");
+        }
+    }
+
+    // Writes the given statement as a gzip archive to the target path argument of downloadFlexWebServiceStatement
+    private static Answer<Long> writeStatement(String content) {
+        return invocation -> gzip(invocation.getArgument(2), content);
+    }
+
+    private static long gzip(Path target, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            out.write(bytes);
+        }
+        return bytes.length;
+    }
+
     // Helper method to create mock FlexStatementResponse
     private co.grtk.srcprofit.dto.FlexStatementResponse createMockFlexResponse(String referenceCode) {
         co.grtk.srcprofit.dto.FlexStatementResponse response = new co.grtk.srcprofit.dto.FlexStatementResponse();
@@ -0,0 +1,147 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.AlpacaMarketDataDto;
+import co.grtk.srcprofit.dto.AlpacaSingleAssetDto;
+import co.grtk.srcprofit.dto.AlpacaTradeDto;
+import co.grtk.srcprofit.dto.IbkrMarketDataDto;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.repository.InstrumentJdbcRepository;
+import co.grtk.srcprofit.repository.InstrumentJdbcRepository.MarketDataUpdate;
+import co.grtk.srcprofit.repository.InstrumentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentServiceTest {
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private InstrumentJdbcRepository instrumentJdbcRepository;
+
+    private InstrumentService instrumentService;
+
+    @BeforeEach
+    void setUp() {
+        instrumentService = new InstrumentService(instrumentRepository, instrumentJdbcRepository, new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveAlpacaQuotes_shouldInsertNewAndBatchUpdateOnlyChangedPrices() {
+        InstrumentEntity aapl = instrument(1L, 265L, "AAPL", 100.0);
+        InstrumentEntity msft = instrument(2L, 272093L, "MSFT", 200.0);
+        when(instrumentRepository.findByTickers(anyList())).thenReturn(List.of(aapl, msft));
+
+        Map<String, AlpacaSingleAssetDto> quotes = new LinkedHashMap<>();
+        quotes.put("AAPL", quote(100.0));   // unchanged
+        quotes.put("MSFT", quote(210.0));   // changed
+        quotes.put("NVDA", quote(180.0));   // new instrument
+        AlpacaMarketDataDto marketData = new AlpacaMarketDataDto();
+        marketData.setQuotes(quotes);
+
+        instrumentService.saveAlpacaQuotes(marketData);
+
+        ArgumentCaptor<List<InstrumentEntity>> newCaptor = ArgumentCaptor.forClass(List.class);
+        verify(instrumentRepository).saveAll(newCaptor.capture());
+        assertThat(newCaptor.getValue()).extracting(InstrumentEntity::getTicker).containsExactly("NVDA");
+
+        ArgumentCaptor<List<MarketDataUpdate>> updateCaptor = ArgumentCaptor.forClass(List.class);
+        verify(instrumentJdbcRepository).updateMarketData(updateCaptor.capture());
+        assertThat(updateCaptor.getValue()).extracting(MarketDataUpdate::id).containsExactly(2L);
+        assertThat(updateCaptor.getValue().getFirst().price()).isEqualTo(210.0);
+        verify(instrumentRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveIbkrMarketData_shouldJoinOnConidAndSkipUnchangedInstruments() {
+        InstrumentEntity aapl = instrument(1L, 265L, "AAPL", 100.0);
+        aapl.setName("APPLE INC");
+        InstrumentEntity msft = instrument(2L, 272093L, "MSFT", 200.0);
+        msft.setName("MICROSOFT CORP");
+        InstrumentEntity unquoted = instrument(3L, 4815747L, "NVDA", 180.0);
+        when(instrumentRepository.findAllInstrument()).thenReturn(List.of(aapl, msft, unquoted));
+
+        IbkrMarketDataDto aaplData = ibkrMarketData(265L, "APPLE INC", "100.0");
+        IbkrMarketDataDto msftData = ibkrMarketData(272093L, "MICROSOFT CORP", "205.5");
+
+        instrumentService.saveIbkrMarketData(List.of(msftData, aaplData));
+
+        ArgumentCaptor<List<MarketDataUpdate>> updateCaptor = ArgumentCaptor.forClass(List.class);
+        verify(instrumentJdbcRepository).updateMarketData(updateCaptor.capture());
+        assertThat(updateCaptor.getValue()).hasSize(1);
+        assertThat(updateCaptor.getValue().getFirst().id()).isEqualTo(2L);
+        assertThat(updateCaptor.getValue().getFirst().price()).isEqualTo(205.5);
+        // Managed entities are not touched, the batch is the only write
+        assertThat(msft.getPrice()).isEqualTo(200.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveStreamedTrades_shouldKeepChangeAgainstPreviousCloseAndSkipOlderTrades() {
+        InstrumentEntity spy = instrument(1L, 756733L, "SPY", 600.0);
+        spy.setChange(5.0);           // previous close 595
+        spy.setChangePercent(0.84);
+        InstrumentEntity qqq = instrument(2L, 320227571L, "QQQ", 520.0);
+        when(instrumentRepository.findByTickers(anyList())).thenReturn(List.of(spy, qqq));
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        Map<String, Double> moved = instrumentService.saveStreamedTrades(Map.of(
+                "SPY", new QuoteBook.Trade(601.0, now),
+                "QQQ", new QuoteBook.Trade(530.0, OffsetDateTime.of(2024, 12, 31, 15, 0, 0, 0, ZoneOffset.UTC))));
+
+        assertThat(moved).containsExactly(Map.entry("SPY", 601.0));
+        ArgumentCaptor<List<MarketDataUpdate>> updateCaptor = ArgumentCaptor.forClass(List.class);
+        verify(instrumentJdbcRepository).updateMarketData(updateCaptor.capture());
+        assertThat(updateCaptor.getValue()).hasSize(1);
+        MarketDataUpdate update = updateCaptor.getValue().getFirst();
+        assertThat(update.id()).isEqualTo(1L);
+        assertThat(update.price()).isEqualTo(601.0);
+        assertThat(update.change()).isEqualTo(6.0);
+        assertThat(update.changePercent()).isEqualTo(1.01);
+    }
+
+    private static InstrumentEntity instrument(Long id, Long conid, String ticker, Double price) {
+        InstrumentEntity instrument = new InstrumentEntity();
+        instrument.setId(id);
+        instrument.setConid(conid);
+        instrument.setTicker(ticker);
+        instrument.setPrice(price);
+        instrument.setUpdated(LocalDateTime.of(2025, 1, 1, 10, 0));
+        return instrument;
+    }
+
+    private static AlpacaSingleAssetDto quote(double price) {
+        AlpacaTradeDto trade = new AlpacaTradeDto();
+        trade.setPrice(price);
+        AlpacaSingleAssetDto asset = new AlpacaSingleAssetDto();
+        asset.setLatestTrade(trade);
+        return asset;
+    }
+
+    private static IbkrMarketDataDto ibkrMarketData(Long conid, String companyName, String price) {
+        IbkrMarketDataDto dto = new IbkrMarketDataDto();
+        dto.setConid(conid);
+        dto.setCompanyName(companyName);
+        dto.setPriceStr(price);
+        dto.setUpdated(System.currentTimeMillis());
+        return dto;
+    }
+}
@@ -0,0 +1,65 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.config.ObjectMapperConfig;
+import co.grtk.srcprofit.dto.LiveUpdateDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LiveUpdateHubTest {
+
+    private ObjectMapper objectMapper;
+    private LiveUpdateHub liveUpdateHub;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapperConfig().getObjectMapper());
+        liveUpdateHub = new LiveUpdateHub(objectMapper, new MockEnvironment());
+    }
+
+    @Test
+    void publish_shouldSerializeOnceForAllSubscribers() throws Exception {
+        liveUpdateHub.subscribe();
+        liveUpdateHub.subscribe();
+        liveUpdateHub.subscribe();
+
+        int sent = liveUpdateHub.publish("quotes", quotes());
+
+        assertThat(sent).isEqualTo(3);
+        verify(objectMapper, times(1)).writeValueAsString(any());
+    }
+
+    @Test
+    void publish_shouldNotSerializeWithoutSubscribers() throws Exception {
+        assertThat(liveUpdateHub.publish("quotes", quotes())).isZero();
+
+        verify(objectMapper, never()).writeValueAsString(any());
+    }
+
+    @Test
+    void publish_shouldRemoveCompletedSubscribers() {
+        SseEmitter closed = liveUpdateHub.subscribe();
+        liveUpdateHub.subscribe();
+        closed.complete();
+
+        assertThat(liveUpdateHub.publish("quotes", quotes())).isEqualTo(1);
+        assertThat(liveUpdateHub.getSubscriberCount()).isEqualTo(1);
+    }
+
+    private static LiveUpdateDto quotes() {
+        return new LiveUpdateDto(Instant.parse("2025-12-22T15:30:00Z"),
+                List.of(new LiveUpdateDto.Quote("SPY", 601.25)), null);
+    }
+}
@@ -4,7 +4,6 @@ import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.OptionType;
 import co.grtk.srcprofit.repository.InstrumentRepository;
 import co.grtk.srcprofit.repository.OptionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,8 +28,6 @@ class ManualCalculationTest {
     @Mock
     private InstrumentRepository instrumentRepository;
 
-    @Mock
-    private ObjectMapper objectMapper;
 
     @InjectMocks
     private OptionService optionService;
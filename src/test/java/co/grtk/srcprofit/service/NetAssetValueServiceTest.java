@@ -0,0 +1,85 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.ChartDataDto;
+import co.grtk.srcprofit.entity.NetAssetValueEntity;
+import co.grtk.srcprofit.mapper.Interval;
+import co.grtk.srcprofit.repository.NetAssetValueRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NetAssetValueServiceTest {
+
+    @Mock
+    private NetAssetValueRepository netAssetValueRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @InjectMocks
+    private NetAssetValueService netAssetValueService;
+
+    private static NetAssetValueEntity nav(LocalDate reportDate, double cash, double stock, double options) {
+        NetAssetValueEntity nav = new NetAssetValueEntity();
+        nav.setReportDate(reportDate);
+        nav.setCash(cash);
+        nav.setStock(stock);
+        nav.setOptions(options);
+        nav.setTotal(cash + stock + options);
+        return nav;
+    }
+
+    @Test
+    void getNavSlice_shouldServeEveryIntervalFromOneLoad() {
+        LocalDate today = LocalDate.now();
+        LocalDate lastYear = today.minusYears(1);
+        when(netAssetValueRepository.findAll()).thenReturn(List.of(
+                nav(today, 1000.5, 200.0, -50.25),
+                nav(lastYear, 900.0, 100.0, 0.0)));
+
+        ChartDataDto week = new ChartDataDto(Interval.WEEK);
+        NetAssetValueService.NavSlice all = netAssetValueService.getNavSlice(null, null);
+        NetAssetValueService.NavSlice thisWeek = netAssetValueService.getNavSlice(week.getStartDate(), week.getEndDate());
+
+        assertThat(all.epochDays()).containsExactly((int) lastYear.toEpochDay(), (int) today.toEpochDay());
+        assertThat(all.totalCents()).containsExactly(100000L, 115025L);
+        assertThat(all.optionsCents()).containsExactly(0L, -5025L);
+        assertThat(thisWeek.epochDays()).containsExactly((int) today.toEpochDay());
+        assertThat(thisWeek.cashCents()).containsExactly(100050L);
+        assertThat(thisWeek.stockCents()).containsExactly(20000L);
+        verify(netAssetValueRepository, times(1)).findAll();
+        verify(netAssetValueRepository, never()).findBetweenDates(any(), any());
+    }
+
+    @Test
+    void saveCSV_shouldMergeImportedDaysIntoTheLoadedSeries() throws Exception {
+        LocalDate loaded = LocalDate.of(2025, 1, 2);
+        LocalDate imported = LocalDate.of(2025, 1, 3);
+        when(netAssetValueRepository.findAll()).thenReturn(List.of(nav(loaded, 100.0, 0.0, 0.0)));
+        netAssetValueService.getNavSlice(null, null);
+
+        String csv = "ClientAccountID,reportDate,cash,stock,options,dividendAccruals,interestAccruals,total\n" +
+                "U123456,2025-01-02,100.00,0,0,0,0,100.00\n" +
+                "U123456,2025-01-03,120.00,30.00,0,0,0,150.00\n";
+        when(netAssetValueRepository.findByReportDate(loaded)).thenReturn(nav(loaded, 100.0, 0.0, 0.0));
+
+        assertThat(netAssetValueService.saveCSV(new StringReader(csv))).isEqualTo(1);
+
+        NetAssetValueService.NavSlice slice = netAssetValueService.getNavSlice(null, null);
+        assertThat(slice.epochDays()).containsExactly((int) loaded.toEpochDay(), (int) imported.toEpochDay());
+        assertThat(slice.totalCents()).containsExactly(10000L, 15000L);
+        verify(netAssetValueRepository, times(1)).findAll();
+    }
+}
@@ -2,10 +2,12 @@ package co.grtk.srcprofit.service;
 
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.AssetClass;
+import co.grtk.srcprofit.entity.InstrumentEntity;
 import co.grtk.srcprofit.entity.OpenPositionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import co.grtk.srcprofit.entity.OptionType;
 import co.grtk.srcprofit.repository.InstrumentRepository;
+import co.grtk.srcprofit.repository.OpenPositionJdbcRepository;
 import co.grtk.srcprofit.repository.OpenPositionRepository;
 import co.grtk.srcprofit.repository.OptionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +17,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.HashSet;
@@ -38,11 +39,14 @@ class OpenPositionServiceTest {
     @Mock
     private OptionRepository optionRepository;
 
+    @Mock
+    private OpenPositionJdbcRepository openPositionJdbcRepository;
+
     private OpenPositionService openPositionService;
 
     @BeforeEach
     void setUp() {
-        openPositionService = new OpenPositionService(openPositionRepository, instrumentRepository, optionRepository);
+        openPositionService = new OpenPositionService(openPositionRepository, instrumentRepository, optionRepository, openPositionJdbcRepository);
     }
 
     /**
@@ -264,149 +268,111 @@ class OpenPositionServiceTest {
         assertThat(dto.getCode()).isEqualTo("SPY 250120C00600000");
     }
 
-    // ===== saveCSV Deletion Tests (ISSUE-046) =====
+    // ===== upsertCSV Deletion Tests (ISSUE-046) =====
 
-    @Test
-    void saveCSV_returnFormat_shouldBeSavedSlashDeleted() throws IOException {
-        // Arrange: 2 existing positions, CSV has 1 (1 will be deleted)
-        OpenPositionEntity pos1 = buildTestEntity("SPY", 600.0, "P", 1, LocalDate.now().plusDays(30));
-        pos1.setConid(100L);
-        pos1.setAccount("DU12345");
+    private void stubUpsertBatch() {
+        when(openPositionJdbcRepository.upsertBatch(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+    }
 
-        OpenPositionEntity pos2 = buildTestEntity("AAPL", 200.0, "C", -1, LocalDate.now().plusDays(45));
-        pos2.setConid(200L);
-        pos2.setAccount("DU12345");
+    @SuppressWarnings("unchecked")
+    private OpenPositionEntity captureUpserted() {
+        ArgumentCaptor<List<OpenPositionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(openPositionJdbcRepository).upsertBatch(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+        return captor.getValue().get(0);
+    }
 
-        when(openPositionRepository.findByConid(100L)).thenReturn(pos1);  // Update
-        when(openPositionRepository.findByConid(999L)).thenReturn(null);  // Insert
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(List.of(pos1, pos2));
+    @Test
+    void upsertCSV_returnFormat_shouldBeSavedSlashDeleted() {
+        // Arrange: 2 existing positions, CSV has 100 (kept) and 999 (new), so 200 is deleted
+        stubUpsertBatch();
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn("DU12345", Set.of(100L, 999L))).thenReturn(1);
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary,UnderlyingConid,UnderlyingSymbol,Code\n" +
                 "DU12345,100,OPT,SPY 250120P00600000,2025-12-04,1,USD,100,SPY,SPY 250120P00600000\n" +
                 "DU12345,999,OPT,AAPL 250120C00200000,2025-12-04,1,USD,20,AAPL,AAPL 250120C00200000";
 
         // When
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
         // Then: Should have 2 saved (1 update + 1 insert) and 1 deleted
         assertThat(result).isEqualTo("2/1");
-        verify(openPositionRepository).deleteAll(any(List.class));
     }
 
     @Test
-    void saveCSV_accountScoped_shouldPreserveOtherAccounts() throws IOException {
-        // Arrange: Positions from two accounts, CSV only has one account
-        OpenPositionEntity du12345_pos1 = buildTestEntity("SPY", 600.0, "P", 1, LocalDate.now().plusDays(30));
-        du12345_pos1.setConid(100L);
-        du12345_pos1.setAccount("DU12345");
+    void upsertCSV_accountScoped_shouldPreserveOtherAccounts() {
+        // Arrange: CSV only contains DU12345 account, DU99999 positions must not be touched
+        stubUpsertBatch();
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn("DU12345", Set.of(100L))).thenReturn(1);
 
-        OpenPositionEntity du12345_pos2 = buildTestEntity("AAPL", 200.0, "C", -1, LocalDate.now().plusDays(45));
-        du12345_pos2.setConid(200L);
-        du12345_pos2.setAccount("DU12345");
-
-        OpenPositionEntity du99999_pos1 = buildTestEntity("TSLA", 250.0, "P", 2, LocalDate.now().plusDays(20));
-        du99999_pos1.setConid(300L);
-        du99999_pos1.setAccount("DU99999");
-
-        when(openPositionRepository.findByConid(100L)).thenReturn(du12345_pos1);
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(List.of(du12345_pos1, du12345_pos2));
-
-        // CSV only contains DU12345 account
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary,UnderlyingConid,UnderlyingSymbol,Code\n" +
                 "DU12345,100,OPT,SPY 250120P00600000,2025-12-04,1,USD,100,SPY,SPY 250120P00600000";
 
         // When
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
-        // Then: DU12345 pos2 deleted (1 deleted), but DU99999 positions never queried
+        // Then: DU12345 pos2 deleted (1 deleted), but DU99999 positions never deleted
         assertThat(result).isEqualTo("1/1");
-        verify(openPositionRepository).findByAccount("DU12345");
-        verify(openPositionRepository, never()).findByAccount("DU99999");
+        verify(openPositionJdbcRepository, never()).deleteByAccountAndConidNotIn(eq("DU99999"), any());
     }
 
     @Test
-    void saveCSV_emptyData_shouldReturnZeroZero() throws IOException {
+    void upsertCSV_emptyData_shouldReturnZeroZero() {
         // Arrange: CSV header only, no data rows
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary,UnderlyingConid,UnderlyingSymbol";
 
         // When
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
         // Then: No rows processed, no deletions
         assertThat(result).isEqualTo("0/0");
-        verify(openPositionRepository, never()).findByAccount(any());
-        verify(openPositionRepository, never()).deleteAll(any());
+        verify(openPositionJdbcRepository, never()).deleteByAccountAndConidNotIn(any(), any());
     }
 
     @Test
-    void saveCSV_allPositionsStillOpen_shouldReturnZeroDeleted() throws IOException {
+    void upsertCSV_allPositionsStillOpen_shouldReturnZeroDeleted() {
         // Arrange: All positions in CSV still exist, nothing to delete
-        OpenPositionEntity pos1 = buildTestEntity("SPY", 600.0, "P", 1, LocalDate.now().plusDays(30));
-        pos1.setConid(100L);
-        pos1.setAccount("DU12345");
-
-        when(openPositionRepository.findByConid(100L)).thenReturn(pos1);  // Update
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(List.of(pos1));
+        stubUpsertBatch();
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn("DU12345", Set.of(100L))).thenReturn(0);
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary,UnderlyingConid,UnderlyingSymbol,Code\n" +
                 "DU12345,100,OPT,SPY 250120P00600000,2025-12-04,1,USD,100,SPY,SPY 250120P00600000";
 
         // When
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
         // Then: 1 saved, 0 deleted
         assertThat(result).isEqualTo("1/0");
-        verify(openPositionRepository, never()).deleteAll(any());
     }
 
     @Test
-    void saveCSV_multipleAccounts_shouldDeleteFromAllCsvAccounts() throws IOException {
+    void upsertCSV_multipleAccounts_shouldDeleteFromAllCsvAccounts() {
         // Arrange: CSV has two accounts with 2 positions total, but 4 exist in DB (2 per account)
-        OpenPositionEntity du11111_pos1 = buildTestEntity("SPY", 600.0, "P", 1, LocalDate.now().plusDays(30));
-        du11111_pos1.setConid(1L);
-        du11111_pos1.setAccount("DU11111");
-
-        OpenPositionEntity du11111_pos2 = buildTestEntity("AAPL", 200.0, "C", -1, LocalDate.now().plusDays(45));
-        du11111_pos2.setConid(2L);
-        du11111_pos2.setAccount("DU11111");
-
-        OpenPositionEntity du22222_pos1 = buildTestEntity("TSLA", 250.0, "P", 2, LocalDate.now().plusDays(20));
-        du22222_pos1.setConid(3L);
-        du22222_pos1.setAccount("DU22222");
-
-        OpenPositionEntity du22222_pos2 = buildTestEntity("QQQ", 350.0, "C", -2, LocalDate.now().plusDays(50));
-        du22222_pos2.setConid(4L);
-        du22222_pos2.setAccount("DU22222");
-
-        when(openPositionRepository.findByConid(1L)).thenReturn(du11111_pos1);  // Update
-        when(openPositionRepository.findByConid(3L)).thenReturn(du22222_pos1);  // Update
-        when(openPositionRepository.findByAccount("DU11111")).thenReturn(List.of(du11111_pos1, du11111_pos2));
-        when(openPositionRepository.findByAccount("DU22222")).thenReturn(List.of(du22222_pos1, du22222_pos2));
+        stubUpsertBatch();
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn(eq("DU11111"), any())).thenReturn(1);
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn(eq("DU22222"), any())).thenReturn(1);
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary,UnderlyingConid,UnderlyingSymbol,Code\n" +
                 "DU11111,1,OPT,SPY 250120P00600000,2025-12-04,1,USD,100,SPY,SPY 250120P00600000\n" +
                 "DU22222,3,OPT,TSLA 250120P00250000,2025-12-04,2,USD,175,TSLA,TSLA 250120P00250000";
 
         // When
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
         // Then: 2 saved, 2 deleted (pos2 from each account)
         assertThat(result).isEqualTo("2/2");
-        verify(openPositionRepository).findByAccount("DU11111");
-        verify(openPositionRepository).findByAccount("DU22222");
+        verify(openPositionJdbcRepository).deleteByAccountAndConidNotIn(eq("DU11111"), any());
+        verify(openPositionJdbcRepository).deleteByAccountAndConidNotIn(eq("DU22222"), any());
     }
 
     @Test
-    void saveCSV_shouldCalculateAndPersistFieldsForOptions() throws IOException {
+    void upsertCSV_shouldCalculateAndPersistFieldsForOptions() {
         // Arrange: OptionEntity with trade data exists
-        co.grtk.srcprofit.entity.OptionEntity optionEntity = new co.grtk.srcprofit.entity.OptionEntity();
-        optionEntity.setConid(12345L);
-        optionEntity.setTradeDate(LocalDate.of(2025, 11, 1));
-        optionEntity.setTradePrice(5.0);
-
-        when(optionRepository.findByConid(12345L)).thenReturn(List.of(optionEntity));
-        when(openPositionRepository.findByConid(12345L)).thenReturn(null);  // New position
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(Collections.emptyList());
+        OptionRepository.FirstTradeDate firstTrade = mock(OptionRepository.FirstTradeDate.class);
+        when(firstTrade.getConid()).thenReturn(12345L);
+        when(firstTrade.getTradeDate()).thenReturn(LocalDate.of(2025, 11, 1));
+        when(optionRepository.findFirstTradeDates(List.of(12345L))).thenReturn(List.of(firstTrade));
+        stubUpsertBatch();
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary," +
                     "Strike,Expiry,Put/Call,UnderlyingConid,UnderlyingSymbol\n" +
@@ -414,20 +380,20 @@ class OpenPositionServiceTest {
                     "600.0,2025-12-20,P,100,SPY";
 
         // Act
-        String result = openPositionService.saveCSV(csv);
+        String result = openPositionService.upsertCSV(csv);
 
-        // Assert - verify OptionEntity was queried for trade data (proof of calculation)
+        // Assert - tradeDate comes from the first OptionEntity trade
         assertThat(result).isEqualTo("1/0");
-        verify(optionRepository).findByConid(12345L);
-        verify(openPositionRepository).save(any(OpenPositionEntity.class));
+        OpenPositionEntity saved = captureUpserted();
+        assertThat(saved.getTradeDate()).isEqualTo(LocalDate.of(2025, 11, 1));
+        assertThat(saved.getDaysBetween()).isPositive();
     }
 
     @Test
-    void saveCSV_shouldFallbackToReportDateWhenNoOptionEntityFound() throws IOException {
+    void upsertCSV_shouldFallbackToReportDateWhenNoOptionEntityFound() {
         // Arrange: No OptionEntity exists
-        when(optionRepository.findByConid(12345L)).thenReturn(Collections.emptyList());
-        when(openPositionRepository.findByConid(12345L)).thenReturn(null);
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(Collections.emptyList());
+        when(optionRepository.findFirstTradeDates(List.of(12345L))).thenReturn(Collections.emptyList());
+        stubUpsertBatch();
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary," +
                     "Strike,Expiry,Put/Call,UnderlyingConid,UnderlyingSymbol\n" +
@@ -435,32 +401,79 @@ class OpenPositionServiceTest {
                     "600.0,2025-12-20,P,100,SPY";
 
         // Act
-        openPositionService.saveCSV(csv);
+        openPositionService.upsertCSV(csv);
 
-        // Assert - verify OptionEntity was queried even when empty (proof of calculation logic)
-        verify(optionRepository).findByConid(12345L);
-        verify(openPositionRepository).save(any(OpenPositionEntity.class));
+        // Assert - tradeDate falls back to the report date
+        OpenPositionEntity saved = captureUpserted();
+        assertThat(saved.getTradeDate()).isEqualTo(LocalDate.of(2025, 12, 4));
+        assertThat(saved.getDaysBetween()).isPositive();
     }
 
     @Test
-    void saveCSV_shouldNotCalculateFieldsForNonOptionAssets() throws IOException {
+    void upsertCSV_shouldNotCalculateFieldsForNonOptionAssets() {
         // Arrange: STK (stock) asset class
-        when(openPositionRepository.findByConid(12345L)).thenReturn(null);
-        when(openPositionRepository.findByAccount("DU12345")).thenReturn(Collections.emptyList());
+        stubUpsertBatch();
 
         String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary\n" +
                     "DU12345,12345,STK,SPY,2025-12-04,100,USD";
 
         // Act
-        openPositionService.saveCSV(csv);
+        openPositionService.upsertCSV(csv);
 
         // Assert
-        ArgumentCaptor<OpenPositionEntity> captor = ArgumentCaptor.forClass(OpenPositionEntity.class);
-        verify(openPositionRepository).save(captor.capture());
-        OpenPositionEntity saved = captor.getValue();
+        OpenPositionEntity saved = captureUpserted();
         assertThat(saved.getTradeDate()).isNull();  // Not calculated for STK
         assertThat(saved.getDaysBetween()).isNull();
         assertThat(saved.getRoi()).isNull();
+        verify(optionRepository, never()).findFirstTradeDates(any());
+    }
+
+    // ===== upsertCSV Bulk Tests =====
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertCSV_shouldBatchUpsertAndDeleteMissingPerAccount() {
+        // Arrange: one option with a stored trade, one stock, one duplicated conid (last row wins)
+        InstrumentEntity spy = new InstrumentEntity();
+        spy.setId(1L);
+        spy.setConid(100L);
+        spy.setTicker("SPY");
+        when(instrumentRepository.findAll()).thenReturn(List.of(spy));
+
+        OptionRepository.FirstTradeDate firstTrade = mock(OptionRepository.FirstTradeDate.class);
+        when(firstTrade.getConid()).thenReturn(12345L);
+        when(firstTrade.getTradeDate()).thenReturn(LocalDate.of(2025, 11, 1));
+        when(optionRepository.findFirstTradeDates(any())).thenReturn(List.of(firstTrade));
+        when(openPositionJdbcRepository.upsertBatch(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        when(openPositionJdbcRepository.deleteByAccountAndConidNotIn(eq("DU12345"), any())).thenReturn(3);
+
+        String csv = "ClientAccountID,Conid,AssetClass,Symbol,ReportDate,Quantity,CurrencyPrimary," +
+                    "Strike,Expiry,Put/Call,UnderlyingConid,UnderlyingSymbol,CostBasisPrice\n" +
+                    "DU12345,12345,OPT,SPY 251220P00600000,2025-12-04,1,USD,600.0,2025-12-20,P,100,SPY,5.0\n" +
+                    "DU12345,265598,STK,AAPL,2025-12-04,100,USD,,,,,\n" +
+                    "DU12345,265598,STK,AAPL,2025-12-04,200,USD,,,,,";
+
+        // Act
+        String result = openPositionService.upsertCSV(csv);
+
+        // Assert: 2 unique conids upserted in one batch, set-based delete per account
+        assertThat(result).isEqualTo("2/3");
+        ArgumentCaptor<List<OpenPositionEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(openPositionJdbcRepository).upsertBatch(captor.capture());
+        List<OpenPositionEntity> upserted = captor.getValue();
+        assertThat(upserted).extracting(OpenPositionEntity::getConid).containsExactly(12345L, 265598L);
+        assertThat(upserted.get(0).getTradeDate()).isEqualTo(LocalDate.of(2025, 11, 1));
+        assertThat(upserted.get(0).getDaysBetween()).isPositive();
+        assertThat(upserted.get(0).getRoi()).isNotNull();
+        assertThat(upserted.get(1).getQuantity()).isEqualTo(200);
+        assertThat(upserted.get(1).getTradeDate()).isNull();
+
+        // New AAPL instrument is created once, no per-row lookups
+        ArgumentCaptor<List<InstrumentEntity>> instruments = ArgumentCaptor.forClass(List.class);
+        verify(instrumentRepository).saveAll(instruments.capture());
+        assertThat(instruments.getValue()).extracting(InstrumentEntity::getTicker).containsExactly("AAPL");
+        verify(optionRepository, never()).findByConid(any());
+        verify(openPositionRepository, never()).save(any());
     }
 
     // ===== Dynamic P&L Calculation Tests (ISSUE-049) =====
@@ -0,0 +1,93 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.entity.OptionSnapshotEntity;
+import co.grtk.srcprofit.mapper.BlackScholes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OptionGreeksServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptionGreeksService optionGreeksService = new OptionGreeksService(
+            new MockEnvironment().withProperty("OPTION_IV_PARALLELISM", "2"), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        optionGreeksService.shutdown();
+    }
+
+    @Test
+    void solveImpliedVolatilities_shouldInvertMidPricesOfEveryChain() {
+        LocalDate expiration = LocalDate.now().plusDays(45);
+        List<OptionGreeksService.OptionChain> chains = new ArrayList<>();
+        for (double volatility : new double[]{0.2, 0.35, 0.6}) {
+            List<OptionSnapshotEntity> snapshots = new ArrayList<>();
+            for (int strike = 90; strike <= 110; strike += 5) {
+                snapshots.add(quotedAt(modelPrice(strike, expiration, volatility), strike, expiration));
+            }
+            chains.add(new OptionGreeksService.OptionChain(snapshots, 100.0));
+        }
+
+        int solved = optionGreeksService.solveImpliedVolatilities(chains);
+
+        assertThat(solved).isEqualTo(15);
+        assertThat(chains.get(0).snapshots()).allSatisfy(s ->
+                assertThat(s.impliedVolatility.doubleValue()).isCloseTo(0.2, within(0.002)));
+        assertThat(chains.get(2).snapshots()).allSatisfy(s ->
+                assertThat(s.impliedVolatility.doubleValue()).isCloseTo(0.6, within(0.002)));
+        assertThat(chains.get(1).snapshots().getFirst().impliedVolatility.scale()).isEqualTo(4);
+        assertThat(solves("newton") + solves("brent")).isEqualTo(15);
+        assertThat(meterRegistry.get("srcprofit.option.iv.iterations").summary().count()).isEqualTo(15);
+    }
+
+    @Test
+    void solveImpliedVolatilities_shouldKeepPreviousValueWhenMidPriceIsUnsolvable() {
+        LocalDate expiration = LocalDate.now().plusDays(30);
+        OptionSnapshotEntity belowIntrinsic = quotedAt(5.0, 80, expiration);
+        belowIntrinsic.impliedVolatility = new BigDecimal("0.3100");
+        OptionSnapshotEntity withoutQuote = quotedAt(1.0, 100, expiration);
+        withoutQuote.bidPrice = null;
+
+        int solved = optionGreeksService.solveImpliedVolatilities(
+                List.of(new OptionGreeksService.OptionChain(List.of(belowIntrinsic, withoutQuote), 100.0)));
+
+        assertThat(solved).isZero();
+        assertThat(belowIntrinsic.impliedVolatility).isEqualByComparingTo("0.3100");
+        assertThat(withoutQuote.impliedVolatility).isNull();
+        assertThat(solves("failed")).isEqualTo(2);
+    }
+
+    private double solves(String result) {
+        return meterRegistry.get("srcprofit.option.iv.solves").tag("result", result).counter().count();
+    }
+
+    private static double modelPrice(double strike, LocalDate expiration, double volatility) {
+        BlackScholes.Chain chain = new BlackScholes.Chain(1);
+        chain.set(0, true, 100.0, strike,
+                OptionGreeksService.yearsToExpiration(expiration, LocalDateTime.now()), volatility);
+        BlackScholes.price(chain, OptionGreeksService.DEFAULT_RISK_FREE_RATE);
+        return chain.price[0];
+    }
+
+    private static OptionSnapshotEntity quotedAt(double mid, int strike, LocalDate expiration) {
+        OptionSnapshotEntity snapshot = new OptionSnapshotEntity();
+        snapshot.optionType = "call";
+        snapshot.strikePrice = BigDecimal.valueOf(strike);
+        snapshot.expirationDate = expiration;
+        snapshot.bidPrice = BigDecimal.valueOf(mid).setScale(4, RoundingMode.HALF_UP);
+        snapshot.askPrice = snapshot.bidPrice;
+        return snapshot;
+    }
+}
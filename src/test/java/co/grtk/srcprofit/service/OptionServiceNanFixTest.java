@@ -1,9 +1,7 @@
 package co.grtk.srcprofit.service;
 
-import co.grtk.srcprofit.dto.ChartDataDto;
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.OptionEntity;
-import co.grtk.srcprofit.mapper.MapperUtils;
 import co.grtk.srcprofit.repository.OptionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,7 +24,6 @@ import static org.mockito.Mockito.when;
  * This test suite ensures that:
  * 1. Null tradePrice values are handled gracefully
  * 2. Division by zero doesn't produce NaN
- * 3. CSV output doesn't contain "NaN" or "Infinity"
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ISSUE-008: Dashboard NaN Fix Tests")
@@ -104,46 +101,6 @@ class OptionServiceNanFixTest {
         assertThat(result).isEmpty();
     }
 
-    @Test
-    @DisplayName("MapperUtils.getValuesCsv should never contain NaN")
-    void testGetValuesCsv_NoNaNInOutput() {
-        // Given: Map with valid BigDecimal values
-        Map<LocalDate, BigDecimal> data = new LinkedHashMap<>();
-        data.put(LocalDate.of(2025, 1, 1), new BigDecimal("100.50"));
-        data.put(LocalDate.of(2025, 1, 2), new BigDecimal("200.75"));
-        data.put(LocalDate.of(2025, 1, 3), new BigDecimal("50.25"));
-
-        // When: Convert to CSV
-        String csv = MapperUtils.getValuesCsv(data);
-
-        // Then: Should not contain NaN or Infinity
-        assertThat(csv).doesNotContain("NaN");
-        assertThat(csv).doesNotContain("Infinity");
-        assertThat(csv).contains("100.50");
-        assertThat(csv).contains("200.75");
-        assertThat(csv).contains("50.25");
-    }
-
-    @Test
-    @DisplayName("MapperUtils.getValuesCsv should handle edge case BigDecimals")
-    void testGetValuesCsv_WithEdgeCases() {
-        // Given: Map with zero and very small values
-        Map<LocalDate, BigDecimal> data = new LinkedHashMap<>();
-        data.put(LocalDate.of(2025, 1, 1), BigDecimal.ZERO);
-        data.put(LocalDate.of(2025, 1, 2), new BigDecimal("0.01"));
-        data.put(LocalDate.of(2025, 1, 3), new BigDecimal("999999.99"));
-
-        // When: Convert to CSV
-        String csv = MapperUtils.getValuesCsv(data);
-
-        // Then: Should handle all values correctly
-        assertThat(csv).doesNotContain("NaN");
-        assertThat(csv).doesNotContain("Infinity");
-        assertThat(csv).contains("0");
-        assertThat(csv).contains("0.01");
-        assertThat(csv).contains("999999.99");
-    }
-
     @Test
     @DisplayName("Should handle zero positionValue in percentage calculation without division by zero")
     void testCalculatePosition_ZeroPositionValue() {
@@ -195,24 +152,6 @@ class OptionServiceNanFixTest {
         );
     }
 
-    @Test
-    @DisplayName("MapperUtils.getValuesCsv creates valid CSV without NaN")
-    void testMapperUtilsValuesCsv_NoNaN() {
-        // Given: Map with valid BigDecimal values
-        Map<LocalDate, BigDecimal> dailyPremium = new LinkedHashMap<>();
-        dailyPremium.put(LocalDate.of(2025, 1, 1), new BigDecimal("100.00"));
-        dailyPremium.put(LocalDate.of(2025, 1, 2), new BigDecimal("250.00"));
-
-        // When: Convert to CSV
-        String premiumCsv = MapperUtils.getValuesCsv(dailyPremium);
-
-        // Then: CSV output should not contain NaN
-        assertThat(premiumCsv).doesNotContain("NaN");
-        assertThat(premiumCsv).doesNotContain("Infinity");
-        assertThat(premiumCsv).contains("100.00");
-        assertThat(premiumCsv).contains("250.00");
-    }
-
     // Helper method to create test options
     private OptionEntity createOption(Double tradePrice, int quantity, LocalDate tradeDate) {
         OptionEntity option = new OptionEntity();
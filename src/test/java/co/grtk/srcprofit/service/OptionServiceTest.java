@@ -7,8 +7,8 @@ import co.grtk.srcprofit.entity.OptionEntity;
 import co.grtk.srcprofit.entity.OptionStatus;
 import co.grtk.srcprofit.entity.OptionType;
 import co.grtk.srcprofit.repository.InstrumentRepository;
+import co.grtk.srcprofit.repository.OptionJdbcRepository;
 import co.grtk.srcprofit.repository.OptionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,14 +16,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.io.StringReader;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +41,15 @@ class OptionServiceTest {
     @Mock
     private OptionRepository optionRepository;
 
+    @Mock
+    private OptionJdbcRepository optionJdbcRepository;
+
     @Mock
     private InstrumentRepository instrumentRepository;
 
+
     @Mock
-    private ObjectMapper objectMapper;
+    private PremiumLedgerService premiumLedgerService;
 
     @InjectMocks
     private OptionService optionService;
@@ -474,4 +486,89 @@ class OptionServiceTest {
         assertThat(result.isPartialSuccess()).isTrue();
         assertThat(result.isCompleteSuccess()).isFalse();
     }
+
+    @Test
+    @DisplayName("Streaming CSV import uses prefetched keys and keeps the accounting of the String import")
+    void testSaveCSV_Streaming_PrefetchedKeysAndBatchedInserts() {
+        String csv = "ClientAccountID,AssetClass,UnderlyingSymbol,Put/Call,Open/CloseIndicator,TradeDate,Expiry,Strike,Quantity,UnderlyingConid,Conid,NetCash,Symbol,FifoPnlRealized\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-01,2025-11-15,150.00,1,265598,3001,50.00,AAPL_P_150,10.00\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-01,2025-11-15,150.00,1,265598,3002,60.00,AAPL_P_150,10.00\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-01,2025-11-15,150.00,1,265598,3002,60.00,AAPL_P_150,10.00\n" +
+                "U123456,STK,AAPL,,,2025-11-01,,,1,265598,265598,50.00,AAPL,10.00\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-01,2025-11-15,150.00,1,265598,3003,invalid,AAPL_P_150,10.00";
+
+        InstrumentEntity aapl = new InstrumentEntity();
+        aapl.setId(1L);
+        aapl.setTicker("AAPL");
+        Set<OptionJdbcRepository.TradeKey> existing = new HashSet<>();
+        existing.add(new OptionJdbcRepository.TradeKey(3001L, OptionStatus.OPEN, 50.0));
+        when(optionJdbcRepository.findAllTradeKeys()).thenReturn(existing);
+        when(instrumentRepository.findAll()).thenReturn(List.of(aapl));
+        List<List<OptionEntity>> batches = new ArrayList<>();
+        when(optionJdbcRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<OptionEntity> batch = invocation.getArgument(0);
+            batches.add(new ArrayList<>(batch));
+            return batch.size();
+        });
+
+        CsvImportResult result = optionService.saveCSV(new StringReader(csv));
+
+        assertThat(result.getTotalRecords()).isEqualTo(5);
+        assertThat(result.getSuccessfulRecords()).isEqualTo(1);
+        assertThat(result.getSkippedRecords()).isEqualTo(3);   // stored trade, duplicate row, STK row
+        assertThat(result.getFailedRecords()).isEqualTo(1);    // invalid NetCash
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst()).singleElement()
+                .satisfies(option -> {
+                    assertThat(option.getConid()).isEqualTo(3002L);
+                    assertThat(option.getInstrument()).isSameAs(aapl);
+                });
+        verify(optionRepository, never()).findByConidAndStatusAndTradePrice(any(), any(), any());
+        verify(instrumentRepository, never()).findByTicker(any());
+        verify(premiumLedgerService).refreshDays(Set.of(LocalDate.of(2025, 11, 1)));
+    }
+
+    @Test
+    @DisplayName("Streaming saveCSV counts a failed chunk per record after retrying its rows one by one")
+    void testSaveCSV_Streaming_FailedChunkCountedPerRecord() {
+        String csv = "ClientAccountID,AssetClass,UnderlyingSymbol,Put/Call,Open/CloseIndicator,TradeDate,Expiry,Strike,Quantity,UnderlyingConid,Conid,NetCash,Symbol,FifoPnlRealized\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-01,2025-11-15,150.00,1,265598,3001,50.00,AAPL_P_150,10.00\n" +
+                "U123456,OPT,AAPL,P,O,2025-11-02,2025-11-15,150.00,1,265598,3002,60.00,AAPL_P_150,10.00";
+
+        InstrumentEntity aapl = new InstrumentEntity();
+        aapl.setId(1L);
+        aapl.setTicker("AAPL");
+        when(optionJdbcRepository.findAllTradeKeys()).thenReturn(new HashSet<>());
+        when(instrumentRepository.findAll()).thenReturn(List.of(aapl));
+        when(optionJdbcRepository.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<OptionEntity> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(option -> option.getConid() == 3002L))
+                throw new DataIntegrityViolationException("duplicate key");
+            return batch.size();
+        });
+
+        CsvImportResult result = optionService.saveCSV(new StringReader(csv));
+
+        assertThat(result.getSuccessfulRecords()).isEqualTo(1);
+        assertThat(result.getFailedRecords()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getRecordNumber()).isEqualTo(2));
+        verify(optionJdbcRepository, times(3)).insertBatch(anyList());
+        verify(premiumLedgerService).refreshDays(Set.of(LocalDate.of(2025, 11, 1)));
+    }
+
+    @Test
+    @DisplayName("dataFix purges orphans with one set-based delete, dry run only reports ids")
+    void testDataFix_SetBasedPurgeAndDryRun() {
+        when(optionRepository.findOrphanTradeIds(LocalDate.now())).thenReturn(List.of(7L, 9L));
+        when(optionRepository.deleteOrphanTrades(LocalDate.now())).thenReturn(2);
+
+        assertThat(optionService.dataFixDryRun()).containsExactly(7L, 9L);
+        verify(optionRepository, never()).deleteOrphanTrades(any());
+
+        assertThat(optionService.dataFix()).isEqualTo(2);
+        verify(optionRepository, never()).findAll();
+        verify(optionRepository, never()).delete(any());
+        verify(premiumLedgerService).rebuild();
+    }
 }
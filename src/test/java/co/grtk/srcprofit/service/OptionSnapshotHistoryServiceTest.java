@@ -0,0 +1,92 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.OptionSnapshotSeriesDto;
+import co.grtk.srcprofit.repository.OptionSnapshotHistoryJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptionSnapshotHistoryServiceTest {
+
+    private static final String SYMBOL = "AAPL250120C00100000";
+
+    @Mock
+    private OptionSnapshotHistoryJdbcRepository historyRepository;
+
+    private OptionSnapshotHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("OPTION_SNAPSHOT_HISTORY_RAW_DAYS", "3");
+        historyService = new OptionSnapshotHistoryService(historyRepository, environment);
+    }
+
+    @Test
+    void applyRetention_shouldRollUpOnlyDaysBeforeTheRawWindowAndContinueOnFailure() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate failing = today.minusDays(5);
+        LocalDate old = today.minusDays(4);
+        LocalDate raw = today.minusDays(3);
+        when(historyRepository.findPartitionDays()).thenReturn(List.of(today, raw, old, failing));
+        when(historyRepository.rollupAndDropPartition(failing)).thenThrow(new RuntimeException("lock timeout"));
+        when(historyRepository.rollupAndDropPartition(old)).thenReturn(24);
+
+        int rolledUp = historyService.applyRetention();
+
+        assertThat(rolledUp).isEqualTo(1);
+        verify(historyRepository).rollupAndDropPartition(failing);
+        verify(historyRepository).rollupAndDropPartition(old);
+        verify(historyRepository, never()).rollupAndDropPartition(raw);
+        verify(historyRepository, never()).rollupAndDropPartition(today);
+    }
+
+    @Test
+    void getSeries_shouldSkipHourlyBarsInsideTheRawWindow() {
+        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime from = to.minusDays(1);
+        when(historyRepository.findPoints(SYMBOL, from, to)).thenReturn(List.of());
+
+        OptionSnapshotSeriesDto series = historyService.getSeries(SYMBOL, from, to);
+
+        assertThat(series.symbol()).isEqualTo(SYMBOL);
+        assertThat(series.hourlyBars()).isEmpty();
+        verify(historyRepository, never()).findHourlyBars(anyString(), any(), any());
+    }
+
+    @Test
+    void getSeries_shouldReadHourlyBarsForRolledUpDays() {
+        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime from = to.minusDays(30);
+        when(historyRepository.findHourlyBars(SYMBOL, from, to)).thenReturn(List.of());
+        when(historyRepository.findPoints(SYMBOL, from, to)).thenReturn(List.of());
+
+        historyService.getSeries(SYMBOL, from, to);
+
+        verify(historyRepository).findHourlyBars(SYMBOL, from, to);
+        verify(historyRepository).findPoints(SYMBOL, from, to);
+    }
+
+    @Test
+    void getSeries_shouldRejectEmptyRange() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        assertThatThrownBy(() -> historyService.getSeries(SYMBOL, now, now))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
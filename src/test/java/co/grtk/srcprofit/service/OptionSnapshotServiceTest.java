@@ -7,26 +7,32 @@ import co.grtk.srcprofit.entity.OpenPositionEntity;
 import co.grtk.srcprofit.entity.OptionSnapshotEntity;
 import co.grtk.srcprofit.repository.InstrumentRepository;
 import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotJdbcRepository;
 import co.grtk.srcprofit.repository.OptionSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,12 +51,18 @@ class OptionSnapshotServiceTest {
     @Mock
     private OptionSnapshotRepository optionSnapshotRepository;
 
+    @Mock
+    private OptionSnapshotJdbcRepository optionSnapshotJdbcRepository;
+
     @Mock
     private InstrumentRepository instrumentRepository;
 
     @Mock
     private OpenPositionRepository openPositionRepository;
 
+    @Mock
+    private OptionSnapshotHistoryService optionSnapshotHistoryService;
+
     private OptionSnapshotService optionSnapshotService;
 
     private InstrumentEntity testInstrumentAAPL;
@@ -62,8 +74,11 @@ class OptionSnapshotServiceTest {
         optionSnapshotService = new OptionSnapshotService(
                 alpacaService,
                 optionSnapshotRepository,
+                optionSnapshotJdbcRepository,
                 instrumentRepository,
-                openPositionRepository
+                openPositionRepository,
+                optionSnapshotHistoryService,
+                new OptionGreeksService(new MockEnvironment(), new SimpleMeterRegistry())
         );
 
         // Setup test instruments
@@ -113,6 +128,7 @@ class OptionSnapshotServiceTest {
      * Test 2: OCC symbol parsing extracts strike, expiration, and type
      */
     @Test
+    @SuppressWarnings("unchecked")
     void testRefreshOptionSnapshots_ParsesOccSymbolCorrectly() {
         // Setup: Single open position
         OpenPositionEntity position = createMockOpenPosition("AAPL", 150.0, LocalDate.of(2023, 1, 20), "C");
@@ -133,17 +149,15 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("put"), anyString(), anyString()))
                 .thenReturn(new AlpacaOptionSnapshotsResponseDto(new HashMap<>()));
 
-        when(optionSnapshotRepository.findBySymbol("AAPL230120C00150000"))
-                .thenReturn(Optional.empty());
-
         // Execute
         int count = optionSnapshotService.refreshOptionSnapshots();
 
         // Verify: Snapshot was saved with correct parsed values
-        ArgumentCaptor<OptionSnapshotEntity> captor = ArgumentCaptor.forClass(OptionSnapshotEntity.class);
-        verify(optionSnapshotRepository).save(captor.capture());
+        ArgumentCaptor<List<OptionSnapshotEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(optionSnapshotJdbcRepository).upsertBatch(captor.capture());
 
-        OptionSnapshotEntity saved = captor.getValue();
+        assertEquals(1, captor.getValue().size());
+        OptionSnapshotEntity saved = captor.getValue().getFirst();
         assertEquals("AAPL230120C00150000", saved.getSymbol());
         assertEquals("call", saved.getOptionType());
         assertEquals(new BigDecimal("150.00"), saved.getStrikePrice());
@@ -183,9 +197,6 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("put"), anyString(), anyString()))
                 .thenReturn(new AlpacaOptionSnapshotsResponseDto(new HashMap<>()));
 
-        when(optionSnapshotRepository.findBySymbol(anyString()))
-                .thenReturn(Optional.empty());
-
         // Execute
         int count = optionSnapshotService.refreshOptionSnapshots();
 
@@ -219,9 +230,6 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("TSLA"), anyString(), anyString(), anyString()))
                 .thenThrow(new RuntimeException("API Error"));
 
-        when(optionSnapshotRepository.findBySymbol(anyString()))
-                .thenReturn(Optional.empty());
-
         // Execute - should not throw, batch continues after TSLA error
         int count = optionSnapshotService.refreshOptionSnapshots();
 
@@ -277,6 +285,7 @@ class OptionSnapshotServiceTest {
      * Test 7: Upsert pattern updates existing snapshot
      */
     @Test
+    @SuppressWarnings("unchecked")
     void testRefreshOptionSnapshots_UpdatesExistingSnapshot() {
         OpenPositionEntity position = createMockOpenPosition("AAPL", 150.0, LocalDate.of(2023, 1, 20), "C");
 
@@ -304,19 +313,22 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("put"), anyString(), anyString()))
                 .thenReturn(new AlpacaOptionSnapshotsResponseDto(new HashMap<>()));
 
-        when(optionSnapshotRepository.findBySymbol("AAPL230120C00150000"))
-                .thenReturn(Optional.of(existing));
+        when(optionSnapshotRepository.findBySymbolIn(anyCollection()))
+                .thenReturn(List.of(existing));
 
         // Execute
         int count = optionSnapshotService.refreshOptionSnapshots();
 
         // Verify: Existing snapshot was updated
-        ArgumentCaptor<OptionSnapshotEntity> captor = ArgumentCaptor.forClass(OptionSnapshotEntity.class);
-        verify(optionSnapshotRepository).save(captor.capture());
+        ArgumentCaptor<List<OptionSnapshotEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(optionSnapshotJdbcRepository).upsertBatch(captor.capture());
 
-        OptionSnapshotEntity saved = captor.getValue();
+        assertEquals(1, captor.getValue().size());
+        OptionSnapshotEntity saved = captor.getValue().getFirst();
+        assertEquals(existing, saved);  // Prefetched entity reused
         assertEquals(new BigDecimal("0.500000"), saved.getDelta());  // Updated value
         assertEquals(1, count);
+        verify(optionSnapshotRepository, never()).findBySymbol(anyString());
     }
 
     /**
@@ -349,6 +361,7 @@ class OptionSnapshotServiceTest {
      * Test 9 (NEW): OCC symbol construction from OpenPositionEntity
      */
     @Test
+    @SuppressWarnings("unchecked")
     void testRefreshOptionSnapshots_ConstructsOccSymbolCorrectly() {
         OpenPositionEntity position = createMockOpenPosition("SPY", 400.0, LocalDate.of(2023, 1, 20), "C");
 
@@ -368,17 +381,15 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("SPY"), eq("put"), anyString(), anyString()))
                 .thenReturn(new AlpacaOptionSnapshotsResponseDto(new HashMap<>()));
 
-        when(optionSnapshotRepository.findBySymbol("SPY230120C00400000"))
-                .thenReturn(Optional.empty());
-
         // Execute
         int count = optionSnapshotService.refreshOptionSnapshots();
 
         // Verify: Snapshot was saved (OCC construction worked correctly)
-        ArgumentCaptor<OptionSnapshotEntity> captor = ArgumentCaptor.forClass(OptionSnapshotEntity.class);
-        verify(optionSnapshotRepository).save(captor.capture());
+        ArgumentCaptor<List<OptionSnapshotEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(optionSnapshotJdbcRepository).upsertBatch(captor.capture());
 
-        OptionSnapshotEntity saved = captor.getValue();
+        assertEquals(1, captor.getValue().size());
+        OptionSnapshotEntity saved = captor.getValue().getFirst();
         assertEquals("SPY230120C00400000", saved.getSymbol());
         assertEquals(1, count);
     }
@@ -408,9 +419,6 @@ class OptionSnapshotServiceTest {
         when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("put"), anyString(), anyString()))
                 .thenReturn(new AlpacaOptionSnapshotsResponseDto(new HashMap<>()));
 
-        when(optionSnapshotRepository.findBySymbol(anyString()))
-                .thenReturn(Optional.empty());
-
         // Execute
         int count = optionSnapshotService.refreshOptionSnapshots();
 
@@ -420,6 +428,80 @@ class OptionSnapshotServiceTest {
         assertTrue(count >= 1 && count <= 3);
     }
 
+    /**
+     * Test 11: All underlyings share one prefetch query and one upsert batch
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRefreshOptionSnapshots_PrefetchesOnceAndUpsertsInBatch() {
+        OpenPositionEntity aaplPos = createMockOpenPosition("AAPL", 100.0, LocalDate.of(2025, 1, 20), "C");
+        OpenPositionEntity msftPos = createMockOpenPosition("MSFT", 100.0, LocalDate.of(2025, 1, 20), "P");
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(Arrays.asList(aaplPos, msftPos));
+
+        Map<String, AlpacaOptionSnapshotDto> aaplCalls = new HashMap<>();
+        aaplCalls.put("AAPL250120C00100000", createTestSnapshot("AAPL250120C00100000", "call"));
+        Map<String, AlpacaOptionSnapshotDto> msftPuts = new HashMap<>();
+        msftPuts.put("MSFT250120P00100000", createTestSnapshot("MSFT250120P00100000", "put"));
+
+        when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("call"), anyString(), anyString()))
+                .thenReturn(new AlpacaOptionSnapshotsResponseDto(aaplCalls));
+        when(alpacaService.getOptionSnapshots(eq("MSFT"), eq("put"), anyString(), anyString()))
+                .thenReturn(new AlpacaOptionSnapshotsResponseDto(msftPuts));
+
+        // Execute
+        int count = optionSnapshotService.refreshOptionSnapshots();
+
+        // Verify: one IN query for both underlyings, both snapshots written by a single batch
+        ArgumentCaptor<Collection<String>> symbolsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(optionSnapshotRepository, times(1)).findBySymbolIn(symbolsCaptor.capture());
+        assertTrue(symbolsCaptor.getValue().contains("AAPL250120C00100000"));
+        assertTrue(symbolsCaptor.getValue().contains("MSFT250120P00100000"));
+
+        ArgumentCaptor<List<OptionSnapshotEntity>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(optionSnapshotJdbcRepository, times(1)).upsertBatch(batchCaptor.capture());
+        assertEquals(2, batchCaptor.getValue().size());
+        // Same batch appended to the history with one capture time
+        verify(optionSnapshotHistoryService, times(1)).record(eq(batchCaptor.getValue()), any(OffsetDateTime.class));
+        assertEquals(2, count);
+    }
+
+    /**
+     * Test 12: Snapshots without feed greeks get an implied volatility solved from the mid price
+     * and model greeks, POP is derived from the model delta
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRefreshOptionSnapshots_ComputesModelGreeksWhenFeedHasNone() {
+        LocalDate expiration = LocalDate.now().plusDays(30);
+        OpenPositionEntity aaplPos = createMockOpenPosition("AAPL", 100.0, expiration, "P");
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(List.of(aaplPos));
+
+        String symbol = "AAPL" + formatDate(expiration) + "P00100000";
+        AlpacaOptionSnapshotDto snapshot = createTestSnapshot(symbol, "put");
+        snapshot.setGreeks(null);
+        Map<String, AlpacaOptionSnapshotDto> aaplPuts = new HashMap<>();
+        aaplPuts.put(symbol, snapshot);
+        when(alpacaService.getOptionSnapshots(eq("AAPL"), eq("put"), anyString(), anyString()))
+                .thenReturn(new AlpacaOptionSnapshotsResponseDto(aaplPuts));
+
+        optionSnapshotService.refreshOptionSnapshots();
+
+        ArgumentCaptor<List<OptionSnapshotEntity>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(optionSnapshotJdbcRepository).upsertBatch(batchCaptor.capture());
+        OptionSnapshotEntity entity = batchCaptor.getValue().getFirst();
+        // Mid 2.50 of an at-the-money 30 day put is roughly 22% volatility
+        assertNotNull(entity.impliedVolatility);
+        assertTrue(entity.impliedVolatility.doubleValue() > 0.15 && entity.impliedVolatility.doubleValue() < 0.30);
+        assertNotNull(entity.delta);
+        assertNotNull(entity.gamma);
+        assertNotNull(entity.theta);
+        assertNotNull(entity.vega);
+        // ATM put, delta a bit below -0.5 in magnitude
+        assertTrue(entity.delta.doubleValue() < 0 && entity.delta.doubleValue() > -0.5);
+        assertTrue(entity.theta.signum() < 0);
+        assertEquals(Math.round((1 - Math.abs(entity.delta.doubleValue())) * 100), entity.pop.longValue());
+    }
+
     // ============ Helper Methods ============
 
     /**
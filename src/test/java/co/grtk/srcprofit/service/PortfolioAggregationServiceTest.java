@@ -0,0 +1,114 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.PositionDto;
+import co.grtk.srcprofit.entity.OptionType;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
+import co.grtk.srcprofit.mapper.PortfolioGraph;
+import co.grtk.srcprofit.mapper.PositionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioAggregationServiceTest {
+
+    @Mock
+    private OpenPositionService openPositionService;
+
+    @Mock
+    private OptionService optionService;
+
+    private PortfolioAggregationService portfolioAggregationService;
+
+    @BeforeEach
+    void setUp() {
+        portfolioAggregationService = new PortfolioAggregationService(openPositionService, optionService);
+    }
+
+    @Test
+    void reads_shouldLoadTheGraphOnceAndApplyMovedPrices() {
+        when(openPositionService.getAllOpenOptionPositions()).thenReturn(List.of(
+                position("SPY 1P", "SPY", -1, 570.0, 600.0, 7),
+                position("AAPL 1P", "AAPL", -2, 215.0, 230.0, 30)));
+
+        assertThat(portfolioAggregationService.getOpenOptions()).hasSize(2);
+        assertThat(portfolioAggregationService.getOpenOptionsByTicker("AAPL")).hasSize(1);
+        assertThat(portfolioAggregationService.getOpenOptionsByTicker("QQQ")).isEmpty();
+        assertThat(portfolioAggregationService.getWeeklySummary()).hasSize(2);
+
+        portfolioAggregationService.applyPrices(Map.of("AAPL", 200.0));
+
+        assertThat(portfolioAggregationService.getOpenOptionsByTicker("AAPL").getFirst().getMarketValue())
+                .isEqualTo(20000.0);
+        // Loaded once, price moves are applied in memory
+        verify(openPositionService, times(1)).getAllOpenOptionPositions();
+        // Weekly summaries of both expiration dates
+        verify(optionService, times(2)).calculatePosition(any(PositionDto.class), any(PortfolioFrame.Totals.class));
+    }
+
+    @Test
+    void applyPrices_shouldWaitForTheFirstRead() {
+        portfolioAggregationService.applyPrices(Map.of("AAPL", 200.0));
+        portfolioAggregationService.reload();
+
+        verifyNoInteractions(openPositionService, optionService);
+    }
+
+    @Test
+    void reload_shouldReconcileWithTheTableAndDropTheGraphOnFailure() {
+        when(openPositionService.getAllOpenOptionPositions())
+                .thenReturn(List.of(position("SPY 1P", "SPY", -1, 570.0, 600.0, 7)))
+                .thenReturn(List.of(position("SPY 1P", "SPY", -1, 570.0, 600.0, 7),
+                        position("QQQ 1P", "QQQ", -1, 480.0, 510.0, 14)))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(List.of());
+
+        assertThat(portfolioAggregationService.getOpenOptions()).hasSize(1);
+        portfolioAggregationService.reload();
+        assertThat(portfolioAggregationService.getOpenOptions()).hasSize(2);
+
+        // The failed reload drops the graph, the next read loads it again
+        portfolioAggregationService.reload();
+        assertThat(portfolioAggregationService.getOpenOptions()).isEmpty();
+        verify(openPositionService, times(4)).getAllOpenOptionPositions();
+    }
+
+    @Test
+    void reads_shouldPropagateLoadFailures() {
+        when(openPositionService.getAllOpenOptionPositions()).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThatThrownBy(() -> portfolioAggregationService.getPositionSummary())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PortfolioGraph.Position position(String code, String ticker, int quantity, double strike,
+                                                    double underlyingPrice, int daysToExpiration) {
+        PositionDto dto = new PositionDto();
+        dto.setCode(code);
+        dto.setTicker(ticker);
+        dto.setType(OptionType.PUT);
+        dto.setQuantity(quantity);
+        dto.setTradeDate(LocalDate.now().minusDays(10));
+        dto.setExpirationDate(LocalDate.now().plusDays(daysToExpiration));
+        dto.setPositionValue(strike * 100);
+        dto.setTradePrice(150.0);
+        dto.setMarketPrice(80.0);
+        dto.setMarketValue(underlyingPrice * 100);
+        PositionMapper.calculateAndSetAnnualizedRoi(dto);
+        return new PortfolioGraph.Position(dto, 100.0);
+    }
+}
@@ -0,0 +1,135 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.PortfolioRiskDto;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OpenPositionEntity;
+import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioRiskServiceTest {
+
+    @Mock
+    private OpenPositionRepository openPositionRepository;
+
+    @Mock
+    private OptionSnapshotRepository optionSnapshotRepository;
+
+    private PortfolioRiskService portfolioRiskService;
+
+    @BeforeEach
+    void setUp() {
+        portfolioRiskService = new PortfolioRiskService(openPositionRepository, optionSnapshotRepository,
+                new MockEnvironment().withProperty("RISK_MC_PARALLELISM", "2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        portfolioRiskService.shutdown();
+    }
+
+    @Test
+    void simulate_shouldSimulateOpenOptionsAndSkipUnusablePositions() {
+        InstrumentEntity spy = instrument(1L, "SPY", 600.0);
+        InstrumentEntity aapl = instrument(2L, "AAPL", 230.0);
+        LocalDate expiration = LocalDate.now().plusDays(30);
+        OpenPositionEntity expired = option(aapl, "P", 220.0, -1, LocalDate.now().minusDays(1));
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(List.of(
+                option(spy, "P", 570.0, -1, expiration),
+                option(spy, "C", 640.0, -1, expiration.plusDays(14)),
+                option(aapl, "P", 215.0, -2, expiration),
+                expired));
+        when(optionSnapshotRepository.findAverageImpliedVolatilityByInstrument(any(LocalDate.class)))
+                .thenReturn(List.of(volatility(1L, 0.18)));
+
+        PortfolioRiskDto risk = portfolioRiskService.simulate(20_000, 500.0, 42L);
+
+        assertThat(risk.positions()).isEqualTo(3);
+        assertThat(risk.skippedPositions()).isEqualTo(1);
+        assertThat(risk.underlyings()).isEqualTo(2);
+        assertThat(risk.horizon()).isEqualTo(expiration.plusDays(14));
+        assertThat(risk.seed()).isEqualTo(42L);
+        assertThat(risk.valueAtRisk99()).isGreaterThanOrEqualTo(risk.valueAtRisk95());
+        assertThat(risk.expectedShortfall95()).isGreaterThanOrEqualTo(risk.valueAtRisk95());
+        assertThat(risk.probabilityOfLoss()).isBetween(0.0, 1.0);
+        // Same seed, same result
+        assertThat(portfolioRiskService.simulate(20_000, 500.0, 42L).valueAtRisk95()).isEqualTo(risk.valueAtRisk95());
+    }
+
+    @Test
+    void simulate_shouldReturnZeroRiskWithoutPositions() {
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(List.of());
+
+        PortfolioRiskDto risk = portfolioRiskService.simulate(1000, 0.0, null);
+
+        assertThat(risk.positions()).isZero();
+        assertThat(risk.valueAtRisk95()).isZero();
+        verify(optionSnapshotRepository, never()).findAverageImpliedVolatilityByInstrument(any());
+    }
+
+    @Test
+    void simulate_shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> portfolioRiskService.simulate(0, 0.0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> portfolioRiskService.simulate(2_000_000, 0.0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> portfolioRiskService.simulate(1000, -1.0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(openPositionRepository, optionSnapshotRepository);
+    }
+
+    private static InstrumentEntity instrument(Long id, String ticker, double price) {
+        InstrumentEntity instrument = new InstrumentEntity();
+        instrument.setId(id);
+        instrument.setTicker(ticker);
+        instrument.setPrice(price);
+        return instrument;
+    }
+
+    private static OpenPositionEntity option(InstrumentEntity underlying, String putCall, double strike,
+                                             int quantity, LocalDate expiration) {
+        OpenPositionEntity position = new OpenPositionEntity();
+        position.setAssetClass("OPT");
+        position.setUnderlyingSymbol(underlying.getTicker());
+        position.setUnderlyingInstrument(underlying);
+        position.setPutCall(putCall);
+        position.setStrike(strike);
+        position.setQuantity(quantity);
+        position.setMultiplier(100.0);
+        position.setMarkPrice(2.5);
+        position.setExpirationDate(expiration);
+        return position;
+    }
+
+    private static OptionSnapshotRepository.UnderlyingVolatility volatility(Long instrumentId, double impliedVolatility) {
+        return new OptionSnapshotRepository.UnderlyingVolatility() {
+            @Override
+            public Long getInstrumentId() {
+                return instrumentId;
+            }
+
+            @Override
+            public Double getImpliedVolatility() {
+                return impliedVolatility;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.repository.DailyPremiumJdbcRepository;
+import co.grtk.srcprofit.repository.DailyPremiumJdbcRepository.PremiumDay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PremiumLedgerServiceTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2025, 1, 2);
+    private static final LocalDate DAY2 = LocalDate.of(2025, 1, 6);
+    private static final LocalDate DAY3 = LocalDate.of(2025, 1, 9);
+
+    @Mock
+    private DailyPremiumJdbcRepository dailyPremiumJdbcRepository;
+
+    private PremiumLedgerService premiumLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        premiumLedgerService = new PremiumLedgerService(dailyPremiumJdbcRepository);
+    }
+
+    private void givenLedger(PremiumDay... days) {
+        when(dailyPremiumJdbcRepository.findAll()).thenReturn(List.of(days));
+    }
+
+    @Test
+    void getCumulativePremium_allShouldReturnRunningTotalInCents() {
+        givenLedger(new PremiumDay(DAY1, 10000),
+                new PremiumDay(DAY2, 5001),
+                new PremiumDay(DAY3, -7500));
+
+        Map<LocalDate, BigDecimal> result = premiumLedgerService.getCumulativePremium(null, null);
+
+        assertThat(result).containsExactly(
+                Map.entry(DAY1, new BigDecimal("100.00")),
+                Map.entry(DAY2, new BigDecimal("150.01")),
+                Map.entry(DAY3, new BigDecimal("75.01")));
+    }
+
+    @Test
+    void getCumulativePremium_rangeShouldRestartFromZeroAndIncludeBothEnds() {
+        givenLedger(new PremiumDay(DAY1, 10000),
+                new PremiumDay(DAY2, 5000),
+                new PremiumDay(DAY3, 7500));
+
+        assertThat(premiumLedgerService.getCumulativePremium(DAY2, DAY3)).containsExactly(
+                Map.entry(DAY2, new BigDecimal("50.00")),
+                Map.entry(DAY3, new BigDecimal("125.00")));
+        // Bounds between trade dates
+        assertThat(premiumLedgerService.getCumulativePremium(DAY1.plusDays(1), DAY3.minusDays(1)))
+                .containsExactly(Map.entry(DAY2, new BigDecimal("50.00")));
+        assertThat(premiumLedgerService.getCumulativePremium(DAY3.plusDays(1), null)).isEmpty();
+        assertThat(premiumLedgerService.getCumulativePremium(DAY3, DAY1)).isEmpty();
+
+        // The index is loaded once and answers every interval
+        verify(dailyPremiumJdbcRepository, times(1)).findAll();
+    }
+
+    @Test
+    void getCumulativePremium_emptyLedgerShouldBeRebuiltOnFirstUse() {
+        when(dailyPremiumJdbcRepository.isEmpty()).thenReturn(true);
+        givenLedger(new PremiumDay(DAY1, 100));
+
+        assertThat(premiumLedgerService.getCumulativePremium(null, null))
+                .containsExactly(Map.entry(DAY1, new BigDecimal("1.00")));
+        verify(dailyPremiumJdbcRepository).rebuild();
+    }
+
+    @Test
+    void refreshDays_shouldReloadTheIndexOnNextRead() {
+        when(dailyPremiumJdbcRepository.findAll())
+                .thenReturn(List.of(new PremiumDay(DAY1, 100)))
+                .thenReturn(List.of(new PremiumDay(DAY1, 100), new PremiumDay(DAY2, 250)));
+        assertThat(premiumLedgerService.getCumulativePremium(null, null)).hasSize(1);
+
+        premiumLedgerService.refreshDays(Set.of(DAY2));
+
+        verify(dailyPremiumJdbcRepository).refreshDays(Set.of(DAY2));
+        assertThat(premiumLedgerService.getCumulativePremium(null, null))
+                .containsEntry(DAY2, new BigDecimal("3.50"));
+        verify(dailyPremiumJdbcRepository, times(2)).findAll();
+    }
+}
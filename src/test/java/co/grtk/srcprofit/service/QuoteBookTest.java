@@ -0,0 +1,29 @@
+package co.grtk.srcprofit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteBookTest {
+
+    private static final OffsetDateTime OPEN = OffsetDateTime.of(2025, 12, 22, 14, 30, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void put_shouldKeepTheNewestTradeOfATicker() {
+        QuoteBook quoteBook = new QuoteBook();
+
+        quoteBook.put("SPY", new QuoteBook.Trade(601.00, OPEN));
+        quoteBook.put("SPY", new QuoteBook.Trade(601.50, OPEN.plusSeconds(2)));
+        // Delivered late, older than the pending trade
+        quoteBook.put("SPY", new QuoteBook.Trade(601.25, OPEN.plusSeconds(1)));
+        quoteBook.put("QQQ", new QuoteBook.Trade(520.10, OPEN));
+
+        assertThat(quoteBook.size()).isEqualTo(2);
+        assertThat(quoteBook.drain().get("SPY").price()).isEqualTo(601.50);
+        assertThat(quoteBook.size()).isZero();
+        assertThat(quoteBook.drain()).isEmpty();
+    }
+}
@@ -0,0 +1,125 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.AlpacaMarketDataDto;
+import co.grtk.srcprofit.dto.AlpacaSingleAssetDto;
+import co.grtk.srcprofit.dto.AlpacaTradeDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteCacheServiceTest {
+
+    @Mock
+    private AlpacaService alpacaService;
+
+    @Mock
+    private InstrumentService instrumentService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void getQuote_shouldServeRepeatedRequestsFromCache() {
+        QuoteCacheService cache = cache(30);
+        AlpacaMarketDataDto marketData = marketData("AAPL", 180.0);
+        when(alpacaService.getMarketDataSnapshot("AAPL")).thenReturn(marketData);
+
+        assertThat(cache.getQuote("AAPL").getLatestTrade().getPrice()).isEqualTo(180.0);
+        assertThat(cache.getQuote("AAPL").getLatestTrade().getPrice()).isEqualTo(180.0);
+
+        verify(alpacaService, times(1)).getMarketDataSnapshot("AAPL");
+        verify(instrumentService, times(1)).saveAlpacaQuotes(marketData);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void getQuote_shouldServeQuotesPopulatedByTheScheduledRefresh() {
+        QuoteCacheService cache = cache(30);
+        cache.putAll(marketData("MSFT", 410.0));
+
+        assertThat(cache.getQuote("MSFT").getLatestTrade().getPrice()).isEqualTo(410.0);
+
+        verifyNoInteractions(alpacaService, instrumentService);
+    }
+
+    @Test
+    void getQuote_shouldCoalesceConcurrentMisses() throws Exception {
+        QuoteCacheService cache = cache(30);
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(alpacaService.getMarketDataSnapshot("NVDA")).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await(5, TimeUnit.SECONDS);
+            return marketData("NVDA", 120.0);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<AlpacaSingleAssetDto> first = executor.submit(() -> cache.getQuote("NVDA"));
+            assertThat(fetchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<AlpacaSingleAssetDto> second = executor.submit(() -> cache.getQuote("NVDA"));
+            // Wait until the second caller joined the in-flight fetch
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (requests("coalesced") == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            releaseFetch.countDown();
+
+            assertThat(first.get().getLatestTrade().getPrice()).isEqualTo(120.0);
+            assertThat(second.get()).isSameAs(first.get());
+        }
+        verify(alpacaService, times(1)).getMarketDataSnapshot("NVDA");
+        assertThat(requests("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void getQuote_shouldServeStaleQuoteWhileRefreshingInBackground() throws Exception {
+        QuoteCacheService cache = cache(0);
+        cache.putAll(marketData("TSLA", 250.0));
+        CountDownLatch refreshed = new CountDownLatch(1);
+        when(alpacaService.getMarketDataSnapshot("TSLA")).thenAnswer(invocation -> {
+            refreshed.countDown();
+            return marketData("TSLA", 255.0);
+        });
+
+        assertThat(cache.getQuote("TSLA").getLatestTrade().getPrice()).isEqualTo(250.0);
+
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requests("stale")).isEqualTo(1);
+        verify(alpacaService, timeout(5000)).getMarketDataSnapshot("TSLA");
+    }
+
+    private QuoteCacheService cache(long ttlSeconds) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ALPACA_QUOTE_CACHE_TTL_SECONDS", String.valueOf(ttlSeconds))
+                .withProperty("ALPACA_QUOTE_CACHE_MAX_STALE_SECONDS", "300");
+        return new QuoteCacheService(alpacaService, instrumentService, environment, meterRegistry);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("srcprofit.quote.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static AlpacaMarketDataDto marketData(String ticker, double price) {
+        AlpacaTradeDto trade = new AlpacaTradeDto();
+        trade.setPrice(price);
+        AlpacaSingleAssetDto asset = new AlpacaSingleAssetDto();
+        asset.setLatestTrade(trade);
+        AlpacaMarketDataDto marketData = new AlpacaMarketDataDto();
+        marketData.setQuotes(Map.of(ticker, asset));
+        return marketData;
+    }
+}
@@ -0,0 +1,123 @@
+package co.grtk.srcprofit.service;
+
+import co.grtk.srcprofit.dto.ScenarioMatrixDto;
+import co.grtk.srcprofit.entity.InstrumentEntity;
+import co.grtk.srcprofit.entity.OpenPositionEntity;
+import co.grtk.srcprofit.mapper.ScenarioMatrix;
+import co.grtk.srcprofit.repository.OpenPositionRepository;
+import co.grtk.srcprofit.repository.OptionSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScenarioRiskServiceTest {
+
+    private static final ScenarioMatrix.Grid GRID =
+            new ScenarioMatrix.Grid(ScenarioRiskService.DEFAULT_MOVES, ScenarioRiskService.DEFAULT_DAYS);
+
+    @Mock
+    private OpenPositionRepository openPositionRepository;
+
+    @Mock
+    private OptionSnapshotRepository optionSnapshotRepository;
+
+    private ScenarioRiskService scenarioRiskService;
+
+    @BeforeEach
+    void setUp() {
+        scenarioRiskService = new ScenarioRiskService(openPositionRepository, optionSnapshotRepository,
+                new MockEnvironment());
+    }
+
+    @Test
+    void evaluate_shouldRecomputeOnlyTheColumnsWhoseInputsChanged() {
+        InstrumentEntity spy = instrument(1L, "SPY", 600.0);
+        InstrumentEntity aapl = instrument(2L, "AAPL", 230.0);
+        LocalDate expiration = LocalDate.now().plusDays(30);
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(List.of(
+                option(spy, "P", 570.0, -1, expiration),
+                option(spy, "C", 640.0, -1, expiration.plusDays(14)),
+                option(aapl, "P", 215.0, -2, expiration)));
+        when(optionSnapshotRepository.findAverageImpliedVolatilityByInstrument(any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        ScenarioMatrixDto first = scenarioRiskService.evaluate(GRID);
+        assertThat(first.positions()).isEqualTo(3);
+        assertThat(first.underlyings()).isEqualTo(2);
+        assertThat(first.columnsRecomputed()).isEqualTo(2);
+        assertThat(first.pnl()).hasDimensions(GRID.moves().size(), GRID.days().size());
+        // -30%: both puts assigned
+        assertThat(first.putObligation()[0][0]).isEqualTo(570.0 * 100 + 215.0 * 200);
+        assertThat(first.callObligation()[GRID.moves().size() - 1][0]).isCloseTo(600.0 * 1.3 * 100, within(1e-6));
+
+        ScenarioMatrixDto second = scenarioRiskService.evaluate(GRID);
+        assertThat(second.columnsRecomputed()).isZero();
+        assertThat(second.columnsReused()).isEqualTo(2);
+        assertThat(second.pnl()).isDeepEqualTo(first.pnl());
+
+        aapl.setPrice(225.0);
+        ScenarioMatrixDto third = scenarioRiskService.evaluate(GRID);
+        assertThat(third.columnsRecomputed()).isEqualTo(1);
+        assertThat(third.columnsReused()).isEqualTo(1);
+        assertThat(third.pnl()[6][0]).isLessThan(first.pnl()[6][0]);
+    }
+
+    @Test
+    void evaluate_shouldReturnEmptyMatrixWithoutPositions() {
+        when(openPositionRepository.findAllOptionsWithUnderlying()).thenReturn(List.of());
+
+        ScenarioMatrixDto matrix = scenarioRiskService.evaluate(GRID);
+
+        assertThat(matrix.positions()).isZero();
+        assertThat(matrix.pnl()[0][0]).isZero();
+        verifyNoInteractions(optionSnapshotRepository);
+    }
+
+    @Test
+    void evaluate_shouldRejectTooLargeGrid() {
+        List<Double> moves = IntStream.range(0, 200).mapToObj(i -> i / 100.0).toList();
+        List<Integer> days = IntStream.range(0, 100).boxed().toList();
+
+        assertThatThrownBy(() -> scenarioRiskService.evaluate(new ScenarioMatrix.Grid(moves, days)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(openPositionRepository, optionSnapshotRepository);
+    }
+
+    private static InstrumentEntity instrument(Long id, String ticker, double price) {
+        InstrumentEntity instrument = new InstrumentEntity();
+        instrument.setId(id);
+        instrument.setTicker(ticker);
+        instrument.setPrice(price);
+        return instrument;
+    }
+
+    private static OpenPositionEntity option(InstrumentEntity underlying, String putCall, double strike,
+                                             int quantity, LocalDate expiration) {
+        OpenPositionEntity position = new OpenPositionEntity();
+        position.setAssetClass("OPT");
+        position.setUnderlyingSymbol(underlying.getTicker());
+        position.setUnderlyingInstrument(underlying);
+        position.setPutCall(putCall);
+        position.setStrike(strike);
+        position.setQuantity(quantity);
+        position.setMultiplier(100.0);
+        position.setMarkPrice(2.5);
+        position.setExpirationDate(expiration);
+        return position;
+    }
+}
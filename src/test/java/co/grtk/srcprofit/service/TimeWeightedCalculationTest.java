@@ -2,17 +2,10 @@ package co.grtk.srcprofit.service;
 
 import co.grtk.srcprofit.dto.PositionDto;
 import co.grtk.srcprofit.entity.OptionType;
-import co.grtk.srcprofit.repository.InstrumentRepository;
-import co.grtk.srcprofit.repository.OptionRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import co.grtk.srcprofit.mapper.PortfolioFrame;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.lang.reflect.Method;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,22 +13,9 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 
-@ExtendWith(MockitoExtension.class)
 @DisplayName("Time-Weighted Portfolio Calculation Tests (ISSUE-025)")
 class TimeWeightedCalculationTest {
 
-    @Mock
-    private OptionRepository optionRepository;
-
-    @Mock
-    private InstrumentRepository instrumentRepository;
-
-    @Mock
-    private ObjectMapper objectMapper;
-
-    @InjectMocks
-    private OptionService optionService;
-
     private PositionDto createPosition(double positionValue, int daysLeft) {
         PositionDto position = new PositionDto();
         position.setPositionValue(positionValue);
@@ -53,43 +33,21 @@ class TimeWeightedCalculationTest {
         return position;
     }
 
-    /**
-     * Helper to call private calculateNormalizedTimeWeight method via reflection
-     */
-    private double callCalculateNormalizedTimeWeight(Integer daysLeft) throws Exception {
-        Method method = OptionService.class.getDeclaredMethod("calculateNormalizedTimeWeight", Integer.class);
-        method.setAccessible(true);
-        Object result = method.invoke(optionService, daysLeft);
-        return (Double) result;
-    }
-
-    /**
-     * Helper to call private calculateTimeWeightedROI method via reflection
-     */
-    private double callCalculateTimeWeightedROI(List<PositionDto> openPositions) throws Exception {
-        Method method = OptionService.class.getDeclaredMethod("calculateTimeWeightedROI", List.class);
-        method.setAccessible(true);
-        Object result = method.invoke(optionService, openPositions);
-        return (Double) result;
+    private static double timeWeightedRoi(List<PositionDto> openPositions) {
+        return PortfolioFrame.of(openPositions).aggregate().timeWeightedRoi();
     }
 
-    /**
-     * Helper to call private calculateTimeWeightedProbability method via reflection
-     */
-    private double callCalculateTimeWeightedProbability(List<PositionDto> openPositions) throws Exception {
-        Method method = OptionService.class.getDeclaredMethod("calculateTimeWeightedProbability", List.class);
-        method.setAccessible(true);
-        Object result = method.invoke(optionService, openPositions);
-        return (Double) result;
+    private static double timeWeightedProbability(List<PositionDto> openPositions) {
+        return PortfolioFrame.of(openPositions).aggregate().timeWeightedProbability();
     }
 
     // ========== TIME WEIGHT CALCULATION TESTS ==========
 
     @Test
     @DisplayName("Time Weight: 45 DTE baseline = 1.0")
-    void testNormalizedTimeWeight_45DTE_Baseline() throws Exception {
+    void testNormalizedTimeWeight_45DTE_Baseline() {
         // 45 DTE should have normalized weight of 1.0
-        double weight = callCalculateNormalizedTimeWeight(45);
+        double weight = PortfolioFrame.timeWeight(45);
         assertThat(weight)
                 .as("45 DTE (TastyTrade standard) should have weight of 1.0")
                 .isCloseTo(1.0, within(0.01));
@@ -97,9 +55,9 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time Weight: 60 DTE has 15% more weight than 45 DTE")
-    void testNormalizedTimeWeight_60DTE() throws Exception {
+    void testNormalizedTimeWeight_60DTE() {
         // √(60/45) = 1.1547
-        double weight = callCalculateNormalizedTimeWeight(60);
+        double weight = PortfolioFrame.timeWeight(60);
         assertThat(weight)
                 .as("60 DTE should have √(60/45) = 1.15 weight")
                 .isCloseTo(1.15, within(0.01));
@@ -107,9 +65,9 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time Weight: 7 DTE has 61% less weight than 45 DTE")
-    void testNormalizedTimeWeight_7DTE() throws Exception {
+    void testNormalizedTimeWeight_7DTE() {
         // √(7/45) = 0.3944
-        double weight = callCalculateNormalizedTimeWeight(7);
+        double weight = PortfolioFrame.timeWeight(7);
         assertThat(weight)
                 .as("7 DTE should have √(7/45) = 0.39 weight")
                 .isCloseTo(0.39, within(0.01));
@@ -117,9 +75,9 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time Weight: 30 DTE has 18% less weight than 45 DTE")
-    void testNormalizedTimeWeight_30DTE() throws Exception {
+    void testNormalizedTimeWeight_30DTE() {
         // √(30/45) = 0.8165
-        double weight = callCalculateNormalizedTimeWeight(30);
+        double weight = PortfolioFrame.timeWeight(30);
         assertThat(weight)
                 .as("30 DTE should have √(30/45) = 0.82 weight")
                 .isCloseTo(0.82, within(0.01));
@@ -127,27 +85,18 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time Weight: 90 DTE has 41% more weight than 45 DTE")
-    void testNormalizedTimeWeight_90DTE() throws Exception {
+    void testNormalizedTimeWeight_90DTE() {
         // √(90/45) = 1.4142
-        double weight = callCalculateNormalizedTimeWeight(90);
+        double weight = PortfolioFrame.timeWeight(90);
         assertThat(weight)
                 .as("90 DTE should have √(90/45) = 1.41 weight")
                 .isCloseTo(1.41, within(0.01));
     }
 
-    @Test
-    @DisplayName("Time Weight: Null daysLeft returns 0.0")
-    void testNormalizedTimeWeight_Null() throws Exception {
-        double weight = callCalculateNormalizedTimeWeight(null);
-        assertThat(weight)
-                .as("Null daysLeft should return 0.0")
-                .isEqualTo(0.0);
-    }
-
     @Test
     @DisplayName("Time Weight: Zero daysLeft returns 0.0")
-    void testNormalizedTimeWeight_Zero() throws Exception {
-        double weight = callCalculateNormalizedTimeWeight(0);
+    void testNormalizedTimeWeight_Zero() {
+        double weight = PortfolioFrame.timeWeight(0);
         assertThat(weight)
                 .as("Zero daysLeft should return 0.0")
                 .isEqualTo(0.0);
@@ -155,8 +104,8 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time Weight: Negative daysLeft returns 0.0")
-    void testNormalizedTimeWeight_Negative() throws Exception {
-        double weight = callCalculateNormalizedTimeWeight(-5);
+    void testNormalizedTimeWeight_Negative() {
+        double weight = PortfolioFrame.timeWeight(-5);
         assertThat(weight)
                 .as("Negative daysLeft should return 0.0")
                 .isEqualTo(0.0);
@@ -166,7 +115,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Longer DTE dominates portfolio")
-    void testTimeWeightedROI_LongerDTEDominates() throws Exception {
+    void testTimeWeightedROI_LongerDTEDominates() {
         // Position 1: $10,000, 100% ROI, 7 DTE
         PositionDto shortPos = createPosition(10000, 7);
         shortPos.setAnnualizedRoiPercent(100);
@@ -181,7 +130,7 @@ class TimeWeightedCalculationTest {
         // Weight1 = 10000 * √(7/45) = 3,944
         // Weight2 = 10000 * √(60/45) = 11,547
         // ROI = (100*3944 + 30*11547) / 15491 = 47.8%
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Time-weighted ROI should be pulled down by longer-dated position")
@@ -190,13 +139,13 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Single position returns its ROI")
-    void testTimeWeightedROI_SinglePosition() throws Exception {
+    void testTimeWeightedROI_SinglePosition() {
         PositionDto pos = createPosition(5000, 30);
         pos.setAnnualizedRoiPercent(50);
 
         List<PositionDto> openPositions = List.of(pos);
 
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Single position time-weighted ROI should equal its ROI")
@@ -205,8 +154,8 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Empty list returns 0")
-    void testTimeWeightedROI_EmptyList() throws Exception {
-        double timeWeightedROI = callCalculateTimeWeightedROI(new ArrayList<>());
+    void testTimeWeightedROI_EmptyList() {
+        double timeWeightedROI = timeWeightedRoi(new ArrayList<>());
 
         assertThat(timeWeightedROI)
                 .as("Empty position list should return 0")
@@ -215,7 +164,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Equal DTE positions equal capital-weighted")
-    void testTimeWeightedROI_EqualDTE() throws Exception {
+    void testTimeWeightedROI_EqualDTE() {
         PositionDto pos1 = createPosition(5000, 45);
         pos1.setAnnualizedRoiPercent(40);
 
@@ -226,7 +175,7 @@ class TimeWeightedCalculationTest {
 
         // With equal DTE, time weight cancels out
         // Capital-weighted: (40*5000 + 50*10000) / 15000 = 46.67%
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Equal DTE should match capital-weighted calculation")
@@ -235,7 +184,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Three positions with varied DTE")
-    void testTimeWeightedROI_ThreePositions() throws Exception {
+    void testTimeWeightedROI_ThreePositions() {
         // Position A: $10K, 50% ROI, 7 DTE   (short)
         PositionDto posA = createPosition(10000, 7);
         posA.setAnnualizedRoiPercent(50);
@@ -251,7 +200,7 @@ class TimeWeightedCalculationTest {
         List<PositionDto> openPositions = List.of(posA, posB, posC);
 
         // All have same ROI, so result should be 50% regardless of weighting
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Equal ROIs should result in that ROI regardless of time weighting")
@@ -260,7 +209,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted ROI: Null/zero daysLeft skipped gracefully")
-    void testTimeWeightedROI_NullDaysLeft() throws Exception {
+    void testTimeWeightedROI_NullDaysLeft() {
         PositionDto pos1 = createPosition(5000, 30);
         pos1.setAnnualizedRoiPercent(50);
 
@@ -270,7 +219,7 @@ class TimeWeightedCalculationTest {
         List<PositionDto> openPositions = List.of(pos1, pos2);
 
         // Should only use pos1 (pos2 skipped due to zero daysLeft)
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Should skip zero daysLeft and use only valid position")
@@ -281,7 +230,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted Probability: Equal capital, unequal DTE")
-    void testTimeWeightedProbability_UnequalDTE() throws Exception {
+    void testTimeWeightedProbability_UnequalDTE() {
         // Position 1: $5,000, 80% probability, 7 DTE
         PositionDto shortPos = createPosition(5000, 7);
         shortPos.setProbability(80);
@@ -298,7 +247,7 @@ class TimeWeightedCalculationTest {
         // Weight1 = 5000 * √(7/45) = 1,972
         // Weight2 = 5000 * √(60/45) = 5,774
         // Prob = (80*1972 + 40*5774) / 7746 = 50.2%
-        double timeWeightedProb = callCalculateTimeWeightedProbability(openPositions);
+        double timeWeightedProb = timeWeightedProbability(openPositions);
 
         assertThat(timeWeightedProb)
                 .as("Time-weighted probability pulled toward longer-dated position")
@@ -307,14 +256,14 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted Probability: Single position returns its probability")
-    void testTimeWeightedProbability_SinglePosition() throws Exception {
+    void testTimeWeightedProbability_SinglePosition() {
         PositionDto pos = createPosition(5000, 30);
         pos.setProbability(70);
         pos.setAnnualizedRoiPercent(50);
 
         List<PositionDto> openPositions = List.of(pos);
 
-        double timeWeightedProb = callCalculateTimeWeightedProbability(openPositions);
+        double timeWeightedProb = timeWeightedProbability(openPositions);
 
         assertThat(timeWeightedProb)
                 .as("Single position time-weighted probability should equal its probability")
@@ -323,8 +272,8 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted Probability: Empty list returns 0")
-    void testTimeWeightedProbability_EmptyList() throws Exception {
-        double timeWeightedProb = callCalculateTimeWeightedProbability(new ArrayList<>());
+    void testTimeWeightedProbability_EmptyList() {
+        double timeWeightedProb = timeWeightedProbability(new ArrayList<>());
 
         assertThat(timeWeightedProb)
                 .as("Empty position list should return 0")
@@ -333,7 +282,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted Probability: Extreme DTE difference")
-    void testTimeWeightedProbability_ExtremeDifference() throws Exception {
+    void testTimeWeightedProbability_ExtremeDifference() {
         // Position 1: $1,000, 95% probability, 1 DTE (expiring tomorrow)
         PositionDto veryShortPos = createPosition(1000, 1);
         veryShortPos.setProbability(95);
@@ -348,7 +297,7 @@ class TimeWeightedCalculationTest {
 
         // Time weight ratio: √(180/45) / √(1/45) = 2.0 / 0.149 = 13.4×
         // Long position should heavily dominate
-        double timeWeightedProb = callCalculateTimeWeightedProbability(openPositions);
+        double timeWeightedProb = timeWeightedProbability(openPositions);
 
         assertThat(timeWeightedProb)
                 .as("Long-dated position should dominate with extreme DTE difference")
@@ -357,7 +306,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Time-Weighted Probability: Null probability skipped")
-    void testTimeWeightedProbability_NullProbability() throws Exception {
+    void testTimeWeightedProbability_NullProbability() {
         PositionDto pos1 = createPosition(5000, 30);
         pos1.setProbability(70);
         pos1.setAnnualizedRoiPercent(50);
@@ -369,7 +318,7 @@ class TimeWeightedCalculationTest {
         List<PositionDto> openPositions = List.of(pos1, pos2);
 
         // Should only use pos1
-        double timeWeightedProb = callCalculateTimeWeightedProbability(openPositions);
+        double timeWeightedProb = timeWeightedProbability(openPositions);
 
         assertThat(timeWeightedProb)
                 .as("Should skip null probability and use only valid position")
@@ -380,7 +329,7 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Comparison: Time-weighted differs from capital-weighted for unequal DTE")
-    void testComparison_TimeVsCapital_UnequalDTE() throws Exception {
+    void testComparison_TimeVsCapital_UnequalDTE() {
         // Create positions with same capital but different DTE and ROIs
         PositionDto pos1 = createPosition(10000, 10);  // 10 DTE, short-term
         pos1.setAnnualizedRoiPercent(80);
@@ -396,8 +345,8 @@ class TimeWeightedCalculationTest {
         // Time-weighted: Long position gets √(90/45)/√(10/45) = 3× more weight
         // Should pull metrics toward long position (40%, 60%)
 
-        double timeWeightedROI = callCalculateTimeWeightedROI(openPositions);
-        double timeWeightedProb = callCalculateTimeWeightedProbability(openPositions);
+        double timeWeightedROI = timeWeightedRoi(openPositions);
+        double timeWeightedProb = timeWeightedProbability(openPositions);
 
         assertThat(timeWeightedROI)
                 .as("Time-weighted ROI should be pulled toward long position")
@@ -412,10 +361,10 @@ class TimeWeightedCalculationTest {
 
     @Test
     @DisplayName("Verification: Time weighting matches theoretical sqrt(t) scaling")
-    void testVerification_SqrtTimeScaling() throws Exception {
+    void testVerification_SqrtTimeScaling() {
         // Verify that weight ratio matches sqrt ratio
-        double weight30 = callCalculateNormalizedTimeWeight(30);
-        double weight60 = callCalculateNormalizedTimeWeight(60);
+        double weight30 = PortfolioFrame.timeWeight(30);
+        double weight60 = PortfolioFrame.timeWeight(60);
 
         double ratio = weight60 / weight30;
         double expectedRatio = Math.sqrt(60.0 / 30.0);  // = √2 = 1.414